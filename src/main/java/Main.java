@@ -2,6 +2,8 @@ import api.texttospeechservice.TextToSpeechService;
 import config.DataAccessConfig;
 import usecase.createverification.CreateVerificationController;
 import usecase.createverification.CreateVerificationUseCaseFactory;
+import usecase.findcandidates.FindCandidatesController;
+import usecase.findcandidates.FindCandidatesUseCaseFactory;
 import usecase.loginuser.LoginUserController;
 import usecase.loginuser.LoginUserUseCaseFactory;
 import usecase.logout.LogoutController;
@@ -18,6 +20,10 @@ import usecase.manageusers.getloggedinuser.GetLoggedInUserController;
 import usecase.manageusers.getloggedinuser.GetLoggedInUserUseCaseFactory;
 import usecase.manageusers.getusers.GetUsersInteractor;
 import usecase.manageusers.getusers.GetUsersPresenter;
+import usecase.recommendprojects.RecommendProjectsController;
+import usecase.recommendprojects.RecommendProjectsUseCaseFactory;
+import usecase.relatedprojects.RelatedProjectsController;
+import usecase.relatedprojects.RelatedProjectsUseCaseFactory;
 import usecase.searchforproject.SearchProjectController;
 import usecase.searchforproject.SearchProjectUseCaseFactory;
 import view.*;
@@ -60,6 +66,9 @@ class Main {
             @Override
             public void windowClosing(WindowEvent windowEvent) {
                 TextToSpeechService.shutdown();
+                SearchProjectUseCaseFactory.saveIndexSnapshot();
+                RelatedProjectsUseCaseFactory.saveRelatedProjectsSnapshot();
+                DataAccessConfig.closeEmbeddingAPI();
                 System.out.println("Closing app");
                 System.exit(0);
             }
@@ -67,6 +76,7 @@ class Main {
 
         // Print which data access implementation is used
         System.out.println(DataAccessConfig.getImplementation());
+        DataAccessConfig.updateProjectEmbeddings();
 
         printLoadingBar(76, "Starting app");
 
@@ -105,9 +115,12 @@ class Main {
         // Search Project Panel
         printLoadingBar(110, "Creating search panel");
         SearchProjectController searchProjectController = SearchProjectUseCaseFactory.createSearchProjectController(searchPanelViewModel);
+        RecommendProjectsController recommendProjectsController = RecommendProjectsUseCaseFactory.createRecommendProjectsController(searchPanelViewModel);
         GetLoggedInUserController searchPanelGetLoggedInUserController = GetLoggedInUserUseCaseFactory.create(searchPanelViewModel);
         CreateApplicationController createApplicationController = CreateApplicationUseCaseFactory.createController(searchPanelViewModel);
-        SearchPanel searchPanel = new SearchPanel(viewManagerModel, searchPanelViewModel, searchProjectController, searchPanelGetLoggedInUserController, createApplicationController);
+        RelatedProjectsViewModel relatedProjectsViewModel = new RelatedProjectsViewModel();
+        RelatedProjectsController relatedProjectsController = RelatedProjectsUseCaseFactory.createRelatedProjectsController(relatedProjectsViewModel);
+        SearchPanel searchPanel = new SearchPanel(viewManagerModel, searchPanelViewModel, searchProjectController, recommendProjectsController, relatedProjectsController, relatedProjectsViewModel, searchPanelGetLoggedInUserController, createApplicationController);
 
 
         // Manage Projects
@@ -146,6 +159,7 @@ class Main {
         // My Projects Panel
         printLoadingBar(156, "Creating my projects panel");
         GetLoggedInUserController getLoggedInUserController = GetLoggedInUserUseCaseFactory.create(myProjectsViewModel);
+        FindCandidatesController findCandidatesController = FindCandidatesUseCaseFactory.createFindCandidatesController(myProjectsViewModel);
         UsersPanel usersPanel = new UsersPanel();
         MyProjectsPanel myProjectsPanel = new MyProjectsPanel(
                 myProjectsViewModel,
@@ -153,6 +167,7 @@ class Main {
                 getLoggedInUserController,
                 manageProjectsController,
                 manageUsersController,
+                findCandidatesController,
                 editProjectPanelViewModel,
                 editProjectPanel,
                 usersPanel
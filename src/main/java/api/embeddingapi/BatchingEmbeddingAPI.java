@@ -0,0 +1,205 @@
+package api.embeddingapi;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Batching decorator for an EmbeddingAPIInterface.
+ * Requests for single texts are not sent at once but collected into a batch, which is sent to the delegate as one
+ * bulk request when it holds {@code maxBatchSize} distinct texts or when the window after its first text has passed,
+ * whichever comes first. Each caller then receives the embedding of its own text. Identical texts in a batch are sent
+ * once.
+ * <p>
+ * Concurrent callers thus share one round trip to the API, at the cost of waiting up to the window for it. A caller
+ * that is alone, with no batch pending or in flight, does not wait: its text is sent at once, and only the texts
+ * requested while it is in flight are batched. Bulk requests are already batched and go to the delegate directly.
+ */
+public class BatchingEmbeddingAPI implements EmbeddingAPIInterface {
+    private final EmbeddingAPIInterface delegate;
+    private final int maxBatchSize;
+    private final Executor flushExecutor;
+    private LinkedHashMap<String, CompletableFuture<float[]>> pending = new LinkedHashMap<>();
+    private int inFlightCount = 0;
+    private long batchCount = 0;
+    private long textCount = 0;
+
+    /**
+     * Constructs a batching decorator that flushes its batches on the common pool.
+     *
+     * @param delegate the embedding API that embeds the batches
+     * @param maxBatchSize the number of distinct texts at which a batch is sent at once
+     * @param window how long a batch waits for more texts after its first one
+     */
+    public BatchingEmbeddingAPI(EmbeddingAPIInterface delegate, int maxBatchSize, Duration window) {
+        this(delegate, maxBatchSize, window, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Constructs a batching decorator.
+     *
+     * @param delegate the embedding API that embeds the batches
+     * @param maxBatchSize the number of distinct texts at which a batch is sent at once
+     * @param window how long a batch waits for more texts after its first one
+     * @param executor the executor that sends the batches whose window has passed
+     */
+    public BatchingEmbeddingAPI(EmbeddingAPIInterface delegate, int maxBatchSize, Duration window,
+                                Executor executor) {
+        if (maxBatchSize < 1) {
+            throw new IllegalArgumentException("The batch size must be at least 1");
+        }
+        this.delegate = delegate;
+        this.maxBatchSize = maxBatchSize;
+        this.flushExecutor = window.isZero() || window.isNegative() ? executor
+                : CompletableFuture.delayedExecutor(window.toNanos(), TimeUnit.NANOSECONDS, executor);
+    }
+
+    /**
+     * Returns the embedding for the given text once the batch it joins has been embedded.
+     *
+     * @param text the text to be used for embedding
+     * @return an array of floats representing the embedding
+     */
+    @Override
+    public float[] getEmbedData(String text) {
+        return EmbeddingFutures.join(getEmbedDataAsync(text));
+    }
+
+    /**
+     * Adds the given text to the current batch and returns at once.
+     *
+     * @param text the text to be used for embedding
+     * @return a future completed with the embedding once the batch has been embedded
+     */
+    @Override
+    public CompletableFuture<float[]> getEmbedDataAsync(String text) {
+        CompletableFuture<float[]> embedding;
+        LinkedHashMap<String, CompletableFuture<float[]>> started = null;
+        LinkedHashMap<String, CompletableFuture<float[]>> full = null;
+        synchronized (this) {
+            embedding = pending.get(text);
+            if (embedding == null) {
+                embedding = new CompletableFuture<>();
+                pending.put(text, embedding);
+                if (pending.size() >= maxBatchSize || inFlightCount == 0) {
+                    full = takeBatch(); // full, or alone: no other caller to wait for
+                }
+                else if (pending.size() == 1) {
+                    started = pending;
+                }
+            }
+        }
+        if (full != null) {
+            send(full);
+        }
+        else if (started != null) {
+            LinkedHashMap<String, CompletableFuture<float[]>> batch = started;
+            flushExecutor.execute(() -> flush(batch));
+        }
+        // Each caller gets its own copy of the embedding, even if its text was requested twice
+        return embedding.thenApply(float[]::clone);
+    }
+
+    /**
+     * Returns an embedding for each of the given texts with one bulk request to the delegate.
+     *
+     * @param texts the texts to be used for embedding
+     * @return the embeddings, in the order of the texts
+     */
+    @Override
+    public List<float[]> getEmbedData(List<String> texts) {
+        return delegate.getEmbedData(texts);
+    }
+
+    /**
+     * Requests an embedding for each of the given texts with one bulk request to the delegate.
+     *
+     * @param texts the texts to be used for embedding
+     * @return a future completed with the embeddings, in the order of the texts
+     */
+    @Override
+    public CompletableFuture<List<float[]>> getEmbedDataAsync(List<String> texts) {
+        return delegate.getEmbedDataAsync(texts);
+    }
+
+    /**
+     * Returns the number of batches sent to the delegate.
+     *
+     * @return the batch count
+     */
+    public synchronized long getBatchCount() {
+        return batchCount;
+    }
+
+    /**
+     * Returns the number of distinct texts sent to the delegate in batches.
+     *
+     * @return the text count
+     */
+    public synchronized long getTextCount() {
+        return textCount;
+    }
+
+    /**
+     * Sends a batch whose window has passed, unless it was already sent because it was full.
+     */
+    private void flush(LinkedHashMap<String, CompletableFuture<float[]>> batch) {
+        synchronized (this) {
+            if (batch != pending) {
+                return;
+            }
+            takeBatch();
+        }
+        send(batch);
+    }
+
+    /**
+     * Removes the current batch so that the next text starts a new one, and counts it as in flight.
+     */
+    private LinkedHashMap<String, CompletableFuture<float[]>> takeBatch() {
+        LinkedHashMap<String, CompletableFuture<float[]>> batch = pending;
+        pending = new LinkedHashMap<>();
+        inFlightCount++;
+        batchCount++;
+        textCount += batch.size();
+        return batch;
+    }
+
+    /**
+     * Embeds the texts of a batch with one bulk request and completes the future of each text.
+     */
+    private void send(LinkedHashMap<String, CompletableFuture<float[]>> batch) {
+        ArrayList<String> texts = new ArrayList<>(batch.keySet());
+        CompletableFuture<List<float[]>> embeddings;
+        try {
+            embeddings = delegate.getEmbedDataAsync(texts);
+        } catch (RuntimeException e) {
+            embeddings = CompletableFuture.failedFuture(e);
+        }
+        embeddings.whenComplete((result, error) -> {
+            synchronized (this) {
+                inFlightCount--;
+            }
+            Throwable failure = error;
+            if (failure == null && result.size() != texts.size()) {
+                failure = new IllegalStateException("Received " + result.size() + " embeddings for " + texts.size()
+                        + " texts");
+            }
+            int i = 0;
+            for (Map.Entry<String, CompletableFuture<float[]>> entry : batch.entrySet()) {
+                if (failure != null) {
+                    entry.getValue().completeExceptionally(failure);
+                }
+                else {
+                    entry.getValue().complete(result.get(i++));
+                }
+            }
+        });
+    }
+}
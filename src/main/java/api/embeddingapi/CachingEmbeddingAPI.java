@@ -0,0 +1,413 @@
+package api.embeddingapi;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.text.Normalizer;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Caching decorator for an EmbeddingAPIInterface.
+ * Texts that differ only in case, Unicode form or whitespace share one entry, so a repeated search skips the
+ * network round trip. Entries are evicted when they are least recently used and the cache is full, or when they are
+ * older than the time to live.
+ * <p>
+ * If a file is given, the cache is kept in it, so a restarted application starts warm. Like
+ * {@link ContentAddressedEmbeddingCache}, the file is a log: each new embedding, and each hit, is appended as one
+ * record, so a miss costs one small write rather than a rewrite of the whole cache. On construction the log is
+ * replayed, and once it holds twice as many records as the cache can hold entries, it is rewritten with the live
+ * entries only. Keys are written as length-prefixed UTF-8, so queries of any length can be saved. Empty embeddings
+ * (e.g. when no API key is set) are never cached.
+ */
+public class CachingEmbeddingAPI implements EmbeddingAPIInterface {
+    private static final int FILE_VERSION = 2;
+    private static final byte ENTRY_RECORD = 1;
+    private static final byte HIT_RECORD = 2;
+    private static final int MAX_KEY_BYTES = 1 << 24;
+    private static final int MAX_DIMENSION = 1 << 16;
+
+    private final EmbeddingAPIInterface delegate;
+    private final int maxEntries;
+    private final long ttlMillis;
+    private final Path cacheFile;
+    private final Clock clock;
+    private final LinkedHashMap<String, CachedEmbedding> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private DataOutputStream log;
+    private long logRecords = 0;
+
+    private long hitCount = 0;
+    private long missCount = 0;
+    private long evictionCount = 0;
+
+    /**
+     * Constructs an in-memory cache in front of the given embedding API.
+     *
+     * @param delegate the embedding API to call on a miss
+     * @param maxEntries the number of embeddings to keep
+     * @param ttl how long an embedding stays valid
+     */
+    public CachingEmbeddingAPI(EmbeddingAPIInterface delegate, int maxEntries, Duration ttl) {
+        this(delegate, maxEntries, ttl, null, Clock.systemUTC());
+    }
+
+    /**
+     * Constructs a cache in front of the given embedding API that persists its entries to a file.
+     *
+     * @param delegate the embedding API to call on a miss
+     * @param maxEntries the number of embeddings to keep
+     * @param ttl how long an embedding stays valid
+     * @param cacheFile the file to load entries from and save them to, or null to keep them in memory only
+     * @param clock the clock used to expire entries
+     */
+    public CachingEmbeddingAPI(EmbeddingAPIInterface delegate, int maxEntries, Duration ttl, Path cacheFile,
+                               Clock clock) {
+        this.delegate = delegate;
+        this.maxEntries = maxEntries;
+        this.ttlMillis = ttl.toMillis();
+        this.cacheFile = cacheFile;
+        this.clock = clock;
+        if (cacheFile != null) {
+            boolean complete = Files.exists(cacheFile) && load();
+            if (complete && logRecords <= 2L * Math.max(maxEntries, 1)) {
+                openLog();
+            }
+            else {
+                compact();
+            }
+        }
+    }
+
+    /**
+     * Returns the embedding for the given text, from the cache if possible.
+     *
+     * @param text the text to be used for embedding
+     * @return an array of floats representing the embedding
+     */
+    @Override
+    public float[] getEmbedData(String text) {
+        String key = normalizeKey(text);
+        float[] cached = lookup(key);
+        if (cached != null) {
+            return cached;
+        }
+        float[] embedding = delegate.getEmbedData(text);
+        store(key, embedding);
+        return embedding;
+    }
+
+    /**
+     * Returns the embedding for the given text from the cache if possible, and otherwise requests it from the
+     * embedding API without waiting for it.
+     *
+     * @param text the text to be used for embedding
+     * @return a future completed with the embedding
+     */
+    @Override
+    public CompletableFuture<float[]> getEmbedDataAsync(String text) {
+        String key = normalizeKey(text);
+        float[] cached = lookup(key);
+        if (cached != null) {
+            return CompletableFuture.completedFuture(cached);
+        }
+        return delegate.getEmbedDataAsync(text).thenApply(embedding -> {
+            store(key, embedding);
+            return embedding;
+        });
+    }
+
+    /**
+     * Returns the embeddings for the given texts, from the cache where possible. The texts that miss are embedded
+     * with one bulk request to the embedding API and cached together.
+     *
+     * @param texts the texts to be used for embedding
+     * @return the embeddings, in the order of the texts
+     */
+    @Override
+    public List<float[]> getEmbedData(List<String> texts) {
+        ArrayList<float[]> embeddings = new ArrayList<>(texts.size());
+        LinkedHashMap<String, String> misses = new LinkedHashMap<>();
+        for (String text : texts) {
+            String key = normalizeKey(text);
+            float[] cached = misses.containsKey(key) ? null : lookup(key);
+            if (cached == null) {
+                misses.putIfAbsent(key, text);
+            }
+            embeddings.add(cached);
+        }
+        if (misses.isEmpty()) {
+            return embeddings;
+        }
+        List<float[]> fetched = delegate.getEmbedData(new ArrayList<>(misses.values()));
+        LinkedHashMap<String, float[]> byKey = new LinkedHashMap<>();
+        int i = 0;
+        for (String key : misses.keySet()) {
+            byKey.put(key, fetched.get(i++));
+        }
+        store(byKey);
+        for (int t = 0; t < texts.size(); t++) {
+            if (embeddings.get(t) == null) {
+                embeddings.set(t, byKey.get(normalizeKey(texts.get(t))).clone());
+            }
+        }
+        return embeddings;
+    }
+
+    /**
+     * Returns the key under which a text is cached: Unicode NFKC form, lower case, with runs of whitespace
+     * collapsed to one space and trimmed.
+     *
+     * @param text the text
+     * @return the cache key
+     */
+    public static String normalizeKey(String text) {
+        String normalized = Normalizer.normalize(text, Normalizer.Form.NFKC);
+        return normalized.toLowerCase(Locale.ROOT).trim().replaceAll("\\s+", " ");
+    }
+
+    /**
+     * Returns the number of lookups answered from the cache.
+     *
+     * @return the hit count
+     */
+    public synchronized long getHitCount() {
+        return hitCount;
+    }
+
+    /**
+     * Returns the number of lookups that had to call the embedding API.
+     *
+     * @return the miss count
+     */
+    public synchronized long getMissCount() {
+        return missCount;
+    }
+
+    /**
+     * Returns the number of entries removed because the cache was full or they expired.
+     *
+     * @return the eviction count
+     */
+    public synchronized long getEvictionCount() {
+        return evictionCount;
+    }
+
+    /**
+     * Returns the number of cached embeddings.
+     *
+     * @return the cache size
+     */
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    /**
+     * Returns a copy of the unexpired embedding cached under a key, or null on a miss.
+     */
+    private synchronized float[] lookup(String key) {
+        CachedEmbedding cached = entries.get(key);
+        if (cached != null && cached.expiresAt() > clock.millis()) {
+            hitCount++;
+            append(HIT_RECORD, key, null);
+            return cached.embedding().clone();
+        }
+        if (cached != null) {
+            entries.remove(key);
+            evictionCount++;
+        }
+        missCount++;
+        return null;
+    }
+
+    /**
+     * Caches an embedding returned by the embedding API, unless it is empty.
+     */
+    private void store(String key, float[] embedding) {
+        store(Map.of(key, embedding));
+    }
+
+    /**
+     * Caches the non-empty embeddings returned by the embedding API and appends them to the log.
+     */
+    private synchronized void store(Map<String, float[]> embeddings) {
+        long expiresAt = clock.millis() + ttlMillis;
+        for (Map.Entry<String, float[]> entry : embeddings.entrySet()) {
+            if (entry.getValue().length > 0) {
+                CachedEmbedding cached = new CachedEmbedding(entry.getValue().clone(), expiresAt);
+                entries.put(entry.getKey(), cached);
+                append(ENTRY_RECORD, entry.getKey(), cached);
+            }
+        }
+        evictOverflow();
+    }
+
+    /**
+     * Removes the least recently used entries until the cache fits its maximum size.
+     */
+    private void evictOverflow() {
+        Iterator<CachedEmbedding> eldest = entries.values().iterator();
+        while (entries.size() > maxEntries && eldest.hasNext()) {
+            eldest.next();
+            eldest.remove();
+            evictionCount++;
+        }
+    }
+
+    /**
+     * Appends a record to the log, and rewrites the log once it has grown to twice the size of the cache.
+     */
+    private void append(byte type, String key, CachedEmbedding cached) {
+        if (log == null) {
+            return;
+        }
+        try {
+            writeRecord(log, type, key, cached);
+            log.flush();
+            logRecords++;
+        } catch (IOException e) {
+            System.err.println("Could not append to embedding cache: " + e.getMessage());
+        }
+        if (logRecords > 2L * Math.max(maxEntries, entries.size())) {
+            compact();
+        }
+    }
+
+    private static void writeRecord(DataOutputStream out, byte type, String key, CachedEmbedding cached)
+            throws IOException {
+        byte[] keyBytes = key.getBytes(StandardCharsets.UTF_8);
+        out.writeByte(type);
+        out.writeInt(keyBytes.length);
+        out.write(keyBytes);
+        if (type == ENTRY_RECORD) {
+            float[] embedding = cached.embedding();
+            ByteBuffer values = ByteBuffer.allocate(embedding.length * Float.BYTES);
+            values.asFloatBuffer().put(embedding);
+            out.writeLong(cached.expiresAt());
+            out.writeInt(embedding.length);
+            out.write(values.array());
+        }
+    }
+
+    /**
+     * Rewrites the log with one record per unexpired entry, least recently used first, and reopens it for
+     * appending. The file is replaced atomically, so a crash never leaves a truncated cache behind.
+     */
+    private void compact() {
+        long now = clock.millis();
+        try {
+            if (log != null) {
+                log.close();
+                log = null;
+            }
+            Path parent = cacheFile.toAbsolutePath().getParent();
+            Files.createDirectories(parent);
+            Path temporary = Files.createTempFile(parent, "embeddings", ".tmp");
+            long written = 0;
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temporary)))) {
+                out.writeInt(FILE_VERSION);
+                for (Map.Entry<String, CachedEmbedding> entry : entries.entrySet()) {
+                    if (entry.getValue().expiresAt() > now) {
+                        writeRecord(out, ENTRY_RECORD, entry.getKey(), entry.getValue());
+                        written++;
+                    }
+                }
+            }
+            Files.move(temporary, cacheFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            logRecords = written;
+        } catch (IOException e) {
+            System.err.println("Could not save embedding cache: " + e.getMessage());
+            return;
+        }
+        openLog();
+    }
+
+    private void openLog() {
+        try {
+            log = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(cacheFile,
+                    StandardOpenOption.APPEND)));
+        } catch (IOException e) {
+            System.err.println("Could not open embedding cache: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Replays the log into the cache, keeping the unexpired entries. Returns false if the log is unreadable, from
+     * an older version, or ends in a partly written or corrupt record, in which case the entries read so far are
+     * kept and the log must be rewritten before appending to it.
+     */
+    private boolean load() {
+        long now = clock.millis();
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(cacheFile)))) {
+            if (in.readInt() != FILE_VERSION) {
+                return false;
+            }
+            while (true) {
+                int type = in.read();
+                if (type < 0) {
+                    return true;
+                }
+                int keyLength = in.readInt();
+                if (keyLength < 0 || keyLength > MAX_KEY_BYTES) {
+                    return false;
+                }
+                byte[] keyBytes = new byte[keyLength];
+                in.readFully(keyBytes);
+                String key = new String(keyBytes, StandardCharsets.UTF_8);
+                if (type == ENTRY_RECORD) {
+                    long expiresAt = in.readLong();
+                    int dimension = in.readInt();
+                    if (dimension <= 0 || dimension > MAX_DIMENSION) {
+                        return false;
+                    }
+                    float[] embedding = new float[dimension];
+                    byte[] values = new byte[dimension * Float.BYTES];
+                    in.readFully(values);
+                    ByteBuffer.wrap(values).asFloatBuffer().get(embedding);
+                    if (expiresAt > now) {
+                        entries.put(key, new CachedEmbedding(embedding, expiresAt));
+                        evictOverflow();
+                    }
+                }
+                else if (type == HIT_RECORD) {
+                    entries.get(key);
+                }
+                else {
+                    return false;
+                }
+                logRecords++;
+            }
+        } catch (EOFException e) {
+            return false;
+        } catch (IOException e) {
+            System.err.println("Could not load embedding cache: " + e);
+            return false;
+        } finally {
+            // Entries evicted while replaying the log were evicted before
+            evictionCount = 0;
+        }
+    }
+
+    /**
+     * A cached embedding and the time, in epoch milliseconds, at which it expires.
+     *
+     * @param embedding the embedding
+     * @param expiresAt the expiry time
+     */
+    private record CachedEmbedding(float[] embedding, long expiresAt) { }
+}
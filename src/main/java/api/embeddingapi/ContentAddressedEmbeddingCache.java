@@ -0,0 +1,411 @@
+package api.embeddingapi;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Persistent cache for an EmbeddingAPIInterface, keyed by the SHA-256 hash of the model name and the exact text.
+ * An embedding depends only on these two, so a cached one never expires: saving a project whose description did not
+ * change, or creating one with a description embedded before, does not call the API. The least recently used entries
+ * are evicted when the cache is full.
+ * <p>
+ * If a file is given, the cache is kept in it as a log: each new embedding, and each hit, is appended as one record,
+ * so saving costs a few bytes rather than a rewrite. New embeddings are written at once. Hits only keep the recency
+ * order, which may be approximate, so they are buffered and written with the next new embedding, a rewrite or
+ * {@link #close()}, keeping disk writes off the hit path. On construction the log is replayed, restoring the entries
+ * in their least recently used order. When the log holds more than twice as many records as the cache can hold
+ * entries, it is rewritten with the live entries only. Empty embeddings (e.g. when no API key is set) are never
+ * cached.
+ */
+public class ContentAddressedEmbeddingCache implements EmbeddingAPIInterface {
+    private static final int FILE_VERSION = 1;
+    private static final byte ENTRY_RECORD = 1;
+    private static final byte HIT_RECORD = 2;
+    private static final int MAX_DIMENSION = 1 << 16;
+
+    private final EmbeddingAPIInterface delegate;
+    private final byte[] model;
+    private final int maxEntries;
+    private final Path cacheFile;
+    private final LinkedHashMap<ContentKey, float[]> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private DataOutputStream log;
+    private long logRecords = 0;
+
+    private long hitCount = 0;
+    private long missCount = 0;
+    private long evictionCount = 0;
+
+    /**
+     * Constructs a cache in front of the given embedding API that keeps its entries in the given file.
+     *
+     * @param delegate the embedding API to call on a miss
+     * @param model the name of the model the delegate embeds with; texts embedded by other models never match
+     * @param maxEntries the number of embeddings to keep
+     * @param cacheFile the file to load entries from and append them to, or null to keep them in memory only
+     */
+    public ContentAddressedEmbeddingCache(EmbeddingAPIInterface delegate, String model, int maxEntries,
+                                          Path cacheFile) {
+        this.delegate = delegate;
+        this.model = model.getBytes(StandardCharsets.UTF_8);
+        this.maxEntries = maxEntries;
+        this.cacheFile = cacheFile;
+        if (cacheFile != null) {
+            boolean complete = Files.exists(cacheFile) && load();
+            if (complete && !logTooLong()) {
+                openLog();
+            }
+            else {
+                compact();
+            }
+        }
+    }
+
+    /**
+     * Returns the embedding for the given text, from the cache if the same text was embedded before.
+     *
+     * @param text the text to be used for embedding
+     * @return an array of floats representing the embedding
+     */
+    @Override
+    public float[] getEmbedData(String text) {
+        ContentKey key = contentKey(text);
+        float[] cached = lookup(key);
+        if (cached != null) {
+            return cached;
+        }
+        float[] embedding = delegate.getEmbedData(text);
+        store(Map.of(key, embedding));
+        return embedding;
+    }
+
+    /**
+     * Returns the embedding for the given text from the cache if possible, and otherwise requests it from the
+     * embedding API without waiting for it.
+     *
+     * @param text the text to be used for embedding
+     * @return a future completed with the embedding
+     */
+    @Override
+    public CompletableFuture<float[]> getEmbedDataAsync(String text) {
+        ContentKey key = contentKey(text);
+        float[] cached = lookup(key);
+        if (cached != null) {
+            return CompletableFuture.completedFuture(cached);
+        }
+        return delegate.getEmbedDataAsync(text).thenApply(embedding -> {
+            store(Map.of(key, embedding));
+            return embedding;
+        });
+    }
+
+    /**
+     * Returns the embeddings for the given texts, from the cache where possible. The texts that miss are embedded
+     * with one bulk request to the embedding API.
+     *
+     * @param texts the texts to be used for embedding
+     * @return the embeddings, in the order of the texts
+     */
+    @Override
+    public List<float[]> getEmbedData(List<String> texts) {
+        ArrayList<ContentKey> keys = new ArrayList<>(texts.size());
+        ArrayList<float[]> embeddings = new ArrayList<>(texts.size());
+        LinkedHashMap<ContentKey, String> misses = new LinkedHashMap<>();
+        for (String text : texts) {
+            ContentKey key = contentKey(text);
+            float[] cached = misses.containsKey(key) ? null : lookup(key);
+            if (cached == null) {
+                misses.putIfAbsent(key, text);
+            }
+            keys.add(key);
+            embeddings.add(cached);
+        }
+        if (misses.isEmpty()) {
+            return embeddings;
+        }
+        List<float[]> fetched = delegate.getEmbedData(new ArrayList<>(misses.values()));
+        LinkedHashMap<ContentKey, float[]> byKey = new LinkedHashMap<>();
+        int i = 0;
+        for (ContentKey key : misses.keySet()) {
+            byKey.put(key, fetched.get(i++));
+        }
+        store(byKey);
+        for (int t = 0; t < texts.size(); t++) {
+            if (embeddings.get(t) == null) {
+                embeddings.set(t, byKey.get(keys.get(t)).clone());
+            }
+        }
+        return embeddings;
+    }
+
+    /**
+     * Returns the number of lookups answered from the cache.
+     *
+     * @return the hit count
+     */
+    public synchronized long getHitCount() {
+        return hitCount;
+    }
+
+    /**
+     * Returns the number of lookups that had to call the embedding API.
+     *
+     * @return the miss count
+     */
+    public synchronized long getMissCount() {
+        return missCount;
+    }
+
+    /**
+     * Returns the fraction of lookups answered from the cache.
+     *
+     * @return the hit rate, or 0 if nothing was looked up yet
+     */
+    public synchronized double getHitRate() {
+        long lookups = hitCount + missCount;
+        return lookups == 0 ? 0 : (double) hitCount / lookups;
+    }
+
+    /**
+     * Returns the number of entries removed because the cache was full.
+     *
+     * @return the eviction count
+     */
+    public synchronized long getEvictionCount() {
+        return evictionCount;
+    }
+
+    /**
+     * Returns the number of cached embeddings.
+     *
+     * @return the cache size
+     */
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    /**
+     * Writes the buffered hits to the cache file and closes it. The cache keeps working in memory afterwards.
+     */
+    public synchronized void close() {
+        if (log == null) {
+            return;
+        }
+        try {
+            log.close();
+        } catch (IOException e) {
+            System.err.println("Could not save embedding cache: " + e.getMessage());
+        }
+        log = null;
+    }
+
+    /**
+     * Returns the key of a text: the SHA-256 hash of the model name, a zero byte and the UTF-8 text.
+     */
+    private ContentKey contentKey(String text) {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+        digest.update(model);
+        digest.update((byte) 0);
+        ByteBuffer hash = ByteBuffer.wrap(digest.digest(text.getBytes(StandardCharsets.UTF_8)));
+        return new ContentKey(hash.getLong(), hash.getLong(), hash.getLong(), hash.getLong());
+    }
+
+    /**
+     * Returns a copy of the embedding cached under a key and records the hit, or returns null on a miss.
+     */
+    private synchronized float[] lookup(ContentKey key) {
+        float[] cached = entries.get(key);
+        if (cached == null) {
+            missCount++;
+            return null;
+        }
+        hitCount++;
+        append(HIT_RECORD, key, null);
+        return cached.clone();
+    }
+
+    /**
+     * Caches the non-empty embeddings returned by the embedding API and appends them to the log.
+     */
+    private synchronized void store(Map<ContentKey, float[]> embeddings) {
+        for (Map.Entry<ContentKey, float[]> entry : embeddings.entrySet()) {
+            if (entry.getValue().length > 0) {
+                entries.put(entry.getKey(), entry.getValue().clone());
+                append(ENTRY_RECORD, entry.getKey(), entry.getValue());
+            }
+        }
+        evictOverflow();
+    }
+
+    /**
+     * Removes the least recently used entries until the cache fits its maximum size.
+     */
+    private void evictOverflow() {
+        Iterator<float[]> eldest = entries.values().iterator();
+        while (entries.size() > maxEntries && eldest.hasNext()) {
+            eldest.next();
+            eldest.remove();
+            evictionCount++;
+        }
+    }
+
+    /**
+     * Appends a record to the log, and rewrites the log once it is too long. A hit stays in the buffer until a new
+     * embedding is appended.
+     */
+    private void append(byte type, ContentKey key, float[] embedding) {
+        if (log == null) {
+            return;
+        }
+        try {
+            writeRecord(log, type, key, embedding);
+            if (type == ENTRY_RECORD) {
+                log.flush();
+            }
+            logRecords++;
+        } catch (IOException e) {
+            System.err.println("Could not append to embedding cache: " + e.getMessage());
+        }
+        if (logTooLong()) {
+            compact();
+        }
+    }
+
+    /**
+     * Returns whether the log holds more than twice as many records as the cache can hold entries, and should be
+     * rewritten.
+     */
+    private boolean logTooLong() {
+        return logRecords > 2L * Math.max(maxEntries, 1);
+    }
+
+    private static void writeRecord(DataOutputStream out, byte type, ContentKey key, float[] embedding)
+            throws IOException {
+        out.writeByte(type);
+        out.writeLong(key.first());
+        out.writeLong(key.second());
+        out.writeLong(key.third());
+        out.writeLong(key.fourth());
+        if (type == ENTRY_RECORD) {
+            ByteBuffer values = ByteBuffer.allocate(embedding.length * Float.BYTES);
+            values.asFloatBuffer().put(embedding);
+            out.writeInt(embedding.length);
+            out.write(values.array());
+        }
+    }
+
+    /**
+     * Rewrites the log with one record per live entry, least recently used first, and reopens it for appending.
+     * The file is replaced atomically, so a crash never leaves a truncated cache behind.
+     */
+    private void compact() {
+        try {
+            if (log != null) {
+                log.close();
+                log = null;
+            }
+            Path parent = cacheFile.toAbsolutePath().getParent();
+            Files.createDirectories(parent);
+            Path temporary = Files.createTempFile(parent, "embeddings", ".tmp");
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temporary)))) {
+                out.writeInt(FILE_VERSION);
+                for (Map.Entry<ContentKey, float[]> entry : entries.entrySet()) {
+                    writeRecord(out, ENTRY_RECORD, entry.getKey(), entry.getValue());
+                }
+            }
+            Files.move(temporary, cacheFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            logRecords = entries.size();
+        } catch (IOException e) {
+            System.err.println("Could not save embedding cache: " + e.getMessage());
+            return;
+        }
+        openLog();
+    }
+
+    private void openLog() {
+        try {
+            log = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(cacheFile,
+                    StandardOpenOption.APPEND)));
+        } catch (IOException e) {
+            System.err.println("Could not open embedding cache: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Replays the log into the cache. Returns false if the log is unreadable or ends in a partly written or corrupt
+     * record, in which case the entries read so far are kept and the log must be rewritten before appending to it.
+     */
+    private boolean load() {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(cacheFile)))) {
+            if (in.readInt() != FILE_VERSION) {
+                return false;
+            }
+            while (true) {
+                int type = in.read();
+                if (type < 0) {
+                    return true;
+                }
+                ContentKey key = new ContentKey(in.readLong(), in.readLong(), in.readLong(), in.readLong());
+                if (type == ENTRY_RECORD) {
+                    int dimension = in.readInt();
+                    if (dimension <= 0 || dimension > MAX_DIMENSION) {
+                        return false; // corrupt, like a partly written record
+                    }
+                    float[] embedding = new float[dimension];
+                    byte[] values = new byte[embedding.length * Float.BYTES];
+                    in.readFully(values);
+                    ByteBuffer.wrap(values).asFloatBuffer().get(embedding);
+                    entries.put(key, embedding);
+                    evictOverflow();
+                }
+                else if (type == HIT_RECORD) {
+                    entries.get(key);
+                }
+                else {
+                    return false;
+                }
+                logRecords++;
+            }
+        } catch (EOFException e) {
+            return false;
+        } catch (IOException e) {
+            System.err.println("Could not load embedding cache: " + e);
+            return false;
+        } finally {
+            // Entries evicted while replaying the log were evicted before
+            evictionCount = 0;
+        }
+    }
+
+    /**
+     * The SHA-256 hash of a model name and text, as four longs.
+     *
+     * @param first the first eight bytes of the hash
+     * @param second the next eight bytes of the hash
+     * @param third the next eight bytes of the hash
+     * @param fourth the last eight bytes of the hash
+     */
+    private record ContentKey(long first, long second, long third, long fourth) { }
+}
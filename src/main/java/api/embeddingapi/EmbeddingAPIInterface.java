@@ -1,5 +1,9 @@
 package api.embeddingapi;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
 /**
  * Interface for generating embeddings for text.
  */
@@ -11,4 +15,49 @@ public interface EmbeddingAPIInterface {
      * @return an array of floats representing the embedding
      */
     float[] getEmbedData(String text);
+
+    /**
+     * Requests an embedding for the given text without waiting for it. Implementations that call a remote API
+     * return at once; by default the embedding is computed on the calling thread.
+     *
+     * @param text the text to be used for embedding
+     * @return a future completed with the embedding, or exceptionally if it could not be generated
+     */
+    default CompletableFuture<float[]> getEmbedDataAsync(String text) {
+        try {
+            return CompletableFuture.completedFuture(getEmbedData(text));
+        } catch (RuntimeException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    /**
+     * Returns an embedding for each of the given texts, e.g. for a bulk import. Implementations that call a remote
+     * API send the texts in as few requests as they can; by default each text is embedded on its own.
+     *
+     * @param texts the texts to be used for embedding
+     * @return the embeddings, in the order of the texts
+     */
+    default List<float[]> getEmbedData(List<String> texts) {
+        ArrayList<float[]> embeddings = new ArrayList<>(texts.size());
+        for (String text : texts) {
+            embeddings.add(getEmbedData(text));
+        }
+        return embeddings;
+    }
+
+    /**
+     * Requests an embedding for each of the given texts without waiting for them. By default the embeddings are
+     * computed on the calling thread.
+     *
+     * @param texts the texts to be used for embedding
+     * @return a future completed with the embeddings, in the order of the texts
+     */
+    default CompletableFuture<List<float[]>> getEmbedDataAsync(List<String> texts) {
+        try {
+            return CompletableFuture.completedFuture(getEmbedData(texts));
+        } catch (RuntimeException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
 }
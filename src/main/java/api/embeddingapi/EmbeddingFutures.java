@@ -0,0 +1,32 @@
+package api.embeddingapi;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+/**
+ * Helpers for the blocking methods of embedding APIs that are implemented over their asynchronous ones.
+ */
+final class EmbeddingFutures {
+
+    // This class should not be instantiated
+    private EmbeddingFutures() { }
+
+    /**
+     * Waits for a future and returns its value. A failure is rethrown as it is if it is a runtime exception, and
+     * wrapped in one otherwise.
+     *
+     * @param future the future
+     * @param <T> the type of the value
+     * @return the value of the future
+     */
+    static <T> T join(CompletableFuture<T> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new RuntimeException(e.getCause());
+        }
+    }
+}
@@ -0,0 +1,325 @@
+package api.embeddingapi;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.List;
+
+/**
+ * Streaming decoder for responses of the OpenAI embeddings endpoint.
+ * The response is read once through a buffer, and each embedding is decoded straight into a float array,
+ * without building JSON objects or strings for it. Embeddings may be base64 strings of little-endian 32-bit floats,
+ * as returned for {@code "encoding_format": "base64"}, or arrays of numbers, as returned by default. Fields other than
+ * {@code data}, {@code index} and {@code embedding} are skipped.
+ */
+public final class EmbeddingResponseDecoder {
+    private static final int BUFFER_SIZE = 16384;
+
+    private final InputStream in;
+    private final byte[] buffer = new byte[BUFFER_SIZE];
+    private final StringBuilder token = new StringBuilder();
+    private byte[] base64 = new byte[BUFFER_SIZE];
+    private int position = 0;
+    private int limit = 0;
+    private long offset = 0;
+    // Embeddings of one response have the same dimension, so each array is allocated at the size of the previous one
+    private int dimension = 1536;
+
+    private EmbeddingResponseDecoder(InputStream in) {
+        this.in = in;
+    }
+
+    /**
+     * Reads the embeddings from a response of the embeddings endpoint, placing each at the index of its input.
+     *
+     * @param in the response body, which is read to the end of the response object but not closed
+     * @param count the number of inputs of the request
+     * @return the embeddings, in the order of the inputs
+     * @throws IOException if the stream cannot be read, is not a valid response, or lacks an embedding for an input
+     */
+    public static List<float[]> decode(InputStream in, int count) throws IOException {
+        float[][] embeddings = new float[count][];
+        new EmbeddingResponseDecoder(in).readResponse(embeddings);
+        for (int i = 0; i < count; i++) {
+            if (embeddings[i] == null) {
+                throw new IOException("Embedding response has no embedding for input " + i + " of " + count);
+            }
+        }
+        return Arrays.asList(embeddings);
+    }
+
+    private void readResponse(float[][] embeddings) throws IOException {
+        expect('{');
+        if (consumeIf('}')) {
+            return;
+        }
+        do {
+            if (readKey().equals("data")) {
+                readData(embeddings);
+            }
+            else {
+                skipValue();
+            }
+        } while (consumeIf(','));
+        expect('}');
+    }
+
+    private void readData(float[][] embeddings) throws IOException {
+        expect('[');
+        if (consumeIf(']')) {
+            return;
+        }
+        int item = 0;
+        do {
+            readItem(embeddings, item++);
+        } while (consumeIf(','));
+        expect(']');
+    }
+
+    /**
+     * Reads one embedding object. Its index defaults to its position in the data array.
+     */
+    private void readItem(float[][] embeddings, int item) throws IOException {
+        int index = item;
+        float[] embedding = null;
+        expect('{');
+        if (!consumeIf('}')) {
+            do {
+                String key = readKey();
+                if (key.equals("index")) {
+                    index = readInt();
+                }
+                else if (key.equals("embedding")) {
+                    embedding = peek() == '"' ? readBase64Floats() : readFloatArray();
+                }
+                else {
+                    skipValue();
+                }
+            } while (consumeIf(','));
+            expect('}');
+        }
+        if (embedding == null) {
+            throw error("Embedding object without an embedding");
+        }
+        if (index < 0 || index >= embeddings.length) {
+            throw error("Embedding index " + index + " out of range for " + embeddings.length + " inputs");
+        }
+        embeddings[index] = embedding;
+    }
+
+    /**
+     * Decodes a base64 string of little-endian floats. The characters are copied from the read buffer in runs up to
+     * the closing quote and then decoded in one call.
+     */
+    private float[] readBase64Floats() throws IOException {
+        expect('"');
+        int length = 0;
+        while (true) {
+            if (position == limit && !fill()) {
+                throw error("Unexpected end of embedding response");
+            }
+            int end = position;
+            while (end < limit && buffer[end] != '"' && buffer[end] != '\\') {
+                end++;
+            }
+            if (length + end - position + 1 > base64.length) {
+                base64 = Arrays.copyOf(base64, Math.max(base64.length * 2, length + end - position + 1));
+            }
+            System.arraycopy(buffer, position, base64, length, end - position);
+            length += end - position;
+            position = end;
+            if (end == limit) {
+                continue;
+            }
+            position++;
+            if (buffer[end] == '"') {
+                break;
+            }
+            // JSON allows the slash of the base64 alphabet to be escaped
+            if (next() != '/') {
+                throw error("Unexpected escape in base64 embedding");
+            }
+            base64[length++] = '/';
+        }
+
+        ByteBuffer bytes;
+        try {
+            bytes = Base64.getDecoder().decode(ByteBuffer.wrap(base64, 0, length));
+        } catch (IllegalArgumentException e) {
+            throw error("Invalid base64 embedding");
+        }
+        if (bytes.remaining() % Float.BYTES != 0) {
+            throw error("Base64 embedding is not a whole number of floats");
+        }
+        float[] values = new float[bytes.remaining() / Float.BYTES];
+        bytes.order(ByteOrder.LITTLE_ENDIAN).asFloatBuffer().get(values);
+        return values;
+    }
+
+    private float[] readFloatArray() throws IOException {
+        expect('[');
+        float[] values = new float[dimension];
+        int count = 0;
+        if (!consumeIf(']')) {
+            do {
+                if (count == values.length) {
+                    values = Arrays.copyOf(values, values.length * 2);
+                }
+                try {
+                    values[count++] = Float.parseFloat(readLiteral());
+                } catch (NumberFormatException e) {
+                    throw error("Invalid number in embedding");
+                }
+            } while (consumeIf(','));
+            expect(']');
+        }
+        dimension = Math.max(count, 1);
+        return count == values.length ? values : Arrays.copyOf(values, count);
+    }
+
+    private int readInt() throws IOException {
+        try {
+            return Integer.parseInt(readLiteral());
+        } catch (NumberFormatException e) {
+            throw error("Invalid embedding index");
+        }
+    }
+
+    /**
+     * Reads a number, true, false or null up to the next delimiter.
+     */
+    private String readLiteral() throws IOException {
+        peek();
+        token.setLength(0);
+        while (true) {
+            int c = peekRaw();
+            if (c < 0 || c == ',' || c == '}' || c == ']' || isWhitespace(c)) {
+                break;
+            }
+            token.append((char) c);
+            position++;
+        }
+        if (token.isEmpty()) {
+            throw error("Expected a value");
+        }
+        return token.toString();
+    }
+
+    /**
+     * Reads an object key and the colon after it.
+     */
+    private String readKey() throws IOException {
+        expect('"');
+        token.setLength(0);
+        for (int c = next(); c != '"'; c = next()) {
+            if (c == '\\') {
+                c = next();
+            }
+            token.append((char) c);
+        }
+        expect(':');
+        return token.toString();
+    }
+
+    private void skipValue() throws IOException {
+        int c = peek();
+        if (c == '"') {
+            position++;
+            skipString();
+        }
+        else if (c == '{' || c == '[') {
+            int depth = 0;
+            do {
+                c = next();
+                if (c == '"') {
+                    skipString();
+                }
+                else if (c == '{' || c == '[') {
+                    depth++;
+                }
+                else if (c == '}' || c == ']') {
+                    depth--;
+                }
+            } while (depth > 0);
+        }
+        else {
+            readLiteral();
+        }
+    }
+
+    /**
+     * Skips the rest of a string whose opening quote has been read.
+     */
+    private void skipString() throws IOException {
+        for (int c = next(); c != '"'; c = next()) {
+            if (c == '\\') {
+                next();
+            }
+        }
+    }
+
+    private void expect(char expected) throws IOException {
+        if (peek() != expected) {
+            throw error("Expected '" + expected + "'");
+        }
+        position++;
+    }
+
+    private boolean consumeIf(char expected) throws IOException {
+        if (peek() == expected) {
+            position++;
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Returns the next byte that is not whitespace without consuming it.
+     */
+    private int peek() throws IOException {
+        int c = peekRaw();
+        while (isWhitespace(c)) {
+            position++;
+            c = peekRaw();
+        }
+        if (c < 0) {
+            throw error("Unexpected end of embedding response");
+        }
+        return c;
+    }
+
+    /**
+     * Returns the next byte without consuming it, or -1 at the end of the stream.
+     */
+    private int peekRaw() throws IOException {
+        if (position == limit && !fill()) {
+            return -1;
+        }
+        return buffer[position] & 0xff;
+    }
+
+    private int next() throws IOException {
+        if (position == limit && !fill()) {
+            throw error("Unexpected end of embedding response");
+        }
+        return buffer[position++] & 0xff;
+    }
+
+    private boolean fill() throws IOException {
+        offset += limit;
+        position = 0;
+        limit = Math.max(in.read(buffer), 0);
+        return limit > 0;
+    }
+
+    private static boolean isWhitespace(int c) {
+        return c == ' ' || c == '\n' || c == '\r' || c == '\t';
+    }
+
+    private IOException error(String message) {
+        return new IOException(message + " at byte " + (offset + position) + " of the embedding response");
+    }
+}
@@ -0,0 +1,146 @@
+package api.embeddingapi;
+
+/**
+ * An EmbeddingAPIInterface that embeds texts in process, for deployments without network access to an embedding API.
+ * <p>
+ * A text is split into lower-cased words of letters and digits, and described by its words, its pairs of adjacent
+ * words, and the character trigrams of each word with its boundaries marked, so that inflections and typos of a word
+ * still share most of their features. Each feature is hashed to one dimension of the vector and to a sign, which is a
+ * sparse random projection of the feature counts. Each dimension is then replaced by its signed square root, so that
+ * a word repeated throughout a text does not outweigh the rarer words that tell texts apart, and the vector is scaled
+ * to unit length. Texts that share words thus get a high cosine similarity, although, unlike a trained model,
+ * synonyms do not.
+ * <p>
+ * Embeddings take microseconds, need no I/O, and depend only on the text and the dimension, so every instance with
+ * the same dimension returns the same vectors. They are not comparable with embeddings of another provider.
+ */
+public class HashedNgramEmbeddingAPI implements EmbeddingAPIInterface {
+    private static final float WORD_WEIGHT = 1f;
+    private static final float BIGRAM_WEIGHT = 0.7f;
+    private static final float TRIGRAM_WEIGHT = 0.3f;
+    private static final long WORD_SEED = 0x9E3779B97F4A7C15L;
+    private static final long BIGRAM_SEED = 0xC2B2AE3D27D4EB4FL;
+    private static final long TRIGRAM_SEED = 0x165667B19E3779F9L;
+    private static final char BOUNDARY = '\u0001';
+
+    private final int dimension;
+
+    /**
+     * Constructs an embedding provider that returns vectors of the given dimension.
+     *
+     * @param dimension the number of dimensions of each embedding
+     */
+    public HashedNgramEmbeddingAPI(int dimension) {
+        if (dimension < 1) {
+            throw new IllegalArgumentException("The dimension must be at least 1");
+        }
+        this.dimension = dimension;
+    }
+
+    /**
+     * Returns the name of this model, which includes the dimension because it changes every vector.
+     *
+     * @return the model name
+     */
+    public String getModel() {
+        return "hashed-ngram-" + dimension;
+    }
+
+    /**
+     * Returns the unit-length embedding of the given text, or a zero vector if it has no letters or digits.
+     *
+     * @param text the text to be used for embedding
+     * @return an array of floats representing the embedding
+     */
+    @Override
+    public float[] getEmbedData(String text) {
+        float[] embedding = new float[dimension];
+        long previousWord = 0;
+        boolean hasPrevious = false;
+        int length = text.length();
+        int start = 0;
+        while (start < length) {
+            while (start < length && !Character.isLetterOrDigit(text.charAt(start))) {
+                start++;
+            }
+            int end = start;
+            while (end < length && Character.isLetterOrDigit(text.charAt(end))) {
+                end++;
+            }
+            if (start == end) {
+                break;
+            }
+            long word = WORD_SEED;
+            for (int i = start; i < end; i++) {
+                word = mix(word, Character.toLowerCase(text.charAt(i)));
+            }
+            add(embedding, word, WORD_WEIGHT);
+            if (hasPrevious) {
+                add(embedding, mix(mix(BIGRAM_SEED, previousWord), word), BIGRAM_WEIGHT);
+            }
+            addTrigrams(embedding, text, start, end);
+            previousWord = word;
+            hasPrevious = true;
+            start = end;
+        }
+        // Dampens frequent features, like a sublinear term frequency
+        for (int i = 0; i < embedding.length; i++) {
+            embedding[i] = Math.copySign((float) Math.sqrt(Math.abs(embedding[i])), embedding[i]);
+        }
+        normalize(embedding);
+        return embedding;
+    }
+
+    /**
+     * Adds the character trigrams of a word, padded with a boundary character on both sides.
+     */
+    private void addTrigrams(float[] embedding, String text, int start, int end) {
+        char first = BOUNDARY;
+        char second = Character.toLowerCase(text.charAt(start));
+        for (int i = start + 1; i <= end; i++) {
+            char third = i < end ? Character.toLowerCase(text.charAt(i)) : BOUNDARY;
+            add(embedding, mix(mix(mix(TRIGRAM_SEED, first), second), third), TRIGRAM_WEIGHT);
+            first = second;
+            second = third;
+        }
+    }
+
+    /**
+     * Adds a weight to the dimension a feature hashes to, with the sign given by another bit of the hash.
+     */
+    private void add(float[] embedding, long hash, float weight) {
+        long mixed = finish(hash);
+        int index = (int) ((mixed >>> 1) % dimension);
+        embedding[index] += mixed < 0 ? -weight : weight;
+    }
+
+    private static long mix(long hash, long value) {
+        return (hash ^ value) * 0x100000001B3L + (hash >>> 29);
+    }
+
+    /**
+     * Spreads every bit of a hash over the whole word (the finalizer of MurmurHash3).
+     */
+    private static long finish(long hash) {
+        hash ^= hash >>> 33;
+        hash *= 0xFF51AFD7ED558CCDL;
+        hash ^= hash >>> 33;
+        hash *= 0xC4CEB9FE1A85EC53L;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+
+    private static void normalize(float[] embedding) {
+        double norm = 0;
+        for (float value : embedding) {
+            norm += value * value;
+        }
+        if (norm == 0) {
+            return;
+        }
+        float scale = (float) (1 / Math.sqrt(norm));
+        for (int i = 0; i < embedding.length; i++) {
+            embedding[i] *= scale;
+        }
+    }
+}
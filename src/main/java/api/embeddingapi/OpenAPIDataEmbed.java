@@ -1,78 +1,201 @@
 package api.embeddingapi;
 
 import okhttp3.*;
-import org.json.JSONException;
+import org.json.JSONArray;
 import org.json.JSONObject;
 
 import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
 
 /**
  * A class that implements the EmbeddingAPIInterface to interact with the OpenAI API for generating text embeddings.
+ * <p>
+ * Every instance sends its requests through one shared HTTP client, so connections to the API, and their TLS
+ * sessions, are pooled and reused, and HTTP/2 is used where the server offers it. Requests are asynchronous;
+ * {@link #getEmbedData(String)} waits for one. Concurrent requests for the same text share one call to the API.
+ * <p>
+ * The endpoint accepts several inputs per request, so {@link #getEmbedData(List)} sends up to
+ * {@link #MAX_BATCH_SIZE} texts per request, and the requests of a bulk call run concurrently.
+ * <p>
+ * Embeddings are requested as base64 strings rather than arrays of decimal numbers, which makes responses about four
+ * times smaller, and are decoded from the response stream by {@link EmbeddingResponseDecoder}.
  */
 public class OpenAPIDataEmbed implements EmbeddingAPIInterface {
 
+    public static final int MAX_BATCH_SIZE = 256;
+    public static final String MODEL = "text-embedding-3-small";
+
     private static final String API_URL = "https://api.openai.com/v1/embeddings";
-    private static final String API_MODEL = "text-embedding-3-small";
-    private static String API_TOKEN = null;
-    private boolean hasToken = false;
+    private static final MediaType JSON = MediaType.parse("application/json");
+    private static final int MAX_IDLE_CONNECTIONS = 8;
+    private static final int MAX_REQUESTS = 16;
+    // Shared by every instance; its dispatcher threads are daemons so they never keep the application running
+    private static final OkHttpClient CLIENT = createClient();
+    private final RequestCoalescer<String, float[]> inFlight = new RequestCoalescer<>();
+    private final String apiUrl;
+    private final String apiToken;
 
     /**
-     * Constructs an OpenAPIDataEmbed object.
+     * Constructs an OpenAPIDataEmbed object that calls the OpenAI API with the token in the API_KEY environment
+     * variable.
      */
     public OpenAPIDataEmbed() {
-        API_TOKEN = System.getenv("API_KEY");
-        if (API_TOKEN == null) {
-            System.err.println("API_KEY environment variable not set (ignore when testing)");
-        }
-        else {
-            hasToken = true;
+        this(API_URL, System.getenv("API_KEY"));
+        if (apiToken == null) {
+            System.err.println("API_KEY environment variable not set (ignore when testing); embeddings will be empty."
+                    + " Select SearchConfig.EMBEDDING_LOCAL to embed without the API");
         }
     }
 
     /**
-     * Returns an embedding for the given text by calling the OpenAI API.
-     * Returns an empty array if the API token is not set.m
+     * Constructs an OpenAPIDataEmbed object that calls the given embeddings endpoint, e.g. a local server that
+     * mimics the OpenAI API.
+     *
+     * @param apiUrl the URL of the embeddings endpoint
+     * @param apiToken the bearer token, or null to return empty embeddings without calling the endpoint
+     */
+    public OpenAPIDataEmbed(String apiUrl, String apiToken) {
+        this.apiUrl = apiUrl;
+        this.apiToken = apiToken;
+    }
+
+    /**
+     * Returns an embedding for the given text by calling the OpenAI API, waiting for the response.
+     * Returns an empty array if the API token is not set.
      *
      * @param text the text to be used for embedding
      * @return an array of floats representing the embedding
      */
     @Override
     public float[] getEmbedData(String text) {
-        if (!hasToken) {
-            return new float[0];
+        return EmbeddingFutures.join(getEmbedDataAsync(text));
+    }
+
+    /**
+     * Requests an embedding for the given text from the OpenAI API and returns at once. If a request for the same
+     * text is already pending, its response is shared rather than sent again.
+     * Completes with an empty array if the API token is not set.
+     *
+     * @param text the text to be used for embedding
+     * @return a future completed with the embedding, or exceptionally if the request or its response failed
+     */
+    @Override
+    public CompletableFuture<float[]> getEmbedDataAsync(String text) {
+        if (apiToken == null) {
+            return CompletableFuture.completedFuture(new float[0]);
         }
-        OkHttpClient client = new OkHttpClient().newBuilder()
-                .build();
-        MediaType mediaType = MediaType.parse("application/json");
+        // Each caller gets its own copy of the shared embedding
+        return inFlight.request(text, key -> send(List.of(key)).thenApply(List::getFirst)).thenApply(float[]::clone);
+    }
+
+    /**
+     * Returns an embedding for each of the given texts by calling the OpenAI API, waiting for the responses.
+     * Returns empty arrays if the API token is not set.
+     *
+     * @param texts the texts to be used for embedding
+     * @return the embeddings, in the order of the texts
+     */
+    @Override
+    public List<float[]> getEmbedData(List<String> texts) {
+        return EmbeddingFutures.join(getEmbedDataAsync(texts));
+    }
+
+    /**
+     * Requests an embedding for each of the given texts from the OpenAI API and returns at once. The texts are sent
+     * {@link #MAX_BATCH_SIZE} per request.
+     *
+     * @param texts the texts to be used for embedding
+     * @return a future completed with the embeddings, in the order of the texts, or exceptionally if a request failed
+     */
+    @Override
+    public CompletableFuture<List<float[]>> getEmbedDataAsync(List<String> texts) {
+        if (apiToken == null) {
+            ArrayList<float[]> empty = new ArrayList<>(texts.size());
+            for (int i = 0; i < texts.size(); i++) {
+                empty.add(new float[0]);
+            }
+            return CompletableFuture.completedFuture(empty);
+        }
+        ArrayList<CompletableFuture<List<float[]>>> batches = new ArrayList<>();
+        for (int from = 0; from < texts.size(); from += MAX_BATCH_SIZE) {
+            batches.add(send(texts.subList(from, Math.min(from + MAX_BATCH_SIZE, texts.size()))));
+        }
+        return CompletableFuture.allOf(batches.toArray(new CompletableFuture<?>[0])).thenApply(_ -> {
+            ArrayList<float[]> embeddings = new ArrayList<>(texts.size());
+            for (CompletableFuture<List<float[]>> batch : batches) {
+                embeddings.addAll(batch.join());
+            }
+            return embeddings;
+        });
+    }
+
+    /**
+     * Sends one embedding request for the given texts on the shared client.
+     */
+    private CompletableFuture<List<float[]>> send(List<String> texts) {
         JSONObject requestBody = new JSONObject();
-        requestBody.put("input", text);
-        requestBody.put("model", API_MODEL);
-        RequestBody body = RequestBody.create(requestBody.toString(), mediaType);
+        requestBody.put("input", new JSONArray(texts));
+        requestBody.put("model", MODEL);
+        requestBody.put("encoding_format", "base64");
         Request request = new Request.Builder()
-                .url(API_URL)
-                .method("POST", body)
-                .addHeader("Authorization", "Bearer " + API_TOKEN)
+                .url(apiUrl)
+                .post(RequestBody.create(requestBody.toString(), JSON))
+                .addHeader("Authorization", "Bearer " + apiToken)
                 .addHeader("Content-Type", "application/json")
                 .build();
 
-        JSONObject responseBody = null;
-
-        try {
-            Response response = client.newCall(request).execute();
-            if (response.body() != null) {
-                responseBody = new JSONObject(response.body().string());
-            } else {
-                throw new RuntimeException("Response body for embedding request is null");
+        CompletableFuture<List<float[]>> result = new CompletableFuture<>();
+        CLIENT.newCall(request).enqueue(new Callback() {
+            @Override
+            public void onFailure(Call call, IOException e) {
+                result.completeExceptionally(e);
             }
-            JSONObject embedData = (JSONObject) responseBody.getJSONArray("data").get(0);
-            float[] data = new float[embedData.getJSONArray("embedding").length()];
-            for (int i = 0; i < embedData.getJSONArray("embedding").length(); i++) {
-                data[i] = embedData.getJSONArray("embedding").getFloat(i);
+
+            @Override
+            public void onResponse(Call call, Response response) {
+                try (response) {
+                    result.complete(parseEmbeddings(response, texts.size()));
+                } catch (IOException | RuntimeException e) {
+                    result.completeExceptionally(e);
+                }
             }
-            return data;
-        } catch (IOException | JSONException e) {
-            System.out.println(responseBody);
-            throw new RuntimeException(e);
+        });
+        return result;
+    }
+
+    /**
+     * Reads the embeddings from a response of the API, placing each at the index of its input.
+     */
+    private static List<float[]> parseEmbeddings(Response response, int count) throws IOException {
+        if (response.body() == null) {
+            throw new IOException("Response body for embedding request is null");
         }
+        if (!response.isSuccessful()) {
+            throw new IOException("Embedding request failed with HTTP " + response.code() + ": "
+                    + response.body().string());
+        }
+        try (InputStream in = response.body().byteStream()) {
+            return EmbeddingResponseDecoder.decode(in, count);
+        }
+    }
+
+    private static OkHttpClient createClient() {
+        Dispatcher dispatcher = new Dispatcher(Executors.newCachedThreadPool(
+                Thread.ofPlatform().name("embedding-api-", 0).daemon().factory()));
+        dispatcher.setMaxRequests(MAX_REQUESTS);
+        dispatcher.setMaxRequestsPerHost(MAX_REQUESTS);
+        return new OkHttpClient.Builder()
+                .dispatcher(dispatcher)
+                .connectionPool(new ConnectionPool(MAX_IDLE_CONNECTIONS, 5, TimeUnit.MINUTES))
+                .protocols(List.of(Protocol.HTTP_2, Protocol.HTTP_1_1))
+                .connectTimeout(10, TimeUnit.SECONDS)
+                .readTimeout(30, TimeUnit.SECONDS)
+                .callTimeout(60, TimeUnit.SECONDS)
+                .build();
     }
 }
@@ -0,0 +1,60 @@
+package api.embeddingapi;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * Lets concurrent requests for the same key share one flight: while a request for a key is pending, further
+ * requests for it wait for the same result instead of starting their own. Once the flight completes, the next
+ * request for the key starts a new one, so results are never reused after the fact.
+ * <p>
+ * Each caller receives its own copy of the shared future, so cancelling it does not affect the other callers.
+ * Thread-safe.
+ *
+ * @param <K> the type of the keys
+ * @param <V> the type of the results
+ */
+public class RequestCoalescer<K, V> {
+    private final ConcurrentHashMap<K, CompletableFuture<V>> inFlight = new ConcurrentHashMap<>();
+
+    /**
+     * Returns the result of the pending request for a key, or starts a request if none is pending.
+     *
+     * @param key the key of the request
+     * @param start starts the request for a key and returns its future
+     * @return a future completed with the result of the shared flight
+     */
+    public CompletableFuture<V> request(K key, Function<K, CompletableFuture<V>> start) {
+        CompletableFuture<V> flight = new CompletableFuture<>();
+        CompletableFuture<V> pending = inFlight.putIfAbsent(key, flight);
+        if (pending != null) {
+            return pending.copy();
+        }
+        CompletableFuture<V> started;
+        try {
+            started = start.apply(key);
+        } catch (RuntimeException e) {
+            started = CompletableFuture.failedFuture(e);
+        }
+        started.whenComplete((value, error) -> {
+            inFlight.remove(key, flight);
+            if (error != null) {
+                flight.completeExceptionally(error);
+            }
+            else {
+                flight.complete(value);
+            }
+        });
+        return flight.copy();
+    }
+
+    /**
+     * Returns the number of keys with a pending request.
+     *
+     * @return the number of flights
+     */
+    public int size() {
+        return inFlight.size();
+    }
+}
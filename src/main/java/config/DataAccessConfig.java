@@ -1,15 +1,22 @@
 package config;
 
+import api.embeddingapi.BatchingEmbeddingAPI;
+import api.embeddingapi.ContentAddressedEmbeddingCache;
 import api.embeddingapi.EmbeddingAPIInterface;
+import api.embeddingapi.HashedNgramEmbeddingAPI;
 import api.embeddingapi.OpenAPIDataEmbed;
 import dataaccess.*;
 import dataaccess.database.ApplicationRepository;
 import dataaccess.database.ProjectRepository;
+import dataaccess.database.UserEmbeddingRepository;
 import dataaccess.database.UserProjectsRepository;
 import dataaccess.database.UserRepository;
 import dataaccess.database.manager.*;
 import dataaccess.inmemory.LoginUserDetails;
 import dataaccess.local.*;
+import usecase.searchforproject.index.PersistentEmbeddingStore;
+
+import java.nio.file.Path;
 
 /**
  * Configuration class for setting up data access repositories.
@@ -18,6 +25,8 @@ import dataaccess.local.*;
 public class DataAccessConfig {
     public static int USE_LOCAL = 1; // Set this to 1 to use local, 0 to use database
 
+    private static final int REEMBED_BATCH_SIZE = 1024;
+
     private static final String databaseName = "projectDatabase.db";
 
     // Database Managers
@@ -28,21 +37,24 @@ public class DataAccessConfig {
     private static final UserProjectsManager userProjectsManager = new UserProjectsManager(databaseName);
     private static final UserManager userManager = new UserManager(databaseName);
     private static final UserTagsManager userTagsManager = new UserTagsManager(databaseName);
+    private static final UserEmbeddingsManager userEmbeddingsManager = new UserEmbeddingsManager(databaseName);
 
     // Database Repositories
     private static final IUserProjectsRepository userProjectsRepository = new UserProjectsRepository(userProjectsManager);
     private static final IUserRepository userRepository = new UserRepository(userManager, userTagsManager, userProjectsManager);
     private static final IProjectRepository projectRepository = new ProjectRepository(projectManager, projectTagsManager, projectEmbeddingsManager, userProjectsManager);
     private static final IApplicationRepository applicationRepository = new ApplicationRepository(applicationManager);
+    private static final IUserEmbeddingRepository userEmbeddingRepository = new UserEmbeddingRepository(userEmbeddingsManager);
 
     // Local Repositories
     private final static String csvPath = "local_data/projects/";
-    private final static EmbeddingAPIInterface embeddingAPI = new OpenAPIDataEmbed();
+    private final static EmbeddingAPIInterface embeddingAPI = createEmbeddingAPI();
     private final static ILocalEmbedRepository embedDataAccess = new LocalEmbedRepository(csvPath, embeddingAPI);
-    private final static IProjectRepository projectDataAccess = new LocalProjectRepository(csvPath, embedDataAccess);
+    private final static LocalProjectRepository projectDataAccess = new LocalProjectRepository(csvPath, embedDataAccess);
     private final static IUserRepository userDataAccess = new LocalUserRepository(csvPath);
     private final static IUserProjectsRepository userProjectsDataAccess = new LocalUserProjectsRepository(csvPath);
     private final static IApplicationRepository applicationDataAccess = new LocalApplicationRepository(csvPath);
+    private final static IUserEmbeddingRepository userEmbedDataAccess = new LocalUserEmbedRepository(csvPath);
 
     // Login Details
     private final static ILoginUserDetails loginUserDetails = new LoginUserDetails();
@@ -57,6 +69,93 @@ public class DataAccessConfig {
     // This class should not be instantiated
     private DataAccessConfig() { }
 
+    /**
+     * Creates the embedding API selected by {@link SearchConfig#getEmbeddingProvider()}. Requests to the OpenAI API
+     * are batched and their results cached; local embeddings are cheaper to compute than to cache.
+     */
+    private static EmbeddingAPIInterface createEmbeddingAPI() {
+        if (SearchConfig.getEmbeddingProvider() == SearchConfig.EMBEDDING_LOCAL) {
+            return new HashedNgramEmbeddingAPI(SearchConfig.getLocalEmbeddingDimension());
+        }
+        return new ContentAddressedEmbeddingCache(
+                new BatchingEmbeddingAPI(new OpenAPIDataEmbed(), SearchConfig.getEmbeddingBatchSize(),
+                        SearchConfig.getEmbeddingBatchWindow()),
+                OpenAPIDataEmbed.MODEL, SearchConfig.getProjectEmbeddingCacheSize(),
+                SearchConfig.getProjectEmbeddingCacheFile());
+    }
+
+    /**
+     * Returns the name of the model that projects, queries and profiles are embedded with. Embeddings of different
+     * models cannot be compared.
+     *
+     * @return the embedding model name
+     */
+    public static String getEmbeddingModel() {
+        if (SearchConfig.getEmbeddingProvider() == SearchConfig.EMBEDDING_LOCAL) {
+            return new HashedNgramEmbeddingAPI(SearchConfig.getLocalEmbeddingDimension()).getModel();
+        }
+        return OpenAPIDataEmbed.MODEL;
+    }
+
+    /**
+     * Returns the directory the search index of the local projects is saved to. Each embedding model has its own,
+     * so a snapshot is never restored into an index of another model.
+     *
+     * @return the snapshot directory, or null if the index is rebuilt on every launch
+     */
+    public static Path getIndexSnapshotDirectory() {
+        Path directory = SearchConfig.getIndexSnapshotDirectory();
+        if (directory == null || USE_LOCAL != 1) {
+            return null; // the database is shared with other clients, see SearchConfig#getIndexSnapshotDirectory
+        }
+        return directory.resolve("local").resolve(getEmbeddingModel());
+    }
+
+    /**
+     * Brings the embeddings of the local projects up to date with the embedding model, with bulk requests rather
+     * than one request per project. If the embeddings were computed with another model, e.g. after
+     * {@link SearchConfig#setEmbeddingProvider(int)}, every project is embedded again and the saved search index of
+     * the current model is discarded, since it missed the changes made meanwhile. Otherwise only the projects without
+     * an embedding, e.g. imported ones, are embedded. The model is recorded only once every project is embedded with
+     * it; until then the projects keep their previous embeddings and the next launch tries again. Must run before the
+     * search indexes are built, so they start from the new embeddings.
+     */
+    public static void updateProjectEmbeddings() {
+        if (USE_LOCAL != 1) {
+            return;
+        }
+        String model = getEmbeddingModel();
+        String storedModel = embedDataAccess.getModel();
+        if (storedModel == null && !embedDataAccess.getAllEmbeddings().isEmpty()) {
+            storedModel = OpenAPIDataEmbed.MODEL; // embeddings saved before the model was recorded came from OpenAI
+        }
+        boolean modelChanged = storedModel != null && !storedModel.equals(model);
+        if (modelChanged) {
+            System.out.println("Project embeddings were computed with " + storedModel + ", embedding them again with "
+                    + model);
+            Path snapshotDirectory = getIndexSnapshotDirectory();
+            if (snapshotDirectory != null) {
+                PersistentEmbeddingStore.delete(snapshotDirectory);
+            }
+        }
+        try {
+            int count = projectDataAccess.reembedProjects(modelChanged ? _ -> true
+                    : embedding -> embedding == null || embedding.length == 0, REEMBED_BATCH_SIZE);
+            embedDataAccess.setModel(model);
+            if (count > 0) {
+                System.out.println("Embedded " + count + " projects with " + model);
+            }
+        } catch (RuntimeException e) {
+            if (modelChanged) {
+                System.err.println("Could not embed the projects again with " + model + ", so semantic search will "
+                        + "not find them until the next launch succeeds: " + e.getMessage());
+            }
+            else {
+                System.err.println("Could not embed projects without an embedding: " + e.getMessage());
+            }
+        }
+    }
+
     public static String getImplementation() {
         if (USE_LOCAL == 1) {
             return "Using local implementation";
@@ -84,6 +183,26 @@ public class DataAccessConfig {
         return embedDataAccess;
     }
 
+    /**
+     * Returns the embedding API that project descriptions are embedded with. With the OpenAI provider,
+     * descriptions that were embedded before are answered from a persistent cache.
+     *
+     * @return the EmbeddingAPIInterface instance
+     */
+    public static EmbeddingAPIInterface getEmbeddingAPI() {
+        return embeddingAPI;
+    }
+
+    /**
+     * Saves what the embedding API has not written yet, such as the buffered hits of its cache. Called when the
+     * application closes.
+     */
+    public static void closeEmbeddingAPI() {
+        if (embeddingAPI instanceof ContentAddressedEmbeddingCache cache) {
+            cache.close();
+        }
+    }
+
     /**
      * Returns the UserRepository that will be used in the application.
      *
@@ -93,6 +212,15 @@ public class DataAccessConfig {
         return USE_LOCAL == 1 ? userDataAccess : userRepository;
     }
 
+    /**
+     * Returns the UserEmbeddingRepository that will be used in the application.
+     *
+     * @return the UserEmbeddingRepository instance
+     */
+    public static IUserEmbeddingRepository getUserEmbeddingRepository() {
+        return USE_LOCAL == 1 ? userEmbedDataAccess : userEmbeddingRepository;
+    }
+
     /**
      * Returns the UserProjectsRepository that will be used in the application.
      *
@@ -147,6 +275,15 @@ public class DataAccessConfig {
         return userTagsManager;
     }
 
+    /**
+     * Returns the UserEmbeddingsManager instance that will be used in the application.
+     *
+     * @return the UserEmbeddingsManager instance
+     */
+    public static UserEmbeddingsManager getUserEmbeddingsManager() {
+        return userEmbeddingsManager;
+    }
+
     /**
      * Returns the ProjectManager instance that will be used in the application.
      *
@@ -0,0 +1,725 @@
+package config;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Configuration class for project search.
+ * Selects the search implementation used by the search use case and holds its tuning parameters.
+ */
+public class SearchConfig {
+    public static final int BRUTE_FORCE = 0; // Exact cosine similarity against every project
+    public static final int HNSW = 1; // Approximate search over an HNSW graph index
+    public static final int QUANTIZED = 2; // int8 quantized scan, rescored with full-precision embeddings
+    public static final int HYBRID = 3; // BM25 keyword search fused with exact cosine similarity
+    public static final int IVF = 4; // Approximate search over the closest k-means lists
+    public static final int TRUNCATED = 5; // Exact scan of truncated embeddings, reranked with full embeddings
+
+    public static final int DUPLICATE_WARN = 0; // Create near-duplicate projects, but tell the user about them
+    public static final int DUPLICATE_REJECT = 1; // Refuse to create near-duplicate projects
+
+    public static final int EMBEDDING_OPENAI = 0; // OpenAI embeddings endpoint, needs API_KEY and network access
+    public static final int EMBEDDING_LOCAL = 1; // Hashed n-gram embeddings computed in process, works offline
+
+    private static int searchImplementation = BRUTE_FORCE;
+
+    // HNSW parameters, see usecase.searchforproject.index.HnswIndex
+    private static int hnswM = 16;
+    private static int hnswEfConstruction = 200;
+    private static int hnswEfSearch = 64;
+    private static int resultCount = 20;
+
+    // Quantized search, see usecase.searchforproject.QuantizedProjectSearchObject
+    private static double quantizedMinRecall = 0.95;
+
+    // Hybrid search, see usecase.searchforproject.HybridProjectSearchObject
+    private static int hybridCandidateCount = 100;
+
+    // IVF search, see usecase.searchforproject.IvfProjectSearchObject
+    private static int ivfListCount = 0;
+    private static int ivfNprobe = 8;
+    private static double ivfRetrainImbalance = 1.5;
+
+    // Two-stage search, see usecase.searchforproject.LocalProjectSearchObject
+    private static int truncatedDimension = 256;
+    private static int truncatedRerankCount = 300;
+
+    // Near-duplicate detection, see usecase.searchforproject.LshDuplicateProjectObject
+    private static double duplicateThreshold = 0.95;
+    private static int duplicatePolicy = DUPLICATE_WARN;
+    private static int lshTableCount = 24;
+    private static int lshBitsPerTable = 16;
+
+    // Related projects, see usecase.relatedprojects.LocalRelatedProjectsObject
+    private static int relatedProjectCount = 5;
+
+    // Parallel exact search, see usecase.searchforproject.LocalProjectSearchObject
+    private static int parallelSearchThreshold = 20_000;
+    private static int searchParallelism = Runtime.getRuntime().availableProcessors();
+    private static Executor searchExecutor = ForkJoinPool.commonPool();
+
+    // Streaming search, see usecase.searchforproject.LocalProjectSearchObject
+    private static int streamingChunkSize = 8192;
+    private static Executor streamingExecutor = Executors.newCachedThreadPool(
+            Thread.ofPlatform().name("search-stream-", 0).daemon().factory());
+
+    // Search as you type, see usecase.searchforproject.SearchProjectsInteractor
+    private static Duration searchAsYouTypeDelay = Duration.ofMillis(300);
+    private static int suggestionCacheSize = 64;
+
+    // Query embedding cache, see api.embeddingapi.CachingEmbeddingAPI
+    private static int queryCacheSize = 1000;
+    private static Duration queryCacheTtl = Duration.ofDays(7);
+    private static Path queryCacheFile = Path.of("local_data/cache/query_embeddings.bin");
+
+    // Embedding provider, see api.embeddingapi.HashedNgramEmbeddingAPI
+    private static int embeddingProvider = EMBEDDING_OPENAI;
+    private static int localEmbeddingDimension = 512;
+
+    // Project embedding cache, see api.embeddingapi.ContentAddressedEmbeddingCache
+    private static int projectEmbeddingCacheSize = 5000;
+    private static Path projectEmbeddingCacheFile = Path.of("local_data/cache/project_embeddings.bin");
+
+    // Embedding request batching, see api.embeddingapi.BatchingEmbeddingAPI
+    private static int embeddingBatchSize = 64;
+    private static Duration embeddingBatchWindow = Duration.ofMillis(10);
+
+    // Search index snapshots, see usecase.searchforproject.index.PersistentEmbeddingStore
+    private static Path indexSnapshotDirectory = Path.of("local_data/index");
+
+    // This class should not be instantiated
+    private SearchConfig() { }
+
+    /**
+     * Returns the search implementation used by the search use case.
+     *
+     * @return one of {@link #BRUTE_FORCE}, {@link #HNSW}, {@link #QUANTIZED}, {@link #HYBRID}, {@link #IVF} or
+     *         {@link #TRUNCATED}
+     */
+    public static int getSearchImplementation() {
+        return searchImplementation;
+    }
+
+    /**
+     * Sets the search implementation used by search use cases created afterwards.
+     *
+     * @param implementation one of {@link #BRUTE_FORCE}, {@link #HNSW}, {@link #QUANTIZED}, {@link #HYBRID},
+     *                       {@link #IVF} or {@link #TRUNCATED}
+     */
+    public static void setSearchImplementation(int implementation) {
+        searchImplementation = implementation;
+    }
+
+    /**
+     * Returns the number of links kept per node of the HNSW graph.
+     *
+     * @return the HNSW M parameter
+     */
+    public static int getHnswM() {
+        return hnswM;
+    }
+
+    /**
+     * Sets the number of links kept per node of the HNSW graph.
+     *
+     * @param m the HNSW M parameter
+     */
+    public static void setHnswM(int m) {
+        hnswM = m;
+    }
+
+    /**
+     * Returns the candidate list size used while building the HNSW graph.
+     *
+     * @return the HNSW efConstruction parameter
+     */
+    public static int getHnswEfConstruction() {
+        return hnswEfConstruction;
+    }
+
+    /**
+     * Sets the candidate list size used while building the HNSW graph.
+     *
+     * @param efConstruction the HNSW efConstruction parameter
+     */
+    public static void setHnswEfConstruction(int efConstruction) {
+        hnswEfConstruction = efConstruction;
+    }
+
+    /**
+     * Returns the candidate list size used while querying the HNSW graph.
+     *
+     * @return the HNSW efSearch parameter
+     */
+    public static int getHnswEfSearch() {
+        return hnswEfSearch;
+    }
+
+    /**
+     * Sets the candidate list size used while querying the HNSW graph.
+     *
+     * @param efSearch the HNSW efSearch parameter
+     */
+    public static void setHnswEfSearch(int efSearch) {
+        hnswEfSearch = efSearch;
+    }
+
+    /**
+     * Returns the number of projects returned by an approximate search and shown per page of search results.
+     *
+     * @return the number of results
+     */
+    public static int getResultCount() {
+        return resultCount;
+    }
+
+    /**
+     * Sets the number of projects returned by an approximate search and shown per page of search results.
+     *
+     * @param count the number of results
+     */
+    public static void setResultCount(int count) {
+        resultCount = count;
+    }
+
+    /**
+     * Returns the lowest recall@10 the quantized search may have compared with the exact search.
+     *
+     * @return the recall bound, between 0 and 1
+     */
+    public static double getQuantizedMinRecall() {
+        return quantizedMinRecall;
+    }
+
+    /**
+     * Sets the lowest recall@10 the quantized search may have compared with the exact search.
+     * A higher bound makes the search rescore more candidates.
+     *
+     * @param minRecall the recall bound, between 0 and 1
+     */
+    public static void setQuantizedMinRecall(double minRecall) {
+        quantizedMinRecall = minRecall;
+    }
+
+    /**
+     * Returns the number of projects the hybrid search takes from each of the keyword and embedding rankings.
+     *
+     * @return the number of candidates per ranking
+     */
+    public static int getHybridCandidateCount() {
+        return hybridCandidateCount;
+    }
+
+    /**
+     * Sets the number of projects the hybrid search takes from each of the keyword and embedding rankings.
+     * Pages beyond this number take as many candidates as they need.
+     *
+     * @param count the number of candidates per ranking
+     */
+    public static void setHybridCandidateCount(int count) {
+        hybridCandidateCount = count;
+    }
+
+    /**
+     * Returns the number of k-means lists of the IVF search.
+     *
+     * @return the number of lists, or 0 to use the square root of the number of projects
+     */
+    public static int getIvfListCount() {
+        return ivfListCount;
+    }
+
+    /**
+     * Sets the number of k-means lists of the IVF search, used from the next training on.
+     *
+     * @param count the number of lists, or 0 to use the square root of the number of projects
+     */
+    public static void setIvfListCount(int count) {
+        ivfListCount = count;
+    }
+
+    /**
+     * Returns the number of lists an IVF query scans.
+     *
+     * @return the number of probed lists
+     */
+    public static int getIvfNprobe() {
+        return ivfNprobe;
+    }
+
+    /**
+     * Sets the number of lists an IVF query scans. More lists raise recall and latency.
+     *
+     * @param nprobe the number of probed lists
+     */
+    public static void setIvfNprobe(int nprobe) {
+        ivfNprobe = nprobe;
+    }
+
+    /**
+     * Returns how much the IVF list imbalance may grow, relative to its value right after training, before the
+     * lists are trained again in the background.
+     *
+     * @return the imbalance growth that triggers retraining
+     */
+    public static double getIvfRetrainImbalance() {
+        return ivfRetrainImbalance;
+    }
+
+    /**
+     * Sets how much the IVF list imbalance may grow, relative to its value right after training, before the lists
+     * are trained again in the background.
+     *
+     * @param imbalance the imbalance growth that triggers retraining, greater than 1
+     */
+    public static void setIvfRetrainImbalance(double imbalance) {
+        ivfRetrainImbalance = imbalance;
+    }
+
+    /**
+     * Returns the number of leading embedding components the first stage of the two-stage search scans.
+     *
+     * @return the truncated dimension
+     */
+    public static int getTruncatedDimension() {
+        return truncatedDimension;
+    }
+
+    /**
+     * Sets the number of leading embedding components the first stage of the two-stage search scans.
+     *
+     * @param dimension the truncated dimension
+     */
+    public static void setTruncatedDimension(int dimension) {
+        truncatedDimension = dimension;
+    }
+
+    /**
+     * Returns the number of projects the two-stage search reranks with the full embeddings.
+     *
+     * @return the rerank count
+     */
+    public static int getTruncatedRerankCount() {
+        return truncatedRerankCount;
+    }
+
+    /**
+     * Sets the number of projects the two-stage search reranks with the full embeddings.
+     *
+     * @param count the rerank count
+     */
+    public static void setTruncatedRerankCount(int count) {
+        truncatedRerankCount = count;
+    }
+
+    /**
+     * Returns the cosine similarity from which a new project counts as a near-duplicate of an existing one.
+     *
+     * @return the duplicate threshold
+     */
+    public static double getDuplicateThreshold() {
+        return duplicateThreshold;
+    }
+
+    /**
+     * Sets the cosine similarity from which a new project counts as a near-duplicate of an existing one.
+     *
+     * @param threshold the duplicate threshold
+     */
+    public static void setDuplicateThreshold(double threshold) {
+        duplicateThreshold = threshold;
+    }
+
+    /**
+     * Returns what happens when a new project is a near-duplicate of an existing one.
+     *
+     * @return {@link #DUPLICATE_WARN} or {@link #DUPLICATE_REJECT}
+     */
+    public static int getDuplicatePolicy() {
+        return duplicatePolicy;
+    }
+
+    /**
+     * Sets what happens when a new project is a near-duplicate of an existing one.
+     *
+     * @param policy {@link #DUPLICATE_WARN} or {@link #DUPLICATE_REJECT}
+     */
+    public static void setDuplicatePolicy(int policy) {
+        duplicatePolicy = policy;
+    }
+
+    /**
+     * Returns the number of hash tables of the near-duplicate index.
+     *
+     * @return the LSH table count
+     */
+    public static int getLshTableCount() {
+        return lshTableCount;
+    }
+
+    /**
+     * Sets the number of hash tables of the near-duplicate index. More tables miss fewer near-duplicates but make
+     * every check slower.
+     *
+     * @param count the LSH table count
+     */
+    public static void setLshTableCount(int count) {
+        lshTableCount = count;
+    }
+
+    /**
+     * Returns the number of hyperplanes each hash table of the near-duplicate index hashes with.
+     *
+     * @return the LSH bits per table
+     */
+    public static int getLshBitsPerTable() {
+        return lshBitsPerTable;
+    }
+
+    /**
+     * Sets the number of hyperplanes each hash table of the near-duplicate index hashes with, at most 32. More bits
+     * make buckets smaller, so checks compare fewer projects but miss more near-duplicates.
+     *
+     * @param bits the LSH bits per table
+     */
+    public static void setLshBitsPerTable(int bits) {
+        lshBitsPerTable = bits;
+    }
+
+    /**
+     * Returns the number of similar projects kept and shown for every project.
+     *
+     * @return the related project count
+     */
+    public static int getRelatedProjectCount() {
+        return relatedProjectCount;
+    }
+
+    /**
+     * Sets the number of similar projects kept and shown for every project. Takes effect when the related projects
+     * are next built.
+     *
+     * @param count the related project count, between 1 and 127
+     */
+    public static void setRelatedProjectCount(int count) {
+        relatedProjectCount = count;
+    }
+
+    /**
+     * Returns the number of projects from which the exact search scores shards in parallel.
+     *
+     * @return the parallel search threshold
+     */
+    public static int getParallelSearchThreshold() {
+        return parallelSearchThreshold;
+    }
+
+    /**
+     * Sets the number of projects from which the exact search scores shards in parallel.
+     * Smaller project sets are scanned on the calling thread.
+     *
+     * @param threshold the parallel search threshold
+     */
+    public static void setParallelSearchThreshold(int threshold) {
+        parallelSearchThreshold = threshold;
+    }
+
+    /**
+     * Returns the number of shards a parallel exact search is split into.
+     *
+     * @return the search parallelism, by default the number of available processors
+     */
+    public static int getSearchParallelism() {
+        return searchParallelism;
+    }
+
+    /**
+     * Sets the number of shards a parallel exact search is split into. A value of 1 disables parallel search.
+     *
+     * @param parallelism the search parallelism
+     */
+    public static void setSearchParallelism(int parallelism) {
+        searchParallelism = parallelism;
+    }
+
+    /**
+     * Returns the executor that scores the shards of a parallel exact search.
+     *
+     * @return the search executor, by default the common fork/join pool
+     */
+    public static Executor getSearchExecutor() {
+        return searchExecutor;
+    }
+
+    /**
+     * Sets the executor that scores the shards of a parallel exact search.
+     *
+     * @param executor the search executor
+     */
+    public static void setSearchExecutor(Executor executor) {
+        searchExecutor = executor;
+    }
+
+    /**
+     * Returns the number of projects a streaming search scans before it passes the ranking so far to the view.
+     *
+     * @return the streaming chunk size
+     */
+    public static int getStreamingChunkSize() {
+        return streamingChunkSize;
+    }
+
+    /**
+     * Sets the number of projects a streaming search scans before it passes the ranking so far to the view.
+     *
+     * @param size the streaming chunk size
+     */
+    public static void setStreamingChunkSize(int size) {
+        streamingChunkSize = size;
+    }
+
+    /**
+     * Returns the executor that runs streaming searches, including the request for the query embedding. Kept apart
+     * from the search executor, whose threads should not wait on the network.
+     *
+     * @return the streaming executor, by default a cached pool of daemon threads
+     */
+    public static Executor getStreamingExecutor() {
+        return streamingExecutor;
+    }
+
+    /**
+     * Sets the executor that runs streaming searches.
+     *
+     * @param executor the streaming executor
+     */
+    public static void setStreamingExecutor(Executor executor) {
+        streamingExecutor = executor;
+    }
+
+    /**
+     * Returns how long the user must stop typing before the results for the typed query are refined by the selected
+     * search.
+     *
+     * @return the search-as-you-type delay
+     */
+    public static Duration getSearchAsYouTypeDelay() {
+        return searchAsYouTypeDelay;
+    }
+
+    /**
+     * Sets how long the user must stop typing before the results for the typed query are refined by the selected
+     * search.
+     *
+     * @param delay the search-as-you-type delay
+     */
+    public static void setSearchAsYouTypeDelay(Duration delay) {
+        searchAsYouTypeDelay = delay;
+    }
+
+    /**
+     * Returns the number of recent search-as-you-type rankings kept by the keyword search.
+     *
+     * @return the suggestion cache size
+     */
+    public static int getSuggestionCacheSize() {
+        return suggestionCacheSize;
+    }
+
+    /**
+     * Sets the number of recent search-as-you-type rankings kept by the keyword search.
+     *
+     * @param size the suggestion cache size
+     */
+    public static void setSuggestionCacheSize(int size) {
+        suggestionCacheSize = size;
+    }
+
+    /**
+     * Returns the number of query embeddings kept by the query embedding cache.
+     *
+     * @return the cache size
+     */
+    public static int getQueryCacheSize() {
+        return queryCacheSize;
+    }
+
+    /**
+     * Sets the number of query embeddings kept by the query embedding cache.
+     *
+     * @param size the cache size
+     */
+    public static void setQueryCacheSize(int size) {
+        queryCacheSize = size;
+    }
+
+    /**
+     * Returns how long a cached query embedding stays valid.
+     *
+     * @return the time to live of a cache entry
+     */
+    public static Duration getQueryCacheTtl() {
+        return queryCacheTtl;
+    }
+
+    /**
+     * Sets how long a cached query embedding stays valid.
+     *
+     * @param ttl the time to live of a cache entry
+     */
+    public static void setQueryCacheTtl(Duration ttl) {
+        queryCacheTtl = ttl;
+    }
+
+    /**
+     * Returns the file the query embedding cache is saved to.
+     *
+     * @return the cache file, or null if the cache is kept in memory only
+     */
+    public static Path getQueryCacheFile() {
+        return queryCacheFile;
+    }
+
+    /**
+     * Sets the file the query embedding cache is saved to.
+     *
+     * @param file the cache file, or null to keep the cache in memory only
+     */
+    public static void setQueryCacheFile(Path file) {
+        queryCacheFile = file;
+    }
+
+    /**
+     * Returns the provider that projects, queries and profiles are embedded with.
+     *
+     * @return {@link #EMBEDDING_OPENAI} or {@link #EMBEDDING_LOCAL}
+     */
+    public static int getEmbeddingProvider() {
+        return embeddingProvider;
+    }
+
+    /**
+     * Sets the provider that projects, queries and profiles are embedded with. Embeddings of different providers
+     * cannot be compared, so the stored project embeddings are recomputed at the next launch, see
+     * {@link DataAccessConfig#updateProjectEmbeddings()}.
+     *
+     * @param provider {@link #EMBEDDING_OPENAI} or {@link #EMBEDDING_LOCAL}
+     */
+    public static void setEmbeddingProvider(int provider) {
+        embeddingProvider = provider;
+    }
+
+    /**
+     * Returns the dimension of the embeddings computed in process.
+     *
+     * @return the local embedding dimension
+     */
+    public static int getLocalEmbeddingDimension() {
+        return localEmbeddingDimension;
+    }
+
+    /**
+     * Sets the dimension of the embeddings computed in process. Like a change of provider, a change of dimension
+     * makes the stored project embeddings be recomputed at the next launch.
+     *
+     * @param dimension the local embedding dimension
+     */
+    public static void setLocalEmbeddingDimension(int dimension) {
+        localEmbeddingDimension = dimension;
+    }
+
+    /**
+     * Returns the number of project embeddings kept by the content-addressed cache.
+     *
+     * @return the maximum number of cached project embeddings
+     */
+    public static int getProjectEmbeddingCacheSize() {
+        return projectEmbeddingCacheSize;
+    }
+
+    /**
+     * Sets the number of project embeddings kept by the content-addressed cache.
+     *
+     * @param size the maximum number of cached project embeddings
+     */
+    public static void setProjectEmbeddingCacheSize(int size) {
+        projectEmbeddingCacheSize = size;
+    }
+
+    /**
+     * Returns the file the project embedding cache is kept in.
+     *
+     * @return the cache file, or null if the cache is kept in memory only
+     */
+    public static Path getProjectEmbeddingCacheFile() {
+        return projectEmbeddingCacheFile;
+    }
+
+    /**
+     * Sets the file the project embedding cache is kept in.
+     *
+     * @param file the cache file, or null to keep the cache in memory only
+     */
+    public static void setProjectEmbeddingCacheFile(Path file) {
+        projectEmbeddingCacheFile = file;
+    }
+
+    /**
+     * Returns the number of texts at which a batch of embedding requests is sent at once.
+     *
+     * @return the embedding batch size
+     */
+    public static int getEmbeddingBatchSize() {
+        return embeddingBatchSize;
+    }
+
+    /**
+     * Sets the number of texts at which a batch of embedding requests is sent at once.
+     *
+     * @param size the embedding batch size, at least 1
+     */
+    public static void setEmbeddingBatchSize(int size) {
+        embeddingBatchSize = size;
+    }
+
+    /**
+     * Returns how long a batch of embedding requests waits for more texts after its first one.
+     *
+     * @return the embedding batch window
+     */
+    public static Duration getEmbeddingBatchWindow() {
+        return embeddingBatchWindow;
+    }
+
+    /**
+     * Sets how long a batch of embedding requests waits for more texts after its first one.
+     *
+     * @param window the embedding batch window
+     */
+    public static void setEmbeddingBatchWindow(Duration window) {
+        embeddingBatchWindow = window;
+    }
+
+    /**
+     * Returns the directory the exact search index is saved to, so it is not rebuilt from the repository on every
+     * launch. Only the local data source is saved: the database is shared with other clients, whose changes the
+     * journal of this one never sees, so a snapshot of it would go stale.
+     *
+     * @return the snapshot directory, or null if the index is rebuilt on every launch
+     */
+    public static Path getIndexSnapshotDirectory() {
+        return indexSnapshotDirectory;
+    }
+
+    /**
+     * Sets the directory the exact search index is saved to.
+     *
+     * @param directory the snapshot directory, or null to rebuild the index on every launch
+     */
+    public static void setIndexSnapshotDirectory(Path directory) {
+        indexSnapshotDirectory = directory;
+    }
+}
@@ -25,6 +25,7 @@ public class DatabaseInitializer {
     private static void initializeManagers() {
         DataAccessConfig.getUserManager().connect();
         DataAccessConfig.getUserTagsManager().connect();
+        DataAccessConfig.getUserEmbeddingsManager().connect();
         DataAccessConfig.getProjectManager().connect();
         DataAccessConfig.getProjectTagsManager().connect();
         DataAccessConfig.getProjectEmbeddingsManager().connect();
@@ -33,6 +34,7 @@ public class DatabaseInitializer {
 
         DataAccessConfig.getUserManager().initialize();
         DataAccessConfig.getUserTagsManager().initialize();
+        DataAccessConfig.getUserEmbeddingsManager().initialize();
         DataAccessConfig.getProjectManager().initialize();
         DataAccessConfig.getProjectTagsManager().initialize();
         DataAccessConfig.getProjectEmbeddingsManager().initialize();
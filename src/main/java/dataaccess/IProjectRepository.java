@@ -81,6 +81,21 @@ public interface IProjectRepository {
      */
     HashMap<Integer, float[]> getAllEmbeddings();
 
+    /**
+     * Retrieves all projects, including their tags.
+     *
+     * @return a hashmap where the keys are the project ids and the values are the projects
+     */
+    HashMap<Integer, Project> getAllProjects();
+
+    /**
+     * Retrieves the embedding of a single project, without loading the embeddings of every other project.
+     *
+     * @param projectId the ID of the project
+     * @return the embedding of the project, or null if the project does not exist or has no embedding
+     */
+    float[] getEmbedding(int projectId);
+
     /**
      * Retrieves the owner ID of a project from the database by its project ID.
      *
@@ -88,4 +103,11 @@ public interface IProjectRepository {
      * @return The ID of the user who owns the project, or -1 if the project is not found.
      */
     int getOwnerId(int projectId);
-}
\ No newline at end of file
+
+    /**
+     * Registers a listener that is notified after every project creation, update and deletion.
+     *
+     * @param listener the listener to notify
+     */
+    void addProjectChangeListener(ProjectChangeListener listener);
+}
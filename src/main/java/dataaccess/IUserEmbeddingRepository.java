@@ -0,0 +1,40 @@
+package dataaccess;
+
+import java.util.HashMap;
+
+/**
+ * Interface for the user embedding repository.
+ * Provides methods to save, remove, and retrieve the embeddings of user profiles, keyed by user id.
+ */
+public interface IUserEmbeddingRepository {
+
+    /**
+     * Saves the embedding of a user's profile, replacing any previous one.
+     *
+     * @param userId the id of the user
+     * @param embedding the embedding of the user's profile
+     */
+    void saveEmbedding(int userId, float[] embedding);
+
+    /**
+     * Removes the embedding of a user's profile.
+     *
+     * @param userId the id of the user
+     */
+    void removeEmbedding(int userId);
+
+    /**
+     * Retrieves the embedding of a user's profile.
+     *
+     * @param userId the id of the user
+     * @return the embedding of the user's profile, or null if the user has none
+     */
+    float[] getEmbedding(int userId);
+
+    /**
+     * Retrieves all user embeddings and their associated user ids.
+     *
+     * @return a hashmap where the key is the user id and the value is the embedding
+     */
+    HashMap<Integer, float[]> getAllEmbeddings();
+}
@@ -80,4 +80,11 @@ public interface IUserRepository {
      * @return the hashed password of the user associated with the email.
      */
     String getPasswordByEmail(String email);
-}
\ No newline at end of file
+
+    /**
+     * Registers a listener that is notified after every user creation, update and deletion.
+     *
+     * @param listener the listener to notify
+     */
+    void addUserChangeListener(UserChangeListener listener);
+}
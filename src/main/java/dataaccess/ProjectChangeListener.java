@@ -0,0 +1,25 @@
+package dataaccess;
+
+import entities.Project;
+
+/**
+ * Listener notified by a project repository after a project was created, updated or deleted.
+ * Lets search indexes follow the repository incrementally instead of reloading every project.
+ */
+public interface ProjectChangeListener {
+
+    /**
+     * Called after a project was created or any of its fields, tags or embedding changed.
+     *
+     * @param project the project as it is now stored
+     * @param embedding the embedding of the project, or an empty array if it has none
+     */
+    void projectSaved(Project project, float[] embedding);
+
+    /**
+     * Called after a project was deleted.
+     *
+     * @param projectId the id of the deleted project
+     */
+    void projectDeleted(int projectId);
+}
@@ -0,0 +1,24 @@
+package dataaccess;
+
+import entities.User;
+
+/**
+ * Listener notified by a user repository after a user was created, updated or deleted.
+ * Lets caches derived from user profiles follow the repository instead of reloading every user.
+ */
+public interface UserChangeListener {
+
+    /**
+     * Called after a user was created or any of their fields or tags changed.
+     *
+     * @param user the user as it is now stored
+     */
+    void userSaved(User user);
+
+    /**
+     * Called after a user was deleted.
+     *
+     * @param userId the id of the deleted user
+     */
+    void userDeleted(int userId);
+}
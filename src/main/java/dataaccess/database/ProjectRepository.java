@@ -1,11 +1,14 @@
 package dataaccess.database;
 
 import dataaccess.IProjectRepository;
+import dataaccess.ProjectChangeListener;
 import dataaccess.database.manager.*;
 import entities.Project;
 
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 /**
  * Facade class that implements the IProjectRepository interface and provides methods for managing projects in the database.
@@ -16,6 +19,7 @@ public class ProjectRepository implements IProjectRepository {
     private final ProjectTagsManager projectTagsManager;
     private final ProjectEmbeddingsManager projectEmbeddingsManager;
     private final UserProjectsManager userProjectsManager;
+    private final List<ProjectChangeListener> changeListeners = new CopyOnWriteArrayList<>();
 
     /**
      * Constructs a ProjectRepository with the specified ProjectManager, ProjectTagsManager, ProjectEmbeddingsManager, and UserProjectsManager.
@@ -53,6 +57,7 @@ public class ProjectRepository implements IProjectRepository {
             projectEmbeddingsManager.addEmbeddings(projectId, embeddings);
 //            userProjectsManager.addUserToProject(ownerId, projectId);
             project.setProjectTags(tags);
+            notifySaved(project, embeddings);
         }
         return project;
     }
@@ -68,7 +73,13 @@ public class ProjectRepository implements IProjectRepository {
         userProjectsManager.removeProjectFromAllUsers(projectId);
         projectTagsManager.removeTags(projectId, projectTagsManager.getTagsForProject(projectId));
         projectEmbeddingsManager.removeEmbeddings(projectId);
-        return projectManager.deleteProject(projectId);
+        boolean isDeleted = projectManager.deleteProject(projectId);
+        if (isDeleted) {
+            for (ProjectChangeListener listener : changeListeners) {
+                listener.projectDeleted(projectId);
+            }
+        }
+        return isDeleted;
     }
 
     /**
@@ -96,7 +107,11 @@ public class ProjectRepository implements IProjectRepository {
      */
     @Override
     public boolean addTags(int projectId, HashSet<String> tags) {
-        return projectTagsManager.addTags(projectId, tags);
+        boolean isAdded = projectTagsManager.addTags(projectId, tags);
+        if (isAdded) {
+            notifySaved(projectId);
+        }
+        return isAdded;
     }
 
     /**
@@ -108,18 +123,29 @@ public class ProjectRepository implements IProjectRepository {
      */
     @Override
     public boolean removeTags(int projectId, HashSet<String> tags) {
-        return projectTagsManager.removeTags(projectId, tags);
+        boolean isRemoved = projectTagsManager.removeTags(projectId, tags);
+        if (isRemoved) {
+            notifySaved(projectId);
+        }
+        return isRemoved;
     }
 
     /**
-     * Retrieves projects that match a keyword.
+     * Retrieves projects whose title, description or tags contain a keyword.
      *
      * @param keyword the keyword to search for.
      * @return a HashSet of Project objects that match the keyword.
      */
     @Override
     public HashSet<Project> getProjectsByKeyword(String keyword) {
-        return null; // Implementation not necessary for now
+        HashSet<Project> projects = new HashSet<>();
+        for (int projectId : projectManager.getProjectIdsByKeyword(keyword)) {
+            Project project = getProjectById(projectId);
+            if (project != null) {
+                projects.add(project);
+            }
+        }
+        return projects;
     }
 
     /**
@@ -141,6 +167,7 @@ public class ProjectRepository implements IProjectRepository {
             projectTagsManager.addTags(projectId, tags);
             projectEmbeddingsManager.removeEmbeddings(projectId);
             projectEmbeddingsManager.addEmbeddings(projectId, embeddings);
+            notifySaved(getProjectById(projectId), embeddings);
         }
         return isUpdated;
     }
@@ -155,6 +182,32 @@ public class ProjectRepository implements IProjectRepository {
         return projectEmbeddingsManager.getAllEmbeddings();
     }
 
+    /**
+     * Retrieves all projects, including their tags, from the database.
+     *
+     * @return a HashMap where the keys are project IDs and the values are projects.
+     */
+    @Override
+    public HashMap<Integer, Project> getAllProjects() {
+        HashMap<Integer, Project> projects = projectManager.getAllProjects();
+        HashMap<Integer, HashSet<String>> tags = projectTagsManager.getAllTags();
+        for (Project project : projects.values()) {
+            project.setProjectTags(tags.getOrDefault(project.getProjectId(), new HashSet<>()));
+        }
+        return projects;
+    }
+
+    /**
+     * Retrieves the embedding of a single project from the database.
+     *
+     * @param projectId the ID of the project.
+     * @return the embedding, or null if the project has none.
+     */
+    @Override
+    public float[] getEmbedding(int projectId) {
+        return projectEmbeddingsManager.getEmbeddings(projectId);
+    }
+
     /**
      * Retrieves the owner ID of a project by its project ID.
      *
@@ -165,4 +218,42 @@ public class ProjectRepository implements IProjectRepository {
     public int getOwnerId(int projectId) {
         return projectManager.getOwnerId(projectId);
     }
+
+    /**
+     * Registers a listener that is notified after every project creation, update and deletion.
+     *
+     * @param listener the listener to notify.
+     */
+    @Override
+    public void addProjectChangeListener(ProjectChangeListener listener) {
+        changeListeners.add(listener);
+    }
+
+    /**
+     * Notifies the listeners that the tags of a project changed, reading the project back from the database.
+     *
+     * @param projectId the ID of the project.
+     */
+    private void notifySaved(int projectId) {
+        Project project = getProjectById(projectId);
+        if (project != null) {
+            notifySaved(project, getEmbedding(projectId));
+        }
+    }
+
+    /**
+     * Notifies the listeners that a project was created or updated.
+     *
+     * @param project    the project.
+     * @param embeddings the embedding of the project, which may be null.
+     */
+    private void notifySaved(Project project, float[] embeddings) {
+        if (project == null || changeListeners.isEmpty()) {
+            return;
+        }
+        float[] embedding = embeddings == null ? new float[0] : embeddings;
+        for (ProjectChangeListener listener : changeListeners) {
+            listener.projectSaved(project, embedding);
+        }
+    }
 }
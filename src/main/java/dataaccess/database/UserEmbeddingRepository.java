@@ -0,0 +1,66 @@
+package dataaccess.database;
+
+import dataaccess.IUserEmbeddingRepository;
+import dataaccess.database.manager.UserEmbeddingsManager;
+
+import java.util.HashMap;
+
+/**
+ * Facade class that implements the IUserEmbeddingRepository interface and provides methods for managing the
+ * embeddings of user profiles in the database.
+ */
+public class UserEmbeddingRepository implements IUserEmbeddingRepository {
+
+    private final UserEmbeddingsManager userEmbeddingsManager;
+
+    /**
+     * Constructs a UserEmbeddingRepository with the specified UserEmbeddingsManager.
+     *
+     * @param userEmbeddingsManager the UserEmbeddingsManager instance.
+     */
+    public UserEmbeddingRepository(UserEmbeddingsManager userEmbeddingsManager) {
+        this.userEmbeddingsManager = userEmbeddingsManager;
+    }
+
+    /**
+     * Saves the embedding of a user's profile, replacing any previous one.
+     *
+     * @param userId the ID of the user.
+     * @param embedding the embedding of the user's profile.
+     */
+    @Override
+    public void saveEmbedding(int userId, float[] embedding) {
+        userEmbeddingsManager.replaceEmbeddings(userId, embedding);
+    }
+
+    /**
+     * Removes the embedding of a user's profile.
+     *
+     * @param userId the ID of the user.
+     */
+    @Override
+    public void removeEmbedding(int userId) {
+        userEmbeddingsManager.removeEmbeddings(userId);
+    }
+
+    /**
+     * Retrieves the embedding of a user's profile from the database.
+     *
+     * @param userId the ID of the user.
+     * @return the embedding of the user's profile, or null if they have none.
+     */
+    @Override
+    public float[] getEmbedding(int userId) {
+        return userEmbeddingsManager.getEmbeddings(userId);
+    }
+
+    /**
+     * Retrieves all user embeddings from the database.
+     *
+     * @return a HashMap where the keys are user IDs and the values are embeddings.
+     */
+    @Override
+    public HashMap<Integer, float[]> getAllEmbeddings() {
+        return userEmbeddingsManager.getAllEmbeddings();
+    }
+}
@@ -1,12 +1,15 @@
 package dataaccess.database;
 
 import dataaccess.IUserRepository;
+import dataaccess.UserChangeListener;
 import dataaccess.database.manager.UserManager;
 import dataaccess.database.manager.UserTagsManager;
 import dataaccess.database.manager.UserProjectsManager;
 import entities.User;
 
 import java.util.HashSet;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 /**
  * Facade class that implements the IUserRepository interface and provides methods for managing users in the database.
@@ -16,6 +19,7 @@ public class UserRepository implements IUserRepository {
     private final UserManager userManager;
     private final UserTagsManager userTagsManager;
     private final UserProjectsManager userProjectsManager;
+    private final List<UserChangeListener> changeListeners = new CopyOnWriteArrayList<>();
 
     /**
      * Constructs a UserRepository with the specified UserManager, UserTagsManager, and UserProjectsManager.
@@ -48,6 +52,7 @@ public class UserRepository implements IUserRepository {
         if (user != null) {
             userTagsManager.addTags(user.getUserId(), tags);
             user.setTags(tags);
+            notifySaved(user);
         }
         return user;
     }
@@ -100,6 +105,7 @@ public class UserRepository implements IUserRepository {
         if (isUpdated) {
             userTagsManager.removeTags(userId, userTagsManager.getTagsForUser(userId));
             userTagsManager.addTags(userId, tags);
+            notifySaved(userId);
         }
         return isUpdated;
     }
@@ -114,7 +120,13 @@ public class UserRepository implements IUserRepository {
     public boolean deleteUser(int userId) {
         userProjectsManager.removeUserFromAllProjects(userId);
         userTagsManager.removeTags(userId, userTagsManager.getTagsForUser(userId));
-        return userManager.deleteUser(userId);
+        boolean isDeleted = userManager.deleteUser(userId);
+        if (isDeleted) {
+            for (UserChangeListener listener : changeListeners) {
+                listener.userDeleted(userId);
+            }
+        }
+        return isDeleted;
     }
 
     /**
@@ -126,7 +138,11 @@ public class UserRepository implements IUserRepository {
      */
     @Override
     public boolean addTags(int userId, HashSet<String> tags) {
-        return userTagsManager.addTags(userId, tags);
+        boolean isAdded = userTagsManager.addTags(userId, tags);
+        if (isAdded) {
+            notifySaved(userId);
+        }
+        return isAdded;
     }
 
     /**
@@ -138,7 +154,11 @@ public class UserRepository implements IUserRepository {
      */
     @Override
     public boolean removeTags(int userId, HashSet<String> tags) {
-        return userTagsManager.removeTags(userId, tags);
+        boolean isRemoved = userTagsManager.removeTags(userId, tags);
+        if (isRemoved) {
+            notifySaved(userId);
+        }
+        return isRemoved;
     }
 
     /**
@@ -151,4 +171,40 @@ public class UserRepository implements IUserRepository {
     public String getPasswordByEmail(String email) {
         return userManager.getPasswordByEmail(email);
     }
+
+    /**
+     * Registers a listener that is notified after every user creation, update and deletion.
+     *
+     * @param listener the listener to notify.
+     */
+    @Override
+    public void addUserChangeListener(UserChangeListener listener) {
+        changeListeners.add(listener);
+    }
+
+    /**
+     * Notifies the listeners that a user changed, reading the user back from the database.
+     *
+     * @param userId the ID of the user.
+     */
+    private void notifySaved(int userId) {
+        if (changeListeners.isEmpty()) {
+            return;
+        }
+        User user = getUserById(userId);
+        if (user != null) {
+            notifySaved(user);
+        }
+    }
+
+    /**
+     * Notifies the listeners that a user was created or updated.
+     *
+     * @param user the user.
+     */
+    private void notifySaved(User user) {
+        for (UserChangeListener listener : changeListeners) {
+            listener.userSaved(user);
+        }
+    }
 }
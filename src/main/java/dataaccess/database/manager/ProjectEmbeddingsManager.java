@@ -4,13 +4,14 @@ import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
-import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
 
 /**
  * Manages project embeddings-related operations in the database.
  */
 public class ProjectEmbeddingsManager extends SQLDatabaseManager {
+    private static final int INITIAL_BUFFER_SIZE = 1536; // dimension of text-embedding-3-small
 
     /**
      * Constructs a ProjectEmbeddingsManager with the specified database name.
@@ -96,34 +97,40 @@ public class ProjectEmbeddingsManager extends SQLDatabaseManager {
 
     /**
      * Retrieves all project embeddings from the database.
+     * The rows are read into one reusable float buffer, so no value is boxed.
      *
      * @return a HashMap where the keys are project IDs and the values are embeddings.
      */
     public HashMap<Integer, float[]> getAllEmbeddings() {
-        String sql = "SELECT ProjectId, EmbeddingIndex, EmbeddingValue FROM ProjectEmbeddings ORDER BY ProjectId, EmbeddingIndex";
+        String sql = "SELECT ProjectId, EmbeddingValue FROM ProjectEmbeddings ORDER BY ProjectId, EmbeddingIndex";
         HashMap<Integer, float[]> embeddingsMap = new HashMap<>();
         Connection connection = getConnection();
         try (PreparedStatement preparedStatement = connection.prepareStatement(sql);
              ResultSet rs = preparedStatement.executeQuery()) {
 
             int currentProjectId = -1;
-            ArrayList<Float> currentEmbeddingList = new ArrayList<>();
+            float[] buffer = new float[INITIAL_BUFFER_SIZE];
+            int length = 0;
 
             while (rs.next()) {
-                int projectId = rs.getInt("ProjectId");
-                float embeddingValue = rs.getFloat("EmbeddingValue");
-
+                int projectId = rs.getInt(1);
                 if (projectId != currentProjectId) { // check whether we moved to a new project
-                    storeEmbedding(embeddingsMap, currentProjectId, currentEmbeddingList);
-
+                    if (currentProjectId != -1) {
+                        embeddingsMap.put(currentProjectId, Arrays.copyOf(buffer, length));
+                    }
                     currentProjectId = projectId;
-                    currentEmbeddingList.clear();
+                    length = 0;
+                }
+                if (length == buffer.length) {
+                    buffer = Arrays.copyOf(buffer, length * 2);
                 }
-                currentEmbeddingList.add(embeddingValue);
+                buffer[length++] = rs.getFloat(2);
             }
 
             // add last project's embeddings to the map
-            storeEmbedding(embeddingsMap, currentProjectId, currentEmbeddingList);
+            if (currentProjectId != -1) {
+                embeddingsMap.put(currentProjectId, Arrays.copyOf(buffer, length));
+            }
         } catch (SQLException e) {
             System.err.println(e.getMessage());
         }
@@ -131,20 +138,32 @@ public class ProjectEmbeddingsManager extends SQLDatabaseManager {
     }
 
     /**
-     * Stores the current project's embeddings in the provided HashMap.
+     * Retrieves the embeddings of a single project from the database.
      *
-     * @param embeddingsMap       the HashMap to store the embeddings.
-     * @param currentProjectId    the current project ID.
-     * @param currentEmbeddingList the list of embeddings for the current project.
+     * @param projectId the ID of the project.
+     * @return the embeddings of the project, or null if it has none.
      */
-    private void storeEmbedding(HashMap<Integer, float[]> embeddingsMap, int currentProjectId, ArrayList<Float> currentEmbeddingList) {
-        if (currentProjectId != -1) {
-            // convert ArrayList to float array and store in the map
-            float[] embeddingArray = new float[currentEmbeddingList.size()];
-            for (int i = 0; i < currentEmbeddingList.size(); i++) {
-                embeddingArray[i] = currentEmbeddingList.get(i);
+    public float[] getEmbeddings(int projectId) {
+        String sql = "SELECT EmbeddingValue FROM ProjectEmbeddings WHERE ProjectId = ? ORDER BY EmbeddingIndex";
+        float[] buffer = new float[INITIAL_BUFFER_SIZE];
+        int length = 0;
+        Connection connection = getConnection();
+        try (PreparedStatement preparedStatement = connection.prepareStatement(sql)) {
+            preparedStatement.setInt(1, projectId);
+            try (ResultSet rs = preparedStatement.executeQuery()) {
+                while (rs.next()) {
+                    if (length == buffer.length) {
+                        buffer = Arrays.copyOf(buffer, length * 2);
+                    }
+                    buffer[length++] = rs.getFloat(1);
+                }
             }
-            embeddingsMap.put(currentProjectId, embeddingArray);
+        } catch (SQLException e) {
+            System.err.println(e.getMessage());
+        }
+        if (length == 0) {
+            return null;
         }
+        return Arrays.copyOf(buffer, length);
     }
 }
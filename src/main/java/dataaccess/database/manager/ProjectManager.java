@@ -7,6 +7,7 @@ import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Statement;
+import java.util.HashMap;
 import java.util.HashSet;
 
 /**
@@ -153,4 +154,52 @@ public class ProjectManager extends SQLDatabaseManager {
         }
         return -1;
     }
+
+    /**
+     * Retrieves all projects from the database, without their tags.
+     *
+     * @return a HashMap where the keys are project IDs and the values are the projects.
+     */
+    public HashMap<Integer, Project> getAllProjects() {
+        String sql = "SELECT Id, Title, Budget, Description FROM Projects";
+        HashMap<Integer, Project> projects = new HashMap<>();
+        Connection connection = getConnection();
+        try (PreparedStatement preparedStatement = connection.prepareStatement(sql);
+             ResultSet rs = preparedStatement.executeQuery()) {
+            while (rs.next()) {
+                int projectId = rs.getInt("Id");
+                projects.put(projectId, new Project(projectId, rs.getString("Title"), rs.getDouble("Budget"),
+                        rs.getString("Description"), new HashSet<>()));
+            }
+        } catch (SQLException e) {
+            System.err.println(e.getMessage());
+        }
+        return projects;
+    }
+
+    /**
+     * Retrieves the IDs of the projects whose title, description or one of whose tags contains a keyword.
+     *
+     * @param keyword the keyword to search for.
+     * @return a HashSet of the matching project IDs.
+     */
+    public HashSet<Integer> getProjectIdsByKeyword(String keyword) {
+        String sql = "SELECT Id FROM Projects WHERE instr(Title, ?) > 0 OR instr(Description, ?) > 0 "
+                + "OR Id IN (SELECT ProjectId FROM ProjectTags WHERE instr(Tag, ?) > 0)";
+        HashSet<Integer> projectIds = new HashSet<>();
+        Connection connection = getConnection();
+        try (PreparedStatement preparedStatement = connection.prepareStatement(sql)) {
+            preparedStatement.setString(1, keyword);
+            preparedStatement.setString(2, keyword);
+            preparedStatement.setString(3, keyword);
+            try (ResultSet rs = preparedStatement.executeQuery()) {
+                while (rs.next()) {
+                    projectIds.add(rs.getInt("Id"));
+                }
+            }
+        } catch (SQLException e) {
+            System.err.println(e.getMessage());
+        }
+        return projectIds;
+    }
 }
@@ -4,6 +4,7 @@ import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.util.HashMap;
 import java.util.HashSet;
 
 /**
@@ -75,6 +76,26 @@ public class ProjectTagsManager extends SQLDatabaseManager {
         return tags;
     }
 
+    /**
+     * Retrieves the tags of every project from the database.
+     *
+     * @return a HashMap where the keys are project IDs and the values are their tags.
+     */
+    public HashMap<Integer, HashSet<String>> getAllTags() {
+        String sql = "SELECT ProjectId, Tag FROM ProjectTags";
+        HashMap<Integer, HashSet<String>> tags = new HashMap<>();
+        Connection connection = getConnection();
+        try (PreparedStatement preparedStatement = connection.prepareStatement(sql);
+             ResultSet rs = preparedStatement.executeQuery()) {
+            while (rs.next()) {
+                tags.computeIfAbsent(rs.getInt("ProjectId"), _ -> new HashSet<>()).add(rs.getString("Tag"));
+            }
+        } catch (SQLException e) {
+            System.err.println(e.getMessage());
+        }
+        return tags;
+    }
+
     /**
      * Helper method to execute tag updates (add/remove) in the database.
      *
@@ -0,0 +1,166 @@
+package dataaccess.database.manager;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Arrays;
+import java.util.HashMap;
+
+/**
+ * Manages user embeddings-related operations in the database.
+ */
+public class UserEmbeddingsManager extends SQLDatabaseManager {
+    private static final int INITIAL_BUFFER_SIZE = 1536; // dimension of text-embedding-3-small
+
+    /**
+     * Constructs a UserEmbeddingsManager with the specified database name.
+     *
+     * @param databaseName the name of the database.
+     */
+    public UserEmbeddingsManager(String databaseName) {
+        super(databaseName);
+    }
+
+    @Override
+    public void initialize() {
+        String userEmbeddingSql = "CREATE TABLE IF NOT EXISTS UserEmbeddings (UserId INTEGER NOT NULL, EmbeddingIndex INTEGER NOT NULL, EmbeddingValue FLOAT NOT NULL, PRIMARY KEY (UserId, EmbeddingIndex), FOREIGN KEY(UserId) REFERENCES Users(Id))";
+        super.initializeTables(userEmbeddingSql);
+    }
+
+    /**
+     * Replaces the embeddings of a user in the database in one transaction.
+     *
+     * @param userId     the ID of the user.
+     * @param embeddings the new embeddings.
+     * @return true if the embeddings were replaced successfully, false otherwise.
+     */
+    public boolean replaceEmbeddings(int userId, float[] embeddings) {
+        String deleteSql = "DELETE FROM UserEmbeddings WHERE UserId = ?";
+        String insertSql = "INSERT INTO UserEmbeddings (UserId, EmbeddingIndex, EmbeddingValue) VALUES (?, ?, ?)";
+        Connection connection = getConnection();
+
+        try (PreparedStatement deleteStatement = connection.prepareStatement(deleteSql);
+             PreparedStatement insertStatement = connection.prepareStatement(insertSql)) {
+            connection.setAutoCommit(false); // Disable auto-commit
+
+            deleteStatement.setInt(1, userId);
+            deleteStatement.executeUpdate();
+            for (int i = 0; i < embeddings.length; i++) {
+                insertStatement.setInt(1, userId);
+                insertStatement.setInt(2, i);
+                insertStatement.setFloat(3, embeddings[i]);
+                insertStatement.addBatch();
+            }
+            insertStatement.executeBatch();
+            connection.commit(); // Commit the transaction
+
+            return true;
+        } catch (SQLException e) {
+            System.err.println(e.getMessage());
+            try {
+                connection.rollback(); // Rollback the transaction
+            } catch (SQLException rollbackException) {
+                System.err.println(rollbackException.getMessage());
+            }
+        } finally {
+            try {
+                connection.setAutoCommit(true);
+            } catch (SQLException e) {
+                System.err.println(e.getMessage());
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Removes the embeddings of a user from the database.
+     *
+     * @param userId the ID of the user.
+     * @return true if the embeddings were removed successfully, false otherwise.
+     */
+    public boolean removeEmbeddings(int userId) {
+        String deleteEmbeddingsSql = "DELETE FROM UserEmbeddings WHERE UserId = ?";
+        Connection connection = getConnection();
+        try (PreparedStatement deleteEmbeddingStatement = connection.prepareStatement(deleteEmbeddingsSql)) {
+            deleteEmbeddingStatement.setInt(1, userId);
+            deleteEmbeddingStatement.executeUpdate();
+            return true;
+        } catch (SQLException e) {
+            System.err.println(e.getMessage());
+        }
+        return false;
+    }
+
+    /**
+     * Retrieves all user embeddings from the database.
+     * The rows are read into one reusable float buffer, so no value is boxed.
+     *
+     * @return a HashMap where the keys are user IDs and the values are embeddings.
+     */
+    public HashMap<Integer, float[]> getAllEmbeddings() {
+        String sql = "SELECT UserId, EmbeddingValue FROM UserEmbeddings ORDER BY UserId, EmbeddingIndex";
+        HashMap<Integer, float[]> embeddingsMap = new HashMap<>();
+        Connection connection = getConnection();
+        try (PreparedStatement preparedStatement = connection.prepareStatement(sql);
+             ResultSet rs = preparedStatement.executeQuery()) {
+
+            int currentUserId = -1;
+            float[] buffer = new float[INITIAL_BUFFER_SIZE];
+            int length = 0;
+
+            while (rs.next()) {
+                int userId = rs.getInt(1);
+                if (userId != currentUserId) { // check whether we moved to a new user
+                    if (currentUserId != -1) {
+                        embeddingsMap.put(currentUserId, Arrays.copyOf(buffer, length));
+                    }
+                    currentUserId = userId;
+                    length = 0;
+                }
+                if (length == buffer.length) {
+                    buffer = Arrays.copyOf(buffer, length * 2);
+                }
+                buffer[length++] = rs.getFloat(2);
+            }
+
+            // add last user's embeddings to the map
+            if (currentUserId != -1) {
+                embeddingsMap.put(currentUserId, Arrays.copyOf(buffer, length));
+            }
+        } catch (SQLException e) {
+            System.err.println(e.getMessage());
+        }
+        return embeddingsMap;
+    }
+
+    /**
+     * Retrieves the embeddings of a single user from the database.
+     *
+     * @param userId the ID of the user.
+     * @return the embeddings of the user, or null if they have none.
+     */
+    public float[] getEmbeddings(int userId) {
+        String sql = "SELECT EmbeddingValue FROM UserEmbeddings WHERE UserId = ? ORDER BY EmbeddingIndex";
+        float[] buffer = new float[INITIAL_BUFFER_SIZE];
+        int length = 0;
+        Connection connection = getConnection();
+        try (PreparedStatement preparedStatement = connection.prepareStatement(sql)) {
+            preparedStatement.setInt(1, userId);
+            try (ResultSet rs = preparedStatement.executeQuery()) {
+                while (rs.next()) {
+                    if (length == buffer.length) {
+                        buffer = Arrays.copyOf(buffer, length * 2);
+                    }
+                    buffer[length++] = rs.getFloat(1);
+                }
+            }
+        } catch (SQLException e) {
+            System.err.println(e.getMessage());
+        }
+        if (length == 0) {
+            return null;
+        }
+        return Arrays.copyOf(buffer, length);
+    }
+}
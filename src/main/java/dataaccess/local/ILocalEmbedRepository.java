@@ -1,6 +1,8 @@
 package dataaccess.local;
 
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.Map;
 
 /**
  * Interface for local embedding repository.
@@ -24,6 +26,30 @@ public interface ILocalEmbedRepository {
      */
     void saveEmbedData(String data, int id);
 
+    /**
+     * Saves an embedding for each of the given projects, embedding their data together.
+     * Used to import or re-embed many projects at once. A project the embedding API returns no embedding for keeps
+     * its previous one.
+     *
+     * @param dataById the data of each project to be used for embedding, keyed by project id
+     * @return the ids of the projects that received an embedding
+     */
+    ArrayList<Integer> saveEmbedData(Map<Integer, String> dataById);
+
+    /**
+     * Returns the name of the embedding model the stored embeddings were computed with.
+     *
+     * @return the model name, or null if it was never recorded
+     */
+    String getModel();
+
+    /**
+     * Records the name of the embedding model the stored embeddings were computed with.
+     *
+     * @param model the model name
+     */
+    void setModel(String model);
+
     /**
      * Removes an embedding for a project.
      *
@@ -9,18 +9,24 @@ import java.io.File;
 import java.io.FileReader;
 import java.io.FileWriter;
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.Arrays;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 /**
  * Local implementation of the ILocalEmbedRepository interface.
- * Manages embedding data using CSV files for storage.
+ * Manages embedding data using CSV files for storage. The name of the model the embeddings were computed with is kept
+ * in a text file next to the CSV file.
  */
 public class LocalEmbedRepository implements ILocalEmbedRepository {
 
     private final String FILE_PATH;
+    private final Path modelFile;
     private final EmbeddingAPIInterface embeddingAPI;
     private final HashMap<Integer, float[]> embeddings = new HashMap<>();
     private final String[] header = {"projectId", "embedding"};
@@ -34,6 +40,7 @@ public class LocalEmbedRepository implements ILocalEmbedRepository {
     public LocalEmbedRepository(String path, EmbeddingAPIInterface embeddingAPI) {
         this.embeddingAPI = embeddingAPI;
         FILE_PATH = path + "embeds.csv";
+        modelFile = Path.of(path + "embeds.model");
         File f = new File(FILE_PATH);
         File parent = f.getParentFile();
         try {
@@ -70,6 +77,65 @@ public class LocalEmbedRepository implements ILocalEmbedRepository {
         saveToCSV();
     }
 
+    /**
+     * Saves an embedding for each of the given projects with one bulk request to the embedding API, and writes the
+     * CSV file once. A project the embedding API returns no embedding for, e.g. without an API key, keeps its
+     * previous one.
+     *
+     * @param dataById the data of each project to be used for embedding, keyed by project id
+     * @return the ids of the projects that received an embedding
+     */
+    @Override
+    public ArrayList<Integer> saveEmbedData(Map<Integer, String> dataById) {
+        ArrayList<Integer> ids = new ArrayList<>(dataById.keySet());
+        ArrayList<String> data = new ArrayList<>(ids.size());
+        for (int id : ids) {
+            data.add(dataById.get(id));
+        }
+        List<float[]> embedded = embeddingAPI.getEmbedData(data);
+        ArrayList<Integer> savedIds = new ArrayList<>(ids.size());
+        for (int i = 0; i < ids.size(); i++) {
+            float[] embedding = embedded.get(i);
+            if (embedding != null && embedding.length > 0) {
+                embeddings.put(ids.get(i), embedding);
+                savedIds.add(ids.get(i));
+            }
+        }
+        if (!savedIds.isEmpty()) {
+            saveToCSV();
+        }
+        return savedIds;
+    }
+
+    /**
+     * Returns the name of the embedding model the stored embeddings were computed with.
+     *
+     * @return the model name, or null if it was never recorded
+     */
+    @Override
+    public String getModel() {
+        try {
+            return Files.exists(modelFile) ? Files.readString(modelFile, StandardCharsets.UTF_8).strip() : null;
+        } catch (IOException e) {
+            System.err.println("Could not read the embedding model: " + e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Records the name of the embedding model the stored embeddings were computed with.
+     *
+     * @param model the model name
+     */
+    @Override
+    public void setModel(String model) {
+        try {
+            Files.writeString(modelFile, model + System.lineSeparator(), StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            System.err.println("Could not record the embedding model: " + e.getMessage());
+        }
+    }
+
     /**
      * Removes an embedding for a project.
      *
@@ -144,7 +210,11 @@ public class LocalEmbedRepository implements ILocalEmbedRepository {
             reader.readNext();
             while ((line = reader.readNext()) != null) {
                 int projectId = Integer.parseInt(line[0]);
-                Float[] embedding = Arrays.stream(line[1].replace("[", "").replace("]", "").replace("\"","").split(",")).map(Float::valueOf).toArray(Float[]::new);
+                String values = line[1].replace("[", "").replace("]", "").replace("\"","");
+                if (values.isBlank()) {
+                    continue; // an empty embedding, saved when the embedding API returned none
+                }
+                Float[] embedding = Arrays.stream(values.split(",")).map(Float::valueOf).toArray(Float[]::new);
                 float[] floatArray = new float[embedding.length];
                 for (int i = 0; i < embedding.length; i++) {
                     floatArray[i] = embedding[i];
@@ -4,6 +4,7 @@ import com.opencsv.CSVReader;
 import com.opencsv.CSVWriter;
 import com.opencsv.exceptions.CsvValidationException;
 import dataaccess.IProjectRepository;
+import dataaccess.ProjectChangeListener;
 import entities.Project;
 import entities.ProjectInterface;
 
@@ -12,9 +13,14 @@ import java.io.FileReader;
 import java.io.FileWriter;
 import java.io.IOException;
 import java.nio.file.Files;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Predicate;
 import java.util.stream.Collectors;
 
 /**
@@ -28,6 +34,7 @@ public class LocalProjectRepository implements IProjectRepository {
     private final String[] header = {"projectId", "projectTitle", "projectBudget", "projectDescription", "projectTags", "projectOwner"};
     private final HashMap<Integer, ProjectInterface> projects = new HashMap<>();
     private final HashMap<Integer, Integer> projectOwners = new HashMap<>();
+    private final List<ProjectChangeListener> changeListeners = new CopyOnWriteArrayList<>();
     private int maxId = 0;
 
     /**
@@ -155,6 +162,7 @@ public class LocalProjectRepository implements IProjectRepository {
         embedDataAccess.saveEmbedData(embeddings, projectId);
         saveToCSV();
         maxId++;
+        notifySaved(project, embeddings);
         return project;
     }
 
@@ -172,6 +180,9 @@ public class LocalProjectRepository implements IProjectRepository {
         projects.remove(projectId);
         embedDataAccess.removeEmbedData(projectId);
         saveToCSV();
+        for (ProjectChangeListener listener : changeListeners) {
+            listener.projectDeleted(projectId);
+        }
         return true;
     }
 
@@ -303,6 +314,7 @@ public class LocalProjectRepository implements IProjectRepository {
         editProject.setProjectTags(tags);
         embedDataAccess.saveEmbedData(embeddings, editProject.getProjectId());
         saveToCSV();
+        notifySaved((Project) editProject, embeddings);
 
         return true;
     }
@@ -317,6 +329,31 @@ public class LocalProjectRepository implements IProjectRepository {
         return embedDataAccess.getAllEmbeddings();
     }
 
+    /**
+     * Retrieves all projects.
+     *
+     * @return a hashmap where the key is the project ID and the value is the project
+     */
+    @Override
+    public HashMap<Integer, Project> getAllProjects() {
+        HashMap<Integer, Project> allProjects = new HashMap<>();
+        for (ProjectInterface project : projects.values()) {
+            allProjects.put(project.getProjectId(), (Project) project);
+        }
+        return allProjects;
+    }
+
+    /**
+     * Retrieves the embedding of a project.
+     *
+     * @param projectId the ID of the project
+     * @return the embedding, or null if the project has none
+     */
+    @Override
+    public float[] getEmbedding(int projectId) {
+        return embedDataAccess.getEmbedData(projectId);
+    }
+
     /**
      * Retrieves the owner ID of a project.
      *
@@ -330,4 +367,67 @@ public class LocalProjectRepository implements IProjectRepository {
         }
         return 0;
     }
+
+    /**
+     * Embeds the description of every project whose embedding is stale again, with one bulk request to the
+     * embedding API per {@code batchSize} projects, and notifies the listeners of each re-embedded project.
+     * Used at launch for projects without an embedding and after the embedding model changed. The projects the
+     * embedding API returns no embedding for, e.g. without an API key, keep their previous one and are not notified.
+     * The batches after the first one the API could not embed entirely are not sent, so a failing API leaves the
+     * previous embeddings in place.
+     *
+     * @param stale tells whether an embedding, null if the project has none, must be computed again
+     * @param batchSize the number of projects embedded per bulk request and per write of the embeddings file
+     * @return the number of re-embedded projects, all of the stale ones
+     * @throws IllegalStateException if some stale project received no embedding
+     */
+    public int reembedProjects(Predicate<float[]> stale, int batchSize) {
+        ArrayList<Integer> projectIds = new ArrayList<>();
+        for (int projectId : projects.keySet()) {
+            if (stale.test(embedDataAccess.getEmbedData(projectId))) {
+                projectIds.add(projectId);
+            }
+        }
+        projectIds.sort(null);
+        int count = 0;
+        for (int from = 0; from < projectIds.size(); from += batchSize) {
+            LinkedHashMap<Integer, String> descriptions = new LinkedHashMap<>();
+            for (int projectId : projectIds.subList(from, Math.min(from + batchSize, projectIds.size()))) {
+                descriptions.put(projectId, projects.get(projectId).getProjectDescription());
+            }
+            ArrayList<Integer> embeddedIds = embedDataAccess.saveEmbedData(descriptions);
+            for (int projectId : embeddedIds) {
+                notifySaved((Project) projects.get(projectId), embedDataAccess.getEmbedData(projectId));
+            }
+            count += embeddedIds.size();
+            if (embeddedIds.size() < descriptions.size()) {
+                throw new IllegalStateException("the embedding API embedded only " + count + " of "
+                        + projectIds.size() + " projects");
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Registers a listener that is notified after every project creation, update and deletion.
+     *
+     * @param listener the listener to notify
+     */
+    @Override
+    public void addProjectChangeListener(ProjectChangeListener listener) {
+        changeListeners.add(listener);
+    }
+
+    /**
+     * Notifies the listeners that a project was created or updated.
+     *
+     * @param project the project
+     * @param embeddings the embedding of the project, which may be null
+     */
+    private void notifySaved(Project project, float[] embeddings) {
+        float[] embedding = embeddings == null ? new float[0] : embeddings;
+        for (ProjectChangeListener listener : changeListeners) {
+            listener.projectSaved(project, embedding);
+        }
+    }
 }
@@ -0,0 +1,151 @@
+package dataaccess.local;
+
+import com.opencsv.CSVReader;
+import com.opencsv.CSVWriter;
+import com.opencsv.exceptions.CsvValidationException;
+import dataaccess.IUserEmbeddingRepository;
+
+import java.io.File;
+import java.io.FileReader;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Local implementation of the IUserEmbeddingRepository interface.
+ * Keeps the embeddings in memory and stores them in a CSV file.
+ */
+public class LocalUserEmbedRepository implements IUserEmbeddingRepository {
+
+    private final String FILE_PATH;
+    private final HashMap<Integer, float[]> embeddings = new HashMap<>();
+    private final String[] header = {"userId", "embedding"};
+
+    /**
+     * Creates a new LocalUserEmbedRepository with the given path as the save location.
+     * Reads the embeddings from the CSV file if it exists.
+     *
+     * @param path the folder of the CSV file
+     */
+    public LocalUserEmbedRepository(String path) {
+        FILE_PATH = path + "user_embeds.csv";
+        File f = new File(FILE_PATH);
+        File parent = f.getParentFile();
+        try {
+            Files.createDirectories(parent.toPath());
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+        if (f.exists() && !f.isDirectory()) {
+            readFromCSV();
+        }
+    }
+
+    /**
+     * Saves the embedding of a user's profile, replacing any previous one.
+     *
+     * @param userId the id of the user
+     * @param embedding the embedding of the user's profile
+     */
+    @Override
+    public synchronized void saveEmbedding(int userId, float[] embedding) {
+        embeddings.put(userId, embedding);
+        saveToCSV();
+    }
+
+    /**
+     * Removes the embedding of a user's profile.
+     *
+     * @param userId the id of the user
+     */
+    @Override
+    public synchronized void removeEmbedding(int userId) {
+        if (embeddings.remove(userId) != null) {
+            saveToCSV();
+        }
+    }
+
+    /**
+     * Retrieves the embedding of a user's profile.
+     *
+     * @param userId the id of the user
+     * @return the embedding of the user's profile, or null if the user has none
+     */
+    @Override
+    public synchronized float[] getEmbedding(int userId) {
+        return embeddings.get(userId);
+    }
+
+    /**
+     * Retrieves all user embeddings and their associated user ids.
+     *
+     * @return a copy of the map from user id to embedding
+     */
+    @Override
+    public synchronized HashMap<Integer, float[]> getAllEmbeddings() {
+        return new HashMap<>(embeddings);
+    }
+
+    /**
+     * Saves the embeddings to a CSV file.
+     */
+    private void saveToCSV() {
+        CSVWriter writer;
+
+        try {
+            writer = new CSVWriter(new FileWriter(FILE_PATH));
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+
+        writer.writeNext(header);
+        for (Map.Entry<Integer, float[]> data : embeddings.entrySet()) {
+            String[] row = {String.valueOf(data.getKey()), Arrays.toString(data.getValue())};
+            writer.writeNext(row);
+        }
+
+        try {
+            writer.close();
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * Loads the embeddings from a CSV file.
+     */
+    private void readFromCSV() {
+        CSVReader reader;
+
+        try {
+            reader = new CSVReader(new FileReader(FILE_PATH));
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+
+        String[] line;
+        try {
+            reader.readNext();
+            while ((line = reader.readNext()) != null) {
+                int userId = Integer.parseInt(line[0]);
+                String[] values = line[1].replace("[", "").replace("]", "").replace("\"", "").split(",");
+                float[] embedding = new float[values.length];
+                for (int i = 0; i < values.length; i++) {
+                    embedding[i] = Float.parseFloat(values[i].trim());
+                }
+                embeddings.put(userId, embedding);
+            }
+        } catch (IOException | CsvValidationException e) {
+            throw new RuntimeException(e);
+        }
+
+        try {
+            reader.close();
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+}
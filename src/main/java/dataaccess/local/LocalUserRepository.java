@@ -5,6 +5,7 @@ import com.opencsv.CSVWriter;
 import com.opencsv.exceptions.CsvValidationException;
 import config.DataAccessConfig;
 import dataaccess.IUserRepository;
+import dataaccess.UserChangeListener;
 import entities.User;
 import entities.UserInterface;
 
@@ -16,6 +17,8 @@ import java.nio.file.Files;
 import java.util.Arrays;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 /**
  * Local implementation of the IUserRepository interface.
@@ -26,6 +29,7 @@ public class LocalUserRepository implements IUserRepository {
     private final String[] header = {"userID", "userEmail", "userFirstName", "userLastName", "userTags", "userDesiredCompensation", "userPassword"};
     private final HashMap<Integer, UserInterface> users = new HashMap<>();
     private final HashMap<Integer, String> userPasswords = new HashMap<>();
+    private final List<UserChangeListener> changeListeners = new CopyOnWriteArrayList<>();
     private int maxId = 0;
 
     /**
@@ -65,6 +69,7 @@ public class LocalUserRepository implements IUserRepository {
         userPasswords.put(user.getUserId(), password);
         saveToCSV();
         maxId++;
+        notifySaved(user);
         return user;
     }
 
@@ -115,6 +120,7 @@ public class LocalUserRepository implements IUserRepository {
         users.remove(userId);
         users.put(userId, user);
         saveToCSV();
+        notifySaved(user);
         return true;
     }
 
@@ -128,6 +134,9 @@ public class LocalUserRepository implements IUserRepository {
     public boolean deleteUser(int userId) {
         users.remove(userId);
         saveToCSV();
+        for (UserChangeListener listener : changeListeners) {
+            listener.userDeleted(userId);
+        }
         return true;
     }
 
@@ -145,6 +154,7 @@ public class LocalUserRepository implements IUserRepository {
         currentTags.addAll(tags);
         user.setTags(currentTags);
         saveToCSV();
+        notifySaved((User) user);
         return true;
     }
 
@@ -162,6 +172,7 @@ public class LocalUserRepository implements IUserRepository {
         currentTags.removeAll(tags);
         user.setTags(currentTags);
         saveToCSV();
+        notifySaved((User) user);
         return true;
     }
 
@@ -180,6 +191,27 @@ public class LocalUserRepository implements IUserRepository {
         return userPasswords.get(user.getUserId());
     }
 
+    /**
+     * Registers a listener that is notified after every user creation, update and deletion.
+     *
+     * @param listener the listener to notify
+     */
+    @Override
+    public void addUserChangeListener(UserChangeListener listener) {
+        changeListeners.add(listener);
+    }
+
+    /**
+     * Notifies the listeners that a user was created or updated.
+     *
+     * @param user the user as it is now stored
+     */
+    private void notifySaved(User user) {
+        for (UserChangeListener listener : changeListeners) {
+            listener.userSaved(user);
+        }
+    }
+
     /**
      * Converts a UserInterface object to a String array for CSV writing.
      *
@@ -0,0 +1,26 @@
+package usecase.findcandidates;
+
+/**
+ * Controller for handling the Find Candidates use case.
+ */
+public class FindCandidatesController {
+    private final FindCandidatesInputBoundary interactor;
+
+    /**
+     * Constructor for the FindCandidatesController class.
+     *
+     * @param interactor The interactor to be used.
+     */
+    public FindCandidatesController(FindCandidatesInputBoundary interactor) {
+        this.interactor = interactor;
+    }
+
+    /**
+     * Finds the users who best fit a project.
+     *
+     * @param projectId The ID of the project.
+     */
+    public void findCandidates(int projectId) {
+        interactor.findCandidates(projectId);
+    }
+}
@@ -0,0 +1,14 @@
+package usecase.findcandidates;
+
+/**
+ * Interface for the input boundary of the Find Candidates use case.
+ * Defines the method to find the users who best fit a project.
+ */
+public interface FindCandidatesInputBoundary {
+    /**
+     * Finds the users who best fit a project.
+     *
+     * @param projectId The ID of the project.
+     */
+    void findCandidates(int projectId);
+}
@@ -0,0 +1,36 @@
+package usecase.findcandidates;
+
+import entities.User;
+
+import java.util.ArrayList;
+
+/**
+ * Interactor for the Find Candidates use case.
+ * Implements the FindCandidatesInputBoundary interface to handle the input data.
+ */
+public class FindCandidatesInteractor implements FindCandidatesInputBoundary {
+    private final FindCandidatesOutputBoundary presenter;
+    private final UserCandidateInterface candidateFinder;
+
+    /**
+     * Creates a new FindCandidatesInteractor using the given output boundary and candidate finder.
+     *
+     * @param presenter The output boundary.
+     * @param candidateFinder The implementation that ranks the users for a project.
+     */
+    public FindCandidatesInteractor(FindCandidatesOutputBoundary presenter, UserCandidateInterface candidateFinder) {
+        this.presenter = presenter;
+        this.candidateFinder = candidateFinder;
+    }
+
+    /**
+     * Finds the users who best fit a project.
+     *
+     * @param projectId The ID of the project.
+     */
+    @Override
+    public void findCandidates(int projectId) {
+        ArrayList<User> candidates = candidateFinder.findCandidates(projectId);
+        presenter.presentCandidates(candidates);
+    }
+}
@@ -0,0 +1,18 @@
+package usecase.findcandidates;
+
+import entities.User;
+
+import java.util.ArrayList;
+
+/**
+ * Interface for the output boundary of the Find Candidates use case.
+ * Defines the method to present the candidates for a project.
+ */
+public interface FindCandidatesOutputBoundary {
+    /**
+     * Presents the candidates for a project.
+     *
+     * @param candidates The candidates, best match first.
+     */
+    void presentCandidates(ArrayList<User> candidates);
+}
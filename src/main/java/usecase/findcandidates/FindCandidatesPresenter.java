@@ -0,0 +1,39 @@
+package usecase.findcandidates;
+
+import entities.User;
+import usecase.manageusers.getusers.UserData;
+import viewmodel.MyProjectsPanelViewModel;
+
+import java.util.ArrayList;
+
+/**
+ * Presenter for the Find Candidates use case.
+ * Shows the candidates in the users table of the projects panel, in ranked order.
+ */
+public class FindCandidatesPresenter implements FindCandidatesOutputBoundary {
+    private final MyProjectsPanelViewModel myProjectsPanelViewModel;
+
+    /**
+     * Constructor for the FindCandidatesPresenter class.
+     *
+     * @param viewModel The view model for the projects panel.
+     */
+    public FindCandidatesPresenter(MyProjectsPanelViewModel viewModel) {
+        this.myProjectsPanelViewModel = viewModel;
+    }
+
+    /**
+     * Presents the candidates in the projects panel.
+     *
+     * @param candidates The candidates, best match first.
+     */
+    @Override
+    public void presentCandidates(ArrayList<User> candidates) {
+        ArrayList<UserData> candidatesData = new ArrayList<>();
+        for (User user : candidates) {
+            candidatesData.add(new UserData(user.getUserId(), user.getFirstName(), user.getLastName(),
+                    user.getUserEmail(), user.getTags(), user.getDesiredCompensation(), false));
+        }
+        myProjectsPanelViewModel.setCandidatesData(candidatesData);
+    }
+}
@@ -0,0 +1,39 @@
+package usecase.findcandidates;
+
+import config.DataAccessConfig;
+import config.SearchConfig;
+import dataaccess.IProjectRepository;
+import dataaccess.IUserEmbeddingRepository;
+import dataaccess.IUserProjectsRepository;
+import dataaccess.IUserRepository;
+import viewmodel.MyProjectsPanelViewModel;
+
+/**
+ * Factory class for creating instances of the Find Candidates use case.
+ */
+public class FindCandidatesUseCaseFactory {
+    private static final IProjectRepository projectRepository = DataAccessConfig.getProjectRepository();
+    private static final IUserRepository userRepository = DataAccessConfig.getUserRepository();
+    private static final IUserProjectsRepository userProjectsRepository =
+            DataAccessConfig.getUserProjectsRepository();
+    private static final IUserEmbeddingRepository userEmbeddingRepository =
+            DataAccessConfig.getUserEmbeddingRepository();
+
+    // Private constructor to prevent instantiation
+    private FindCandidatesUseCaseFactory() {}
+
+    /**
+     * Creates a find candidates controller that shows the candidates in the projects panel.
+     *
+     * @param myProjectsPanelViewModel the view model of the projects panel.
+     * @return the find candidates controller.
+     */
+    public static FindCandidatesController createFindCandidatesController(
+            MyProjectsPanelViewModel myProjectsPanelViewModel) {
+        FindCandidatesOutputBoundary presenter = new FindCandidatesPresenter(myProjectsPanelViewModel);
+        UserCandidateInterface candidateFinder = new LocalUserCandidateObject(userRepository,
+                userProjectsRepository, projectRepository, userEmbeddingRepository, SearchConfig.getResultCount());
+        FindCandidatesInputBoundary interactor = new FindCandidatesInteractor(presenter, candidateFinder);
+        return new FindCandidatesController(interactor);
+    }
+}
@@ -0,0 +1,104 @@
+package usecase.findcandidates;
+
+import dataaccess.IProjectRepository;
+import dataaccess.IUserEmbeddingRepository;
+import dataaccess.IUserProjectsRepository;
+import dataaccess.IUserRepository;
+import entities.Project;
+import entities.User;
+import usecase.manageusers.UserProfileEmbedder;
+import usecase.searchforproject.index.SearchHits;
+import usecase.searchforproject.index.TopKHeap;
+import usecase.searchforproject.index.VectorKernel;
+import usecase.searchforproject.index.VectorKernels;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+
+/**
+ * Local implementation for finding candidates for a project.
+ * Scores every user embedding in an {@link IUserEmbeddingRepository} against the embedding of the project and keeps
+ * the best ones in a bounded {@link TopKHeap}, so a search costs one pass over the users and never sorts them all.
+ * The embeddings are kept up to date by the {@link UserProfileEmbedder} of the user use cases, and are stored
+ * normalized, so their dot product with the normalized project embedding is the cosine similarity.
+ * <p>
+ * Members of the project are skipped, and so are users whose desired compensation exceeds the project's budget.
+ * Users are only read from the repository once their score would get them into the heap, so the compensation check
+ * costs one lookup per likely candidate rather than one per user.
+ */
+public class LocalUserCandidateObject implements UserCandidateInterface {
+
+    private final IUserRepository userRepository;
+    private final IUserProjectsRepository userProjectsRepository;
+    private final IProjectRepository projectRepository;
+    private final IUserEmbeddingRepository userEmbeddingRepository;
+    private final VectorKernel kernel = VectorKernels.getDefault();
+    private final int candidateCount;
+
+    /**
+     * Constructs a LocalUserCandidateObject.
+     *
+     * @param userRepository the user repository to use.
+     * @param userProjectsRepository the repository of the users in each project.
+     * @param projectRepository the project repository to use.
+     * @param userEmbeddingRepository the repository of the users' profile embeddings.
+     * @param candidateCount the number of users returned per project.
+     */
+    public LocalUserCandidateObject(IUserRepository userRepository, IUserProjectsRepository userProjectsRepository,
+                                    IProjectRepository projectRepository,
+                                    IUserEmbeddingRepository userEmbeddingRepository, int candidateCount) {
+        this.userRepository = userRepository;
+        this.userProjectsRepository = userProjectsRepository;
+        this.projectRepository = projectRepository;
+        this.userEmbeddingRepository = userEmbeddingRepository;
+        this.candidateCount = candidateCount;
+    }
+
+    /**
+     * Ranks the users who are not in a project and whose desired compensation fits its budget by the similarity of
+     * their profile to the project.
+     *
+     * @param projectId the id of the project.
+     * @return the best fitting users, best match first, or an empty list if the project has no embedding.
+     */
+    @Override
+    public ArrayList<User> findCandidates(int projectId) {
+        Project project = projectRepository.getProjectById(projectId);
+        float[] projectEmbedding = projectRepository.getEmbedding(projectId);
+        if (project == null || projectEmbedding == null || projectEmbedding.length == 0) {
+            return new ArrayList<>();
+        }
+        float[] query = VectorKernels.normalize(projectEmbedding);
+        HashSet<Integer> members = userProjectsRepository.getUserIdsForProject(projectId);
+        double budget = project.getProjectBudget();
+
+        TopKHeap heap = new TopKHeap(candidateCount);
+        HashMap<Integer, User> candidates = new HashMap<>();
+        for (Map.Entry<Integer, float[]> entry : userEmbeddingRepository.getAllEmbeddings().entrySet()) {
+            int userId = entry.getKey();
+            float[] embedding = entry.getValue();
+            if (embedding.length != query.length || (members != null && members.contains(userId))) {
+                continue;
+            }
+            float score = kernel.dot(query, embedding);
+            if (heap.isFull() && score < heap.worstScore()) {
+                continue;
+            }
+            User user = userRepository.getUserById(userId);
+            if (user == null || user.getDesiredCompensation() > budget) {
+                continue;
+            }
+            candidates.put(userId, user);
+            heap.offer(userId, score);
+        }
+
+        SearchHits hits = heap.drainSorted(0);
+        ArrayList<User> result = new ArrayList<>(hits.size());
+        for (int id : hits.ids()) {
+            result.add(candidates.get(id));
+        }
+        return result;
+    }
+}
@@ -0,0 +1,18 @@
+package usecase.findcandidates;
+
+import entities.User;
+
+import java.util.ArrayList;
+
+/**
+ * Interface for finding the users who best fit a project.
+ */
+public interface UserCandidateInterface {
+    /**
+     * Ranks the users who are not in a project by how well their profile matches it.
+     *
+     * @param projectId the id of the project.
+     * @return the best fitting users, best match first.
+     */
+    ArrayList<User> findCandidates(int projectId);
+}
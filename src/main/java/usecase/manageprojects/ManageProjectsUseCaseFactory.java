@@ -1,8 +1,8 @@
 package usecase.manageprojects;
 
 import api.embeddingapi.EmbeddingAPIInterface;
-import api.embeddingapi.OpenAPIDataEmbed;
 import config.DataAccessConfig;
+import config.SearchConfig;
 import dataaccess.IProjectRepository;
 import dataaccess.IUserProjectsRepository;
 import dataaccess.ILoginUserDetails;
@@ -22,6 +22,8 @@ import usecase.manageprojects.getprojects.GetProjectsInputBoundary;
 import usecase.manageprojects.getprojects.GetProjectsInteractor;
 import usecase.manageprojects.getprojects.GetProjectsOutputBoundary;
 import usecase.manageprojects.getprojects.GetProjectsPresenter;
+import usecase.searchforproject.DuplicateProjectInterface;
+import usecase.searchforproject.LshDuplicateProjectObject;
 import viewmodel.AddProjectPanelViewModel;
 import viewmodel.EditProjectPanelViewModel;
 import viewmodel.MyProjectsPanelViewModel;
@@ -30,7 +32,7 @@ public class ManageProjectsUseCaseFactory {
     private static final IProjectRepository projectRepository = DataAccessConfig.getProjectRepository();
     private static final IUserProjectsRepository userProjectsRepository = DataAccessConfig.getUserProjectsRepository();
     private static final ILoginUserDetails loginUserDetails = DataAccessConfig.getLoginUserDetails();
-    private static final EmbeddingAPIInterface embeddingAPI = new OpenAPIDataEmbed();
+    private static final EmbeddingAPIInterface embeddingAPI = DataAccessConfig.getEmbeddingAPI();
 
     // Private constructor to prevent instantiation
     private ManageProjectsUseCaseFactory() {}
@@ -51,8 +53,10 @@ public class ManageProjectsUseCaseFactory {
         GetProjectsOutputBoundary getProjectsPresenter = new GetProjectsPresenter(myProjectsPanelViewModel);
         GetProjectsInputBoundary getProjectsInteractor = new GetProjectsInteractor(getProjectsPresenter, userProjectsRepository, projectRepository);
         CreateProjectOutputBoundary createProjectPresenter = new CreateProjectPresenter(addProjectPanelViewModel);
+        DuplicateProjectInterface duplicateCheck = new LshDuplicateProjectObject(projectRepository);
         CreateProjectInputBoundary createProjectInteractor = new CreateProjectInteractor(projectRepository, userProjectsRepository,
-                                                                                         createProjectPresenter, embeddingAPI);
+                                                                                         createProjectPresenter, embeddingAPI, duplicateCheck,
+                                                                                         SearchConfig.getDuplicatePolicy() == SearchConfig.DUPLICATE_REJECT);
         EditProjectOutputBoundary editProjectPresenter = new EditProjectPresenter(editProjectPanelViewModel);
         EditProjectInputBoundary editProjectInteractor = new EditProjectInteractor(projectRepository, editProjectPresenter, embeddingAPI);
         DeleteProjectOutputBoundary deleteProjectPresenter = new DeleteProjectPresenter(myProjectsPanelViewModel);
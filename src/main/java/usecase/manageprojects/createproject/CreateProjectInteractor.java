@@ -5,6 +5,10 @@ import api.embeddingapi.OpenAPIDataEmbed;
 import dataaccess.IUserProjectsRepository;
 import entities.Project;
 import dataaccess.IProjectRepository;
+import entities.ProjectInterface;
+import usecase.searchforproject.DuplicateProjectInterface;
+
+import java.util.ArrayList;
 
 /**
  * Interactor for the Create Project use case.
@@ -15,6 +19,8 @@ public class CreateProjectInteractor implements CreateProjectInputBoundary {
     private final CreateProjectOutputBoundary projectPresenter;
     private final EmbeddingAPIInterface embeddingAPI;
     private final IUserProjectsRepository userProjectsRepository;
+    private final DuplicateProjectInterface duplicateCheck;
+    private final boolean rejectDuplicates;
 
     /**
      * Constructs a CreateApplicationInteractor with the specified repository and presenter.
@@ -26,10 +32,31 @@ public class CreateProjectInteractor implements CreateProjectInputBoundary {
                                    IUserProjectsRepository userProjectsRepository,
                                    CreateProjectOutputBoundary projectPresenter,
                                    EmbeddingAPIInterface embeddingAPI) {
+        this(projectRepository, userProjectsRepository, projectPresenter, embeddingAPI, null, false);
+    }
+
+    /**
+     * Constructs a CreateProjectInteractor that checks new projects for near-duplicates of existing ones.
+     *
+     * @param projectRepository the repository to interact with the database.
+     * @param userProjectsRepository the repository of the users in each project.
+     * @param projectPresenter  the presenter to handle the output presentation.
+     * @param embeddingAPI the embedding API used to embed the description.
+     * @param duplicateCheck the near-duplicate check, or null to check nothing.
+     * @param rejectDuplicates true to refuse near-duplicates, false to create them and report the similar projects.
+     */
+    public CreateProjectInteractor(IProjectRepository projectRepository,
+                                   IUserProjectsRepository userProjectsRepository,
+                                   CreateProjectOutputBoundary projectPresenter,
+                                   EmbeddingAPIInterface embeddingAPI,
+                                   DuplicateProjectInterface duplicateCheck,
+                                   boolean rejectDuplicates) {
         this.projectRepository = projectRepository;
         this.projectPresenter = projectPresenter;
         this.userProjectsRepository = userProjectsRepository;
         this.embeddingAPI = embeddingAPI;
+        this.duplicateCheck = duplicateCheck;
+        this.rejectDuplicates = rejectDuplicates;
     }
 
     /**
@@ -41,13 +68,26 @@ public class CreateProjectInteractor implements CreateProjectInputBoundary {
     public void createProject(CreateProjectInputData inputData) {
         String stringToEmbed = inputData.getDescription();
         float[] embeddings = embeddingAPI.getEmbedData(stringToEmbed);
+
+        ArrayList<String> similarProjectTitles = new ArrayList<>();
+        if (duplicateCheck != null) {
+            for (ProjectInterface duplicate : duplicateCheck.findNearDuplicates(embeddings)) {
+                similarProjectTitles.add(duplicate.getProjectTitle());
+            }
+        }
+        if (rejectDuplicates && !similarProjectTitles.isEmpty()) {
+            projectPresenter.prepareFailView("A very similar project already exists: "
+                    + String.join(", ", similarProjectTitles));
+            return;
+        }
+
         Project project = projectRepository.createProject(inputData.getTitle(), inputData.getBudget(), inputData.getDescription(), inputData.getTags(), embeddings, inputData.getCreatorUserId());
 
         CreateProjectOutputData outputData;
 
         if (project != null) {
             userProjectsRepository.addUserToProject(inputData.getCreatorUserId(), project.getProjectId());
-            outputData = new CreateProjectOutputData(project.getProjectId(), project.getProjectTitle(), project.getProjectBudget(), project.getProjectDescription(), project.getProjectTags());
+            outputData = new CreateProjectOutputData(project.getProjectId(), project.getProjectTitle(), project.getProjectBudget(), project.getProjectDescription(), project.getProjectTags(), similarProjectTitles);
             projectPresenter.prepareSuccessView(outputData);
         } else {
             projectPresenter.prepareFailView("Failed to create project.");
@@ -1,6 +1,8 @@
 package usecase.manageprojects.createproject;
 
+import java.util.ArrayList;
 import java.util.HashSet;
+import java.util.List;
 
 /**
  * This is an immutable data structure responsible for storing the output
@@ -12,6 +14,7 @@ public class CreateProjectOutputData {
     private final double budget;
     private final String description;
     private final HashSet<String> tags;
+    private final List<String> similarProjectTitles;
 
     /**
      * Constructs a CreateProjectOutputData object with the specified details.
@@ -23,11 +26,27 @@ public class CreateProjectOutputData {
      * @param tags        a set of tags associated with the project.
      */
     public CreateProjectOutputData(int projectId, String title, double budget, String description, HashSet<String> tags) {
+        this(projectId, title, budget, description, tags, new ArrayList<>());
+    }
+
+    /**
+     * Constructs a CreateProjectOutputData object for a project that is similar to existing ones.
+     *
+     * @param projectId            the ID of the created project.
+     * @param title                the title of the project.
+     * @param budget               the budget allocated for the project.
+     * @param description          a brief description of the project.
+     * @param tags                 a set of tags associated with the project.
+     * @param similarProjectTitles the titles of the existing projects the new one nearly duplicates.
+     */
+    public CreateProjectOutputData(int projectId, String title, double budget, String description, HashSet<String> tags,
+                                   List<String> similarProjectTitles) {
         this.projectId = projectId;
         this.title = title;
         this.budget = budget;
         this.description = description;
         this.tags = new HashSet<>(tags); // Defensive copy to ensure immutability
+        this.similarProjectTitles = List.copyOf(similarProjectTitles);
     }
 
     /**
@@ -74,4 +93,13 @@ public class CreateProjectOutputData {
     public HashSet<String> getTags() {
         return new HashSet<>(tags); // Return an unmodifiable view
     }
+
+    /**
+     * Returns the titles of the existing projects the new one nearly duplicates.
+     *
+     * @return the similar project titles, most similar first, or an empty list.
+     */
+    public List<String> getSimilarProjectTitles() {
+        return similarProjectTitles;
+    }
 }
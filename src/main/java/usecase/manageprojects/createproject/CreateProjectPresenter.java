@@ -27,6 +27,7 @@ public class CreateProjectPresenter implements CreateProjectOutputBoundary {
     public void prepareSuccessView(CreateProjectOutputData outputData) {
         addProjectPanelViewModel.setSuccess(true);
         addProjectPanelViewModel.setProjectName(outputData.getTitle());
+        addProjectPanelViewModel.setSimilarProjectTitles(outputData.getSimilarProjectTitles());
         addProjectPanelViewModel.firePropertyChanged();
     }
 
@@ -3,10 +3,12 @@ package usecase.manageusers;
 import config.DataAccessConfig;
 import dataaccess.ILoginUserDetails;
 import dataaccess.IProjectRepository;
+import dataaccess.IUserEmbeddingRepository;
 import dataaccess.IUserProjectsRepository;
 import dataaccess.IUserRepository;
 import usecase.BCryptPasswordHasher;
 import usecase.PasswordHasher;
+import usecase.searchforproject.SearchProjectUseCaseFactory;
 import usecase.manageusers.createuser.CreateUserInputBoundary;
 import usecase.manageusers.createuser.CreateUserInteractor;
 import usecase.manageusers.createuser.CreateUserPresenter;
@@ -29,6 +31,7 @@ public class ManageUsersUseCaseFactory {
     private static final IUserRepository userRepository = DataAccessConfig.getUserRepository();
     private static final IUserProjectsRepository userProjectsRepository = DataAccessConfig.getUserProjectsRepository();
     private static final IProjectRepository projectRepository = DataAccessConfig.getProjectRepository();
+    private static final IUserEmbeddingRepository userEmbeddingRepository = DataAccessConfig.getUserEmbeddingRepository();
 
     // Private constructor to prevent instantiation
     private ManageUsersUseCaseFactory() {}
@@ -38,15 +41,18 @@ public class ManageUsersUseCaseFactory {
             EditProfileViewModel editProfileViewModel,
             MyProjectsPanelViewModel myProjectsPanelViewModel
     ){
+        UserProfileEmbedder profileEmbedder = new UserProfileEmbedder(SearchProjectUseCaseFactory.getEmbeddingAPI(),
+                userEmbeddingRepository);
+
         CreateUserPresenter createUserPresenter = new CreateUserPresenter(createUserViewModel);
         PasswordHasher passwordHasher = new BCryptPasswordHasher();
-        CreateUserInputBoundary createUserInteractor = new CreateUserInteractor(userRepository, createUserPresenter, passwordHasher);
+        CreateUserInputBoundary createUserInteractor = new CreateUserInteractor(userRepository, createUserPresenter, passwordHasher, profileEmbedder);
 
         DeleteUserPresenter deleteUserPresenter = new DeleteUserPresenter();
-        DeleteUserInputBoundary deleteUserInteractor = new DeleteUserInteractor(userRepository, deleteUserPresenter);
+        DeleteUserInputBoundary deleteUserInteractor = new DeleteUserInteractor(userRepository, deleteUserPresenter, profileEmbedder);
 
         EditUserOutputBoundary editUserPresenter = new EditUserPresenter(editProfileViewModel);
-        EditUserInputBoundary editUserInteractor = new EditUserInteractor(editUserPresenter, userRepository);
+        EditUserInputBoundary editUserInteractor = new EditUserInteractor(editUserPresenter, userRepository, profileEmbedder);
 
         GetUsersOutputBoundary getUsersPresenter = new GetUsersPresenter(myProjectsPanelViewModel);
         GetUsersInputBoundary getUsersInteractor = new GetUsersInteractor(userProjectsRepository, userRepository, projectRepository, getUsersPresenter);
@@ -0,0 +1,86 @@
+package usecase.manageusers;
+
+import api.embeddingapi.EmbeddingAPIInterface;
+import dataaccess.IUserEmbeddingRepository;
+import usecase.searchforproject.ProjectSearchFilter;
+import usecase.searchforproject.index.VectorKernels;
+
+import java.util.Collection;
+import java.util.TreeSet;
+
+/**
+ * Keeps the embedding of a user's profile in an {@link IUserEmbeddingRepository} up to date.
+ * A profile is embedded from its tags in a fixed order, so the same tags always give the same text. Embeddings are
+ * stored normalized, so the dot product of two of them is their cosine similarity.
+ */
+public class UserProfileEmbedder {
+    private final EmbeddingAPIInterface embeddingAPI;
+    private final IUserEmbeddingRepository userEmbeddingRepository;
+
+    /**
+     * Constructs a UserProfileEmbedder.
+     *
+     * @param embeddingAPI the embedding API used to embed profiles.
+     * @param userEmbeddingRepository the repository the embeddings are saved to.
+     */
+    public UserProfileEmbedder(EmbeddingAPIInterface embeddingAPI, IUserEmbeddingRepository userEmbeddingRepository) {
+        this.embeddingAPI = embeddingAPI;
+        this.userEmbeddingRepository = userEmbeddingRepository;
+    }
+
+    /**
+     * Embeds the tags of a user who was created or edited their profile and saves the embedding.
+     * A user without tags has no embedding. If the embedding API fails, the previous embedding is kept.
+     *
+     * @param userId the id of the user.
+     * @param tags the tags of the user.
+     */
+    public void update(int userId, Collection<String> tags) {
+        String text = profileText(tags);
+        if (text.isEmpty()) {
+            userEmbeddingRepository.removeEmbedding(userId);
+            return;
+        }
+        float[] embedding;
+        try {
+            embedding = embeddingAPI.getEmbedData(text);
+        }
+        catch (RuntimeException e) {
+            System.err.println("Embedding the profile of user " + userId + " failed: " + e.getMessage());
+            return;
+        }
+        if (embedding == null || embedding.length == 0) {
+            return;
+        }
+        userEmbeddingRepository.saveEmbedding(userId, VectorKernels.normalize(embedding));
+    }
+
+    /**
+     * Removes the embedding of a deleted user.
+     *
+     * @param userId the id of the user.
+     */
+    public void remove(int userId) {
+        userEmbeddingRepository.removeEmbedding(userId);
+    }
+
+    /**
+     * Returns the text embedded for a profile: its normalized tags, sorted and separated by commas.
+     *
+     * @param tags the tags of the user, or null.
+     * @return the profile text, empty if the user has no tags.
+     */
+    public static String profileText(Collection<String> tags) {
+        if (tags == null) {
+            return "";
+        }
+        TreeSet<String> sorted = new TreeSet<>();
+        for (String tag : tags) {
+            String normalized = ProjectSearchFilter.normalizeTag(tag);
+            if (!normalized.isEmpty()) {
+                sorted.add(normalized);
+            }
+        }
+        return String.join(", ", sorted);
+    }
+}
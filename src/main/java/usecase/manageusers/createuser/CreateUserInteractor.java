@@ -4,6 +4,7 @@ import config.DataAccessConfig;
 import entities.User;
 import dataaccess.IUserRepository;
 import usecase.PasswordHasher;
+import usecase.manageusers.UserProfileEmbedder;
 
 /**
  * Interactor class for creating users.
@@ -13,6 +14,7 @@ public class CreateUserInteractor implements CreateUserInputBoundary {
     private final IUserRepository userRepository;
     private final CreateUserOutputBoundary userPresenter;
     private final PasswordHasher passwordHasher;
+    private final UserProfileEmbedder profileEmbedder;
 
     /**
      * Constructs a CreateUserInteractor with the specified user repository, presenter, and password hasher.
@@ -22,9 +24,23 @@ public class CreateUserInteractor implements CreateUserInputBoundary {
      * @param passwordHasher  the password hasher.
      */
     public CreateUserInteractor(IUserRepository userRepository, CreateUserOutputBoundary userPresenter, PasswordHasher passwordHasher) {
+        this(userRepository, userPresenter, passwordHasher, null);
+    }
+
+    /**
+     * Constructs a CreateUserInteractor that also embeds the profile of every created user.
+     *
+     * @param userRepository  the user repository.
+     * @param userPresenter   the presenter to handle output.
+     * @param passwordHasher  the password hasher.
+     * @param profileEmbedder the embedder that saves the profile embeddings, or null to embed none.
+     */
+    public CreateUserInteractor(IUserRepository userRepository, CreateUserOutputBoundary userPresenter,
+                                PasswordHasher passwordHasher, UserProfileEmbedder profileEmbedder) {
         this.userRepository = userRepository;
         this.userPresenter = userPresenter;
         this.passwordHasher = passwordHasher;
+        this.profileEmbedder = profileEmbedder;
     }
 
     /**
@@ -58,6 +74,9 @@ public class CreateUserInteractor implements CreateUserInputBoundary {
 
         CreateUserOutputData outputData;
         if (user != null) {
+            if (profileEmbedder != null) {
+                profileEmbedder.update(user.getUserId(), user.getTags());
+            }
             outputData = new CreateUserOutputData(user.getUserId(), user.getFirstName(), user.getLastName(),email, user.getDesiredCompensation(), user.getTags(), true);
             userPresenter.prepareSuccessView(outputData);
         } else {
@@ -1,6 +1,7 @@
 package usecase.manageusers.deleteuser;
 
 import dataaccess.IUserRepository;
+import usecase.manageusers.UserProfileEmbedder;
 
 /**
  * Interactor for the delete user use case.
@@ -9,6 +10,7 @@ import dataaccess.IUserRepository;
 public class DeleteUserInteractor implements DeleteUserInputBoundary {
     private final IUserRepository userRepository;
     private final DeleteUserPresenter deleteUserPresenter;
+    private final UserProfileEmbedder profileEmbedder;
 
     /**
      * Constructs a DeleteUserInteractor with the specified repository and presenter.
@@ -17,8 +19,21 @@ public class DeleteUserInteractor implements DeleteUserInputBoundary {
      * @param deleteUserPresenter the presenter to handle the output presentation.
      */
     public DeleteUserInteractor(IUserRepository userRepository, DeleteUserPresenter deleteUserPresenter) {
+        this(userRepository, deleteUserPresenter, null);
+    }
+
+    /**
+     * Constructs a DeleteUserInteractor that also removes the profile embedding of every deleted user.
+     *
+     * @param userRepository the repository to interact with the database.
+     * @param deleteUserPresenter the presenter to handle the output presentation.
+     * @param profileEmbedder the embedder that saves the profile embeddings, or null if none are saved.
+     */
+    public DeleteUserInteractor(IUserRepository userRepository, DeleteUserPresenter deleteUserPresenter,
+                                UserProfileEmbedder profileEmbedder) {
         this.userRepository = userRepository;
         this.deleteUserPresenter = deleteUserPresenter;
+        this.profileEmbedder = profileEmbedder;
     }
 
     /**
@@ -31,6 +46,9 @@ public class DeleteUserInteractor implements DeleteUserInputBoundary {
         int userId = inputData.getUserId();
 
         if (userRepository.deleteUser(userId)) {
+            if (profileEmbedder != null) {
+                profileEmbedder.remove(userId);
+            }
             DeleteUserOutputData outputData = new DeleteUserOutputData(userId);
             deleteUserPresenter.prepareSuccessView(outputData);
         } else {
@@ -1,6 +1,7 @@
 package usecase.manageusers.edituser;
 
 import dataaccess.IUserRepository;
+import usecase.manageusers.UserProfileEmbedder;
 
 import java.util.HashSet;
 
@@ -11,6 +12,7 @@ import java.util.HashSet;
 public class EditUserInteractor implements EditUserInputBoundary {
     private final EditUserOutputBoundary editUserPresenter;
     private final IUserRepository userRepository;
+    private final UserProfileEmbedder profileEmbedder;
 
     /**
      * Constructor for the EditUserInteractor class.
@@ -19,8 +21,21 @@ public class EditUserInteractor implements EditUserInputBoundary {
      * @param userRepository    The repository for user data.
      */
     public EditUserInteractor(EditUserOutputBoundary editUserPresenter, IUserRepository userRepository) {
+        this(editUserPresenter, userRepository, null);
+    }
+
+    /**
+     * Constructor for an EditUserInteractor that also embeds the edited profile again.
+     *
+     * @param editUserPresenter The presenter for the edit user use case.
+     * @param userRepository    The repository for user data.
+     * @param profileEmbedder   The embedder that saves the profile embeddings, or null to embed none.
+     */
+    public EditUserInteractor(EditUserOutputBoundary editUserPresenter, IUserRepository userRepository,
+                              UserProfileEmbedder profileEmbedder) {
         this.editUserPresenter = editUserPresenter;
         this.userRepository = userRepository;
+        this.profileEmbedder = profileEmbedder;
     }
 
     /**
@@ -37,6 +52,9 @@ public class EditUserInteractor implements EditUserInputBoundary {
         HashSet<String> tags = inputData.getTags();
 
         if (userRepository.updateUser(userId, firstName, lastName, desiredCompensation, tags)) {
+            if (profileEmbedder != null) {
+                profileEmbedder.update(userId, tags);
+            }
             EditUserOutputData outputData = new EditUserOutputData(userId, firstName, lastName, desiredCompensation, tags);
             editUserPresenter.prepareSuccessView(outputData);
         } else {
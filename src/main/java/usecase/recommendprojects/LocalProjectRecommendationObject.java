@@ -0,0 +1,262 @@
+package usecase.recommendprojects;
+
+import api.embeddingapi.EmbeddingAPIInterface;
+import dataaccess.IProjectRepository;
+import dataaccess.IUserProjectsRepository;
+import dataaccess.IUserRepository;
+import dataaccess.ProjectChangeListener;
+import dataaccess.UserChangeListener;
+import entities.Project;
+import entities.ProjectInterface;
+import entities.User;
+import usecase.manageusers.UserProfileEmbedder;
+import usecase.searchforproject.ProjectEmbeddingSearchInterface;
+import usecase.searchforproject.ProjectSearchFilter;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executor;
+
+/**
+ * Local implementation for recommending projects.
+ * Embeds the tags of a user's profile and ranks the projects by similarity to that embedding with a
+ * {@link ProjectEmbeddingSearchInterface}.
+ * <p>
+ * The embedding of each profile is cached per user, so the embedding API is only called again once the user's tags
+ * change. The recommendations themselves are cached too: after a user is created or edits their profile, they are
+ * computed again on the executor, so opening the recommendations right after saving the profile does not wait for
+ * the embedding API. A change to any project marks every cached ranking as stale and recomputes them on the
+ * executor, from the cached embeddings; until then, requests are still answered from the stale rankings, without the
+ * deleted project. Only a user with no ranking at all is ranked on the calling thread.
+ * <p>
+ * Projects the user is in are left out when the recommendations are returned, so joining a project takes effect
+ * at once.
+ */
+public class LocalProjectRecommendationObject implements ProjectRecommendationInterface, UserChangeListener,
+        ProjectChangeListener {
+
+    private final IUserRepository userRepository;
+    private final IUserProjectsRepository userProjectsRepository;
+    private final EmbeddingAPIInterface embeddingAPI;
+    private final ProjectEmbeddingSearchInterface projectSearch;
+    private final Executor executor;
+    private final int recommendationCount;
+    private final HashMap<Integer, ProfileEmbedding> profileEmbeddings = new HashMap<>();
+    private final HashMap<Integer, List<ProjectInterface>> recommendations = new HashMap<>();
+    private final HashSet<Integer> staleUsers = new HashSet<>();
+    private boolean refreshScheduled = false;
+    private long version = 0;
+
+    /**
+     * Constructs a LocalProjectRecommendationObject and registers for user and project changes.
+     *
+     * @param userRepository the user repository to use.
+     * @param userProjectsRepository the repository of the projects each user is in.
+     * @param projectRepository the project repository whose changes invalidate the recommendations.
+     * @param embeddingAPI the embedding API used to embed profiles.
+     * @param projectSearch the search that ranks projects by similarity to a profile.
+     * @param executor the executor that precomputes recommendations after profile changes.
+     * @param recommendationCount the number of projects recommended to a user.
+     */
+    public LocalProjectRecommendationObject(IUserRepository userRepository,
+                                            IUserProjectsRepository userProjectsRepository,
+                                            IProjectRepository projectRepository, EmbeddingAPIInterface embeddingAPI,
+                                            ProjectEmbeddingSearchInterface projectSearch, Executor executor,
+                                            int recommendationCount) {
+        this.userRepository = userRepository;
+        this.userProjectsRepository = userProjectsRepository;
+        this.embeddingAPI = embeddingAPI;
+        this.projectSearch = projectSearch;
+        this.executor = executor;
+        this.recommendationCount = recommendationCount;
+        userRepository.addUserChangeListener(this);
+        projectRepository.addProjectChangeListener(this);
+    }
+
+    /**
+     * Returns the projects that best match the tags of a user, leaving out the projects the user is in.
+     * Served from the cache if the recommendations were computed before, even if a project changed since and they
+     * are still being recomputed.
+     *
+     * @param userId the id of the user.
+     * @return the recommended projects, best match first, or an empty list if the user has no tags.
+     */
+    @Override
+    public ArrayList<ProjectInterface> recommendProjects(int userId) {
+        List<ProjectInterface> ranked;
+        synchronized (this) {
+            ranked = recommendations.get(userId);
+        }
+        if (ranked == null) {
+            User user = userRepository.getUserById(userId);
+            if (user == null) {
+                return new ArrayList<>();
+            }
+            ranked = compute(user);
+        }
+
+        HashSet<Integer> memberOf = userProjectsRepository.getProjectIdsForUser(userId);
+        ArrayList<ProjectInterface> result = new ArrayList<>();
+        for (ProjectInterface project : ranked) {
+            if (result.size() == recommendationCount) {
+                break;
+            }
+            if (memberOf == null || !memberOf.contains(project.getProjectId())) {
+                result.add(project);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Precomputes the recommendations of a user who was created or edited their profile.
+     *
+     * @param user the user as it is now stored.
+     */
+    @Override
+    public void userSaved(User user) {
+        synchronized (this) {
+            version++;
+            recommendations.remove(user.getUserId());
+        }
+        executor.execute(() -> compute(user));
+    }
+
+    /**
+     * Drops the cached embedding and recommendations of a deleted user.
+     *
+     * @param userId the id of the deleted user.
+     */
+    @Override
+    public synchronized void userDeleted(int userId) {
+        version++;
+        profileEmbeddings.remove(userId);
+        recommendations.remove(userId);
+        staleUsers.remove(userId);
+    }
+
+    /**
+     * Recomputes every cached recommendation in the background, since the project may now rank differently for
+     * anyone.
+     *
+     * @param project the project as it is now stored.
+     * @param embedding the embedding of the project, not used here.
+     */
+    @Override
+    public synchronized void projectSaved(Project project, float[] embedding) {
+        markAllStale();
+    }
+
+    /**
+     * Removes the deleted project from every cached recommendation and recomputes them in the background, so
+     * another project can take its place.
+     *
+     * @param projectId the id of the deleted project.
+     */
+    @Override
+    public synchronized void projectDeleted(int projectId) {
+        for (Map.Entry<Integer, List<ProjectInterface>> entry : recommendations.entrySet()) {
+            entry.setValue(entry.getValue().stream().filter(project -> project.getProjectId() != projectId).toList());
+        }
+        markAllStale();
+    }
+
+    /**
+     * Marks every cached ranking as stale and schedules their recomputation, unless it is already scheduled.
+     * The stale rankings are kept until they are replaced.
+     */
+    private void markAllStale() {
+        version++;
+        staleUsers.addAll(recommendations.keySet());
+        if (!refreshScheduled && !staleUsers.isEmpty()) {
+            refreshScheduled = true;
+            executor.execute(this::refreshStale);
+        }
+    }
+
+    /**
+     * Recomputes the rankings marked as stale. A ranking that a further change made stale again meanwhile is not
+     * stored, and is recomputed by the refresh that change scheduled.
+     */
+    private void refreshStale() {
+        List<Integer> userIds;
+        synchronized (this) {
+            refreshScheduled = false;
+            userIds = List.copyOf(staleUsers);
+        }
+        for (int userId : userIds) {
+            try {
+                User user = userRepository.getUserById(userId);
+                if (user != null) {
+                    compute(user);
+                }
+            } catch (RuntimeException e) {
+                System.err.println("Could not refresh recommendations: " + e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Ranks the projects for a user and caches the ranking, unless a user or project changed meanwhile.
+     * Keeps as many extra projects as the user is in, so that enough remain once those are left out.
+     *
+     * @param user the user.
+     * @return the ranked projects, including those the user is in.
+     */
+    private List<ProjectInterface> compute(User user) {
+        long startVersion;
+        synchronized (this) {
+            startVersion = version;
+        }
+        float[] embedding = profileEmbedding(user);
+        if (embedding == null) {
+            return List.of();
+        }
+        HashSet<Integer> memberOf = userProjectsRepository.getProjectIdsForUser(user.getUserId());
+        int count = recommendationCount + (memberOf == null ? 0 : memberOf.size());
+        List<ProjectInterface> ranked = List.copyOf(
+                projectSearch.searchProjects(embedding, count, 0, ProjectSearchFilter.NONE));
+        synchronized (this) {
+            if (version == startVersion) {
+                recommendations.put(user.getUserId(), ranked);
+                staleUsers.remove(user.getUserId());
+            }
+        }
+        return ranked;
+    }
+
+    /**
+     * Returns the embedding of a user's tags, from the cache if the tags did not change since it was computed.
+     *
+     * @param user the user.
+     * @return the embedding, or null if the user has no tags.
+     */
+    private float[] profileEmbedding(User user) {
+        String text = UserProfileEmbedder.profileText(user.getTags());
+        if (text.isEmpty()) {
+            return null;
+        }
+        synchronized (this) {
+            ProfileEmbedding cached = profileEmbeddings.get(user.getUserId());
+            if (cached != null && cached.text().equals(text)) {
+                return cached.embedding();
+            }
+        }
+        float[] embedding = embeddingAPI.getEmbedData(text);
+        synchronized (this) {
+            profileEmbeddings.put(user.getUserId(), new ProfileEmbedding(text, embedding));
+        }
+        return embedding;
+    }
+
+    /**
+     * The embedding of a profile together with the text it was computed from.
+     *
+     * @param text the embedded text.
+     * @param embedding the embedding.
+     */
+    private record ProfileEmbedding(String text, float[] embedding) { }
+}
@@ -0,0 +1,19 @@
+package usecase.recommendprojects;
+
+import entities.ProjectInterface;
+
+import java.util.ArrayList;
+
+/**
+ * Interface for recommending projects to a user.
+ */
+public interface ProjectRecommendationInterface {
+
+    /**
+     * Returns the projects that best match the profile of a user, leaving out the projects the user is in.
+     *
+     * @param userId the id of the user.
+     * @return the recommended projects, best match first.
+     */
+    ArrayList<ProjectInterface> recommendProjects(int userId);
+}
@@ -0,0 +1,26 @@
+package usecase.recommendprojects;
+
+/**
+ * Controller for handling the Recommend Projects use case.
+ */
+public class RecommendProjectsController {
+    private final RecommendProjectsInputBoundary interactor;
+
+    /**
+     * Constructor for the RecommendProjectsController class.
+     *
+     * @param interactor The interactor to be used.
+     */
+    public RecommendProjectsController(RecommendProjectsInputBoundary interactor) {
+        this.interactor = interactor;
+    }
+
+    /**
+     * Recommends projects to a user based on their profile.
+     *
+     * @param userId The ID of the user.
+     */
+    public void recommendProjects(int userId) {
+        interactor.recommendProjects(userId);
+    }
+}
@@ -0,0 +1,14 @@
+package usecase.recommendprojects;
+
+/**
+ * Interface for the input boundary of the Recommend Projects use case.
+ * Defines the method to recommend projects to a user.
+ */
+public interface RecommendProjectsInputBoundary {
+    /**
+     * Recommends projects to a user based on their profile.
+     *
+     * @param userId The ID of the user.
+     */
+    void recommendProjects(int userId);
+}
@@ -0,0 +1,37 @@
+package usecase.recommendprojects;
+
+import entities.ProjectInterface;
+
+import java.util.ArrayList;
+
+/**
+ * Interactor for the Recommend Projects use case.
+ * Implements the RecommendProjectsInputBoundary interface to handle the input data.
+ */
+public class RecommendProjectsInteractor implements RecommendProjectsInputBoundary {
+    private final RecommendProjectsOutputBoundary presenter;
+    private final ProjectRecommendationInterface recommendations;
+
+    /**
+     * Creates a new RecommendProjectsInteractor using the given output boundary and recommendation implementation.
+     *
+     * @param presenter The output boundary.
+     * @param recommendations The implementation that finds the recommended projects.
+     */
+    public RecommendProjectsInteractor(RecommendProjectsOutputBoundary presenter,
+                                       ProjectRecommendationInterface recommendations) {
+        this.presenter = presenter;
+        this.recommendations = recommendations;
+    }
+
+    /**
+     * Recommends projects to a user based on their profile.
+     *
+     * @param userId The ID of the user.
+     */
+    @Override
+    public void recommendProjects(int userId) {
+        ArrayList<ProjectInterface> projects = recommendations.recommendProjects(userId);
+        presenter.presentRecommendations(projects);
+    }
+}
@@ -0,0 +1,18 @@
+package usecase.recommendprojects;
+
+import entities.ProjectInterface;
+
+import java.util.ArrayList;
+
+/**
+ * Interface for the output boundary of the Recommend Projects use case.
+ * Defines the method to present the recommended projects.
+ */
+public interface RecommendProjectsOutputBoundary {
+    /**
+     * Presents the recommended projects.
+     *
+     * @param projects The recommended projects, best match first.
+     */
+    void presentRecommendations(ArrayList<ProjectInterface> projects);
+}
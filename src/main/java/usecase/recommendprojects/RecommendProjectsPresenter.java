@@ -0,0 +1,35 @@
+package usecase.recommendprojects;
+
+import entities.ProjectInterface;
+import viewmodel.SearchPanelViewModel;
+
+import java.util.ArrayList;
+
+/**
+ * Presenter for the Recommend Projects use case.
+ * Shows the recommended projects in the search panel, as a single page.
+ */
+public class RecommendProjectsPresenter implements RecommendProjectsOutputBoundary {
+    private final SearchPanelViewModel searchPanelViewModel;
+
+    /**
+     * Constructor for the RecommendProjectsPresenter class.
+     *
+     * @param viewModel The view model for the search panel.
+     */
+    public RecommendProjectsPresenter(SearchPanelViewModel viewModel) {
+        this.searchPanelViewModel = viewModel;
+    }
+
+    /**
+     * Presents the recommended projects in the search panel.
+     *
+     * @param projects The recommended projects, best match first.
+     */
+    @Override
+    public void presentRecommendations(ArrayList<ProjectInterface> projects) {
+        searchPanelViewModel.setProjects(projects);
+        searchPanelViewModel.setProjectPage(0, false);
+        searchPanelViewModel.firePropertyChanged();
+    }
+}
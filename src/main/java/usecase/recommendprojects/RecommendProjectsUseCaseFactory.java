@@ -0,0 +1,39 @@
+package usecase.recommendprojects;
+
+import config.DataAccessConfig;
+import config.SearchConfig;
+import dataaccess.IProjectRepository;
+import dataaccess.IUserProjectsRepository;
+import dataaccess.IUserRepository;
+import usecase.searchforproject.SearchProjectUseCaseFactory;
+import viewmodel.SearchPanelViewModel;
+
+/**
+ * Factory class for creating instances of the Recommend Projects use case.
+ */
+public class RecommendProjectsUseCaseFactory {
+    private static final IProjectRepository projectRepository = DataAccessConfig.getProjectRepository();
+    private static final IUserRepository userRepository = DataAccessConfig.getUserRepository();
+    private static final IUserProjectsRepository userProjectsRepository =
+            DataAccessConfig.getUserProjectsRepository();
+
+    // Private constructor to prevent instantiation
+    private RecommendProjectsUseCaseFactory() {}
+
+    /**
+     * Creates a recommend projects controller that shows the recommendations in the search panel.
+     *
+     * @param searchPanelViewModel the view model of the search panel.
+     * @return the recommend projects controller.
+     */
+    public static RecommendProjectsController createRecommendProjectsController(
+            SearchPanelViewModel searchPanelViewModel) {
+        RecommendProjectsOutputBoundary presenter = new RecommendProjectsPresenter(searchPanelViewModel);
+        ProjectRecommendationInterface recommendations = new LocalProjectRecommendationObject(userRepository,
+                userProjectsRepository, projectRepository, SearchProjectUseCaseFactory.getEmbeddingAPI(),
+                SearchProjectUseCaseFactory.getExactProjectSearch(),
+                SearchConfig.getSearchExecutor(), SearchConfig.getResultCount());
+        RecommendProjectsInputBoundary interactor = new RecommendProjectsInteractor(presenter, recommendations);
+        return new RecommendProjectsController(interactor);
+    }
+}
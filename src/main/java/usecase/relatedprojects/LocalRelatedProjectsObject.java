@@ -0,0 +1,272 @@
+package usecase.relatedprojects;
+
+import dataaccess.IProjectRepository;
+import dataaccess.ProjectChangeListener;
+import entities.Project;
+import entities.ProjectInterface;
+import usecase.searchforproject.ProjectSimilarityInterface;
+import usecase.searchforproject.index.PersistentEmbeddingStore;
+import usecase.searchforproject.index.RelatedProjectsGraph;
+import usecase.searchforproject.index.SearchHits;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Executor;
+
+/**
+ * Local implementation for finding related projects.
+ * Keeps the {@code k} most similar projects of every project in a {@link RelatedProjectsGraph}, so showing them is a
+ * lookup rather than a search.
+ * <p>
+ * The graph is built in the background after construction, a few projects per task, so that searches are not held up
+ * for long while it is built. It then follows the repository through a {@link ProjectChangeListener}. When a project
+ * is saved, it gets a new list and is offered to the list of every other project, which costs one pass over the
+ * embeddings. Only the lists it drops out of, and the lists of a deleted project's neighbours, are searched again.
+ * <p>
+ * The similarities come from a {@link ProjectSimilarityInterface} that follows the same repository. It must register
+ * for project changes before this object, so that it holds the new embedding when the graph is updated.
+ * <p>
+ * Every update runs on the executor, one at a time and in the order of the changes, so a change is visible to the
+ * related projects shortly after it is saved rather than at once.
+ * <p>
+ * If the embeddings are kept in a {@link PersistentEmbeddingStore}, the graph is saved next to its snapshot by
+ * {@link #saveSnapshot()}. On the next launch, if the store was restored from the snapshot the graph was saved with,
+ * the graph is read back and only the projects changed since, found in the replayed journal, are updated.
+ */
+public class LocalRelatedProjectsObject implements RelatedProjectsInterface, ProjectChangeListener {
+    private static final int BUILD_BATCH_SIZE = 16;
+    private static final String GRAPH_FILE = "related-projects.graph";
+
+    private final IProjectRepository projectDataAccess;
+    private final ProjectSimilarityInterface similarity;
+    private final RelatedProjectsGraph graph;
+    private final Executor executor;
+    private final PersistentEmbeddingStore snapshotStore;
+    private final ArrayDeque<Runnable> updates = new ArrayDeque<>();
+    private boolean updating = false;
+
+    /**
+     * Constructs a LocalRelatedProjectsObject, starts building the graph and registers for project changes.
+     *
+     * @param projectRepository the project repository to use.
+     * @param similarity the similarities between the stored projects.
+     * @param executor the executor that builds and updates the graph.
+     * @param relatedProjectCount the number of related projects kept per project, between 1 and 127.
+     */
+    public LocalRelatedProjectsObject(IProjectRepository projectRepository, ProjectSimilarityInterface similarity,
+                                      Executor executor, int relatedProjectCount) {
+        this(projectRepository, similarity, executor, relatedProjectCount, null);
+    }
+
+    /**
+     * Constructs a LocalRelatedProjectsObject that saves its graph next to the snapshot of the embeddings, reads the
+     * graph saved there or starts building it, and registers for project changes.
+     *
+     * @param projectRepository the project repository to use.
+     * @param similarity the similarities between the stored projects.
+     * @param executor the executor that builds and updates the graph.
+     * @param relatedProjectCount the number of related projects kept per project, between 1 and 127.
+     * @param snapshotStore the saved store holding the embeddings of the similarity source, or null to build the
+     *                      graph on every launch.
+     */
+    public LocalRelatedProjectsObject(IProjectRepository projectRepository, ProjectSimilarityInterface similarity,
+                                      Executor executor, int relatedProjectCount,
+                                      PersistentEmbeddingStore snapshotStore) {
+        this.projectDataAccess = projectRepository;
+        this.similarity = similarity;
+        this.graph = new RelatedProjectsGraph(relatedProjectCount);
+        this.executor = executor;
+        this.snapshotStore = snapshotStore;
+        if (readSnapshot()) {
+            for (int projectId : snapshotStore.getReplayedIds()) {
+                enqueue(() -> refresh(projectId));
+            }
+        }
+        else {
+            int[] projectIds = similarity.getEmbeddedProjectIds();
+            for (int from = 0; from < projectIds.length; from += BUILD_BATCH_SIZE) {
+                int[] batch = Arrays.copyOfRange(projectIds, from,
+                        Math.min(from + BUILD_BATCH_SIZE, projectIds.length));
+                enqueue(() -> recompute(batch));
+            }
+        }
+        projectRepository.addProjectChangeListener(this);
+    }
+
+    /**
+     * Returns the projects most similar to a project, as last computed.
+     *
+     * @param projectId the id of the project.
+     * @return the related projects, most similar first, or an empty list if the project has not been reached yet.
+     */
+    @Override
+    public ArrayList<RelatedProject> getRelatedProjects(int projectId) {
+        SearchHits neighbors = graph.getNeighbors(projectId);
+        ArrayList<RelatedProject> result = new ArrayList<>();
+        for (int i = 0; i < neighbors.size(); i++) {
+            ProjectInterface project = projectDataAccess.getProjectById(neighbors.ids()[i]);
+            if (project != null) {
+                result.add(new RelatedProject(project, neighbors.scores()[i]));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Updates the related projects of a project that was created or updated, and its place among those of the others.
+     *
+     * @param project the project as it is now stored.
+     * @param embedding the embedding of the project, read again from the similarity source.
+     */
+    @Override
+    public void projectSaved(Project project, float[] embedding) {
+        int projectId = project.getProjectId();
+        enqueue(() -> refresh(projectId));
+    }
+
+    /**
+     * Removes a deleted project and its related projects from the graph.
+     *
+     * @param projectId the id of the deleted project.
+     */
+    @Override
+    public void projectDeleted(int projectId) {
+        enqueue(() -> forget(projectId));
+    }
+
+    /**
+     * Returns the number of projects whose related projects are known.
+     *
+     * @return the number of projects in the graph.
+     */
+    public int size() {
+        return graph.size();
+    }
+
+    /**
+     * Saves the graph next to the snapshot of the embeddings, so the next launch does not build it again. Nothing is
+     * saved while an update is pending or while the embeddings have changed since their snapshot, since the graph
+     * would then not match the snapshot; a graph saved before stays valid for its own snapshot.
+     */
+    public void saveSnapshot() {
+        if (snapshotStore == null) {
+            return;
+        }
+        synchronized (updates) {
+            if (updating || snapshotStore.getJournalRecordCount() > 0 || snapshotStore.getGeneration() == 0) {
+                return;
+            }
+            try {
+                graph.write(snapshotStore.getDirectory().resolve(GRAPH_FILE), snapshotStore.getGeneration());
+            } catch (IOException e) {
+                System.err.println("Could not save related projects: " + e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Reads the graph saved with the snapshot the embeddings were restored from.
+     *
+     * @return true if the graph was read, false if it has to be built.
+     */
+    private boolean readSnapshot() {
+        if (snapshotStore == null || !snapshotStore.isRestoredFromSnapshot()) {
+            return false;
+        }
+        Path file = snapshotStore.getDirectory().resolve(GRAPH_FILE);
+        if (!Files.exists(file)) {
+            return false;
+        }
+        try {
+            if (RelatedProjectsGraph.read(file, graph) == snapshotStore.getRestoredGeneration()) {
+                return true;
+            }
+        } catch (IOException | RuntimeException e) {
+            System.err.println("Could not read related projects, building them again: " + e.getMessage());
+        }
+        graph.clear();
+        return false;
+    }
+
+    /**
+     * Computes the list of a saved project, then offers it to the list of every other project.
+     */
+    private void refresh(int projectId) {
+        SearchHits neighbors = similarity.findSimilarProjects(new int[]{projectId}, graph.getK()).getFirst();
+        if (neighbors == null) {
+            forget(projectId); // the project no longer has an embedding
+            return;
+        }
+        graph.setNeighbors(projectId, neighbors);
+        ArrayList<Integer> stale = new ArrayList<>();
+        similarity.scoreProjects(projectId, (id, score) -> {
+            if (graph.offer(id, projectId, score)) {
+                stale.add(id);
+            }
+        });
+        recompute(stale.stream().mapToInt(Integer::intValue).toArray());
+    }
+
+    /**
+     * Removes the list of a deleted project and recomputes the lists that it left with a free place.
+     */
+    private void forget(int projectId) {
+        graph.remove(projectId);
+        recompute(graph.removeNeighbor(projectId));
+    }
+
+    /**
+     * Computes the lists of the given projects again from the current embeddings.
+     */
+    private void recompute(int[] projectIds) {
+        if (projectIds.length == 0) {
+            return;
+        }
+        List<SearchHits> neighbors = similarity.findSimilarProjects(projectIds, graph.getK());
+        for (int i = 0; i < projectIds.length; i++) {
+            if (neighbors.get(i) != null) {
+                graph.setNeighbors(projectIds[i], neighbors.get(i));
+            }
+        }
+    }
+
+    /**
+     * Runs an update after every update enqueued before it.
+     */
+    private void enqueue(Runnable update) {
+        synchronized (updates) {
+            updates.add(update);
+            if (updating) {
+                return;
+            }
+            updating = true;
+        }
+        executor.execute(this::runUpdates);
+    }
+
+    /**
+     * Runs the enqueued updates until none is left.
+     */
+    private void runUpdates() {
+        while (true) {
+            Runnable update;
+            synchronized (updates) {
+                update = updates.poll();
+                if (update == null) {
+                    updating = false;
+                    return;
+                }
+            }
+            try {
+                update.run();
+            } catch (RuntimeException e) {
+                System.err.println("Could not update related projects: " + e);
+            }
+        }
+    }
+}
@@ -0,0 +1,12 @@
+package usecase.relatedprojects;
+
+import entities.ProjectInterface;
+
+/**
+ * A project similar to the one being viewed.
+ *
+ * @param project the similar project.
+ * @param similarity the cosine similarity of the embeddings of the two projects, to about four decimal places.
+ */
+public record RelatedProject(ProjectInterface project, float similarity) {
+}
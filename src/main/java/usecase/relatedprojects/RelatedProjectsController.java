@@ -0,0 +1,26 @@
+package usecase.relatedprojects;
+
+/**
+ * Controller for handling the Related Projects use case.
+ */
+public class RelatedProjectsController {
+    private final RelatedProjectsInputBoundary interactor;
+
+    /**
+     * Constructor for the RelatedProjectsController class.
+     *
+     * @param interactor The interactor to be used.
+     */
+    public RelatedProjectsController(RelatedProjectsInputBoundary interactor) {
+        this.interactor = interactor;
+    }
+
+    /**
+     * Shows the projects most similar to a project.
+     *
+     * @param projectId The ID of the project.
+     */
+    public void showRelatedProjects(int projectId) {
+        interactor.showRelatedProjects(projectId);
+    }
+}
@@ -0,0 +1,14 @@
+package usecase.relatedprojects;
+
+/**
+ * Interface for the input boundary of the Related Projects use case.
+ * Defines the method to show the projects related to a project.
+ */
+public interface RelatedProjectsInputBoundary {
+    /**
+     * Shows the projects most similar to a project.
+     *
+     * @param projectId The ID of the project.
+     */
+    void showRelatedProjects(int projectId);
+}
@@ -0,0 +1,32 @@
+package usecase.relatedprojects;
+
+/**
+ * Interactor for the Related Projects use case.
+ * Implements the RelatedProjectsInputBoundary interface to handle the input data.
+ */
+public class RelatedProjectsInteractor implements RelatedProjectsInputBoundary {
+    private final RelatedProjectsOutputBoundary presenter;
+    private final RelatedProjectsInterface relatedProjects;
+
+    /**
+     * Creates a new RelatedProjectsInteractor using the given output boundary and related projects implementation.
+     *
+     * @param presenter The output boundary.
+     * @param relatedProjects The implementation that finds the related projects.
+     */
+    public RelatedProjectsInteractor(RelatedProjectsOutputBoundary presenter,
+                                     RelatedProjectsInterface relatedProjects) {
+        this.presenter = presenter;
+        this.relatedProjects = relatedProjects;
+    }
+
+    /**
+     * Shows the projects most similar to a project.
+     *
+     * @param projectId The ID of the project.
+     */
+    @Override
+    public void showRelatedProjects(int projectId) {
+        presenter.presentRelatedProjects(projectId, relatedProjects.getRelatedProjects(projectId));
+    }
+}
@@ -0,0 +1,17 @@
+package usecase.relatedprojects;
+
+import java.util.ArrayList;
+
+/**
+ * Interface for finding the projects related to a project.
+ */
+public interface RelatedProjectsInterface {
+
+    /**
+     * Returns the projects most similar to a project.
+     *
+     * @param projectId the id of the project.
+     * @return the related projects, most similar first, or an empty list if none are known yet.
+     */
+    ArrayList<RelatedProject> getRelatedProjects(int projectId);
+}
@@ -0,0 +1,17 @@
+package usecase.relatedprojects;
+
+import java.util.ArrayList;
+
+/**
+ * Interface for the output boundary of the Related Projects use case.
+ * Defines the method to present the projects related to a project.
+ */
+public interface RelatedProjectsOutputBoundary {
+    /**
+     * Presents the projects related to a project.
+     *
+     * @param projectId The ID of the project.
+     * @param relatedProjects The related projects, most similar first.
+     */
+    void presentRelatedProjects(int projectId, ArrayList<RelatedProject> relatedProjects);
+}
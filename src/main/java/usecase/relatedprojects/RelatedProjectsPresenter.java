@@ -0,0 +1,34 @@
+package usecase.relatedprojects;
+
+import viewmodel.RelatedProjectsViewModel;
+
+import java.util.ArrayList;
+
+/**
+ * Presenter for the Related Projects use case.
+ * Passes the related projects to the views of individual projects through their view model.
+ */
+public class RelatedProjectsPresenter implements RelatedProjectsOutputBoundary {
+    private final RelatedProjectsViewModel relatedProjectsViewModel;
+
+    /**
+     * Constructor for the RelatedProjectsPresenter class.
+     *
+     * @param viewModel The view model of the related projects.
+     */
+    public RelatedProjectsPresenter(RelatedProjectsViewModel viewModel) {
+        this.relatedProjectsViewModel = viewModel;
+    }
+
+    /**
+     * Presents the projects related to a project.
+     *
+     * @param projectId The ID of the project.
+     * @param relatedProjects The related projects, most similar first.
+     */
+    @Override
+    public void presentRelatedProjects(int projectId, ArrayList<RelatedProject> relatedProjects) {
+        relatedProjectsViewModel.setRelatedProjects(projectId, relatedProjects);
+        relatedProjectsViewModel.firePropertyChanged();
+    }
+}
@@ -0,0 +1,61 @@
+package usecase.relatedprojects;
+
+import config.DataAccessConfig;
+import config.SearchConfig;
+import dataaccess.IProjectRepository;
+import usecase.searchforproject.LocalProjectSearchObject;
+import usecase.searchforproject.SearchProjectUseCaseFactory;
+import viewmodel.RelatedProjectsViewModel;
+
+/**
+ * Factory class for creating instances of the Related Projects use case.
+ */
+public class RelatedProjectsUseCaseFactory {
+    private static final IProjectRepository projectRepository = DataAccessConfig.getProjectRepository();
+
+    private static LocalRelatedProjectsObject relatedProjects = null;
+
+    // Private constructor to prevent instantiation
+    private RelatedProjectsUseCaseFactory() {}
+
+    /**
+     * Creates a related projects controller that shows the related projects through the given view model.
+     * The related projects of every project are read from the search index snapshot, or built in the background, so
+     * the first views may show none.
+     *
+     * @param relatedProjectsViewModel the view model of the related projects.
+     * @return the related projects controller.
+     */
+    public static RelatedProjectsController createRelatedProjectsController(
+            RelatedProjectsViewModel relatedProjectsViewModel) {
+        RelatedProjectsOutputBoundary presenter = new RelatedProjectsPresenter(relatedProjectsViewModel);
+        RelatedProjectsInputBoundary interactor = new RelatedProjectsInteractor(presenter, getRelatedProjects());
+        return new RelatedProjectsController(interactor);
+    }
+
+    /**
+     * Returns the related projects shared by every controller, reading or building them on first use.
+     *
+     * @return the shared related projects.
+     */
+    private static synchronized LocalRelatedProjectsObject getRelatedProjects() {
+        if (relatedProjects == null) {
+            // The search registers for project changes first, so it already holds an embedding when the graph reads it
+            LocalProjectSearchObject projectSearch = SearchProjectUseCaseFactory.getExactProjectSearch();
+            relatedProjects = new LocalRelatedProjectsObject(projectRepository, projectSearch,
+                    SearchConfig.getSearchExecutor(), SearchConfig.getRelatedProjectCount(),
+                    SearchProjectUseCaseFactory.getIndexSnapshotStore());
+        }
+        return relatedProjects;
+    }
+
+    /**
+     * Saves the related projects next to the search index snapshot, so the next launch does not build them again.
+     * Called when the application closes, after the search index snapshot is saved.
+     */
+    public static synchronized void saveRelatedProjectsSnapshot() {
+        if (relatedProjects != null) {
+            relatedProjects.saveSnapshot();
+        }
+    }
+}
@@ -0,0 +1,23 @@
+package usecase.searchforproject;
+
+import entities.ProjectInterface;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Interface for searches that can answer many queries at once, e.g. for jobs that search once per user or per
+ * project. Answering a batch together is much faster than answering its queries one by one.
+ */
+public interface BatchProjectSearchInterface extends ProjectSearchInterface {
+
+    /**
+     * Searches for projects based on each of the given queries.
+     * The result for each query is the same as {@link #searchProjects(String, int, int)} with an offset of 0.
+     *
+     * @param queries the queries to search for.
+     * @param k the maximum number of projects to return per query.
+     * @return for each query, in order, the projects that match it, most similar first.
+     */
+    List<ArrayList<ProjectInterface>> searchProjects(List<String> queries, int k);
+}
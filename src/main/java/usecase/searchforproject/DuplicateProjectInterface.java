@@ -0,0 +1,26 @@
+package usecase.searchforproject;
+
+import entities.ProjectInterface;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Interface for finding projects that are nearly identical to each other.
+ */
+public interface DuplicateProjectInterface {
+    /**
+     * Finds the existing projects that are near-duplicates of a project with the given embedding.
+     *
+     * @param embedding the embedding of the project to check.
+     * @return the near-duplicate projects, most similar first.
+     */
+    ArrayList<ProjectInterface> findNearDuplicates(float[] embedding);
+
+    /**
+     * Finds every pair of existing projects that are near-duplicates of each other.
+     *
+     * @return the pairs, most similar first.
+     */
+    List<DuplicateProjects> findAllNearDuplicates();
+}
@@ -0,0 +1,13 @@
+package usecase.searchforproject;
+
+import entities.ProjectInterface;
+
+/**
+ * Two existing projects that are nearly identical.
+ *
+ * @param first the project with the lower id.
+ * @param second the project with the higher id.
+ * @param similarity the cosine similarity of their embeddings.
+ */
+public record DuplicateProjects(ProjectInterface first, ProjectInterface second, float similarity) {
+}
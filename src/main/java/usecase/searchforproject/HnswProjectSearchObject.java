@@ -0,0 +1,204 @@
+package usecase.searchforproject;
+
+import api.embeddingapi.EmbeddingAPIInterface;
+import config.SearchConfig;
+import dataaccess.IProjectRepository;
+import dataaccess.ProjectChangeListener;
+import entities.Project;
+import entities.ProjectInterface;
+import usecase.searchforproject.index.HnswIndex;
+import usecase.searchforproject.index.SearchHits;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Map;
+import java.util.concurrent.Executor;
+
+/**
+ * Approximate implementation for searching projects.
+ * Answers queries from an HNSW graph index over the project embeddings instead of scanning every project.
+ * The index is built once, on construction, and then follows the repository through a
+ * {@link ProjectChangeListener}. The index locks itself, so changes may arrive while a search runs. Once updates and
+ * deletions have left too many deleted nodes in the graph, it is compacted on the executor.
+ * <p>
+ * Filtered searches pass the ids accepted by a {@link ProjectFilterIndex} to the graph walk, which only collects
+ * accepted nodes, or scores them directly when they are few.
+ */
+public class HnswProjectSearchObject implements ProjectSearchInterface, ProjectChangeListener {
+
+    private final EmbeddingAPIInterface embeddingAPI;
+    private final IProjectRepository projectDataAccess;
+    private final HnswIndex index;
+    private final ProjectFilterIndex filterIndex;
+    private final Executor executor;
+    private final int resultCount;
+    private boolean compactionScheduled = false;
+
+    /**
+     * Constructs an HnswProjectSearchObject using the parameters from {@link SearchConfig}.
+     *
+     * @param projectRepository the project repository to use.
+     * @param embeddingAPI the embedding API used to embed queries.
+     */
+    public HnswProjectSearchObject(IProjectRepository projectRepository, EmbeddingAPIInterface embeddingAPI) {
+        this(projectRepository, embeddingAPI, SearchConfig.getHnswM(), SearchConfig.getHnswEfConstruction(),
+                SearchConfig.getHnswEfSearch(), SearchConfig.getResultCount());
+    }
+
+    /**
+     * Constructs an HnswProjectSearchObject with the given index parameters.
+     *
+     * @param projectRepository the project repository to use.
+     * @param embeddingAPI the embedding API used to embed queries.
+     * @param m the number of links kept per node.
+     * @param efConstruction the candidate list size used while building the index.
+     * @param efSearch the candidate list size used while querying.
+     * @param resultCount the number of projects returned per search.
+     */
+    public HnswProjectSearchObject(IProjectRepository projectRepository, EmbeddingAPIInterface embeddingAPI,
+                                   int m, int efConstruction, int efSearch, int resultCount) {
+        this(projectRepository, embeddingAPI, m, efConstruction, efSearch, resultCount,
+                SearchConfig.getSearchExecutor());
+    }
+
+    /**
+     * Constructs an HnswProjectSearchObject with the given index parameters that compacts the index on the given
+     * executor.
+     *
+     * @param projectRepository the project repository to use.
+     * @param embeddingAPI the embedding API used to embed queries.
+     * @param m the number of links kept per node.
+     * @param efConstruction the candidate list size used while building the index.
+     * @param efSearch the candidate list size used while querying.
+     * @param resultCount the number of projects returned per search.
+     * @param executor the executor that compacts the index.
+     */
+    public HnswProjectSearchObject(IProjectRepository projectRepository, EmbeddingAPIInterface embeddingAPI,
+                                   int m, int efConstruction, int efSearch, int resultCount, Executor executor) {
+        this.embeddingAPI = embeddingAPI;
+        this.executor = executor;
+        this.projectDataAccess = projectRepository;
+        this.index = new HnswIndex(m, efConstruction, efSearch, 42);
+        this.resultCount = resultCount;
+        this.filterIndex = new ProjectFilterIndex(projectRepository);
+        for (Map.Entry<Integer, float[]> entry : projectRepository.getAllEmbeddings().entrySet()) {
+            upsert(entry.getKey(), entry.getValue());
+        }
+        projectRepository.addProjectChangeListener(this);
+    }
+
+    /**
+     * Searches for the projects most similar to the given query.
+     *
+     * @param query the query to search for.
+     * @return the list of projects that match the query, most similar first.
+     */
+    @Override
+    public ArrayList<ProjectInterface> searchProjects(String query) {
+        return searchProjects(query, resultCount, 0);
+    }
+
+    /**
+     * Searches for projects based on the given query and returns one page of the ranking.
+     * The index widens its candidate list to at least {@code k + offset}, so later pages are as accurate as the first.
+     *
+     * @param query the query to search for.
+     * @param k the maximum number of projects to return.
+     * @param offset the number of best matching projects to skip.
+     * @return the projects ranked {@code offset} to {@code offset + k - 1}, most similar first.
+     */
+    @Override
+    public ArrayList<ProjectInterface> searchProjects(String query, int k, int offset) {
+        return searchProjects(query, k, offset, ProjectSearchFilter.NONE);
+    }
+
+    /**
+     * Searches for projects that match the given filter and returns one page of their ranking.
+     *
+     * @param query the query to search for.
+     * @param k the maximum number of projects to return.
+     * @param offset the number of best matching projects to skip.
+     * @param filter the conditions every returned project meets.
+     * @return the accepted projects ranked {@code offset} to {@code offset + k - 1}, most similar first.
+     */
+    @Override
+    public ArrayList<ProjectInterface> searchProjects(String query, int k, int offset, ProjectSearchFilter filter) {
+        BitSet allowedIds = filterIndex.matching(filter);
+        float[] queryEmbedding = embeddingAPI.getEmbedData(query);
+
+        ArrayList<ProjectInterface> result = new ArrayList<>();
+        int count = (int) Math.min((long) k + offset, index.size());
+        SearchHits hits = index.search(queryEmbedding, count, allowedIds);
+        for (int i = offset; i < hits.size(); i++) {
+            ProjectInterface project = projectDataAccess.getProjectById(hits.ids()[i]);
+            if (project != null) {
+                result.add(project);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Returns the underlying index, e.g. to tune {@code efSearch} at runtime.
+     *
+     * @return the HNSW index.
+     */
+    public HnswIndex getIndex() {
+        return index;
+    }
+
+    /**
+     * Adds the new embedding of a project that was created or updated to the index.
+     *
+     * @param project the project as it is now stored.
+     * @param embedding the embedding of the project, or an empty array if it has none.
+     */
+    @Override
+    public synchronized void projectSaved(Project project, float[] embedding) {
+        upsert(project.getProjectId(), embedding);
+        compactIfNeeded();
+    }
+
+    /**
+     * Removes a deleted project from the index.
+     *
+     * @param projectId the id of the deleted project.
+     */
+    @Override
+    public synchronized void projectDeleted(int projectId) {
+        index.remove(projectId);
+        compactIfNeeded();
+    }
+
+    /**
+     * Starts a compaction of the index on the executor once too many of its nodes are deleted.
+     */
+    private void compactIfNeeded() {
+        if (compactionScheduled || !index.needsCompaction()) {
+            return;
+        }
+        compactionScheduled = true;
+        executor.execute(() -> {
+            try {
+                index.compact();
+            }
+            finally {
+                synchronized (this) {
+                    compactionScheduled = false;
+                }
+            }
+        });
+    }
+
+    /**
+     * Adds or replaces the embedding of a project in the index.
+     * Embeddings that are empty or whose dimension differs from the indexed ones are removed instead.
+     */
+    private void upsert(int projectId, float[] embedding) {
+        if (embedding.length == 0 || (index.getDimension() != -1 && embedding.length != index.getDimension())) {
+            index.remove(projectId);
+            return;
+        }
+        index.add(projectId, embedding);
+    }
+}
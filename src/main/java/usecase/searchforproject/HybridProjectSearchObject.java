@@ -0,0 +1,127 @@
+package usecase.searchforproject;
+
+import config.SearchConfig;
+import entities.ProjectInterface;
+import usecase.searchforproject.index.SearchHits;
+import usecase.searchforproject.index.TopKHeap;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+
+/**
+ * Hybrid implementation for searching projects.
+ * Runs a keyword search and an embedding search and fuses their rankings with reciprocal rank fusion: a project
+ * scores {@code 1 / (RRF_K + rank)} in each ranking it appears in, with ranks starting at 1. Only ranks are used, so
+ * the BM25 scores and cosine similarities need no common scale.
+ * <p>
+ * If the embedding search fails, e.g. because the embedding API cannot be reached, the keyword ranking is returned
+ * on its own.
+ */
+public class HybridProjectSearchObject implements ProjectSearchInterface {
+    public static final int RRF_K = 60;
+
+    private final ProjectSearchInterface lexicalSearch;
+    private final ProjectSearchInterface semanticSearch;
+    private final int candidateCount;
+    private final int resultCount;
+
+    /**
+     * Constructs a HybridProjectSearchObject using the parameters from {@link SearchConfig}.
+     *
+     * @param lexicalSearch the keyword search.
+     * @param semanticSearch the embedding search.
+     */
+    public HybridProjectSearchObject(ProjectSearchInterface lexicalSearch, ProjectSearchInterface semanticSearch) {
+        this(lexicalSearch, semanticSearch, SearchConfig.getHybridCandidateCount(), SearchConfig.getResultCount());
+    }
+
+    /**
+     * Constructs a HybridProjectSearchObject that fuses the given searches.
+     *
+     * @param lexicalSearch the keyword search.
+     * @param semanticSearch the embedding search.
+     * @param candidateCount the number of projects taken from each search, at least the requested page end.
+     * @param resultCount the number of projects returned by {@link #searchProjects(String)}.
+     */
+    public HybridProjectSearchObject(ProjectSearchInterface lexicalSearch, ProjectSearchInterface semanticSearch,
+                                     int candidateCount, int resultCount) {
+        this.lexicalSearch = lexicalSearch;
+        this.semanticSearch = semanticSearch;
+        this.candidateCount = candidateCount;
+        this.resultCount = resultCount;
+    }
+
+    /**
+     * Searches for the projects that best match the given query by keywords and meaning.
+     *
+     * @param query the query to search for.
+     * @return the list of projects that match the query, best match first.
+     */
+    @Override
+    public ArrayList<ProjectInterface> searchProjects(String query) {
+        return searchProjects(query, resultCount, 0);
+    }
+
+    /**
+     * Searches for projects based on the given query and returns one page of the fused ranking.
+     *
+     * @param query the query to search for.
+     * @param k the maximum number of projects to return.
+     * @param offset the number of best matching projects to skip.
+     * @return the projects ranked {@code offset} to {@code offset + k - 1}, best match first.
+     */
+    @Override
+    public ArrayList<ProjectInterface> searchProjects(String query, int k, int offset) {
+        return searchProjects(query, k, offset, ProjectSearchFilter.NONE);
+    }
+
+    /**
+     * Searches for projects that match the given filter and returns one page of their fused ranking.
+     * The filter is applied by both searches, so the fused candidates all meet it.
+     *
+     * @param query the query to search for.
+     * @param k the maximum number of projects to return.
+     * @param offset the number of best matching projects to skip.
+     * @param filter the conditions every returned project meets.
+     * @return the accepted projects ranked {@code offset} to {@code offset + k - 1}, best match first.
+     */
+    @Override
+    public ArrayList<ProjectInterface> searchProjects(String query, int k, int offset, ProjectSearchFilter filter) {
+        int wanted = (int) Math.min((long) k + offset, Integer.MAX_VALUE);
+        int candidates = Math.max(candidateCount, wanted);
+        ArrayList<ProjectInterface> lexical = lexicalSearch.searchProjects(query, candidates, 0, filter);
+        ArrayList<ProjectInterface> semantic;
+        try {
+            semantic = semanticSearch.searchProjects(query, candidates, 0, filter);
+        } catch (RuntimeException e) {
+            System.err.println("Embedding search failed, using keyword search only: " + e.getMessage());
+            semantic = new ArrayList<>();
+        }
+
+        HashMap<Integer, ProjectInterface> projectsById = new HashMap<>();
+        HashMap<Integer, Float> scoresById = new HashMap<>();
+        addRanking(lexical, projectsById, scoresById);
+        addRanking(semantic, projectsById, scoresById);
+
+        TopKHeap topK = TopKHeap.forCurrentThread(Math.min(wanted, scoresById.size()));
+        scoresById.forEach(topK::offer);
+        SearchHits hits = topK.drainSorted(offset);
+        ArrayList<ProjectInterface> result = new ArrayList<>();
+        for (int i = 0; i < hits.size(); i++) {
+            result.add(projectsById.get(hits.ids()[i]));
+        }
+        return result;
+    }
+
+    /**
+     * Adds the reciprocal rank of every project in a ranking to its fused score.
+     */
+    private static void addRanking(ArrayList<ProjectInterface> ranking, HashMap<Integer, ProjectInterface> projectsById,
+                                   HashMap<Integer, Float> scoresById) {
+        for (int rank = 1; rank <= ranking.size(); rank++) {
+            ProjectInterface project = ranking.get(rank - 1);
+            projectsById.put(project.getProjectId(), project);
+            scoresById.merge(project.getProjectId(), 1f / (RRF_K + rank), Float::sum);
+        }
+    }
+}
@@ -0,0 +1,205 @@
+package usecase.searchforproject;
+
+import api.embeddingapi.EmbeddingAPIInterface;
+import config.SearchConfig;
+import dataaccess.IProjectRepository;
+import dataaccess.ProjectChangeListener;
+import entities.Project;
+import entities.ProjectInterface;
+import usecase.searchforproject.index.IvfIndex;
+import usecase.searchforproject.index.SearchHits;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Approximate implementation for searching projects.
+ * Clusters the project embeddings into k-means lists with an {@link IvfIndex} and scans only the lists closest to a
+ * query. Training takes a few k-means passes over a sample instead of building a graph, so the index is much cheaper
+ * to build than {@link HnswProjectSearchObject}'s, at some cost in recall per scanned project.
+ * <p>
+ * The index is trained once, on construction. It then follows the repository through a
+ * {@link ProjectChangeListener}: a created or updated project goes straight into the list of its closest centroid.
+ * When the lists drift apart, i.e. their imbalance grows past the configured factor of its value after training, or
+ * when the number of projects doubles, the index is trained again on the executor while searches continue.
+ */
+public class IvfProjectSearchObject implements ProjectSearchInterface, ProjectChangeListener {
+    private static final int MIN_RETRAIN_SIZE = 100;
+
+    private final EmbeddingAPIInterface embeddingAPI;
+    private final IProjectRepository projectDataAccess;
+    private final IvfIndex index;
+    private final ProjectFilterIndex filterIndex;
+    private final Executor executor;
+    private final int parallelism;
+    private final int nprobe;
+    private final double retrainImbalance;
+    private final int resultCount;
+    private final AtomicBoolean retraining = new AtomicBoolean(false);
+
+    /**
+     * Constructs an IvfProjectSearchObject using the parameters from {@link SearchConfig}.
+     *
+     * @param projectRepository the project repository to use.
+     * @param embeddingAPI the embedding API used to embed queries.
+     */
+    public IvfProjectSearchObject(IProjectRepository projectRepository, EmbeddingAPIInterface embeddingAPI) {
+        this(projectRepository, embeddingAPI, new IvfIndex(SearchConfig.getIvfListCount(), 42),
+                SearchConfig.getIvfNprobe(), SearchConfig.getIvfRetrainImbalance(), SearchConfig.getSearchExecutor(),
+                SearchConfig.getSearchParallelism(), SearchConfig.getResultCount());
+    }
+
+    /**
+     * Constructs an IvfProjectSearchObject, trains the given index on the embeddings of the repository and registers
+     * for changes.
+     *
+     * @param projectRepository the project repository to use.
+     * @param embeddingAPI the embedding API used to embed queries.
+     * @param index the untrained index.
+     * @param nprobe the number of lists scanned per query.
+     * @param retrainImbalance the growth of the list imbalance after which the index is trained again.
+     * @param executor the executor that runs the training and its shards.
+     * @param parallelism the number of shards each k-means step is split into.
+     * @param resultCount the number of projects returned by {@link #searchProjects(String)}.
+     */
+    public IvfProjectSearchObject(IProjectRepository projectRepository, EmbeddingAPIInterface embeddingAPI,
+                                  IvfIndex index, int nprobe, double retrainImbalance, Executor executor,
+                                  int parallelism, int resultCount) {
+        this.embeddingAPI = embeddingAPI;
+        this.projectDataAccess = projectRepository;
+        this.index = index;
+        this.filterIndex = new ProjectFilterIndex(projectRepository);
+        this.executor = executor;
+        this.parallelism = parallelism;
+        this.nprobe = nprobe;
+        this.retrainImbalance = retrainImbalance;
+        this.resultCount = resultCount;
+        for (Map.Entry<Integer, float[]> entry : projectRepository.getAllEmbeddings().entrySet()) {
+            upsert(entry.getKey(), entry.getValue());
+        }
+        index.train(executor, parallelism);
+        projectRepository.addProjectChangeListener(this);
+    }
+
+    /**
+     * Searches for the projects most similar to the given query.
+     *
+     * @param query the query to search for.
+     * @return the list of projects that match the query, most similar first.
+     */
+    @Override
+    public ArrayList<ProjectInterface> searchProjects(String query) {
+        return searchProjects(query, resultCount, 0);
+    }
+
+    /**
+     * Searches for projects based on the given query and returns one page of the ranking.
+     *
+     * @param query the query to search for.
+     * @param k the maximum number of projects to return.
+     * @param offset the number of best matching projects to skip.
+     * @return the projects ranked {@code offset} to {@code offset + k - 1}, most similar first.
+     */
+    @Override
+    public ArrayList<ProjectInterface> searchProjects(String query, int k, int offset) {
+        return searchProjects(query, k, offset, ProjectSearchFilter.NONE);
+    }
+
+    /**
+     * Searches for projects that match the given filter and returns one page of their ranking.
+     * Filtered searches scan more lists, in proportion to how few projects the filter accepts.
+     *
+     * @param query the query to search for.
+     * @param k the maximum number of projects to return.
+     * @param offset the number of best matching projects to skip.
+     * @param filter the conditions every returned project meets.
+     * @return the accepted projects ranked {@code offset} to {@code offset + k - 1}, most similar first.
+     */
+    @Override
+    public ArrayList<ProjectInterface> searchProjects(String query, int k, int offset, ProjectSearchFilter filter) {
+        BitSet allowedIds = filterIndex.matching(filter);
+        float[] queryEmbedding = embeddingAPI.getEmbedData(query);
+
+        ArrayList<ProjectInterface> result = new ArrayList<>();
+        int count = (int) Math.min((long) k + offset, index.size());
+        SearchHits hits = index.search(queryEmbedding, count, nprobe, allowedIds);
+        for (int i = offset; i < hits.size(); i++) {
+            ProjectInterface project = projectDataAccess.getProjectById(hits.ids()[i]);
+            if (project != null) {
+                result.add(project);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Returns the underlying index, e.g. to inspect its lists.
+     *
+     * @return the IVF index.
+     */
+    public IvfIndex getIndex() {
+        return index;
+    }
+
+    /**
+     * Assigns the new embedding of a project that was created or updated to the list of its closest centroid.
+     *
+     * @param project the project as it is now stored.
+     * @param embedding the embedding of the project, or an empty array if it has none.
+     */
+    @Override
+    public synchronized void projectSaved(Project project, float[] embedding) {
+        upsert(project.getProjectId(), embedding);
+        retrainIfDrifted();
+    }
+
+    /**
+     * Removes a deleted project from the index.
+     *
+     * @param projectId the id of the deleted project.
+     */
+    @Override
+    public synchronized void projectDeleted(int projectId) {
+        index.remove(projectId);
+        retrainIfDrifted();
+    }
+
+    /**
+     * Starts training the index again on the executor if the lists became too uneven or the number of projects
+     * doubled since the last training, unless a training is already running.
+     */
+    private void retrainIfDrifted() {
+        int size = index.size();
+        boolean grown = size > 2 * Math.max(index.getTrainedSize(), MIN_RETRAIN_SIZE);
+        boolean imbalanced = size >= MIN_RETRAIN_SIZE
+                && index.imbalance() > retrainImbalance * index.getTrainedImbalance();
+        if ((grown || imbalanced) && retraining.compareAndSet(false, true)) {
+            executor.execute(() -> {
+                try {
+                    index.train(executor, parallelism);
+                }
+                catch (RuntimeException e) {
+                    System.err.println("Retraining the IVF index failed: " + e.getMessage());
+                }
+                finally {
+                    retraining.set(false);
+                }
+            });
+        }
+    }
+
+    /**
+     * Adds or replaces the embedding of a project in the index.
+     * Embeddings that are empty or whose dimension differs from the indexed ones are removed instead.
+     */
+    private void upsert(int projectId, float[] embedding) {
+        if (embedding.length == 0 || (index.getDimension() != -1 && embedding.length != index.getDimension())) {
+            index.remove(projectId);
+            return;
+        }
+        index.add(projectId, embedding);
+    }
+}
@@ -0,0 +1,196 @@
+package usecase.searchforproject;
+
+import config.SearchConfig;
+import dataaccess.IProjectRepository;
+import dataaccess.ProjectChangeListener;
+import entities.Project;
+import entities.ProjectInterface;
+import usecase.searchforproject.index.Bm25Index;
+import usecase.searchforproject.index.SearchHits;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.LinkedHashMap;
+
+/**
+ * Keyword implementation for searching projects.
+ * Ranks projects by BM25 over their title, description and tags with a {@link Bm25Index}. Needs no embedding API,
+ * so it keeps working when the API is unavailable.
+ * <p>
+ * The index is built from the repository once, on construction, and then follows every creation, update and
+ * deletion through a {@link ProjectChangeListener}, so projects are never reindexed wholesale.
+ * <p>
+ * Also suggests projects while a query is typed, matching its last word as a prefix. The rankings of the last
+ * {@link SearchConfig#getSuggestionCacheSize()} typed queries are cached until a project changes, so deleting and
+ * retyping characters repeats no search.
+ */
+public class LexicalProjectSearchObject implements ProjectSearchInterface, ProjectSuggestionInterface,
+        ProjectChangeListener {
+
+    private final IProjectRepository projectDataAccess;
+    private final Bm25Index index = new Bm25Index();
+    private final ProjectFilterIndex filterIndex;
+    private final int resultCount;
+    private final int suggestionCacheSize;
+    private final LinkedHashMap<SuggestionKey, SearchHits> suggestions = new LinkedHashMap<>(16, 0.75f, true);
+    private long changeCount = 0;
+
+    /**
+     * Constructs a LexicalProjectSearchObject that returns {@link SearchConfig#getResultCount()} projects per search.
+     *
+     * @param projectRepository the project repository to use.
+     */
+    public LexicalProjectSearchObject(IProjectRepository projectRepository) {
+        this(projectRepository, SearchConfig.getResultCount());
+    }
+
+    /**
+     * Constructs a LexicalProjectSearchObject, indexes the projects of the repository and registers for changes.
+     *
+     * @param projectRepository the project repository to use.
+     * @param resultCount the number of projects returned by {@link #searchProjects(String)}.
+     */
+    public LexicalProjectSearchObject(IProjectRepository projectRepository, int resultCount) {
+        this.projectDataAccess = projectRepository;
+        this.resultCount = resultCount;
+        this.suggestionCacheSize = SearchConfig.getSuggestionCacheSize();
+        this.filterIndex = new ProjectFilterIndex(projectRepository);
+        synchronized (this) {
+            for (Project project : projectRepository.getAllProjects().values()) {
+                index(project);
+            }
+        }
+        projectRepository.addProjectChangeListener(this);
+    }
+
+    /**
+     * Searches for the projects that best match the keywords of the given query.
+     *
+     * @param query the query to search for.
+     * @return the list of projects that match the query, best match first.
+     */
+    @Override
+    public ArrayList<ProjectInterface> searchProjects(String query) {
+        return searchProjects(query, resultCount, 0);
+    }
+
+    /**
+     * Searches for projects based on the keywords of the given query and returns one page of the ranking.
+     * Projects that share no keyword with the query are not ranked.
+     *
+     * @param query the query to search for.
+     * @param k the maximum number of projects to return.
+     * @param offset the number of best matching projects to skip.
+     * @return the projects ranked {@code offset} to {@code offset + k - 1}, best match first.
+     */
+    @Override
+    public ArrayList<ProjectInterface> searchProjects(String query, int k, int offset) {
+        return searchProjects(query, k, offset, ProjectSearchFilter.NONE);
+    }
+
+    /**
+     * Searches for projects that match the given filter based on the keywords of the given query.
+     * Postings of rejected projects are skipped before they are scored.
+     *
+     * @param query the query to search for.
+     * @param k the maximum number of projects to return.
+     * @param offset the number of best matching projects to skip.
+     * @param filter the conditions every returned project meets.
+     * @return the accepted projects ranked {@code offset} to {@code offset + k - 1}, best match first.
+     */
+    @Override
+    public ArrayList<ProjectInterface> searchProjects(String query, int k, int offset, ProjectSearchFilter filter) {
+        BitSet allowedIds = filterIndex.matching(filter);
+        SearchHits hits;
+        synchronized (this) {
+            hits = index.search(query, (int) Math.min((long) k + offset, Integer.MAX_VALUE), allowedIds);
+        }
+        return projects(hits, offset);
+    }
+
+    /**
+     * Searches for projects that match the given filter based on the keywords typed so far, matching the last one as
+     * a prefix, e.g. "mach" matches "machine".
+     *
+     * @param partialQuery the query typed so far.
+     * @param k the maximum number of projects to return.
+     * @param offset the number of best matching projects to skip.
+     * @param filter the conditions every returned project meets.
+     * @return the accepted projects ranked {@code offset} to {@code offset + k - 1}, best match first.
+     */
+    @Override
+    public ArrayList<ProjectInterface> suggestProjects(String partialQuery, int k, int offset,
+                                                       ProjectSearchFilter filter) {
+        SuggestionKey key = new SuggestionKey(partialQuery, (int) Math.min((long) k + offset, Integer.MAX_VALUE),
+                filter);
+        SearchHits hits;
+        long changesBefore;
+        synchronized (this) {
+            hits = suggestions.get(key);
+            changesBefore = changeCount;
+        }
+        if (hits == null) {
+            BitSet allowedIds = filterIndex.matching(filter);
+            synchronized (this) {
+                hits = index.searchPrefix(partialQuery, key.count(), allowedIds);
+                // A project that changed since the filter was evaluated may be wrongly accepted or rejected
+                if (suggestionCacheSize > 0 && changeCount == changesBefore) {
+                    suggestions.put(key, hits);
+                    if (suggestions.size() > suggestionCacheSize) {
+                        suggestions.remove(suggestions.keySet().iterator().next());
+                    }
+                }
+            }
+        }
+        return projects(hits, offset);
+    }
+
+    /**
+     * Reindexes a project that was created or updated.
+     *
+     * @param project the project as it is now stored.
+     * @param embedding the embedding of the project, not used by this search.
+     */
+    @Override
+    public synchronized void projectSaved(Project project, float[] embedding) {
+        index(project);
+        suggestions.clear();
+        changeCount++;
+    }
+
+    /**
+     * Removes a deleted project from the index.
+     *
+     * @param projectId the id of the deleted project.
+     */
+    @Override
+    public synchronized void projectDeleted(int projectId) {
+        index.remove(projectId);
+        suggestions.clear();
+        changeCount++;
+    }
+
+    /**
+     * Returns the stored projects of the hits from the given rank on.
+     */
+    private ArrayList<ProjectInterface> projects(SearchHits hits, int offset) {
+        ArrayList<ProjectInterface> result = new ArrayList<>();
+        for (int i = offset; i < hits.size(); i++) {
+            ProjectInterface project = projectDataAccess.getProjectById(hits.ids()[i]);
+            if (project != null) {
+                result.add(project);
+            }
+        }
+        return result;
+    }
+
+    private void index(Project project) {
+        index.put(project.getProjectId(), project.getProjectTitle(), project.getProjectDescription(),
+                project.getProjectTags());
+    }
+
+    /**
+     * Identifies a cached suggestion ranking: the typed query, the number of projects ranked and the filter.
+     */
+    private record SuggestionKey(String query, int count, ProjectSearchFilter filter) { }
+}
@@ -1,10 +1,28 @@
 package usecase.searchforproject;
 
 import api.embeddingapi.EmbeddingAPIInterface;
+import config.SearchConfig;
 import dataaccess.IProjectRepository;
+import dataaccess.ProjectChangeListener;
+import entities.Project;
 import entities.ProjectInterface;
+import usecase.searchforproject.index.BatchScoreConsumer;
+import usecase.searchforproject.index.NormalizedEmbeddingStore;
+import usecase.searchforproject.index.PersistentEmbeddingStore;
+import usecase.searchforproject.index.ScoreConsumer;
+import usecase.searchforproject.index.SearchHits;
+import usecase.searchforproject.index.TopKHeap;
+import usecase.searchforproject.index.VectorKernels;
 
-import java.util.*;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BooleanSupplier;
 
 import static java.lang.Math.max;
 import static java.lang.Math.min;
@@ -12,14 +30,50 @@ import static java.lang.Math.min;
 /**
  * Local implementation for searching projects.
  * Uses an embedding API to search for projects based on cosine similarity.
+ * Project embeddings are kept normalized in a {@link NormalizedEmbeddingStore}, so each comparison is one
+ * dot product computed by the fastest available kernel. The best matches are collected in a bounded
+ * {@link TopKHeap}, so a query does not allocate anything proportional to the number of projects.
+ * <p>
+ * Once the number of projects reaches the parallel threshold, the embeddings are split into contiguous shards that
+ * are scored concurrently on an executor, and the top k of each shard are merged. Ties are ranked by project id in
+ * both modes, so the parallel scan returns exactly the same results as the serial one.
+ * <p>
+ * The embeddings are loaded from the repository once, on construction, unless the given store already holds them,
+ * e.g. a {@link PersistentEmbeddingStore} restored from a snapshot. After that the store follows every creation,
+ * update and deletion through a {@link ProjectChangeListener}, so a query never reads the repository's embeddings
+ * and its latency does not depend on how they are stored.
+ * <p>
+ * A filtered search asks a {@link ProjectFilterIndex} for the ids of the accepted projects and scores only those,
+ * looking up their slots instead of scanning every slot, so the more selective the filter, the faster the search.
+ * <p>
+ * With a prefix dimension, the search runs in two stages. It keeps a second store with the first
+ * {@code prefixDimension} components of every embedding, normalized again, and scans that store. Then it reranks the
+ * best {@code rerankCount} projects of the scan by their full-dimension similarity. Embeddings such as those of
+ * {@code text-embedding-3-small} are trained so that their leading components carry most of their meaning, so the
+ * short scan loses little recall while reading a fraction of the memory.
+ * <p>
+ * A batch of queries is scored against the stored embeddings as one blocked matrix product, so each embedding is
+ * read from memory once per block of queries rather than once per query. The stored projects can be compared with
+ * each other in the same way, through {@link ProjectSimilarityInterface}.
  */
 @SuppressWarnings("FieldCanBeLocal")
-public class LocalProjectSearchObject implements ProjectSearchInterface {
+public class LocalProjectSearchObject implements BatchProjectSearchInterface, ProjectEmbeddingSearchInterface,
+        ProjectSimilarityInterface, ProjectChangeListener {
 
     private final EmbeddingAPIInterface embeddingAPI;
     private final IProjectRepository projectDataAccess;
+    private final NormalizedEmbeddingStore embeddingStore;
+    private final NormalizedEmbeddingStore prefixStore;
+    private final ProjectFilterIndex filterIndex;
+    private final Executor executor;
+    private final int parallelism;
+    private final int parallelThreshold;
+    private final int prefixDimension;
+    private final int rerankCount;
 
     private float threshold = 0f;
+    private boolean dimensionMismatchReported = false;
+    private final AtomicLong firstQueryStart = new AtomicLong(-1); // see reportTimeToFirstQuery
 
     /**
      * Constructs a LocalProjectSearchObject using the given project repository.
@@ -28,86 +82,750 @@ public class LocalProjectSearchObject implements ProjectSearchInterface {
      * @param projectRepository the project repository to use.
      */
     public LocalProjectSearchObject(IProjectRepository projectRepository, EmbeddingAPIInterface embeddingAPI) {
+        this(projectRepository, embeddingAPI, new NormalizedEmbeddingStore());
+    }
+
+    /**
+     * Constructs a LocalProjectSearchObject that scans truncated embeddings and reranks the best of them with the
+     * full embeddings.
+     *
+     * @param projectRepository the project repository to use.
+     * @param embeddingAPI the embedding API used to embed queries.
+     * @param prefixDimension the number of leading components scanned, or 0 to scan the full embeddings.
+     * @param rerankCount the number of projects reranked with the full embeddings, at least the requested page end.
+     */
+    public LocalProjectSearchObject(IProjectRepository projectRepository, EmbeddingAPIInterface embeddingAPI,
+                                    int prefixDimension, int rerankCount) {
+        this(projectRepository, embeddingAPI, new NormalizedEmbeddingStore(), SearchConfig.getSearchExecutor(),
+                SearchConfig.getSearchParallelism(), SearchConfig.getParallelSearchThreshold(), prefixDimension,
+                rerankCount);
+    }
+
+    /**
+     * Constructs a LocalProjectSearchObject that keeps its normalized embeddings in the given store.
+     *
+     * @param projectRepository the project repository to use.
+     * @param embeddingAPI the embedding API used to embed queries.
+     * @param embeddingStore the store holding the normalized project embeddings, loaded from the repository if empty.
+     */
+    public LocalProjectSearchObject(IProjectRepository projectRepository, EmbeddingAPIInterface embeddingAPI,
+                                    NormalizedEmbeddingStore embeddingStore) {
+        this(projectRepository, embeddingAPI, embeddingStore, SearchConfig.getSearchExecutor(),
+                SearchConfig.getSearchParallelism(), SearchConfig.getParallelSearchThreshold());
+    }
+
+    /**
+     * Constructs a LocalProjectSearchObject that scores large project sets in parallel on the given executor.
+     *
+     * @param projectRepository the project repository to use.
+     * @param embeddingAPI the embedding API used to embed queries.
+     * @param embeddingStore the store holding the normalized project embeddings, loaded from the repository if empty.
+     * @param executor the executor that scores the shards.
+     * @param parallelism the number of shards a parallel scan is split into.
+     * @param parallelThreshold the number of projects from which the scan runs in parallel.
+     */
+    public LocalProjectSearchObject(IProjectRepository projectRepository, EmbeddingAPIInterface embeddingAPI,
+                                    NormalizedEmbeddingStore embeddingStore, Executor executor,
+                                    int parallelism, int parallelThreshold) {
+        this(projectRepository, embeddingAPI, embeddingStore, executor, parallelism, parallelThreshold, 0, 0);
+    }
+
+    /**
+     * Constructs a LocalProjectSearchObject with every parameter.
+     *
+     * @param projectRepository the project repository to use.
+     * @param embeddingAPI the embedding API used to embed queries.
+     * @param embeddingStore the store holding the normalized project embeddings, loaded from the repository if empty.
+     * @param executor the executor that scores the shards.
+     * @param parallelism the number of shards a parallel scan is split into.
+     * @param parallelThreshold the number of projects from which the scan runs in parallel.
+     * @param prefixDimension the number of leading components scanned, or 0 to scan the full embeddings.
+     * @param rerankCount the number of projects reranked with the full embeddings, at least the requested page end.
+     */
+    public LocalProjectSearchObject(IProjectRepository projectRepository, EmbeddingAPIInterface embeddingAPI,
+                                    NormalizedEmbeddingStore embeddingStore, Executor executor,
+                                    int parallelism, int parallelThreshold, int prefixDimension, int rerankCount) {
         this.embeddingAPI = embeddingAPI;
         this.projectDataAccess = projectRepository;
+        this.embeddingStore = embeddingStore;
+        this.prefixStore = prefixDimension > 0 ? new NormalizedEmbeddingStore() : null;
+        this.executor = executor;
+        this.parallelism = parallelism;
+        this.parallelThreshold = parallelThreshold;
+        this.prefixDimension = prefixDimension;
+        this.rerankCount = rerankCount;
+        this.filterIndex = new ProjectFilterIndex(projectRepository);
+        synchronized (this) {
+            if (embeddingStore.size() > 0) {
+                // restored from a snapshot: only the prefixes are derived, from the already normalized embeddings
+                for (int slot = 0; prefixStore != null && slot < embeddingStore.slotCount(); slot++) {
+                    if (embeddingStore.isLive(slot)) {
+                        int id = embeddingStore.idAt(slot);
+                        store(id, embeddingStore.get(id), false);
+                    }
+                }
+            }
+            else if (prefixStore == null) {
+                embeddingStore.putAll(projectRepository.getAllEmbeddings());
+            }
+            else {
+                for (Map.Entry<Integer, float[]> entry : projectRepository.getAllEmbeddings().entrySet()) {
+                    store(entry.getKey(), entry.getValue(), true);
+                }
+            }
+        }
+        projectRepository.addProjectChangeListener(this);
     }
 
     /**
      * Searches for projects based on the given query.
+     * Returns every project whose similarity is above the midpoint between the lowest and highest similarity.
      *
      * @param query  the query to search for.
      * @return the list of projects that match the query.
      */
     @Override
     public ArrayList<ProjectInterface> searchProjects(String query) {
-        float[] queryEmbedding = embeddingAPI.getEmbedData(query);
-        float maxSimilarity = 1;
-        float minSimilarity = -1;
+        return searchProjects(query, Integer.MAX_VALUE, 0);
+    }
+
+    /**
+     * Searches for projects based on the given query and returns one page of the ranking.
+     * Only projects above the same midpoint threshold as {@link #searchProjects(String)} are ranked.
+     *
+     * @param query the query to search for.
+     * @param k the maximum number of projects to return.
+     * @param offset the number of best matching projects to skip.
+     * @return the projects ranked {@code offset} to {@code offset + k - 1}, most similar first.
+     */
+    @Override
+    public ArrayList<ProjectInterface> searchProjects(String query, int k, int offset) {
+        return searchProjects(query, k, offset, ProjectSearchFilter.NONE);
+    }
+
+    /**
+     * Searches for projects that match the given filter and returns one page of their ranking.
+     * The midpoint threshold is taken over the accepted projects only. In two stages, it is taken over the
+     * similarities of the truncated embeddings, which approximate the full ones.
+     *
+     * @param query the query to search for.
+     * @param k the maximum number of projects to return.
+     * @param offset the number of best matching projects to skip.
+     * @param filter the conditions every returned project meets.
+     * @return the accepted projects ranked {@code offset} to {@code offset + k - 1}, most similar first.
+     */
+    @Override
+    public ArrayList<ProjectInterface> searchProjects(String query, int k, int offset, ProjectSearchFilter filter) {
+        return searchProjects(embeddingAPI.getEmbedData(query), k, offset, filter);
+    }
 
-        Map<Integer, Float> cosineSimilarityMap = new LinkedHashMap<>();
-        HashMap<Integer, float[]> dataVector = projectDataAccess.getAllEmbeddings(); //<projectId, embedding>
-        for (Map.Entry<Integer, float[]> data : dataVector.entrySet()) {
-            float thisSim = calcCosineSimilarity(queryEmbedding, data.getValue());
-            cosineSimilarityMap.put(data.getKey(), thisSim);
-            maxSimilarity = min(maxSimilarity, thisSim);
-            minSimilarity = max(minSimilarity, thisSim);
+    /**
+     * Searches for projects that match the given filter and returns one page of their ranking by similarity to the
+     * given embedding, with the same threshold as a query.
+     *
+     * @param embedding the embedding to compare the projects with, of the dimension of the project embeddings.
+     * @param k the maximum number of projects to return.
+     * @param offset the number of best matching projects to skip.
+     * @param filter the conditions every returned project meets.
+     * @return the accepted projects ranked {@code offset} to {@code offset + k - 1}, most similar first.
+     */
+    @Override
+    public ArrayList<ProjectInterface> searchProjects(float[] embedding, int k, int offset,
+                                                     ProjectSearchFilter filter) {
+        BitSet allowedIds = filterIndex.matching(filter);
+        float[] queryEmbedding = VectorKernels.normalize(embedding);
+        SearchHits hits;
+        float cutoff;
+        synchronized (this) {
+            if (queryEmbedding.length != embeddingStore.getDimension()) {
+                reportDimensionMismatch(queryEmbedding.length);
+                return new ArrayList<>();
+            }
+            boolean twoStage = prefixStore != null && prefixStore.size() > 0
+                    && prefixStore.size() == embeddingStore.size();
+            NormalizedEmbeddingStore scanned = twoStage ? prefixStore : embeddingStore;
+            float[] scannedQuery = twoStage
+                    ? VectorKernels.normalize(Arrays.copyOf(queryEmbedding, prefixDimension)) : queryEmbedding;
+
+            int candidates = allowedIds == null ? scanned.size() : min(allowedIds.cardinality(), scanned.size());
+            int capacity = (int) min((long) k + offset, candidates);
+            int scanCapacity = twoStage ? max(capacity, min(rerankCount, candidates)) : capacity;
+            int end = allowedIds == null ? scanned.slotCount() : allowedIds.length();
+            ShardTopK ranking;
+            if (parallelism > 1 && candidates >= parallelThreshold) {
+                ranking = scanParallel(scanned, scannedQuery, end, scanCapacity, allowedIds);
+            }
+            else {
+                ranking = scanShard(scanned, scannedQuery, 0, end, scanCapacity, allowedIds);
+            }
+            threshold = (ranking.maxSimilarity() + ranking.minSimilarity()) / 2;
+            cutoff = threshold;
+            hits = twoStage ? rerank(queryEmbedding, ranking.hits(), capacity) : ranking.hits();
         }
-        cosineSimilarityMap = sortByValue(cosineSimilarityMap);
 
-        ArrayList<ProjectInterface> result = new ArrayList<>();
+        ArrayList<ProjectInterface> projects = projects(pageIds(hits, offset, cutoff));
+        firstQueryAnswered();
+        return projects;
+    }
+
+    /**
+     * Searches for projects that match the given filter and passes the page of their ranking to the listener each
+     * time another {@link SearchConfig#getStreamingChunkSize()} slots, or allowed ids, are scanned.
+     * <p>
+     * Each page uses the midpoint threshold of the projects scanned so far, so the last page is the page
+     * {@link #searchProjects(String, int, int, ProjectSearchFilter)} returns. A page that did not change is not
+     * passed again. In two stages, or with enough projects for a parallel scan, only the complete page is passed,
+     * since the ranking depends on the reranking or the whole scan takes about as long as a few chunks.
+     * <p>
+     * The store is locked only while a chunk is scanned, never while the projects of a page are read from the
+     * repository or passed to the listener, so a slow listener does not hold up other searches or project changes.
+     * A project saved or removed while the stream runs may only show up in the next search. If a removal compacts
+     * the store meanwhile, projects that were not scanned yet may have moved to slots already scanned, so the stream
+     * ends with the page of a whole search instead.
+     *
+     * @param query the query to search for.
+     * @param k the maximum number of projects per page.
+     * @param offset the number of best matching projects to skip.
+     * @param filter the conditions every passed project meets.
+     * @param cancelled tells whether the search was cancelled; checked before each chunk.
+     * @param listener receives the page after each chunk.
+     */
+    @Override
+    public void streamProjects(String query, int k, int offset, ProjectSearchFilter filter,
+                               BooleanSupplier cancelled, SearchResultsListener listener) {
+        float[] queryEmbedding = VectorKernels.normalize(embeddingAPI.getEmbedData(query));
+        if (cancelled.getAsBoolean()) {
+            return;
+        }
+        BitSet allowedIds = filterIndex.matching(filter);
+        boolean wholeScan;
+        int capacity;
+        int end;
+        long layoutVersion;
+        synchronized (this) {
+            boolean twoStage = prefixStore != null && prefixStore.size() > 0
+                    && prefixStore.size() == embeddingStore.size();
+            int candidates = allowedIds == null ? embeddingStore.size()
+                    : min(allowedIds.cardinality(), embeddingStore.size());
+            wholeScan = twoStage || queryEmbedding.length != embeddingStore.getDimension()
+                    || (parallelism > 1 && candidates >= parallelThreshold);
+            capacity = (int) min((long) k + offset, candidates);
+            end = allowedIds == null ? embeddingStore.slotCount() : allowedIds.length();
+            layoutVersion = embeddingStore.layoutVersion();
+        }
+        if (wholeScan) {
+            passWholeSearch(queryEmbedding, k, offset, filter, cancelled, listener);
+            return;
+        }
+
+        int chunkSize = max(1, SearchConfig.getStreamingChunkSize());
+        ShardTopK ranking = new ShardTopK(SearchHits.EMPTY, 1, -1);
+        int[] passedIds = null;
+        int from = 0;
+        do {
+            if (cancelled.getAsBoolean()) {
+                return;
+            }
+            int chunkEnd = min(from + chunkSize, end);
+            boolean complete = chunkEnd == end;
+            int[] ids = null;
+            synchronized (this) {
+                if (queryEmbedding.length != embeddingStore.getDimension()) {
+                    return; // every project was removed meanwhile
+                }
+                // Allowed ids are scanned by id, which a compaction does not change
+                if (allowedIds != null || embeddingStore.layoutVersion() == layoutVersion) {
+                    ShardTopK chunk = scanShard(embeddingStore, queryEmbedding, from, chunkEnd, capacity,
+                            allowedIds);
+                    ranking = merge(List.of(ranking, chunk), capacity);
+                    float cutoff = (ranking.maxSimilarity() + ranking.minSimilarity()) / 2;
+                    ids = pageIds(ranking.hits(), offset, cutoff);
+                    if (complete) {
+                        threshold = cutoff;
+                    }
+                }
+            }
+            if (ids == null) {
+                passWholeSearch(queryEmbedding, k, offset, filter, cancelled, listener);
+                return;
+            }
+            if (complete || !Arrays.equals(ids, passedIds)) {
+                passedIds = ids;
+                listener.resultsUpdated(projects(ids), complete);
+            }
+            if (complete) {
+                firstQueryAnswered();
+            }
+            from = chunkEnd;
+        } while (from < end);
+    }
+
+    /**
+     * Passes the page of a whole search to the listener as the complete page, unless the search was cancelled.
+     */
+    private void passWholeSearch(float[] queryEmbedding, int k, int offset, ProjectSearchFilter filter,
+                                 BooleanSupplier cancelled, SearchResultsListener listener) {
+        ArrayList<ProjectInterface> projects = searchProjects(queryEmbedding, k, offset, filter);
+        if (!cancelled.getAsBoolean()) {
+            listener.resultsUpdated(projects, true);
+        }
+    }
+
+    /**
+     * Searches for projects based on each of the given queries, scoring all of them in one pass over the
+     * embeddings. Returns for each query the same projects as {@link #searchProjects(String, int, int)}.
+     *
+     * @param queries the queries to search for.
+     * @param k the maximum number of projects to return per query.
+     * @return for each query, in order, the projects that match it, most similar first.
+     */
+    @Override
+    public List<ArrayList<ProjectInterface>> searchProjects(List<String> queries, int k) {
+        // One bulk request embeds all queries
+        List<float[]> embedded = embeddingAPI.getEmbedData(queries);
+        float[][] queryEmbeddings = new float[queries.size()][];
+        for (int q = 0; q < queryEmbeddings.length; q++) {
+            queryEmbeddings[q] = VectorKernels.normalize(embedded.get(q));
+        }
+        SearchHits[] hits = new SearchHits[queryEmbeddings.length];
+        float[] cutoffs = new float[queryEmbeddings.length];
+        synchronized (this) {
+            boolean twoStage = prefixStore != null && prefixStore.size() > 0
+                    && prefixStore.size() == embeddingStore.size();
+            NormalizedEmbeddingStore scanned = twoStage ? prefixStore : embeddingStore;
+            int[] batched = new int[queryEmbeddings.length];
+            int batchSize = 0;
+            for (int q = 0; q < queryEmbeddings.length; q++) {
+                if (queryEmbeddings[q].length == embeddingStore.getDimension()) {
+                    batched[batchSize++] = q;
+                }
+                else {
+                    reportDimensionMismatch(queryEmbeddings[q].length);
+                }
+            }
+            float[][] scannedQueries = new float[batchSize][];
+            for (int b = 0; b < batchSize; b++) {
+                float[] queryEmbedding = queryEmbeddings[batched[b]];
+                scannedQueries[b] = twoStage
+                        ? VectorKernels.normalize(Arrays.copyOf(queryEmbedding, prefixDimension)) : queryEmbedding;
+            }
 
-        System.out.println("values: " + cosineSimilarityMap.values());
-        threshold = (maxSimilarity + minSimilarity) / 2;
+            int capacity = min(k, scanned.size());
+            int scanCapacity = twoStage ? max(capacity, min(rerankCount, scanned.size())) : capacity;
+            ShardTopK[] rankings;
+            if (parallelism > 1 && scanned.size() >= parallelThreshold) {
+                rankings = scanBatchParallel(scanned, scannedQueries, scanCapacity);
+            }
+            else {
+                rankings = scanBatchShard(scanned, scannedQueries, 0, scanned.slotCount(), scanCapacity);
+            }
+            for (int b = 0; b < batchSize; b++) {
+                int q = batched[b];
+                cutoffs[q] = (rankings[b].maxSimilarity() + rankings[b].minSimilarity()) / 2;
+                hits[q] = twoStage ? rerank(queryEmbeddings[q], rankings[b].hits(), capacity) : rankings[b].hits();
+            }
+        }
 
-        while (!cosineSimilarityMap.isEmpty()) {
-            int projectId = cosineSimilarityMap.keySet().iterator().next();
-            if (cosineSimilarityMap.get(projectId) < threshold) {
-                break;
+        List<ArrayList<ProjectInterface>> results = new ArrayList<>();
+        for (int q = 0; q < hits.length; q++) {
+            ArrayList<ProjectInterface> result = new ArrayList<>();
+            for (int i = 0; hits[q] != null && i < hits[q].size() && hits[q].scores()[i] >= cutoffs[q]; i++) {
+                ProjectInterface project = projectDataAccess.getProjectById(hits[q].ids()[i]);
+                if (project != null) {
+                    result.add(project);
+                }
             }
-            result.add(projectDataAccess.getProjectById(projectId));
-            cosineSimilarityMap.remove(projectId);
+            results.add(result);
         }
+        firstQueryAnswered();
+        return results;
+    }
 
-        return result;
+    /**
+     * Prints how long after the given time the next query is answered, which measures the startup of the search
+     * from the moment its index starts loading to the first results.
+     *
+     * @param startNanos the {@link System#nanoTime()} the measurement starts at.
+     */
+    public void reportTimeToFirstQuery(long startNanos) {
+        firstQueryStart.set(startNanos);
+    }
+
+    /**
+     * Returns the ids of every project in the store.
+     *
+     * @return the ids, in slot order.
+     */
+    @Override
+    public synchronized int[] getEmbeddedProjectIds() {
+        int[] ids = new int[embeddingStore.size()];
+        int count = 0;
+        for (int slot = 0; slot < embeddingStore.slotCount(); slot++) {
+            if (embeddingStore.isLive(slot)) {
+                ids[count++] = embeddingStore.idAt(slot);
+            }
+        }
+        return ids;
     }
 
     /**
-     * Sorts the map by its values.
+     * Finds the projects most similar to each of the given projects, scoring all of them in one pass over the full
+     * embeddings. No threshold is applied, so every project gets {@code k} similar projects if there are that many.
      *
-     * @param map the map to sort.
-     * @param <K> the type of keys.
-     * @param <V> the type of values.
-     * @return the sorted map.
+     * @param projectIds the ids of the projects.
+     * @param k the maximum number of similar projects per project.
+     * @return for each project, in order, its most similar projects, best first and without the project itself, or
+     *         null if the project has no embedding.
      */
-    private <K, V extends Comparable<? super V>> Map<K, V> sortByValue(Map<K, V> map) {
-        List<Map.Entry<K, V>> list = new ArrayList<>(map.entrySet());
-        list.sort(Map.Entry.comparingByValue());
-        Collections.reverse(list);
+    @Override
+    public List<SearchHits> findSimilarProjects(int[] projectIds, int k) {
+        SearchHits[] similar = new SearchHits[projectIds.length];
+        synchronized (this) {
+            int[] found = new int[projectIds.length];
+            float[][] embeddings = new float[projectIds.length][];
+            int batchSize = 0;
+            for (int p = 0; p < projectIds.length; p++) {
+                float[] embedding = embeddingStore.get(projectIds[p]);
+                if (embedding != null) {
+                    found[batchSize] = p;
+                    embeddings[batchSize++] = embedding;
+                }
+            }
+            if (batchSize == 0) {
+                return Arrays.asList(similar);
+            }
+            embeddings = Arrays.copyOf(embeddings, batchSize);
 
-        Map<K, V> result = new LinkedHashMap<>();
-        for (Map.Entry<K, V> entry : list) {
-            result.put(entry.getKey(), entry.getValue());
+            int capacity = (int) min((long) k + 1, embeddingStore.size()); // the project finds itself too
+            ShardTopK[] rankings;
+            if (parallelism > 1 && embeddingStore.size() >= parallelThreshold) {
+                rankings = scanBatchParallel(embeddingStore, embeddings, capacity);
+            }
+            else {
+                rankings = scanBatchShard(embeddingStore, embeddings, 0, embeddingStore.slotCount(), capacity);
+            }
+            for (int b = 0; b < batchSize; b++) {
+                similar[found[b]] = withoutProject(rankings[b].hits(), projectIds[found[b]], k);
+            }
         }
+        return Arrays.asList(similar);
+    }
 
+    /**
+     * Passes the similarity between a project and every project in the store to the consumer.
+     * The consumer is called while the store is locked, so it must not search.
+     *
+     * @param projectId the id of the project.
+     * @param consumer receives the id and similarity of every project.
+     * @return false if the project has no embedding, in which case the consumer is not called.
+     */
+    @Override
+    public synchronized boolean scoreProjects(int projectId, ScoreConsumer consumer) {
+        float[] embedding = embeddingStore.get(projectId);
+        if (embedding == null) {
+            return false;
+        }
+        embeddingStore.scan(embedding, 0, embeddingStore.slotCount(), consumer);
+        return true;
+    }
+
+    /**
+     * Stores the new embedding of a project that was created or updated.
+     * Waits for a running search to finish, since the store must not change during a scan.
+     *
+     * @param project the project as it is now stored.
+     * @param embedding the embedding of the project, or an empty array if it has none.
+     */
+    @Override
+    public synchronized void projectSaved(Project project, float[] embedding) {
+        store(project.getProjectId(), embedding, true);
+    }
+
+    /**
+     * Removes the embedding of a deleted project.
+     *
+     * @param projectId the id of the deleted project.
+     */
+    @Override
+    public synchronized void projectDeleted(int projectId) {
+        embeddingStore.remove(projectId);
+        if (prefixStore != null) {
+            prefixStore.remove(projectId);
+        }
+    }
+
+    /**
+     * Stores the embedding of a project and, in two stages, its truncated prefix.
+     * Prefixes are kept only for embeddings longer than the prefix dimension that the full store accepted.
+     * The prefix of a normalized embedding is normalized again, so it does not matter which one is stored.
+     */
+    private void store(int projectId, float[] embedding, boolean updateFullStore) {
+        if (updateFullStore) {
+            embeddingStore.put(projectId, embedding);
+        }
+        if (prefixStore == null) {
+            return;
+        }
+        if (embeddingStore.slotOf(projectId) == -1 || embedding.length <= prefixDimension) {
+            prefixStore.remove(projectId);
+        }
+        else {
+            prefixStore.put(projectId, Arrays.copyOf(embedding, prefixDimension));
+        }
+    }
+
+    /**
+     * Reports the first query whose dimension differs from the stored projects', which then match nothing. This
+     * happens when queries are embedded with another model than the projects, e.g. after switching providers.
+     * An empty store matches nothing either way and is not reported.
+     */
+    private void reportDimensionMismatch(int queryDimension) {
+        if (embeddingStore.size() == 0 || dimensionMismatchReported) {
+            return;
+        }
+        dimensionMismatchReported = true;
+        System.err.println("Queries have dimension " + queryDimension + " but projects have dimension "
+                + embeddingStore.getDimension() + ", so no project matches until they are embedded with the same "
+                + "model");
+    }
+
+    /**
+     * Returns the ids of the ranked projects from {@code offset} on whose similarity reaches the cutoff.
+     */
+    private static int[] pageIds(SearchHits hits, int offset, float cutoff) {
+        int end = offset;
+        while (end < hits.size() && hits.scores()[end] >= cutoff) {
+            end++;
+        }
+        return offset >= end ? new int[0] : Arrays.copyOfRange(hits.ids(), offset, end);
+    }
+
+    private void firstQueryAnswered() {
+        long start = firstQueryStart.getAndSet(-1);
+        if (start != -1) {
+            System.out.printf("First search query answered %d ms after the search index started loading%n",
+                    (System.nanoTime() - start) / 1_000_000);
+        }
+    }
+
+    private ArrayList<ProjectInterface> projects(int[] ids) {
+        ArrayList<ProjectInterface> result = new ArrayList<>();
+        for (int id : ids) {
+            ProjectInterface project = projectDataAccess.getProjectById(id);
+            if (project != null) {
+                result.add(project);
+            }
+        }
         return result;
     }
 
     /**
-     * Calculates the cosine similarity between two vectors.
+     * Removes a project from its own ranking and keeps the best {@code k} of the others.
+     */
+    private static SearchHits withoutProject(SearchHits hits, int projectId, int k) {
+        int[] ids = new int[min(k, hits.size())];
+        float[] scores = new float[ids.length];
+        int count = 0;
+        for (int i = 0; i < hits.size() && count < ids.length; i++) {
+            if (hits.ids()[i] != projectId) {
+                ids[count] = hits.ids()[i];
+                scores[count++] = hits.scores()[i];
+            }
+        }
+        return new SearchHits(Arrays.copyOf(ids, count), Arrays.copyOf(scores, count));
+    }
+
+    /**
+     * Replaces the similarities of the candidates, found on the truncated embeddings, with their full-dimension
+     * similarities and keeps the best {@code capacity}.
      *
-     * @param vectorA the first vector.
-     * @param vectorB the second vector.
-     * @return the cosine similarity.
+     * @param queryEmbedding the normalized full query.
+     * @param candidates the best projects of the truncated scan.
+     * @param capacity the number of projects to keep.
+     * @return the best candidates by full similarity, best first.
      */
-    private float calcCosineSimilarity(float[] vectorA, float[] vectorB) {
-        double dotProduct = 0.0;
-        double normA = 0.0;
-        double normB = 0.0;
-        for (int i = 0; i < vectorA.length; i++) {
-            dotProduct += vectorA[i] * vectorB[i];
-            normA += Math.pow(vectorA[i], 2);
-            normB += Math.pow(vectorB[i], 2);
+    private SearchHits rerank(float[] queryEmbedding, SearchHits candidates, int capacity) {
+        TopKHeap topK = TopKHeap.forCurrentThread(capacity);
+        for (int i = 0; i < candidates.size(); i++) {
+            int slot = embeddingStore.slotOf(candidates.ids()[i]);
+            if (slot != -1) {
+                topK.offer(candidates.ids()[i], embeddingStore.similarity(queryEmbedding, slot));
+            }
+        }
+        return topK.drainSorted(0);
+    }
+
+    /**
+     * Scores the projects in slots {@code from} to {@code to - 1} and keeps the best {@code capacity} of them.
+     * With a set of allowed ids, {@code from} and {@code to} bound project ids instead, and only the allowed
+     * projects in that range are looked up and scored.
+     *
+     * @param store the store to scan.
+     * @param queryEmbedding the normalized query, of the dimension of the store.
+     * @param from the first slot, or project id, of the shard.
+     * @param to the slot, or project id, after the last one of the shard.
+     * @param capacity the number of projects to keep.
+     * @param allowedIds the ids of the projects to score, or null to score every project.
+     * @return the best projects of the shard, best first, with the similarity range of the shard.
+     */
+    private ShardTopK scanShard(NormalizedEmbeddingStore store, float[] queryEmbedding, int from, int to,
+                                int capacity, BitSet allowedIds) {
+        ShardScan scan = new ShardScan(TopKHeap.forCurrentThread(capacity));
+        if (allowedIds == null) {
+            store.scan(queryEmbedding, from, to, scan);
+        }
+        else {
+            for (int id = allowedIds.nextSetBit(from); id >= 0 && id < to; id = allowedIds.nextSetBit(id + 1)) {
+                int slot = store.slotOf(id);
+                if (slot != -1) {
+                    scan.accept(id, store.similarity(queryEmbedding, slot));
+                }
+            }
+        }
+        return new ShardTopK(scan.topK.drainSorted(0), scan.minSimilarity, scan.maxSimilarity);
+    }
+
+    /**
+     * Splits the slots, or the range of allowed ids, into one shard per unit of parallelism, scores the shards on
+     * the executor and merges their best projects.
+     *
+     * @param store the store to scan.
+     * @param queryEmbedding the normalized query, of the dimension of the store.
+     * @param size the number of slots, or the id after the highest allowed one.
+     * @param capacity the number of projects to keep.
+     * @param allowedIds the ids of the projects to score, or null to score every project.
+     * @return the best projects overall, best first, with the overall similarity range.
+     */
+    private ShardTopK scanParallel(NormalizedEmbeddingStore store, float[] queryEmbedding, int size, int capacity,
+                                   BitSet allowedIds) {
+        int shardSize = (size + parallelism - 1) / parallelism;
+        ArrayList<CompletableFuture<ShardTopK>> shards = new ArrayList<>();
+        for (int from = 0; from < size; from += shardSize) {
+            int start = from;
+            int end = min(from + shardSize, size);
+            shards.add(CompletableFuture.supplyAsync(
+                    () -> scanShard(store, queryEmbedding, start, end, capacity, allowedIds), executor));
+        }
+
+        ArrayList<ShardTopK> shardTopKs = new ArrayList<>();
+        for (CompletableFuture<ShardTopK> shard : shards) {
+            shardTopKs.add(shard.join());
+        }
+        // Merge only after every shard finished, since a shard may have run on this thread and used its heap.
+        return merge(shardTopKs, capacity);
+    }
+
+    /**
+     * Scores every query of a batch against the projects in slots {@code from} to {@code to - 1} and keeps the
+     * best {@code capacity} projects for each query.
+     *
+     * @param store the store to scan.
+     * @param queryEmbeddings the normalized queries, of the dimension of the store.
+     * @param from the first slot of the shard.
+     * @param to the slot after the last one of the shard.
+     * @param capacity the number of projects to keep per query.
+     * @return for each query, the best projects of the shard, best first, with the similarity range of the shard.
+     */
+    private static ShardTopK[] scanBatchShard(NormalizedEmbeddingStore store, float[][] queryEmbeddings, int from,
+                                              int to, int capacity) {
+        ShardScan[] scans = new ShardScan[queryEmbeddings.length];
+        for (int q = 0; q < scans.length; q++) {
+            scans[q] = new ShardScan(new TopKHeap(capacity));
+        }
+        BatchScoreConsumer consumer = (query, id, score) -> scans[query].accept(id, score);
+        store.scan(queryEmbeddings, from, to, consumer);
+
+        ShardTopK[] rankings = new ShardTopK[scans.length];
+        for (int q = 0; q < scans.length; q++) {
+            rankings[q] = new ShardTopK(scans[q].topK.drainSorted(0), scans[q].minSimilarity,
+                    scans[q].maxSimilarity);
+        }
+        return rankings;
+    }
+
+    /**
+     * Splits the slots into one shard per unit of parallelism, scores the batch against every shard on the executor
+     * and merges the best projects of each query.
+     *
+     * @param store the store to scan.
+     * @param queryEmbeddings the normalized queries, of the dimension of the store.
+     * @param capacity the number of projects to keep per query.
+     * @return for each query, the best projects overall, best first, with the overall similarity range.
+     */
+    private ShardTopK[] scanBatchParallel(NormalizedEmbeddingStore store, float[][] queryEmbeddings, int capacity) {
+        int size = store.slotCount();
+        int shardSize = (size + parallelism - 1) / parallelism;
+        ArrayList<CompletableFuture<ShardTopK[]>> shards = new ArrayList<>();
+        for (int from = 0; from < size; from += shardSize) {
+            int start = from;
+            int end = min(from + shardSize, size);
+            shards.add(CompletableFuture.supplyAsync(
+                    () -> scanBatchShard(store, queryEmbeddings, start, end, capacity), executor));
+        }
+
+        ArrayList<ShardTopK[]> shardRankings = new ArrayList<>();
+        for (CompletableFuture<ShardTopK[]> shard : shards) {
+            shardRankings.add(shard.join());
+        }
+        ShardTopK[] rankings = new ShardTopK[queryEmbeddings.length];
+        for (int q = 0; q < rankings.length; q++) {
+            ArrayList<ShardTopK> shardTopKs = new ArrayList<>();
+            for (ShardTopK[] shardRanking : shardRankings) {
+                shardTopKs.add(shardRanking[q]);
+            }
+            rankings[q] = merge(shardTopKs, capacity);
+        }
+        return rankings;
+    }
+
+    /**
+     * Merges the best projects of several shards.
+     *
+     * @param shards the best projects of each shard.
+     * @param capacity the number of projects to keep.
+     * @return the best projects overall, best first, with the overall similarity range.
+     */
+    private static ShardTopK merge(List<ShardTopK> shards, int capacity) {
+        float minSimilarity = 1;
+        float maxSimilarity = -1;
+        TopKHeap merged = TopKHeap.forCurrentThread(capacity);
+        for (ShardTopK shard : shards) {
+            minSimilarity = min(minSimilarity, shard.minSimilarity());
+            maxSimilarity = max(maxSimilarity, shard.maxSimilarity());
+            SearchHits hits = shard.hits();
+            for (int i = 0; i < hits.size(); i++) {
+                merged.offer(hits.ids()[i], hits.scores()[i]);
+            }
+        }
+        return new ShardTopK(merged.drainSorted(0), minSimilarity, maxSimilarity);
+    }
+
+    /**
+     * The best projects of a shard together with the lowest and highest similarity seen in it.
+     *
+     * @param hits the best projects, best first.
+     * @param minSimilarity the lowest similarity in the shard.
+     * @param maxSimilarity the highest similarity in the shard.
+     */
+    private record ShardTopK(SearchHits hits, float minSimilarity, float maxSimilarity) { }
+
+    /**
+     * Collects the scores of one shard scan into a top-k heap and tracks their range.
+     */
+    private static final class ShardScan implements ScoreConsumer {
+        private final TopKHeap topK;
+        private float minSimilarity = 1;
+        private float maxSimilarity = -1;
+
+        private ShardScan(TopKHeap topK) {
+            this.topK = topK;
+        }
+
+        @Override
+        public void accept(int id, float score) {
+            topK.offer(id, score);
+            minSimilarity = min(minSimilarity, score);
+            maxSimilarity = max(maxSimilarity, score);
         }
-        return (float) (dotProduct / (Math.sqrt(normA) * Math.sqrt(normB)));
     }
 }
@@ -0,0 +1,139 @@
+package usecase.searchforproject;
+
+import config.SearchConfig;
+import dataaccess.IProjectRepository;
+import dataaccess.ProjectChangeListener;
+import entities.Project;
+import entities.ProjectInterface;
+import usecase.searchforproject.index.DuplicatePair;
+import usecase.searchforproject.index.LshIndex;
+import usecase.searchforproject.index.SearchHits;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executor;
+
+/**
+ * Near-duplicate detection over project embeddings with an {@link LshIndex}.
+ * A check hashes the embedding and compares it only with the projects in the same buckets, instead of computing the
+ * cosine similarity with every project, so it stays fast as the number of projects grows. The report over all
+ * projects looks up the buckets of every project in shards on the executor.
+ * <p>
+ * The index is built once, on construction, and then follows the repository through a {@link ProjectChangeListener}.
+ */
+public class LshDuplicateProjectObject implements DuplicateProjectInterface, ProjectChangeListener {
+    private final IProjectRepository projectDataAccess;
+    private final LshIndex index;
+    private final float threshold;
+    private final Executor executor;
+    private final int parallelism;
+
+    /**
+     * Constructs an LshDuplicateProjectObject using the parameters from {@link SearchConfig}.
+     *
+     * @param projectRepository the project repository to use.
+     */
+    public LshDuplicateProjectObject(IProjectRepository projectRepository) {
+        this(projectRepository, new LshIndex(SearchConfig.getLshTableCount(), SearchConfig.getLshBitsPerTable(), 42),
+                SearchConfig.getDuplicateThreshold(), SearchConfig.getSearchExecutor(),
+                SearchConfig.getSearchParallelism());
+    }
+
+    /**
+     * Constructs an LshDuplicateProjectObject, fills the given index with the embeddings of the repository and
+     * registers for changes.
+     *
+     * @param projectRepository the project repository to use.
+     * @param index the empty index.
+     * @param threshold the cosine similarity from which two projects are near-duplicates.
+     * @param executor the executor that runs the shards of the report.
+     * @param parallelism the number of shards the report is split into.
+     */
+    public LshDuplicateProjectObject(IProjectRepository projectRepository, LshIndex index, double threshold,
+                                     Executor executor, int parallelism) {
+        this.projectDataAccess = projectRepository;
+        this.index = index;
+        this.threshold = (float) threshold;
+        this.executor = executor;
+        this.parallelism = parallelism;
+        for (Map.Entry<Integer, float[]> entry : projectRepository.getAllEmbeddings().entrySet()) {
+            upsert(entry.getKey(), entry.getValue());
+        }
+        projectRepository.addProjectChangeListener(this);
+    }
+
+    /**
+     * Finds the existing projects whose embedding is at least as similar to the given one as the threshold.
+     *
+     * @param embedding the embedding of the project to check.
+     * @return the near-duplicate projects, most similar first.
+     */
+    @Override
+    public ArrayList<ProjectInterface> findNearDuplicates(float[] embedding) {
+        ArrayList<ProjectInterface> result = new ArrayList<>();
+        if (embedding == null || embedding.length == 0) {
+            return result;
+        }
+        SearchHits hits = index.findSimilar(embedding, threshold);
+        for (int id : hits.ids()) {
+            ProjectInterface project = projectDataAccess.getProjectById(id);
+            if (project != null) {
+                result.add(project);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Finds every pair of existing projects whose embeddings are at least as similar as the threshold.
+     *
+     * @return the pairs, most similar first.
+     */
+    @Override
+    public List<DuplicateProjects> findAllNearDuplicates() {
+        ArrayList<DuplicateProjects> result = new ArrayList<>();
+        for (DuplicatePair pair : index.findAllSimilarPairs(threshold, executor, parallelism)) {
+            ProjectInterface first = projectDataAccess.getProjectById(pair.firstId());
+            ProjectInterface second = projectDataAccess.getProjectById(pair.secondId());
+            if (first != null && second != null) {
+                result.add(new DuplicateProjects(first, second, pair.similarity()));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Hashes the new embedding of a project that was created or updated.
+     *
+     * @param project the project as it is now stored.
+     * @param embedding the embedding of the project, or an empty array if it has none.
+     */
+    @Override
+    public void projectSaved(Project project, float[] embedding) {
+        upsert(project.getProjectId(), embedding);
+    }
+
+    /**
+     * Removes a deleted project from the index.
+     *
+     * @param projectId the id of the deleted project.
+     */
+    @Override
+    public void projectDeleted(int projectId) {
+        index.remove(projectId);
+    }
+
+    /**
+     * Adds or replaces the embedding of a project in the index.
+     * Embeddings that are empty or whose dimension differs from the indexed ones are removed instead.
+     */
+    private void upsert(int projectId, float[] embedding) {
+        if (embedding == null || embedding.length == 0
+                || (index.getDimension() != -1 && embedding.length != index.getDimension())) {
+            index.remove(projectId);
+            return;
+        }
+        index.add(projectId, embedding);
+    }
+}
@@ -0,0 +1,24 @@
+package usecase.searchforproject;
+
+import entities.ProjectInterface;
+
+import java.util.ArrayList;
+
+/**
+ * Interface for searches that can rank projects against an embedding computed elsewhere, e.g. that of a user
+ * profile or of another project, without calling the embedding API.
+ */
+public interface ProjectEmbeddingSearchInterface extends ProjectSearchInterface {
+
+    /**
+     * Searches for projects that match the given filter and returns one page of their ranking by similarity to the
+     * given embedding.
+     *
+     * @param embedding the embedding to compare the projects with, of the dimension of the project embeddings.
+     * @param k the maximum number of projects to return.
+     * @param offset the number of best matching projects to skip.
+     * @param filter the conditions every returned project meets.
+     * @return the accepted projects ranked {@code offset} to {@code offset + k - 1}, most similar first.
+     */
+    ArrayList<ProjectInterface> searchProjects(float[] embedding, int k, int offset, ProjectSearchFilter filter);
+}
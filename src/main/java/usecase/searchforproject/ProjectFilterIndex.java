@@ -0,0 +1,181 @@
+package usecase.searchforproject;
+
+import dataaccess.IProjectRepository;
+import dataaccess.ProjectChangeListener;
+import entities.Project;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+
+/**
+ * Bitsets over project ids that answer a {@link ProjectSearchFilter} without reading any project.
+ * Every tag and every owner has the set of projects carrying it, and budgets are kept in an array indexed by id, so
+ * the projects accepted by a filter are found with a few bitwise operations and one pass over the candidates for
+ * the budget range. Searches then only score the projects in the returned set.
+ * <p>
+ * Nothing is read until the first filtered search, so searches that are never filtered cost nothing. Owners are
+ * looked up one project at a time, so they are only read once a search filters by owner. After loading, the index
+ * follows the repository through a {@link ProjectChangeListener}.
+ */
+public class ProjectFilterIndex implements ProjectChangeListener {
+    private static final int INITIAL_CAPACITY = 64;
+
+    private final IProjectRepository projectDataAccess;
+    private final BitSet projectIds = new BitSet();
+    private final HashMap<String, BitSet> idsByTag = new HashMap<>();
+    private final HashMap<Integer, String[]> tagsById = new HashMap<>();
+    private final HashMap<Integer, BitSet> idsByOwner = new HashMap<>();
+    private final HashMap<Integer, Integer> ownerById = new HashMap<>();
+    private double[] budgetById = new double[INITIAL_CAPACITY];
+    private boolean loaded = false;
+    private boolean ownersLoaded = false;
+
+    /**
+     * Constructs a ProjectFilterIndex over the projects of a repository.
+     *
+     * @param projectRepository the project repository to use.
+     */
+    public ProjectFilterIndex(IProjectRepository projectRepository) {
+        this.projectDataAccess = projectRepository;
+    }
+
+    /**
+     * Returns the ids of the projects accepted by a filter.
+     *
+     * @param filter the filter.
+     * @return a new set of the accepted project ids, or null if the filter accepts every project.
+     */
+    public synchronized BitSet matching(ProjectSearchFilter filter) {
+        if (filter.isEmpty()) {
+            return null;
+        }
+        load();
+        BitSet result;
+        if (filter.ownerId() != ProjectSearchFilter.ANY_OWNER) {
+            loadOwners();
+            result = (BitSet) idsByOwner.getOrDefault(filter.ownerId(), new BitSet()).clone();
+        }
+        else {
+            result = (BitSet) projectIds.clone();
+        }
+        for (String tag : filter.requiredTags()) {
+            BitSet tagged = idsByTag.get(tag);
+            if (tagged == null) {
+                return new BitSet();
+            }
+            result.and(tagged);
+        }
+        for (String tag : filter.excludedTags()) {
+            BitSet tagged = idsByTag.get(tag);
+            if (tagged != null) {
+                result.andNot(tagged);
+            }
+        }
+        if (filter.hasBudgetRange()) {
+            for (int id = result.nextSetBit(0); id >= 0; id = result.nextSetBit(id + 1)) {
+                if (budgetById[id] < filter.minBudget() || budgetById[id] > filter.maxBudget()) {
+                    result.clear(id);
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Updates the budget, tags and, if owners were loaded, the owner of a project that was created or updated.
+     *
+     * @param project the project as it is now stored.
+     * @param embedding the embedding of the project, not used by this index.
+     */
+    @Override
+    public synchronized void projectSaved(Project project, float[] embedding) {
+        put(project);
+        if (ownersLoaded && !ownerById.containsKey(project.getProjectId())) {
+            putOwner(project.getProjectId(), projectDataAccess.getOwnerId(project.getProjectId()));
+        }
+    }
+
+    /**
+     * Removes a deleted project from every set.
+     *
+     * @param projectId the id of the deleted project.
+     */
+    @Override
+    public synchronized void projectDeleted(int projectId) {
+        if (projectId < 0) {
+            return;
+        }
+        removeTags(projectId);
+        projectIds.clear(projectId);
+        Integer ownerId = ownerById.remove(projectId);
+        if (ownerId != null) {
+            idsByOwner.get(ownerId).clear(projectId);
+        }
+    }
+
+    /**
+     * Reads every project from the repository and registers for changes, on the first call only.
+     */
+    private void load() {
+        if (loaded) {
+            return;
+        }
+        for (Project project : projectDataAccess.getAllProjects().values()) {
+            put(project);
+        }
+        loaded = true;
+        projectDataAccess.addProjectChangeListener(this);
+    }
+
+    /**
+     * Reads the owner of every known project, on the first call only.
+     */
+    private void loadOwners() {
+        if (ownersLoaded) {
+            return;
+        }
+        for (int id = projectIds.nextSetBit(0); id >= 0; id = projectIds.nextSetBit(id + 1)) {
+            putOwner(id, projectDataAccess.getOwnerId(id));
+        }
+        ownersLoaded = true;
+    }
+
+    private void put(Project project) {
+        int id = project.getProjectId();
+        if (id < 0) {
+            return;
+        }
+        removeTags(id);
+        projectIds.set(id);
+        if (id >= budgetById.length) {
+            budgetById = Arrays.copyOf(budgetById, Math.max(id + 1, budgetById.length * 2));
+        }
+        budgetById[id] = project.getProjectBudget();
+        String[] tags = project.getProjectTags().stream().map(ProjectSearchFilter::normalizeTag).distinct()
+                .toArray(String[]::new);
+        for (String tag : tags) {
+            idsByTag.computeIfAbsent(tag, _ -> new BitSet()).set(id);
+        }
+        tagsById.put(id, tags);
+    }
+
+    private void putOwner(int id, int ownerId) {
+        ownerById.put(id, ownerId);
+        idsByOwner.computeIfAbsent(ownerId, _ -> new BitSet()).set(id);
+    }
+
+    private void removeTags(int id) {
+        String[] tags = tagsById.remove(id);
+        if (tags == null) {
+            return;
+        }
+        for (String tag : tags) {
+            BitSet tagged = idsByTag.get(tag);
+            tagged.clear(id);
+            if (tagged.isEmpty()) {
+                idsByTag.remove(tag);
+            }
+        }
+    }
+}
@@ -0,0 +1,147 @@
+package usecase.searchforproject;
+
+import entities.ProjectInterface;
+
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * Structured conditions a project must meet to be returned by a search, in addition to matching the query.
+ * Tags are compared without regard to case or surrounding whitespace.
+ * <p>
+ * {@link #NONE} accepts every project; the {@code with} methods return a copy with one condition replaced, e.g.
+ * {@code ProjectSearchFilter.NONE.withMinBudget(500).withRequiredTags(Set.of("java"))}.
+ *
+ * @param minBudget the lowest accepted budget, inclusive.
+ * @param maxBudget the highest accepted budget, inclusive.
+ * @param requiredTags the tags a project must all have.
+ * @param excludedTags the tags a project must not have.
+ * @param ownerId the id of the user who must own the project, or {@link #ANY_OWNER}.
+ */
+public record ProjectSearchFilter(double minBudget, double maxBudget, Set<String> requiredTags,
+                                  Set<String> excludedTags, int ownerId) {
+    public static final int ANY_OWNER = -1;
+    public static final ProjectSearchFilter NONE = new ProjectSearchFilter(Double.NEGATIVE_INFINITY,
+            Double.POSITIVE_INFINITY, Set.of(), Set.of(), ANY_OWNER);
+
+    /**
+     * Constructs a ProjectSearchFilter, normalizing the tags.
+     */
+    public ProjectSearchFilter {
+        if (Double.isNaN(minBudget) || Double.isNaN(maxBudget)) {
+            throw new IllegalArgumentException("Budget bounds must be numbers");
+        }
+        requiredTags = normalizeTags(requiredTags);
+        excludedTags = normalizeTags(excludedTags);
+    }
+
+    /**
+     * Returns a copy of this filter that accepts only budgets of at least the given amount.
+     *
+     * @param minBudget the lowest accepted budget, inclusive.
+     * @return the new filter.
+     */
+    public ProjectSearchFilter withMinBudget(double minBudget) {
+        return new ProjectSearchFilter(minBudget, maxBudget, requiredTags, excludedTags, ownerId);
+    }
+
+    /**
+     * Returns a copy of this filter that accepts only budgets of at most the given amount.
+     *
+     * @param maxBudget the highest accepted budget, inclusive.
+     * @return the new filter.
+     */
+    public ProjectSearchFilter withMaxBudget(double maxBudget) {
+        return new ProjectSearchFilter(minBudget, maxBudget, requiredTags, excludedTags, ownerId);
+    }
+
+    /**
+     * Returns a copy of this filter that accepts only projects having all the given tags.
+     *
+     * @param requiredTags the required tags.
+     * @return the new filter.
+     */
+    public ProjectSearchFilter withRequiredTags(Collection<String> requiredTags) {
+        return new ProjectSearchFilter(minBudget, maxBudget, new HashSet<>(requiredTags), excludedTags, ownerId);
+    }
+
+    /**
+     * Returns a copy of this filter that rejects projects having any of the given tags.
+     *
+     * @param excludedTags the excluded tags.
+     * @return the new filter.
+     */
+    public ProjectSearchFilter withExcludedTags(Collection<String> excludedTags) {
+        return new ProjectSearchFilter(minBudget, maxBudget, requiredTags, new HashSet<>(excludedTags), ownerId);
+    }
+
+    /**
+     * Returns a copy of this filter that accepts only projects of the given owner.
+     *
+     * @param ownerId the id of the owner, or {@link #ANY_OWNER}.
+     * @return the new filter.
+     */
+    public ProjectSearchFilter withOwner(int ownerId) {
+        return new ProjectSearchFilter(minBudget, maxBudget, requiredTags, excludedTags, ownerId);
+    }
+
+    /**
+     * Returns whether this filter accepts every project.
+     *
+     * @return true if no condition is set.
+     */
+    public boolean isEmpty() {
+        return !hasBudgetRange() && requiredTags.isEmpty() && excludedTags.isEmpty() && ownerId == ANY_OWNER;
+    }
+
+    /**
+     * Returns whether this filter restricts the budget.
+     *
+     * @return true if either budget bound is finite.
+     */
+    public boolean hasBudgetRange() {
+        return minBudget != Double.NEGATIVE_INFINITY || maxBudget != Double.POSITIVE_INFINITY;
+    }
+
+    /**
+     * Returns whether a project meets every condition of this filter.
+     *
+     * @param project the project.
+     * @param projectOwnerId the id of the user who owns the project.
+     * @return true if the project is accepted.
+     */
+    public boolean matches(ProjectInterface project, int projectOwnerId) {
+        double budget = project.getProjectBudget();
+        if (budget < minBudget || budget > maxBudget) {
+            return false;
+        }
+        if (ownerId != ANY_OWNER && ownerId != projectOwnerId) {
+            return false;
+        }
+        Set<String> tags = normalizeTags(project.getProjectTags());
+        return tags.containsAll(requiredTags) && excludedTags.stream().noneMatch(tags::contains);
+    }
+
+    /**
+     * Returns the form in which a tag is compared: trimmed and in lower case.
+     *
+     * @param tag the tag as entered.
+     * @return the normalized tag.
+     */
+    public static String normalizeTag(String tag) {
+        return tag.trim().toLowerCase(Locale.ROOT);
+    }
+
+    private static Set<String> normalizeTags(Collection<String> tags) {
+        if (tags == null || tags.isEmpty()) {
+            return Set.of();
+        }
+        HashSet<String> normalized = new HashSet<>();
+        for (String tag : tags) {
+            normalized.add(normalizeTag(tag));
+        }
+        return Set.copyOf(normalized);
+    }
+}
@@ -3,6 +3,7 @@ package usecase.searchforproject;
 import entities.ProjectInterface;
 
 import java.util.ArrayList;
+import java.util.function.BooleanSupplier;
 
 /**
  * Interface for searching projects.
@@ -16,4 +17,49 @@ public interface ProjectSearchInterface {
      * @return the list of projects that match the query.
      */
     ArrayList<ProjectInterface> searchProjects(String query);
+
+    /**
+     * Searches for projects based on the given query and returns one page of the ranking.
+     *
+     * @param query the query to search for.
+     * @param k the maximum number of projects to return.
+     * @param offset the number of best matching projects to skip.
+     * @return the projects ranked {@code offset} to {@code offset + k - 1}, most similar first.
+     */
+    ArrayList<ProjectInterface> searchProjects(String query, int k, int offset);
+
+    /**
+     * Searches for projects that match the given filter and returns one page of their ranking by the given query.
+     * Projects rejected by the filter are never scored, so a selective filter makes the search cheaper.
+     *
+     * @param query the query to search for.
+     * @param k the maximum number of projects to return.
+     * @param offset the number of best matching projects to skip.
+     * @param filter the conditions every returned project meets.
+     * @return the accepted projects ranked {@code offset} to {@code offset + k - 1}, most similar first.
+     */
+    ArrayList<ProjectInterface> searchProjects(String query, int k, int offset, ProjectSearchFilter filter);
+
+    /**
+     * Searches for projects that match the given filter and passes the page of their ranking to the listener as the
+     * search progresses, so that a first page can be shown before every project is scanned. The last page passed is
+     * marked complete and is the page {@link #searchProjects(String, int, int, ProjectSearchFilter)} returns.
+     * <p>
+     * Searches that cannot rank part of the projects pass only the complete page. Once cancelled, the search stops
+     * as soon as it can and passes nothing more.
+     *
+     * @param query the query to search for.
+     * @param k the maximum number of projects per page.
+     * @param offset the number of best matching projects to skip.
+     * @param filter the conditions every passed project meets.
+     * @param cancelled tells whether the search was cancelled, e.g. because a newer query replaced it.
+     * @param listener receives the page after each part of the scan.
+     */
+    default void streamProjects(String query, int k, int offset, ProjectSearchFilter filter,
+                                BooleanSupplier cancelled, SearchResultsListener listener) {
+        ArrayList<ProjectInterface> projects = searchProjects(query, k, offset, filter);
+        if (!cancelled.getAsBoolean()) {
+            listener.resultsUpdated(projects, true);
+        }
+    }
 }
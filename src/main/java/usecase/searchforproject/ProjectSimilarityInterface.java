@@ -0,0 +1,40 @@
+package usecase.searchforproject;
+
+import usecase.searchforproject.index.ScoreConsumer;
+import usecase.searchforproject.index.SearchHits;
+
+import java.util.List;
+
+/**
+ * Interface for comparing the stored projects with each other, rather than with a query, e.g. to find the projects
+ * related to a project.
+ */
+public interface ProjectSimilarityInterface {
+
+    /**
+     * Returns the ids of every project that has an embedding.
+     *
+     * @return the ids, in no particular order.
+     */
+    int[] getEmbeddedProjectIds();
+
+    /**
+     * Finds, for each of the given projects, the other projects most similar to it.
+     *
+     * @param projectIds the ids of the projects.
+     * @param k the maximum number of similar projects per project.
+     * @return for each project, in order, its most similar projects, best first and without the project itself, or
+     *         null if the project has no embedding.
+     */
+    List<SearchHits> findSimilarProjects(int[] projectIds, int k);
+
+    /**
+     * Passes the similarity between a project and every project that has an embedding, itself included, to the
+     * consumer.
+     *
+     * @param projectId the id of the project.
+     * @param consumer receives the id and similarity of every project.
+     * @return false if the project has no embedding, in which case the consumer is not called.
+     */
+    boolean scoreProjects(int projectId, ScoreConsumer consumer);
+}
@@ -0,0 +1,24 @@
+package usecase.searchforproject;
+
+import entities.ProjectInterface;
+
+import java.util.ArrayList;
+
+/**
+ * Interface for searching projects while the query is still being typed. Fast enough to run on every keystroke, and
+ * needs no embedding, so its results can be shown before a semantic search for the same query completes.
+ */
+public interface ProjectSuggestionInterface {
+
+    /**
+     * Searches for projects that match the given filter and returns one page of their ranking by a query whose last
+     * word may be unfinished.
+     *
+     * @param partialQuery the query typed so far.
+     * @param k the maximum number of projects to return.
+     * @param offset the number of best matching projects to skip.
+     * @param filter the conditions every returned project meets.
+     * @return the accepted projects ranked {@code offset} to {@code offset + k - 1}, best match first.
+     */
+    ArrayList<ProjectInterface> suggestProjects(String partialQuery, int k, int offset, ProjectSearchFilter filter);
+}
@@ -0,0 +1,377 @@
+package usecase.searchforproject;
+
+import api.embeddingapi.EmbeddingAPIInterface;
+import config.SearchConfig;
+import dataaccess.IProjectRepository;
+import dataaccess.ProjectChangeListener;
+import entities.Project;
+import entities.ProjectInterface;
+import usecase.searchforproject.index.QuantizedEmbeddingStore;
+import usecase.searchforproject.index.SearchHits;
+import usecase.searchforproject.index.TopKHeap;
+import usecase.searchforproject.index.VectorKernel;
+import usecase.searchforproject.index.VectorKernels;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.Executor;
+
+/**
+ * Memory-saving implementation for searching projects.
+ * Scans int8 quantized embeddings to find candidates, then rescores the candidates against their full-precision
+ * embeddings, which are loaded from the repository one project at a time.
+ * <p>
+ * The number of candidates to rescore is calibrated on a random sample of the stored projects so that recall@10,
+ * compared with the exact search, stays at or above the configured bound. Its cost is bounded by the sample size,
+ * whatever the number of projects. It is calibrated again whenever the number of projects changes by more than a
+ * tenth: the full-precision embeddings of a new sample are read on the executor, and searches keep using the previous
+ * factor until the new one is ready.
+ * <p>
+ * The quantized embeddings are loaded from the repository once, on construction, and then follow the repository
+ * through a {@link ProjectChangeListener}. A recalibration only reads the embeddings of its sample.
+ * <p>
+ * A filtered search skips the projects rejected by its {@link ProjectFilterIndex} before estimating their
+ * similarity, and rescores accepted projects only.
+ */
+public class QuantizedProjectSearchObject implements ProjectSearchInterface, ProjectChangeListener {
+    private static final int CALIBRATION_K = 10;
+    private static final int CALIBRATION_QUERIES = 100;
+    private static final int CALIBRATION_SAMPLE = 2000;
+    private static final long CALIBRATION_SEED = 42;
+
+    private final EmbeddingAPIInterface embeddingAPI;
+    private final IProjectRepository projectDataAccess;
+    private final QuantizedEmbeddingStore embeddingStore;
+    private final ProjectFilterIndex filterIndex;
+    private final VectorKernel kernel = VectorKernels.getDefault();
+    private final Executor executor;
+    private final Random random = new Random(CALIBRATION_SEED);
+    private final double minRecall;
+    private final int resultCount;
+
+    private volatile float candidateFactor = 1;
+    private int calibratedSize = 0;
+    private boolean calibrating = false;
+    private float threshold = 0f;
+
+    /**
+     * Constructs a QuantizedProjectSearchObject using the parameters from {@link SearchConfig}.
+     *
+     * @param projectRepository the project repository to use.
+     * @param embeddingAPI the embedding API used to embed queries.
+     */
+    public QuantizedProjectSearchObject(IProjectRepository projectRepository, EmbeddingAPIInterface embeddingAPI) {
+        this(projectRepository, embeddingAPI, new QuantizedEmbeddingStore(), SearchConfig.getQuantizedMinRecall(),
+                SearchConfig.getResultCount());
+    }
+
+    /**
+     * Constructs a QuantizedProjectSearchObject that keeps its quantized embeddings in the given store.
+     *
+     * @param projectRepository the project repository to use.
+     * @param embeddingAPI the embedding API used to embed queries.
+     * @param embeddingStore the store holding the quantized project embeddings.
+     * @param minRecall the lowest acceptable recall@10 compared with the exact search, between 0 and 1.
+     * @param resultCount the number of projects returned by {@link #searchProjects(String)}.
+     */
+    public QuantizedProjectSearchObject(IProjectRepository projectRepository, EmbeddingAPIInterface embeddingAPI,
+                                        QuantizedEmbeddingStore embeddingStore, double minRecall, int resultCount) {
+        this(projectRepository, embeddingAPI, embeddingStore, minRecall, resultCount, SearchConfig.getSearchExecutor());
+    }
+
+    /**
+     * Constructs a QuantizedProjectSearchObject that recalibrates on the given executor.
+     *
+     * @param projectRepository the project repository to use.
+     * @param embeddingAPI the embedding API used to embed queries.
+     * @param embeddingStore the store holding the quantized project embeddings.
+     * @param minRecall the lowest acceptable recall@10 compared with the exact search, between 0 and 1.
+     * @param resultCount the number of projects returned by {@link #searchProjects(String)}.
+     * @param executor the executor that recalibrates once the number of projects changed.
+     */
+    public QuantizedProjectSearchObject(IProjectRepository projectRepository, EmbeddingAPIInterface embeddingAPI,
+                                        QuantizedEmbeddingStore embeddingStore, double minRecall, int resultCount,
+                                        Executor executor) {
+        this.embeddingAPI = embeddingAPI;
+        this.projectDataAccess = projectRepository;
+        this.embeddingStore = embeddingStore;
+        this.minRecall = minRecall;
+        this.resultCount = resultCount;
+        this.executor = executor;
+        this.filterIndex = new ProjectFilterIndex(projectRepository);
+        synchronized (this) {
+            Map<Integer, float[]> embeddings = projectRepository.getAllEmbeddings();
+            embeddingStore.putAll(embeddings);
+            HashMap<Integer, float[]> sample = new HashMap<>();
+            for (int id : sampleIds()) {
+                sample.put(id, embeddings.get(id));
+            }
+            calibratedSize = embeddingStore.size();
+            candidateFactor = calibrate(sample, calibratedSize);
+        }
+        projectRepository.addProjectChangeListener(this);
+    }
+
+    /**
+     * Searches for the projects most similar to the given query.
+     *
+     * @param query the query to search for.
+     * @return the list of projects that match the query, most similar first.
+     */
+    @Override
+    public ArrayList<ProjectInterface> searchProjects(String query) {
+        return searchProjects(query, resultCount, 0);
+    }
+
+    /**
+     * Searches for projects based on the given query and returns one page of the ranking.
+     * Only projects above the midpoint between the lowest and highest estimated similarity are ranked.
+     *
+     * @param query the query to search for.
+     * @param k the maximum number of projects to return.
+     * @param offset the number of best matching projects to skip.
+     * @return the projects ranked {@code offset} to {@code offset + k - 1}, most similar first.
+     */
+    @Override
+    public ArrayList<ProjectInterface> searchProjects(String query, int k, int offset) {
+        return searchProjects(query, k, offset, ProjectSearchFilter.NONE);
+    }
+
+    /**
+     * Searches for projects that match the given filter and returns one page of their ranking.
+     * The midpoint threshold is taken over the accepted projects only.
+     *
+     * @param query the query to search for.
+     * @param k the maximum number of projects to return.
+     * @param offset the number of best matching projects to skip.
+     * @param filter the conditions every returned project meets.
+     * @return the accepted projects ranked {@code offset} to {@code offset + k - 1}, most similar first.
+     */
+    @Override
+    public ArrayList<ProjectInterface> searchProjects(String query, int k, int offset, ProjectSearchFilter filter) {
+        BitSet allowedIds = filterIndex.matching(filter);
+        float[] queryEmbedding = VectorKernels.normalize(embeddingAPI.getEmbedData(query));
+        int wanted;
+        SearchHits candidateHits;
+        float cutoff;
+        synchronized (this) {
+            recalibrateIfChanged();
+            if (queryEmbedding.length != embeddingStore.getDimension()) {
+                return new ArrayList<>();
+            }
+
+            int accepted = allowedIds == null ? embeddingStore.size()
+                    : Math.min(allowedIds.cardinality(), embeddingStore.size());
+            wanted = (int) Math.min((long) k + offset, accepted);
+            int candidates = (int) Math.min((long) Math.ceil(wanted * (double) candidateFactor), accepted);
+            float querySum = QuantizedEmbeddingStore.componentSum(queryEmbedding);
+            float minSimilarity = 1;
+            float maxSimilarity = -1;
+            TopKHeap topK = TopKHeap.forCurrentThread(candidates);
+            for (int slot = 0; slot < embeddingStore.size(); slot++) {
+                int id = embeddingStore.idAt(slot);
+                if (allowedIds != null && (id < 0 || !allowedIds.get(id))) {
+                    continue;
+                }
+                float estimate = embeddingStore.similarity(queryEmbedding, querySum, slot);
+                topK.offer(id, estimate);
+                minSimilarity = Math.min(minSimilarity, estimate);
+                maxSimilarity = Math.max(maxSimilarity, estimate);
+            }
+            threshold = (maxSimilarity + minSimilarity) / 2;
+            cutoff = threshold;
+            candidateHits = topK.drainSorted(0);
+        }
+
+        SearchHits hits = rescore(queryEmbedding, candidateHits, wanted);
+        ArrayList<ProjectInterface> result = new ArrayList<>();
+        for (int i = offset; i < hits.size() && hits.scores()[i] >= cutoff; i++) {
+            ProjectInterface project = projectDataAccess.getProjectById(hits.ids()[i]);
+            if (project != null) {
+                result.add(project);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Returns how many candidates are rescored per result, as last calibrated.
+     *
+     * @return the candidate factor, at least 1.
+     */
+    public float getCandidateFactor() {
+        return candidateFactor;
+    }
+
+    /**
+     * Replaces the estimated similarities of the candidates with exact ones and keeps the best {@code count}.
+     *
+     * @param queryEmbedding the normalized query.
+     * @param candidates the candidates found on the quantized embeddings.
+     * @param count the number of projects to keep.
+     * @return the best candidates by exact similarity, best first.
+     */
+    private SearchHits rescore(float[] queryEmbedding, SearchHits candidates, int count) {
+        TopKHeap topK = TopKHeap.forCurrentThread(count);
+        for (int i = 0; i < candidates.size(); i++) {
+            float[] embedding = projectDataAccess.getEmbedding(candidates.ids()[i]);
+            if (embedding != null && embedding.length == queryEmbedding.length) {
+                topK.offer(candidates.ids()[i], cosine(queryEmbedding, embedding));
+            }
+        }
+        return topK.drainSorted(0);
+    }
+
+    /**
+     * Stores the new quantized embedding of a project that was created or updated.
+     *
+     * @param project the project as it is now stored.
+     * @param embedding the embedding of the project, or an empty array if it has none.
+     */
+    @Override
+    public synchronized void projectSaved(Project project, float[] embedding) {
+        embeddingStore.put(project.getProjectId(), embedding);
+    }
+
+    /**
+     * Removes the quantized embedding of a deleted project.
+     *
+     * @param projectId the id of the deleted project.
+     */
+    @Override
+    public synchronized void projectDeleted(int projectId) {
+        embeddingStore.remove(projectId);
+    }
+
+    /**
+     * Starts a calibration on the executor if the number of projects changed by more than a tenth since the last
+     * one, unless one is already running. Searches keep the current factor until it is done.
+     */
+    private void recalibrateIfChanged() {
+        int size = embeddingStore.size();
+        if (calibrating || Math.abs(size - calibratedSize) * 10 <= calibratedSize) {
+            return;
+        }
+        int[] ids = sampleIds();
+        int dimension = embeddingStore.getDimension();
+        calibrating = true;
+        calibratedSize = size;
+        try {
+            executor.execute(() -> {
+                try {
+                    HashMap<Integer, float[]> sample = new HashMap<>();
+                    for (int id : ids) {
+                        float[] embedding = projectDataAccess.getEmbedding(id);
+                        if (embedding != null && embedding.length == dimension) {
+                            sample.put(id, embedding);
+                        }
+                    }
+                    candidateFactor = calibrate(sample, size);
+                } catch (RuntimeException e) {
+                    System.err.println("Could not calibrate the quantized search: " + e.getMessage());
+                }
+                finally {
+                    synchronized (this) {
+                        calibrating = false;
+                    }
+                }
+            });
+        } catch (RuntimeException e) {
+            calibrating = false;
+            System.err.println("Could not start the calibration of the quantized search: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Returns the ids of up to {@link #CALIBRATION_SAMPLE} stored projects, chosen at random with Floyd's algorithm.
+     */
+    private int[] sampleIds() {
+        int size = embeddingStore.size();
+        int count = Math.min(CALIBRATION_SAMPLE, size);
+        BitSet chosen = new BitSet(size);
+        for (int j = size - count; j < size; j++) {
+            int slot = random.nextInt(j + 1);
+            chosen.set(chosen.get(slot) ? j : slot);
+        }
+        int[] ids = new int[count];
+        int i = 0;
+        for (int slot = chosen.nextSetBit(0); slot >= 0; slot = chosen.nextSetBit(slot + 1)) {
+            ids[i++] = embeddingStore.idAt(slot);
+        }
+        return ids;
+    }
+
+    /**
+     * Returns the smallest candidate factor that keeps recall@10 at or above the bound, measured on a sample.
+     * Projects of the sample serve as queries, each left out of its own ranking so that, like a real query, it is
+     * not in the index. For each query, the quantized rank within the sample of every exact top-10 project is
+     * recorded. The candidate list must then reach the rank below which the required fraction of them fall.
+     * <p>
+     * The sample is quantized on its own, which gives the same codes as the store. The projects that overtake a
+     * neighbour only because of the quantization error are counted in the sample and scaled up to the whole store,
+     * which errs on the safe side since the neighbours within the store are closer than those within the sample.
+     *
+     * @param sample the full-precision embeddings of the sampled projects, keyed by project id.
+     * @param size the number of stored projects the sample was drawn from.
+     * @return the candidate factor, at least 1.
+     */
+    private float calibrate(Map<Integer, float[]> sample, int size) {
+        QuantizedEmbeddingStore sampleStore = new QuantizedEmbeddingStore(kernel);
+        sampleStore.putAll(sample);
+        int sampleSize = sampleStore.size();
+        int k = Math.min(CALIBRATION_K, sampleSize - 1);
+        if (k <= 0) {
+            return 1;
+        }
+        int dimension = sampleStore.getDimension();
+        float[][] normalized = new float[sampleSize][];
+        for (int slot = 0; slot < sampleSize; slot++) {
+            normalized[slot] = VectorKernels.normalize(sample.get(sampleStore.idAt(slot)));
+        }
+        double scale = Math.max(1, (size - 1) / (double) (sampleSize - 1));
+
+        int samples = Math.min(CALIBRATION_QUERIES, sampleSize);
+        int[] ranks = new int[samples * k];
+        float[] estimates = new float[sampleSize];
+        for (int s = 0; s < samples; s++) {
+            int querySlot = (int) ((long) s * sampleSize / samples);
+            float[] query = normalized[querySlot];
+            float querySum = QuantizedEmbeddingStore.componentSum(query);
+            TopKHeap exact = TopKHeap.forCurrentThread(k);
+            for (int slot = 0; slot < sampleSize; slot++) {
+                if (slot != querySlot) {
+                    exact.offer(slot, kernel.dot(query, 0, normalized[slot], 0, dimension));
+                }
+                estimates[slot] = sampleStore.similarity(query, querySum, slot);
+            }
+            int[] exactSlots = exact.drainSorted(0).ids();
+            for (int i = 0; i < k; i++) {
+                float estimate = estimates[exactSlots[i]];
+                int rank = 1;
+                for (int slot = 0; slot < sampleSize; slot++) {
+                    if (estimates[slot] >= estimate && slot != exactSlots[i] && slot != querySlot) {
+                        rank++; // ties count against the project, so the depth errs on the safe side
+                    }
+                }
+                int overtaking = Math.max(0, rank - (i + 1));
+                ranks[s * k + i] = (int) Math.min(size, i + 1 + Math.ceil(overtaking * scale));
+            }
+        }
+        Arrays.sort(ranks);
+        int covered = (int) Math.ceil(minRecall * ranks.length);
+        int depth = covered == 0 ? k : ranks[Math.min(covered, ranks.length) - 1];
+        return Math.max(1f, depth / (float) k);
+    }
+
+    /**
+     * Returns the cosine similarity between a normalized query and a raw embedding.
+     */
+    private float cosine(float[] normalizedQuery, float[] embedding) {
+        float norm = (float) Math.sqrt(kernel.dot(embedding, embedding));
+        return norm == 0 ? 0 : kernel.dot(normalizedQuery, embedding) / norm;
+    }
+}
@@ -25,4 +25,53 @@ public class SearchProjectController {
     public void searchProjects(String keywords) {
         interactor.searchProjects(keywords);
     }
+
+    /**
+     * Searches for projects based on the given keywords and shows one page of the results.
+     *
+     * @param keywords the keywords to search for.
+     * @param offset the number of best matching projects to skip.
+     * @param limit the maximum number of projects on the page.
+     */
+    public void searchProjects(String keywords, int offset, int limit) {
+        interactor.searchProjects(keywords, offset, limit);
+    }
+
+    /**
+     * Searches for projects that match the given filter and shows one page of the results.
+     *
+     * @param keywords the keywords to search for.
+     * @param offset the number of best matching projects to skip.
+     * @param limit the maximum number of projects on the page.
+     * @param filter the budget, tag and owner conditions every shown project meets.
+     */
+    public void searchProjects(String keywords, int offset, int limit, ProjectSearchFilter filter) {
+        interactor.searchProjects(keywords, offset, limit, filter);
+    }
+
+    /**
+     * Starts a streaming search for projects that match the given filter and shows each page it produces, the first
+     * ones while the search is still running. Replaces any search still running.
+     *
+     * @param keywords the keywords to search for.
+     * @param offset the number of best matching projects to skip.
+     * @param limit the maximum number of projects on the page.
+     * @param filter the budget, tag and owner conditions every shown project meets.
+     */
+    public void streamProjects(String keywords, int offset, int limit, ProjectSearchFilter filter) {
+        interactor.streamProjects(keywords, offset, limit, filter);
+    }
+
+    /**
+     * Shows the projects matching the keywords typed so far at once, then the results of a streaming search once the
+     * user stops typing. Replaces any search still running.
+     *
+     * @param keywords the keywords typed so far.
+     * @param offset the number of best matching projects to skip.
+     * @param limit the maximum number of projects on the page.
+     * @param filter the budget, tag and owner conditions every shown project meets.
+     */
+    public void searchAsYouType(String keywords, int offset, int limit, ProjectSearchFilter filter) {
+        interactor.searchAsYouType(keywords, offset, limit, filter);
+    }
 }
@@ -12,4 +12,46 @@ public interface SearchProjectInputBoundary {
      * @param keywords the keywords to search for.
      */
     void searchProjects(String keywords);
+
+    /**
+     * Searches for projects based on the given keywords and presents one page of the results.
+     *
+     * @param keywords the keywords to search for.
+     * @param offset the number of best matching projects to skip.
+     * @param limit the maximum number of projects on the page.
+     */
+    void searchProjects(String keywords, int offset, int limit);
+
+    /**
+     * Searches for projects that match the given filter and presents one page of the results.
+     *
+     * @param keywords the keywords to search for.
+     * @param offset the number of best matching projects to skip.
+     * @param limit the maximum number of projects on the page.
+     * @param filter the budget, tag and owner conditions every presented project meets.
+     */
+    void searchProjects(String keywords, int offset, int limit, ProjectSearchFilter filter);
+
+    /**
+     * Starts a streaming search for projects that match the given filter and returns at once.
+     * Partial pages are presented while the projects are scanned, then the final page. A newer search cancels it.
+     *
+     * @param keywords the keywords to search for.
+     * @param offset the number of best matching projects to skip.
+     * @param limit the maximum number of projects on the page.
+     * @param filter the budget, tag and owner conditions every presented project meets.
+     */
+    void streamProjects(String keywords, int offset, int limit, ProjectSearchFilter filter);
+
+    /**
+     * Searches for projects while the query is typed and returns after presenting the keyword suggestions for it.
+     * If no newer search starts within the search-as-you-type delay, the suggestions are then refined by a streaming
+     * search.
+     *
+     * @param keywords the keywords typed so far.
+     * @param offset the number of best matching projects to skip.
+     * @param limit the maximum number of projects on the page.
+     * @param filter the budget, tag and owner conditions every presented project meets.
+     */
+    void searchAsYouType(String keywords, int offset, int limit, ProjectSearchFilter filter);
 }
@@ -16,4 +16,23 @@ public interface SearchProjectOutputBoundary {
      * @param projects the list of projects to be presented.
      */
     void presentProjects(ArrayList<ProjectInterface> projects);
+
+    /**
+     * Sends one page of the search results to be presented.
+     *
+     * @param projects the projects on the page.
+     * @param offset the rank of the first project on the page.
+     * @param hasMore whether more results follow this page.
+     */
+    void presentProjectPage(ArrayList<ProjectInterface> projects, int offset, boolean hasMore);
+
+    /**
+     * Sends the page of the ranking of the projects scanned so far, while a streaming search is still running.
+     * A later partial page or the final page replaces it.
+     *
+     * @param projects the projects on the page so far.
+     * @param offset the rank of the first project on the page.
+     * @param hasMore whether more results follow this page so far.
+     */
+    void presentPartialProjectPage(ArrayList<ProjectInterface> projects, int offset, boolean hasMore);
 }
@@ -1,21 +1,47 @@
 package usecase.searchforproject;
 
+import api.embeddingapi.CachingEmbeddingAPI;
 import api.embeddingapi.EmbeddingAPIInterface;
+import api.embeddingapi.HashedNgramEmbeddingAPI;
 import api.embeddingapi.OpenAPIDataEmbed;
 import config.DataAccessConfig;
+import config.SearchConfig;
 import dataaccess.IProjectRepository;
+import usecase.searchforproject.index.NormalizedEmbeddingStore;
+import usecase.searchforproject.index.PersistentEmbeddingStore;
 import viewmodel.SearchPanelViewModel;
 
+import java.nio.file.Path;
+import java.time.Clock;
+
 /**
  * Factory class for creating instances of the SearchProject use case.
  */
 public class SearchProjectUseCaseFactory {
     private static final IProjectRepository projectRepository = DataAccessConfig.getProjectRepository();
-    private static final EmbeddingAPIInterface embeddingAPI = new OpenAPIDataEmbed();
+    // Shared by every search so that repeated queries skip the embedding API
+    private static final EmbeddingAPIInterface embeddingAPI = createEmbeddingAPI();
+    // Shared by the searches and recommendations that rank every project exactly, created on first use
+    private static LocalProjectSearchObject exactProjectSearch = null;
+    private static PersistentEmbeddingStore snapshotStore = null;
+    // Shared by the hybrid search and the search-as-you-type suggestions, created on first use
+    private static LexicalProjectSearchObject keywordSearch = null;
 
     // Private constructor to prevent instantiation
     private SearchProjectUseCaseFactory() {}
 
+    /**
+     * Creates the query embedding API selected by {@link SearchConfig#getEmbeddingProvider()}. Queries sent to the
+     * OpenAI API are cached; local embeddings are cheaper to compute than to cache.
+     */
+    private static EmbeddingAPIInterface createEmbeddingAPI() {
+        if (SearchConfig.getEmbeddingProvider() == SearchConfig.EMBEDDING_LOCAL) {
+            return new HashedNgramEmbeddingAPI(SearchConfig.getLocalEmbeddingDimension());
+        }
+        return new CachingEmbeddingAPI(new OpenAPIDataEmbed(), SearchConfig.getQueryCacheSize(),
+                SearchConfig.getQueryCacheTtl(), SearchConfig.getQueryCacheFile(), Clock.systemUTC());
+    }
+
     /**
      * Creates a search project controller for search project use case.
      *
@@ -24,7 +50,100 @@ public class SearchProjectUseCaseFactory {
      */
     public static SearchProjectController createSearchProjectController(SearchPanelViewModel searchPanelViewModel) {
         SearchProjectOutputBoundary presenter = new SearchProjectsPresenter(searchPanelViewModel);
-        SearchProjectInputBoundary interactor = new SearchProjectsInteractor(presenter, projectRepository, embeddingAPI);
+        SearchProjectInputBoundary interactor = new SearchProjectsInteractor(presenter, createProjectSearch(),
+                getKeywordSearch(), SearchConfig.getStreamingExecutor(), SearchConfig.getSearchAsYouTypeDelay());
         return new SearchProjectController(interactor);
     }
+
+    /**
+     * Returns the embedding API shared by every use case that embeds queries or profiles.
+     *
+     * @return the shared embedding API.
+     */
+    public static EmbeddingAPIInterface getEmbeddingAPI() {
+        return embeddingAPI;
+    }
+
+    /**
+     * Returns the exact project search shared by every use case. If {@link SearchConfig#getIndexSnapshotDirectory()}
+     * is set and the data is local, its embeddings are restored from the snapshot saved there for the embedding model,
+     * see {@link DataAccessConfig#getIndexSnapshotDirectory()}, instead of being loaded from the repository. The
+     * database is shared with other clients, so its index is always loaded from it.
+     *
+     * @return the shared exact project search.
+     */
+    public static synchronized LocalProjectSearchObject getExactProjectSearch() {
+        if (exactProjectSearch == null) {
+            long start = System.nanoTime();
+            NormalizedEmbeddingStore embeddingStore = new NormalizedEmbeddingStore();
+            Path snapshotDirectory = DataAccessConfig.getIndexSnapshotDirectory();
+            if (snapshotDirectory != null) {
+                snapshotStore = PersistentEmbeddingStore.open(snapshotDirectory, projectRepository::getAllEmbeddings);
+                embeddingStore = snapshotStore;
+            }
+            exactProjectSearch = new LocalProjectSearchObject(projectRepository, embeddingAPI, embeddingStore);
+            System.out.printf("Search index of %d projects %s in %d ms%n", embeddingStore.size(),
+                    snapshotStore != null && snapshotStore.isRestoredFromSnapshot() ? "restored from snapshot"
+                            : "loaded from repository", (System.nanoTime() - start) / 1_000_000);
+            exactProjectSearch.reportTimeToFirstQuery(start);
+        }
+        return exactProjectSearch;
+    }
+
+    /**
+     * Saves a snapshot of the shared search index if it changed since the last one, so the next launch has no
+     * changes to replay. Called when the application closes.
+     */
+    public static synchronized void saveIndexSnapshot() {
+        if (snapshotStore != null && snapshotStore.getJournalRecordCount() > 0) {
+            snapshotStore.saveSnapshot();
+        }
+    }
+
+    /**
+     * Returns the saved store behind the shared exact search, next to which other indexes can be saved.
+     *
+     * @return the saved store, or null if the search index is rebuilt on every launch.
+     */
+    public static synchronized PersistentEmbeddingStore getIndexSnapshotStore() {
+        getExactProjectSearch();
+        return snapshotStore;
+    }
+
+    /**
+     * Returns the keyword search shared by the hybrid search and the search-as-you-type suggestions.
+     *
+     * @return the shared keyword search.
+     */
+    private static synchronized LexicalProjectSearchObject getKeywordSearch() {
+        if (keywordSearch == null) {
+            keywordSearch = new LexicalProjectSearchObject(projectRepository);
+        }
+        return keywordSearch;
+    }
+
+    /**
+     * Creates the search implementation selected in {@link SearchConfig}.
+     *
+     * @return the project search implementation.
+     */
+    private static ProjectSearchInterface createProjectSearch() {
+        if (SearchConfig.getSearchImplementation() == SearchConfig.HNSW) {
+            return new HnswProjectSearchObject(projectRepository, embeddingAPI);
+        }
+        if (SearchConfig.getSearchImplementation() == SearchConfig.QUANTIZED) {
+            return new QuantizedProjectSearchObject(projectRepository, embeddingAPI);
+        }
+        if (SearchConfig.getSearchImplementation() == SearchConfig.IVF) {
+            return new IvfProjectSearchObject(projectRepository, embeddingAPI);
+        }
+        if (SearchConfig.getSearchImplementation() == SearchConfig.TRUNCATED) {
+            return new LocalProjectSearchObject(projectRepository, embeddingAPI, SearchConfig.getTruncatedDimension(),
+                    SearchConfig.getTruncatedRerankCount());
+        }
+        if (SearchConfig.getSearchImplementation() == SearchConfig.HYBRID) {
+            return new HybridProjectSearchObject(getKeywordSearch(), getExactProjectSearch());
+        }
+        return getExactProjectSearch();
+    }
 }
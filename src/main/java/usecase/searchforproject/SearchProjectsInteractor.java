@@ -1,18 +1,35 @@
 package usecase.searchforproject;
 
 import api.embeddingapi.EmbeddingAPIInterface;
+import config.SearchConfig;
 import entities.ProjectInterface;
 import dataaccess.IProjectRepository;
 
+import java.time.Duration;
 import java.util.ArrayList;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
 
 /**
  * Interactor class for searching projects.
  * Implements the input boundary to handle project search logic.
+ * <p>
+ * A streaming search runs on the executor and presents each page it receives, so the caller returns at once.
+ * Every search, streaming or not, replaces the searches started before it: their pages are no longer presented
+ * and a streaming search still scanning stops at its next chunk.
+ * <p>
+ * While a query is typed, each keystroke presents the keyword suggestions for it at once, on the calling thread, so
+ * they never wait behind an embedding request on the executor. The streaming search for the query only starts once
+ * no keystroke followed it for the search-as-you-type delay, so a burst of keystrokes costs one embedding request.
  */
 public class SearchProjectsInteractor implements SearchProjectInputBoundary {
     private final ProjectSearchInterface projectDAO;
     private final SearchProjectOutputBoundary presenter;
+    private final ProjectSuggestionInterface suggestions;
+    private final Executor executor;
+    private final Executor refinementExecutor;
+    private long latestSearch = 0;
 
     /**
      * Creates a new SearchProjectsInteractor using the given project repository.
@@ -25,6 +42,51 @@ public class SearchProjectsInteractor implements SearchProjectInputBoundary {
                                     EmbeddingAPIInterface embeddingAPI) {
         this.presenter = presenter;
         this.projectDAO = new LocalProjectSearchObject(projectRepository, embeddingAPI);
+        this.suggestions = null;
+        this.executor = SearchConfig.getStreamingExecutor();
+        this.refinementExecutor = delayed(executor, SearchConfig.getSearchAsYouTypeDelay());
+    }
+
+    /**
+     * Creates a new SearchProjectsInteractor that searches with the given search implementation.
+     *
+     * @param presenter the output boundary.
+     * @param projectSearch the search implementation to use.
+     */
+    public SearchProjectsInteractor(SearchProjectOutputBoundary presenter, ProjectSearchInterface projectSearch) {
+        this(presenter, projectSearch, SearchConfig.getStreamingExecutor());
+    }
+
+    /**
+     * Creates a new SearchProjectsInteractor that searches with the given search implementation and runs streaming
+     * searches on the given executor.
+     *
+     * @param presenter the output boundary.
+     * @param projectSearch the search implementation to use.
+     * @param executor the executor that runs streaming searches.
+     */
+    public SearchProjectsInteractor(SearchProjectOutputBoundary presenter, ProjectSearchInterface projectSearch,
+                                    Executor executor) {
+        this(presenter, projectSearch, null, executor, SearchConfig.getSearchAsYouTypeDelay());
+    }
+
+    /**
+     * Creates a new SearchProjectsInteractor that also suggests projects while a query is typed.
+     *
+     * @param presenter the output boundary.
+     * @param projectSearch the search implementation to use.
+     * @param suggestions the search that suggests projects while a query is typed, or null to suggest none.
+     * @param executor the executor that runs streaming searches.
+     * @param searchAsYouTypeDelay how long typing must pause before the suggestions are refined.
+     */
+    public SearchProjectsInteractor(SearchProjectOutputBoundary presenter, ProjectSearchInterface projectSearch,
+                                    ProjectSuggestionInterface suggestions, Executor executor,
+                                    Duration searchAsYouTypeDelay) {
+        this.presenter = presenter;
+        this.projectDAO = projectSearch;
+        this.suggestions = suggestions;
+        this.executor = executor;
+        this.refinementExecutor = delayed(executor, searchAsYouTypeDelay);
     }
 
     /**
@@ -34,7 +96,149 @@ public class SearchProjectsInteractor implements SearchProjectInputBoundary {
      */
     @Override
     public void searchProjects(String keywords) {
+        long search = startSearch();
         ArrayList<ProjectInterface> projects = projectDAO.searchProjects(keywords);
-        presenter.presentProjects(projects);
+        synchronized (this) {
+            if (search == latestSearch) {
+                presenter.presentProjects(projects);
+            }
+        }
+    }
+
+    /**
+     * Searches for projects based on the given keywords and presents one page of the results.
+     * One extra project is requested to find out whether another page follows.
+     *
+     * @param keywords the keywords to search for.
+     * @param offset the number of best matching projects to skip.
+     * @param limit the maximum number of projects on the page.
+     */
+    @Override
+    public void searchProjects(String keywords, int offset, int limit) {
+        searchProjects(keywords, offset, limit, ProjectSearchFilter.NONE);
+    }
+
+    /**
+     * Searches for projects that match the given filter and presents one page of the results.
+     *
+     * @param keywords the keywords to search for.
+     * @param offset the number of best matching projects to skip.
+     * @param limit the maximum number of projects on the page.
+     * @param filter the budget, tag and owner conditions every presented project meets.
+     */
+    @Override
+    public void searchProjects(String keywords, int offset, int limit, ProjectSearchFilter filter) {
+        long search = startSearch();
+        int pageOffset = Math.max(offset, 0);
+        int pageLimit = Math.max(limit, 0);
+        ArrayList<ProjectInterface> projects = projectDAO.searchProjects(keywords, pageLimit + 1, pageOffset, filter);
+        presentPage(search, projects, pageOffset, pageLimit, true);
+    }
+
+    /**
+     * Starts a streaming search for projects that match the given filter and returns at once. Each page the search
+     * passes is presented, from a partial ranking while the projects are scanned to the final page.
+     *
+     * @param keywords the keywords to search for.
+     * @param offset the number of best matching projects to skip.
+     * @param limit the maximum number of projects on the page.
+     * @param filter the budget, tag and owner conditions every presented project meets.
+     */
+    @Override
+    public void streamProjects(String keywords, int offset, int limit, ProjectSearchFilter filter) {
+        long search = startSearch();
+        int pageOffset = Math.max(offset, 0);
+        int pageLimit = Math.max(limit, 0);
+        executor.execute(() -> stream(search, keywords, pageOffset, pageLimit, filter));
+    }
+
+    /**
+     * Presents the keyword suggestions for the keywords typed so far, then starts a streaming search for them unless
+     * a newer search starts within the search-as-you-type delay. Blank keywords present an empty page.
+     *
+     * @param keywords the keywords typed so far.
+     * @param offset the number of best matching projects to skip.
+     * @param limit the maximum number of projects on the page.
+     * @param filter the budget, tag and owner conditions every presented project meets.
+     */
+    @Override
+    public void searchAsYouType(String keywords, int offset, int limit, ProjectSearchFilter filter) {
+        long search = startSearch();
+        int pageOffset = Math.max(offset, 0);
+        int pageLimit = Math.max(limit, 0);
+        if (keywords == null || keywords.isBlank()) {
+            presentPage(search, new ArrayList<>(), pageOffset, pageLimit, true);
+            return;
+        }
+        if (suggestions != null) {
+            try {
+                presentPage(search, suggestions.suggestProjects(keywords, pageLimit + 1, pageOffset, filter),
+                        pageOffset, pageLimit, false);
+            } catch (RuntimeException e) {
+                System.err.println("Could not suggest projects: " + e.getMessage());
+            }
+        }
+        refinementExecutor.execute(() -> stream(search, keywords, pageOffset, pageLimit, filter));
+    }
+
+    /**
+     * Runs a streaming search and presents its pages until a newer search replaces it. A search replaced before it
+     * starts does not request the embedding of its query.
+     */
+    private void stream(long search, String keywords, int offset, int limit, ProjectSearchFilter filter) {
+        if (isReplaced(search)) {
+            return;
+        }
+        try {
+            projectDAO.streamProjects(keywords, limit + 1, offset, filter, () -> isReplaced(search),
+                    (projects, complete) -> presentPage(search, projects, offset, limit, complete));
+        } catch (RuntimeException e) {
+            System.err.println("Could not search projects: " + e.getMessage());
+            presentPage(search, new ArrayList<>(), offset, limit, true);
+        }
+    }
+
+    /**
+     * Replaces every search started before.
+     *
+     * @return the number of the new search.
+     */
+    private synchronized long startSearch() {
+        return ++latestSearch;
+    }
+
+    private synchronized boolean isReplaced(long search) {
+        return search != latestSearch;
+    }
+
+    /**
+     * Presents a page unless a newer search started. One extra project was requested to find out whether another
+     * page follows.
+     */
+    private synchronized void presentPage(long search, ArrayList<ProjectInterface> projects, int offset, int limit,
+                                          boolean complete) {
+        if (search != latestSearch) {
+            return;
+        }
+        boolean hasMore = projects.size() > limit;
+        if (hasMore) {
+            projects.subList(limit, projects.size()).clear();
+        }
+        if (complete) {
+            presenter.presentProjectPage(projects, offset, hasMore);
+        }
+        else {
+            presenter.presentPartialProjectPage(projects, offset, hasMore);
+        }
+    }
+
+    /**
+     * Returns an executor that runs tasks on the given one after the delay.
+     */
+    private static Executor delayed(Executor executor, Duration delay) {
+        if (delay.isZero() || delay.isNegative()) {
+            return executor;
+        }
+        return CompletableFuture.delayedExecutor(delay.toMillis(), TimeUnit.MILLISECONDS, executor);
     }
 }
@@ -30,4 +30,34 @@ public class SearchProjectsPresenter implements SearchProjectOutputBoundary {
         searchPanelViewModel.setProjects(projects);
         searchPanelViewModel.firePropertyChanged();
     }
+
+    /**
+     * Sends one page of the search results to the view model.
+     *
+     * @param projects the projects on the page.
+     * @param offset the rank of the first project on the page.
+     * @param hasMore whether more results follow this page.
+     */
+    @Override
+    public void presentProjectPage(ArrayList<ProjectInterface> projects, int offset, boolean hasMore) {
+        searchPanelViewModel.setProjectPage(offset, hasMore);
+        searchPanelViewModel.setSearching(false);
+        searchPanelViewModel.setProjects(projects);
+        searchPanelViewModel.firePropertyChanged();
+    }
+
+    /**
+     * Sends the page of the projects scanned so far to the view model, marked as still searching.
+     *
+     * @param projects the projects on the page so far.
+     * @param offset the rank of the first project on the page.
+     * @param hasMore whether more results follow this page so far.
+     */
+    @Override
+    public void presentPartialProjectPage(ArrayList<ProjectInterface> projects, int offset, boolean hasMore) {
+        searchPanelViewModel.setProjectPage(offset, hasMore);
+        searchPanelViewModel.setSearching(true);
+        searchPanelViewModel.setProjects(projects);
+        searchPanelViewModel.firePropertyChanged();
+    }
 }
@@ -0,0 +1,21 @@
+package usecase.searchforproject;
+
+import entities.ProjectInterface;
+
+import java.util.ArrayList;
+
+/**
+ * Receives the results of a streaming search while the projects are being scanned.
+ */
+@FunctionalInterface
+public interface SearchResultsListener {
+
+    /**
+     * Receives the requested page of the ranking of the projects scanned so far.
+     * Each call replaces the page of the previous one.
+     *
+     * @param projects the page of the ranking so far, most similar first.
+     * @param complete whether every project was scanned, in which case the page is final and no call follows.
+     */
+    void resultsUpdated(ArrayList<ProjectInterface> projects, boolean complete);
+}
@@ -0,0 +1,17 @@
+package usecase.searchforproject.index;
+
+/**
+ * Receives the similarity of each query and project pair visited by a batch scan, without boxing.
+ */
+@FunctionalInterface
+public interface BatchScoreConsumer {
+
+    /**
+     * Accepts the similarity of one project to one query of the batch.
+     *
+     * @param query the index of the query in the batch.
+     * @param id the project id.
+     * @param score the similarity of the project to the query.
+     */
+    void accept(int query, int id, float score);
+}
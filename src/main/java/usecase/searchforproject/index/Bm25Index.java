@@ -0,0 +1,375 @@
+package usecase.searchforproject.index;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Inverted index over the title, description and tags of projects, ranked with Okapi BM25.
+ * Title and tag terms count {@link #TITLE_WEIGHT} and {@link #TAG_WEIGHT} times, so a match there outranks the
+ * same match in a long description.
+ * <p>
+ * Projects can be added, replaced and removed one at a time; only the posting lists of their terms change.
+ * The terms are also kept sorted, so that the last word of a query that is still being typed can be matched as a
+ * prefix, see {@link #searchPrefix(String, int, BitSet)}.
+ * Not thread-safe: updates must not run concurrently with searches.
+ */
+public class Bm25Index {
+    public static final int TITLE_WEIGHT = 2;
+    public static final int TAG_WEIGHT = 2;
+    public static final int MAX_PREFIX_EXPANSIONS = 32;
+    public static final int MAX_PREFIX_POSTINGS = 100_000;
+
+    private static final float K1 = 1.2f;
+    private static final float B = 0.75f;
+    private static final Set<String> STOP_WORDS = Set.of(
+            "a", "an", "and", "are", "as", "at", "be", "by", "for", "from", "in", "into", "is", "it", "of", "on",
+            "or", "that", "the", "this", "to", "with");
+    private static final Pattern SEPARATOR = Pattern.compile("[^\\p{L}\\p{N}]+");
+    private static final Pattern TRAILING_WORD = Pattern.compile("[\\p{L}\\p{N}]+$");
+
+    private final HashMap<String, Postings> postingsByTerm = new HashMap<>();
+    private final TreeMap<String, Postings> sortedPostings = new TreeMap<>();
+    private final HashMap<Integer, String[]> termsById = new HashMap<>();
+    private final IdSlotMap lengthById = new IdSlotMap();
+    private long totalLength = 0;
+
+    /**
+     * Indexes a project, replacing its previous text if it was indexed before.
+     *
+     * @param id the project id.
+     * @param title the title of the project.
+     * @param description the description of the project.
+     * @param tags the tags of the project.
+     */
+    public void put(int id, String title, String description, Collection<String> tags) {
+        remove(id);
+        HashMap<String, Integer> frequencies = new HashMap<>();
+        int length = addTerms(frequencies, title, TITLE_WEIGHT) + addTerms(frequencies, description, 1);
+        for (String tag : tags) {
+            length += addTerms(frequencies, tag, TAG_WEIGHT);
+        }
+        if (frequencies.isEmpty()) {
+            return;
+        }
+        for (Map.Entry<String, Integer> entry : frequencies.entrySet()) {
+            postingsByTerm.computeIfAbsent(entry.getKey(), term -> {
+                Postings postings = new Postings();
+                sortedPostings.put(term, postings);
+                return postings;
+            }).add(id, entry.getValue());
+        }
+        termsById.put(id, frequencies.keySet().toArray(new String[0]));
+        lengthById.put(id, length);
+        totalLength += length;
+    }
+
+    /**
+     * Removes a project from the index.
+     *
+     * @param id the project id.
+     */
+    public void remove(int id) {
+        String[] terms = termsById.remove(id);
+        if (terms == null) {
+            return;
+        }
+        for (String term : terms) {
+            Postings postings = postingsByTerm.get(term);
+            postings.remove(id);
+            if (postings.size == 0) {
+                postingsByTerm.remove(term);
+                sortedPostings.remove(term);
+            }
+        }
+        totalLength -= lengthById.remove(id);
+    }
+
+    /**
+     * Removes every project from the index.
+     */
+    public void clear() {
+        postingsByTerm.clear();
+        sortedPostings.clear();
+        termsById.clear();
+        lengthById.clear();
+        totalLength = 0;
+    }
+
+    /**
+     * Returns the projects with the highest BM25 score for a query. Projects that share no term with the query
+     * are not returned.
+     *
+     * @param query the query text.
+     * @param k the maximum number of projects to return.
+     * @return the best projects, best first, with their BM25 scores.
+     */
+    public SearchHits search(String query, int k) {
+        return search(query, k, null);
+    }
+
+    /**
+     * Returns the projects among the allowed ones with the highest BM25 score for a query. Postings of other
+     * projects are skipped before they are scored; document frequencies still count every project.
+     *
+     * @param query the query text.
+     * @param k the maximum number of projects to return.
+     * @param allowedIds the ids of the projects that may be returned, or null to allow every project.
+     * @return the best allowed projects, best first, with their BM25 scores.
+     */
+    public SearchHits search(String query, int k, BitSet allowedIds) {
+        return score(new LinkedHashSet<>(tokenize(query)), List.of(), k, allowedIds);
+    }
+
+    /**
+     * Returns the best projects among the allowed ones for a query that is still being typed. Unless the query ends
+     * with a separator, its last word is matched as a prefix: it stands for the {@link #MAX_PREFIX_EXPANSIONS} terms
+     * starting with it that occur in the most projects, and a project scores only for the best of those terms. The
+     * other words are matched as in {@link #search(String, int, BitSet)}.
+     * <p>
+     * To bound the cost of short prefixes, the terms a prefix stands for occur in at most {@link #MAX_PREFIX_POSTINGS}
+     * projects together, except that its most frequent term is always matched.
+     *
+     * @param query the query text, possibly ending in an unfinished word.
+     * @param k the maximum number of projects to return.
+     * @param allowedIds the ids of the projects that may be returned, or null to allow every project.
+     * @return the best allowed projects, best first, with their BM25 scores.
+     */
+    public SearchHits searchPrefix(String query, int k, BitSet allowedIds) {
+        String normalized = query == null ? "" : normalize(query);
+        Matcher trailingWord = TRAILING_WORD.matcher(normalized);
+        if (!trailingWord.find()) {
+            return search(normalized, k, allowedIds);
+        }
+        String prefix = trailingWord.group();
+        LinkedHashSet<String> terms = new LinkedHashSet<>(tokenize(normalized.substring(0, trailingWord.start())));
+        return score(terms, expand(prefix), k, allowedIds);
+    }
+
+    /**
+     * Returns the indexed terms a prefix stands for: the ones starting with it that occur in the most projects, within
+     * the postings budget, and the term of the prefix as a complete word, e.g. "project" for "projects".
+     */
+    private List<String> expand(String prefix) {
+        // The most frequent terms starting with the prefix, most frequent first
+        ArrayList<Map.Entry<String, Postings>> frequent = new ArrayList<>(MAX_PREFIX_EXPANSIONS + 1);
+        for (Map.Entry<String, Postings> entry
+                : sortedPostings.subMap(prefix, true, prefix + Character.MAX_VALUE, false).entrySet()) {
+            int size = entry.getValue().size;
+            if (frequent.size() == MAX_PREFIX_EXPANSIONS && size <= frequent.getLast().getValue().size) {
+                continue;
+            }
+            int position = frequent.size();
+            while (position > 0 && frequent.get(position - 1).getValue().size < size) {
+                position--;
+            }
+            frequent.add(position, entry);
+            if (frequent.size() > MAX_PREFIX_EXPANSIONS) {
+                frequent.removeLast();
+            }
+        }
+
+        ArrayList<String> expansions = new ArrayList<>();
+        long postingCount = 0;
+        for (Map.Entry<String, Postings> entry : frequent) {
+            if (expansions.isEmpty() || postingCount + entry.getValue().size <= MAX_PREFIX_POSTINGS) {
+                expansions.add(entry.getKey());
+                postingCount += entry.getValue().size;
+            }
+        }
+        for (String term : tokenize(prefix)) {
+            if (postingsByTerm.containsKey(term) && !expansions.contains(term)) {
+                expansions.add(term);
+            }
+        }
+        return expansions;
+    }
+
+    /**
+     * Sums the BM25 scores of the terms for every allowed project, adds the best score among the prefix terms and
+     * returns the best {@code k} projects.
+     */
+    private SearchHits score(Collection<String> terms, Collection<String> prefixTerms, int k, BitSet allowedIds) {
+        int documentCount = termsById.size();
+        if (documentCount == 0 || k <= 0) {
+            return SearchHits.EMPTY;
+        }
+        float averageLength = (float) totalLength / documentCount;
+        Accumulators accumulators = new Accumulators();
+        for (String term : terms) {
+            addScores(accumulators, term, false, documentCount, averageLength, allowedIds);
+        }
+        for (String term : prefixTerms) {
+            addScores(accumulators, term, true, documentCount, averageLength, allowedIds);
+        }
+
+        if (accumulators.count == 0) {
+            return SearchHits.EMPTY;
+        }
+        TopKHeap topK = TopKHeap.forCurrentThread(Math.min(k, accumulators.count));
+        for (int i = 0; i < accumulators.count; i++) {
+            topK.offer(accumulators.ids[i], accumulators.scores[i] + accumulators.prefixScores[i]);
+        }
+        return topK.drainSorted(0);
+    }
+
+    /**
+     * Scores the allowed projects containing a term. Scores of a prefix term replace the prefix score of a project
+     * when they are higher; other scores are added.
+     */
+    private void addScores(Accumulators accumulators, String term, boolean prefix, int documentCount,
+                           float averageLength, BitSet allowedIds) {
+        Postings postings = postingsByTerm.get(term);
+        if (postings == null) {
+            return;
+        }
+        float idf = (float) Math.log(1 + (documentCount - postings.size + 0.5) / (postings.size + 0.5));
+        for (int i = 0; i < postings.size; i++) {
+            int id = postings.ids[i];
+            if (allowedIds != null && (id < 0 || !allowedIds.get(id))) {
+                continue;
+            }
+            int frequency = postings.frequencies[i];
+            float norm = K1 * (1 - B + B * lengthById.get(id) / averageLength);
+            float score = idf * frequency * (K1 + 1) / (frequency + norm);
+            int accumulator = accumulators.of(id);
+            if (prefix) {
+                accumulators.prefixScores[accumulator] = Math.max(accumulators.prefixScores[accumulator], score);
+            }
+            else {
+                accumulators.scores[accumulator] += score;
+            }
+        }
+    }
+
+    /**
+     * Returns whether a project is indexed. Projects without any indexable term are not.
+     *
+     * @param id the project id.
+     * @return true if the project is indexed.
+     */
+    public boolean contains(int id) {
+        return termsById.containsKey(id);
+    }
+
+    /**
+     * Returns the number of indexed projects.
+     *
+     * @return the number of projects.
+     */
+    public int size() {
+        return termsById.size();
+    }
+
+    /**
+     * Splits a text into index terms: Unicode NFKC form, lower case, split at anything that is not a letter or
+     * digit, without stop words, and with a plural "s" removed from words longer than three letters.
+     *
+     * @param text the text.
+     * @return the terms, in order of appearance.
+     */
+    public static List<String> tokenize(String text) {
+        ArrayList<String> terms = new ArrayList<>();
+        if (text == null) {
+            return terms;
+        }
+        for (String token : SEPARATOR.split(normalize(text))) {
+            if (token.isEmpty() || STOP_WORDS.contains(token)) {
+                continue;
+            }
+            if (token.length() > 3 && token.endsWith("s") && !token.endsWith("ss")) {
+                token = token.substring(0, token.length() - 1);
+            }
+            terms.add(token);
+        }
+        return terms;
+    }
+
+    private static String normalize(String text) {
+        return Normalizer.normalize(text, Normalizer.Form.NFKC).toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Adds the terms of a text to a frequency map, each counted {@code weight} times.
+     *
+     * @return the number of terms added, including the weight.
+     */
+    private static int addTerms(HashMap<String, Integer> frequencies, String text, int weight) {
+        List<String> terms = tokenize(text);
+        for (String term : terms) {
+            frequencies.merge(term, weight, Integer::sum);
+        }
+        return terms.size() * weight;
+    }
+
+    /**
+     * The running scores of the projects matched by a search, in order of their first match.
+     */
+    private static final class Accumulators {
+        private final IdSlotMap positionById = new IdSlotMap();
+        private int[] ids = new int[16];
+        private float[] scores = new float[16];
+        private float[] prefixScores = new float[16];
+        private int count = 0;
+
+        private int of(int id) {
+            int position = positionById.get(id);
+            if (position != -1) {
+                return position;
+            }
+            if (count == ids.length) {
+                ids = Arrays.copyOf(ids, count * 2);
+                scores = Arrays.copyOf(scores, count * 2);
+                prefixScores = Arrays.copyOf(prefixScores, count * 2);
+            }
+            ids[count] = id;
+            positionById.put(id, count);
+            return count++;
+        }
+    }
+
+    /**
+     * The projects containing a term, with the weighted frequency of the term in each of them.
+     * Removal swaps the last posting into the freed position, so the lists stay dense.
+     */
+    private static final class Postings {
+        private final IdSlotMap positionById = new IdSlotMap();
+        private int[] ids = new int[4];
+        private int[] frequencies = new int[4];
+        private int size = 0;
+
+        private void add(int id, int frequency) {
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, size * 2);
+                frequencies = Arrays.copyOf(frequencies, size * 2);
+            }
+            ids[size] = id;
+            frequencies[size] = frequency;
+            positionById.put(id, size++);
+        }
+
+        private void remove(int id) {
+            int position = positionById.remove(id);
+            if (position == -1) {
+                return;
+            }
+            size--;
+            if (position != size) {
+                ids[position] = ids[size];
+                frequencies[position] = frequencies[size];
+                positionById.put(ids[position], position);
+            }
+        }
+    }
+}
@@ -0,0 +1,20 @@
+package usecase.searchforproject.index;
+
+import java.util.Comparator;
+
+/**
+ * Two projects whose embeddings are nearly identical.
+ *
+ * @param firstId the lower of the two project ids.
+ * @param secondId the higher of the two project ids.
+ * @param similarity the cosine similarity of their embeddings.
+ */
+public record DuplicatePair(int firstId, int secondId, float similarity) {
+    /**
+     * Orders pairs by decreasing similarity, then by their ids.
+     */
+    public static final Comparator<DuplicatePair> BY_SIMILARITY = Comparator
+            .comparing(DuplicatePair::similarity, Comparator.reverseOrder())
+            .thenComparingInt(DuplicatePair::firstId)
+            .thenComparingInt(DuplicatePair::secondId);
+}
@@ -0,0 +1,245 @@
+package usecase.searchforproject.index;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.lang.foreign.Arena;
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.ValueLayout;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Append-only log of the embedding changes made since the last {@link EmbeddingSnapshot}.
+ * Replaying the journal over the snapshot it belongs to restores the store as it was when the last change was
+ * recorded, without reading the repository.
+ * <p>
+ * Each journal has a random generation, written in its header and in the header of its snapshot, so a snapshot is
+ * never combined with the journal of another one. Saving a snapshot starts a new generation with an empty journal.
+ * <p>
+ * The file is little-endian: a 32-byte header with the magic "PSIJ", the format version and the generation,
+ * followed by records. A put is the byte 1, the project id and the dimension, followed by the raw embedding; a
+ * removal is the byte 2 and the project id. Every record is flushed to the device before the append returns.
+ */
+public class EmbeddingJournal implements Closeable {
+    private static final int MAGIC = 0x5053494A; // "PSIJ"
+    private static final int VERSION = 1;
+    private static final int HEADER_BYTES = 32;
+    private static final byte PUT = 1;
+    private static final byte REMOVE = 2;
+    private static final ValueLayout.OfInt INT_LE = ValueLayout.JAVA_INT_UNALIGNED.withOrder(ByteOrder.LITTLE_ENDIAN);
+    private static final ValueLayout.OfFloat FLOAT_LE =
+            ValueLayout.JAVA_FLOAT_UNALIGNED.withOrder(ByteOrder.LITTLE_ENDIAN);
+
+    private final Path file;
+    private FileChannel channel;
+    private long generation;
+    private long recordCount = 0;
+
+    /**
+     * Opens the journal in a file, or starts a new generation if the file is missing or unreadable.
+     * Records are not read until {@link #replay(NormalizedEmbeddingStore)}.
+     *
+     * @param file the journal file.
+     * @throws IOException if the journal cannot be opened or created.
+     */
+    public EmbeddingJournal(Path file) throws IOException {
+        this.file = file;
+        if (!Files.exists(file) || !readHeader()) {
+            reset(newGeneration());
+        }
+        else {
+            channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            channel.position(channel.size());
+        }
+    }
+
+    /**
+     * Records that a project was given an embedding.
+     *
+     * @param id the id of the project.
+     * @param embedding the raw embedding.
+     * @throws IOException if the record cannot be written.
+     */
+    public void appendPut(int id, float[] embedding) throws IOException {
+        ByteBuffer record = ByteBuffer.allocate(1 + 2 * Integer.BYTES + embedding.length * Float.BYTES)
+                .order(ByteOrder.LITTLE_ENDIAN);
+        record.put(PUT).putInt(id).putInt(embedding.length);
+        record.asFloatBuffer().put(embedding);
+        record.position(record.limit());
+        append(record.flip());
+    }
+
+    /**
+     * Records that the embedding of a project was removed.
+     *
+     * @param id the id of the project.
+     * @throws IOException if the record cannot be written.
+     */
+    public void appendRemove(int id) throws IOException {
+        ByteBuffer record = ByteBuffer.allocate(1 + Integer.BYTES).order(ByteOrder.LITTLE_ENDIAN);
+        record.put(REMOVE).putInt(id);
+        append(record.flip());
+    }
+
+    /**
+     * Applies every record to a store, in the order they were appended. A record cut short by a crash ends the
+     * journal and is discarded, so later appends follow the last complete record.
+     *
+     * @param store the store restored from this journal's snapshot.
+     * @return the number of records applied.
+     * @throws IOException if the journal cannot be read.
+     */
+    public long replay(NormalizedEmbeddingStore store) throws IOException {
+        long size = channel.size();
+        long position = HEADER_BYTES;
+        long applied = 0;
+        try (Arena arena = Arena.ofConfined()) {
+            MemorySegment records = channel.map(FileChannel.MapMode.READ_ONLY, 0, size, arena);
+            while (position + 1 + Integer.BYTES <= size) {
+                byte type = records.get(ValueLayout.JAVA_BYTE, position);
+                int id = records.get(INT_LE, position + 1);
+                if (type == REMOVE) {
+                    store.remove(id);
+                    position += 1 + Integer.BYTES;
+                }
+                else if (type == PUT && position + 1 + 2L * Integer.BYTES <= size) {
+                    int dimension = records.get(INT_LE, position + 1 + Integer.BYTES);
+                    long end = position + 1 + 2L * Integer.BYTES + (long) dimension * Float.BYTES;
+                    if (dimension < 0 || end > size) {
+                        break;
+                    }
+                    float[] embedding = new float[dimension];
+                    MemorySegment.copy(records, FLOAT_LE, position + 1 + 2L * Integer.BYTES, embedding, 0, dimension);
+                    store.put(id, embedding);
+                    position = end;
+                }
+                else {
+                    break;
+                }
+                applied++;
+            }
+        }
+        if (position < size) {
+            channel.truncate(position);
+        }
+        channel.position(position);
+        recordCount = applied;
+        return applied;
+    }
+
+    /**
+     * Discards every record and starts a new generation. The empty journal replaces the old one atomically.
+     *
+     * @param newGeneration the generation of the new journal.
+     * @throws IOException if the new journal cannot be written.
+     */
+    public void reset(long newGeneration) throws IOException {
+        if (channel != null) {
+            channel.close(); // an open file cannot be replaced on every platform
+            channel = null;
+        }
+        Path parent = file.toAbsolutePath().getParent();
+        Files.createDirectories(parent);
+        Path temporary = Files.createTempFile(parent, "journal", ".tmp");
+        ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+        header.putInt(MAGIC).putInt(VERSION).putLong(newGeneration);
+        Files.write(temporary, header.array());
+        Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        channel.position(HEADER_BYTES);
+        generation = newGeneration;
+        recordCount = 0;
+    }
+
+    /**
+     * Returns a random generation, different from the current one.
+     *
+     * @return the new generation.
+     */
+    public long newGeneration() {
+        long next;
+        do {
+            next = ThreadLocalRandom.current().nextLong();
+        } while (next == generation);
+        return next;
+    }
+
+    /**
+     * Returns the generation of the journal, which its snapshot must match.
+     *
+     * @return the generation.
+     */
+    public long getGeneration() {
+        return generation;
+    }
+
+    /**
+     * Returns the number of records replayed or appended since the journal was opened or reset.
+     *
+     * @return the number of records.
+     */
+    public long getRecordCount() {
+        return recordCount;
+    }
+
+    /**
+     * Returns the size of the journal file.
+     *
+     * @return the size in bytes, header included.
+     * @throws IOException if the size cannot be read.
+     */
+    public long byteSize() throws IOException {
+        return channel.size();
+    }
+
+    /**
+     * Closes the journal file.
+     *
+     * @throws IOException if the file cannot be closed.
+     */
+    @Override
+    public void close() throws IOException {
+        if (channel != null) {
+            channel.close();
+        }
+    }
+
+    /**
+     * Writes a record at the end of the journal and flushes it to the device.
+     */
+    private void append(ByteBuffer record) throws IOException {
+        while (record.hasRemaining()) {
+            channel.write(record);
+        }
+        channel.force(false);
+        recordCount++;
+    }
+
+    /**
+     * Reads the generation from the header of the journal file.
+     *
+     * @return false if the file is not a journal of the current version.
+     */
+    private boolean readHeader() throws IOException {
+        try (FileChannel reader = FileChannel.open(file, StandardOpenOption.READ)) {
+            if (reader.size() < HEADER_BYTES) {
+                return false;
+            }
+            ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+            while (header.hasRemaining() && reader.read(header) >= 0) {
+                // keep reading until the header is complete
+            }
+            if (header.getInt(0) != MAGIC || header.getInt(4) != VERSION) {
+                return false;
+            }
+            generation = header.getLong(8);
+            return true;
+        }
+    }
+}
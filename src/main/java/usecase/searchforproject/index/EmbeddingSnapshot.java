@@ -0,0 +1,177 @@
+package usecase.searchforproject.index;
+
+import java.io.IOException;
+import java.lang.foreign.Arena;
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.ValueLayout;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Saves the content of a {@link NormalizedEmbeddingStore} to a binary file and restores it, so the store does not
+ * have to be rebuilt from the repository, and every embedding normalized again, on every launch.
+ * <p>
+ * The file is little-endian and laid out so that it can be mapped into memory:
+ * <pre>
+ *   offset 0   int   magic "PSIX"
+ *          4   int   format version
+ *          8   int   dimension, or 0 if the store was empty
+ *         12   int   number of embeddings n
+ *         16   long  generation of the journal the snapshot starts
+ *         24         reserved, zero up to offset 64
+ *         64   int[n]      project ids
+ *              padding to the next multiple of 64
+ *              float[n][d] normalized embeddings, one row per project, in the order of the ids
+ * </pre>
+ * On a little-endian machine, the rows are mapped copy-on-write and adopted by the arena as they are, so loading
+ * costs one pass over the ids whatever the dimension. The operating system pages rows in when they are first read,
+ * and an update only copies the page it writes to.
+ */
+public class EmbeddingSnapshot {
+    private static final int MAGIC = 0x50534958; // "PSIX"
+    private static final int VERSION = 1;
+    private static final int HEADER_BYTES = 64;
+    private static final long ALIGNMENT = 64;
+    private static final int WRITE_BUFFER_BYTES = 1 << 20;
+    private static final ValueLayout.OfInt INT_LE = ValueLayout.JAVA_INT_UNALIGNED.withOrder(ByteOrder.LITTLE_ENDIAN);
+    private static final ValueLayout.OfLong LONG_LE =
+            ValueLayout.JAVA_LONG_UNALIGNED.withOrder(ByteOrder.LITTLE_ENDIAN);
+    private static final ValueLayout.OfFloat FLOAT_LE =
+            ValueLayout.JAVA_FLOAT_UNALIGNED.withOrder(ByteOrder.LITTLE_ENDIAN);
+
+    // This class should not be instantiated
+    private EmbeddingSnapshot() { }
+
+    /**
+     * Writes every live embedding of a store to a file. The file is written under a temporary name and then moved
+     * into place, so a crash never leaves a truncated snapshot behind. The store must not change while it is written.
+     *
+     * @param file the snapshot file.
+     * @param store the store to save.
+     * @param generation the generation of the journal that records the changes made after this snapshot.
+     * @throws IOException if the file cannot be written.
+     */
+    public static void write(Path file, NormalizedEmbeddingStore store, long generation) throws IOException {
+        OffHeapEmbeddingArena arena = store.arena();
+        int count = arena == null ? 0 : arena.size();
+        int dimension = arena == null ? 0 : arena.getDimension();
+        long rowsOffset = rowsOffset(count);
+
+        Path parent = file.toAbsolutePath().getParent();
+        Files.createDirectories(parent);
+        Path temporary = Files.createTempFile(parent, "embeddings", ".tmp");
+        try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.WRITE)) {
+            ByteBuffer buffer = ByteBuffer.allocateDirect(WRITE_BUFFER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+            buffer.putInt(MAGIC).putInt(VERSION).putInt(dimension).putInt(count).putLong(generation);
+            buffer.position(HEADER_BYTES);
+            for (int slot = 0; arena != null && slot < arena.slotCount(); slot++) {
+                if (arena.isLive(slot)) {
+                    if (!buffer.hasRemaining()) {
+                        drain(channel, buffer.flip());
+                    }
+                    buffer.putInt(arena.idAt(slot));
+                }
+            }
+            drain(channel, buffer.flip());
+            channel.position(rowsOffset);
+
+            MemorySegment bufferSegment = MemorySegment.ofBuffer(buffer);
+            int rowsPerBuffer = dimension == 0 ? 0 : Math.max(1, WRITE_BUFFER_BYTES / (dimension * Float.BYTES));
+            int slot = 0;
+            while (arena != null && slot < arena.slotCount()) {
+                // copy runs of live rows, converting them to little-endian on the way
+                if (!arena.isLive(slot)) {
+                    slot++;
+                    continue;
+                }
+                int end = slot + 1;
+                while (end < arena.slotCount() && end - slot < rowsPerBuffer && arena.isLive(end)) {
+                    end++;
+                }
+                int floats = (end - slot) * dimension;
+                MemorySegment.copy(arena.rows(slot, end), ValueLayout.JAVA_FLOAT, 0, bufferSegment, FLOAT_LE, 0,
+                        floats);
+                buffer.position(0).limit(floats * Float.BYTES);
+                drain(channel, buffer);
+                slot = end;
+            }
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(temporary);
+            throw e;
+        }
+        Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Replaces the content of a store with the embeddings saved in a snapshot.
+     *
+     * @param file the snapshot file.
+     * @param store the store to fill; it keeps its kernel.
+     * @return the generation of the journal that records the changes made after the snapshot.
+     * @throws IOException if the file cannot be read, is not a snapshot, or has an unsupported version.
+     */
+    public static long read(Path file, NormalizedEmbeddingStore store) throws IOException {
+        // A private mapping needs a writable channel, although its writes never reach the file
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            long size = channel.size();
+            if (size < HEADER_BYTES) {
+                throw new IOException("Snapshot " + file + " is truncated");
+            }
+            // Mapped copy-on-write with an automatic arena: the mapping outlives the channel and is released once
+            // the store no longer refers to it
+            MemorySegment mapped = channel.map(FileChannel.MapMode.PRIVATE, 0, size, Arena.ofAuto());
+            if (mapped.get(INT_LE, 0) != MAGIC) {
+                throw new IOException(file + " is not an embedding snapshot");
+            }
+            int version = mapped.get(INT_LE, 4);
+            if (version != VERSION) {
+                throw new IOException("Unsupported embedding snapshot version " + version);
+            }
+            int dimension = mapped.get(INT_LE, 8);
+            int count = mapped.get(INT_LE, 12);
+            long generation = mapped.get(LONG_LE, 16);
+            long rowBytes = (long) dimension * Float.BYTES;
+            if (count < 0 || (count > 0 && dimension <= 0) || size < rowsOffset(count) + count * rowBytes) {
+                throw new IOException("Snapshot " + file + " is truncated");
+            }
+            if (count == 0) {
+                store.restore(null);
+                return generation;
+            }
+
+            int[] ids = new int[count];
+            MemorySegment.copy(mapped, INT_LE, HEADER_BYTES, ids, 0, count);
+            MemorySegment rows = mapped.asSlice(rowsOffset(count), count * rowBytes);
+            if (ByteOrder.nativeOrder() != ByteOrder.LITTLE_ENDIAN) {
+                MemorySegment nativeRows = Arena.ofAuto().allocate(rows.byteSize(), ALIGNMENT);
+                MemorySegment.copy(rows, FLOAT_LE, 0, nativeRows, ValueLayout.JAVA_FLOAT, 0, (long) count * dimension);
+                rows = nativeRows;
+            }
+            store.restore(new OffHeapEmbeddingArena(dimension, store.kernel(), ids, rows));
+            return generation;
+        }
+    }
+
+    /**
+     * Returns the offset of the first row: after the header and the ids, rounded up to the alignment.
+     */
+    private static long rowsOffset(int count) {
+        long idsEnd = HEADER_BYTES + (long) count * Integer.BYTES;
+        return (idsEnd + ALIGNMENT - 1) / ALIGNMENT * ALIGNMENT;
+    }
+
+    /**
+     * Writes the remaining bytes of the buffer and clears it.
+     */
+    private static void drain(FileChannel channel, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+}
@@ -0,0 +1,745 @@
+package usecase.searchforproject.index;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.Random;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Hierarchical Navigable Small World graph for approximate cosine-similarity search over project embeddings.
+ * Vectors are normalized on insertion so that similarity is a single dot product.
+ * <p>
+ * {@code m} controls how many links every node keeps (twice as many on the bottom layer), {@code efConstruction}
+ * the breadth of the search used to pick those links, and {@code efSearch} the breadth of a query. Larger values
+ * trade speed for recall.
+ * <p>
+ * Updating a project marks its old node as deleted and inserts a new one. Deleted nodes are still traversed but
+ * never returned, and new links never point to them: an insertion only links to live nodes, and a neighbour list
+ * that overflows drops its deleted nodes first. Once more than a fifth of the nodes are deleted,
+ * {@link #needsCompaction()} tells the owner to call {@link #compact()}, which rebuilds the graph from the live nodes
+ * while queries and changes go on. The index is safe for concurrent queries; insertions and removals take an
+ * exclusive lock.
+ * <p>
+ * A query can be restricted to a set of allowed ids. Rejected nodes are traversed like deleted ones, and the
+ * candidate list is widened by the inverse of the allowed fraction so that enough allowed nodes are reached. A walk
+ * then costs about {@code ef * 2m * size / allowed} dot products, so once the allowed nodes are fewer than
+ * {@code sqrt(ef * 2m * size)} they are scored one by one instead, which is both cheaper and exact.
+ */
+public class HnswIndex {
+    private static final int INITIAL_CAPACITY = 64;
+    private static final double COMPACTION_THRESHOLD = 0.2;
+
+    private final int m;
+    private final int maxConnectionsLayer0;
+    private final int efConstruction;
+    private volatile int efSearch;
+    private final double levelMultiplier;
+    private final Random random;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final VectorKernel kernel = VectorKernels.getDefault();
+    private final ThreadLocal<VisitedSet> visitedSets = ThreadLocal.withInitial(VisitedSet::new);
+
+    private HashMap<Integer, Integer> nodeById = new HashMap<>();
+    private BitSet deleted = new BitSet();
+    private int[] nodeIds = new int[INITIAL_CAPACITY];
+    private float[][] nodeVectors = new float[INITIAL_CAPACITY][];
+    private int[][][] links = new int[INITIAL_CAPACITY][][]; // links[node][level][0] holds the neighbour count
+    private int nodeCount = 0;
+    private int entryPoint = -1;
+    private int topLevel = -1;
+    private int dimension = -1;
+    private ArrayList<Change> changesDuringCompaction = null; // recorded while compact() builds the new graph
+
+    /**
+     * Constructs an empty HnswIndex.
+     *
+     * @param m the number of links kept per node on the upper layers.
+     * @param efConstruction the candidate list size used while inserting.
+     * @param efSearch the candidate list size used while querying.
+     * @param seed the seed used to draw node levels.
+     */
+    public HnswIndex(int m, int efConstruction, int efSearch, long seed) {
+        if (m < 2 || efConstruction < 1 || efSearch < 1) {
+            throw new IllegalArgumentException("HNSW parameters must be positive and m must be at least 2");
+        }
+        this.m = m;
+        this.maxConnectionsLayer0 = 2 * m;
+        this.efConstruction = Math.max(efConstruction, m);
+        this.efSearch = efSearch;
+        this.levelMultiplier = 1 / Math.log(m);
+        this.random = new Random(seed);
+    }
+
+    /**
+     * Inserts the embedding of a project, replacing any embedding previously stored for it.
+     *
+     * @param id the id of the project.
+     * @param vector the embedding of the project.
+     */
+    public void add(int id, float[] vector) {
+        lock.writeLock().lock();
+        try {
+            if (dimension == -1) {
+                dimension = vector.length;
+            } else if (vector.length != dimension) {
+                throw new IllegalArgumentException("Expected an embedding of dimension " + dimension + " but got " + vector.length);
+            }
+            Integer previous = nodeById.get(id);
+            if (previous != null) {
+                deleted.set(previous);
+            }
+            if (changesDuringCompaction != null) {
+                changesDuringCompaction.add(new Change(id, vector));
+            }
+
+            float[] normalized = VectorKernels.normalize(vector);
+            int level = randomLevel();
+            int node = allocateNode(id, normalized, level);
+            nodeById.put(id, node);
+
+            if (entryPoint == -1) {
+                entryPoint = node;
+                topLevel = level;
+                return;
+            }
+
+            int current = entryPoint;
+            for (int l = topLevel; l > level; l--) {
+                current = greedyClosest(normalized, current, l);
+            }
+            for (int l = Math.min(level, topLevel); l >= 0; l--) {
+                NodeHeap candidates = searchLayer(normalized, current, efConstruction, l, true, null);
+                if (candidates.size() == 0) {
+                    continue; // only deleted nodes were reached on this layer
+                }
+                current = candidates.best();
+                int[] neighbours = selectNeighbours(normalized, candidates, m);
+                for (int neighbour : neighbours) {
+                    connect(node, neighbour, l);
+                    connect(neighbour, node, l);
+                }
+            }
+            if (level > topLevel) {
+                entryPoint = node;
+                topLevel = level;
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Removes the embedding of a project from the results of future queries.
+     *
+     * @param id the id of the project.
+     * @return true if the project was in the index, false otherwise.
+     */
+    public boolean remove(int id) {
+        lock.writeLock().lock();
+        try {
+            Integer node = nodeById.remove(id);
+            if (node == null) {
+                return false;
+            }
+            deleted.set(node);
+            if (changesDuringCompaction != null) {
+                changesDuringCompaction.add(new Change(id, null));
+            }
+            return true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Returns the projects most similar to the query, using the configured {@code efSearch}.
+     *
+     * @param query the query embedding.
+     * @param k the maximum number of projects to return.
+     * @return the matched projects ordered by decreasing similarity.
+     */
+    public SearchHits search(float[] query, int k) {
+        return search(query, k, efSearch);
+    }
+
+    /**
+     * Returns the projects most similar to the query.
+     *
+     * @param query the query embedding.
+     * @param k the maximum number of projects to return.
+     * @param ef the candidate list size to use for this query; raised to {@code k} if smaller.
+     * @return the matched projects ordered by decreasing similarity.
+     */
+    public SearchHits search(float[] query, int k, int ef) {
+        return search(query, k, ef, null);
+    }
+
+    /**
+     * Returns the allowed projects most similar to the query, using the configured {@code efSearch}.
+     *
+     * @param query the query embedding.
+     * @param k the maximum number of projects to return.
+     * @param allowedIds the ids of the projects that may be returned, or null to allow every project.
+     * @return the matched projects ordered by decreasing similarity.
+     */
+    public SearchHits search(float[] query, int k, BitSet allowedIds) {
+        return search(query, k, efSearch, allowedIds);
+    }
+
+    /**
+     * Returns the allowed projects most similar to the query.
+     *
+     * @param query the query embedding.
+     * @param k the maximum number of projects to return.
+     * @param ef the candidate list size to use for this query; raised to {@code k} if smaller.
+     * @param allowedIds the ids of the projects that may be returned, or null to allow every project.
+     * @return the matched projects ordered by decreasing similarity.
+     */
+    public SearchHits search(float[] query, int k, int ef, BitSet allowedIds) {
+        lock.readLock().lock();
+        try {
+            if (entryPoint == -1 || k <= 0 || nodeById.isEmpty() || query.length != dimension) {
+                return SearchHits.EMPTY;
+            }
+            float[] normalized = VectorKernels.normalize(query);
+            ef = Math.max(ef, k);
+            if (allowedIds != null) {
+                long allowed = allowedIds.cardinality();
+                if (allowed * allowed < (long) ef * maxConnectionsLayer0 * nodeById.size()) {
+                    return scoreAllowed(normalized, k, allowedIds);
+                }
+                ef = (int) Math.max(k, Math.min(nodeCount, (long) ef * nodeById.size() / allowed));
+            }
+            int current = entryPoint;
+            for (int l = topLevel; l > 0; l--) {
+                current = greedyClosest(normalized, current, l);
+            }
+            NodeHeap results = searchLayer(normalized, current, ef, 0, true, allowedIds);
+            while (results.size() > k) {
+                results.pop();
+            }
+            int count = results.size();
+            int[] ids = new int[count];
+            float[] scores = new float[count];
+            for (int i = count - 1; i >= 0; i--) {
+                scores[i] = results.topScore();
+                ids[i] = nodeIds[results.pop()];
+            }
+            return new SearchHits(ids, scores);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Removes every project from the index.
+     */
+    public void clear() {
+        lock.writeLock().lock();
+        try {
+            nodeById.clear();
+            deleted.clear();
+            nodeIds = new int[INITIAL_CAPACITY];
+            nodeVectors = new float[INITIAL_CAPACITY][];
+            links = new int[INITIAL_CAPACITY][][];
+            nodeCount = 0;
+            entryPoint = -1;
+            topLevel = -1;
+            dimension = -1;
+            changesDuringCompaction = null; // a running compaction is dropped
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Returns whether more than a fifth of the nodes are deleted, so that the graph should be compacted.
+     *
+     * @return true if {@link #compact()} should be called.
+     */
+    public boolean needsCompaction() {
+        lock.readLock().lock();
+        try {
+            return changesDuringCompaction == null && nodeCount - nodeById.size() > COMPACTION_THRESHOLD * nodeCount;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Rebuilds the graph from its live nodes, so that deleted nodes no longer take memory, slots in neighbour lists
+     * and time in every walk. The new graph is built without holding the lock, so queries still use the old one and
+     * changes are recorded; they are applied to the new graph before it replaces the old one. Returns at once if
+     * another compaction is running.
+     */
+    public void compact() {
+        int[] ids;
+        float[][] vectors;
+        HnswIndex rebuilt;
+        ArrayList<Change> changes = new ArrayList<>();
+        lock.writeLock().lock();
+        try {
+            if (changesDuringCompaction != null) {
+                return;
+            }
+            ids = new int[nodeById.size()];
+            vectors = new float[ids.length][];
+            int count = 0;
+            for (int node = 0; node < nodeCount; node++) {
+                if (!deleted.get(node)) {
+                    ids[count] = nodeIds[node];
+                    vectors[count++] = nodeVectors[node];
+                }
+            }
+            rebuilt = new HnswIndex(m, efConstruction, efSearch, random.nextLong());
+            changesDuringCompaction = changes;
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        for (int i = 0; i < ids.length; i++) {
+            rebuilt.add(ids[i], vectors[i]);
+        }
+
+        lock.writeLock().lock();
+        try {
+            if (changesDuringCompaction != changes) {
+                return; // cleared meanwhile
+            }
+            changesDuringCompaction = null;
+            for (Change change : changes) {
+                if (change.vector() == null) {
+                    rebuilt.remove(change.id());
+                }
+                else {
+                    rebuilt.add(change.id(), change.vector());
+                }
+            }
+            nodeById = rebuilt.nodeById;
+            deleted = rebuilt.deleted;
+            nodeIds = rebuilt.nodeIds;
+            nodeVectors = rebuilt.nodeVectors;
+            links = rebuilt.links;
+            nodeCount = rebuilt.nodeCount;
+            entryPoint = rebuilt.entryPoint;
+            topLevel = rebuilt.topLevel;
+            dimension = rebuilt.dimension;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Returns whether the index holds an embedding for the project.
+     *
+     * @param id the id of the project.
+     * @return true if the project is indexed.
+     */
+    public boolean contains(int id) {
+        lock.readLock().lock();
+        try {
+            return nodeById.containsKey(id);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Returns the number of projects that can be returned by a query.
+     *
+     * @return the number of live projects.
+     */
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return nodeById.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Returns the number of nodes in the graph, including those of deleted and replaced embeddings.
+     *
+     * @return the number of nodes.
+     */
+    public int getNodeCount() {
+        lock.readLock().lock();
+        try {
+            return nodeCount;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Returns the dimension of the indexed embeddings, or -1 if the index is empty.
+     *
+     * @return the embedding dimension.
+     */
+    public int getDimension() {
+        return dimension;
+    }
+
+    /**
+     * Returns the candidate list size used by queries.
+     *
+     * @return the query candidate list size.
+     */
+    public int getEfSearch() {
+        return efSearch;
+    }
+
+    /**
+     * Sets the candidate list size used by queries.
+     *
+     * @param efSearch the query candidate list size.
+     */
+    public void setEfSearch(int efSearch) {
+        if (efSearch < 1) {
+            throw new IllegalArgumentException("efSearch must be positive");
+        }
+        this.efSearch = efSearch;
+    }
+
+    /**
+     * Allocates storage for a new node with empty neighbour lists.
+     */
+    private int allocateNode(int id, float[] vector, int level) {
+        if (nodeCount == nodeIds.length) {
+            int capacity = nodeIds.length * 2;
+            nodeIds = Arrays.copyOf(nodeIds, capacity);
+            nodeVectors = Arrays.copyOf(nodeVectors, capacity);
+            links = Arrays.copyOf(links, capacity);
+        }
+        int node = nodeCount++;
+        nodeIds[node] = id;
+        nodeVectors[node] = vector;
+        links[node] = new int[level + 1][];
+        for (int l = 0; l <= level; l++) {
+            links[node][l] = new int[maxConnections(l) + 1];
+        }
+        return node;
+    }
+
+    /**
+     * Walks greedily towards the node closest to the query on one layer.
+     */
+    private int greedyClosest(float[] query, int start, int level) {
+        int current = start;
+        float currentScore = kernel.dot(query, nodeVectors[current]);
+        boolean improved = true;
+        while (improved) {
+            improved = false;
+            int[] neighbours = links[current][level];
+            for (int i = 1; i <= neighbours[0]; i++) {
+                float score = kernel.dot(query, nodeVectors[neighbours[i]]);
+                if (score > currentScore) {
+                    currentScore = score;
+                    current = neighbours[i];
+                    improved = true;
+                }
+            }
+        }
+        return current;
+    }
+
+    /**
+     * Scores the live nodes of the allowed ids one by one.
+     */
+    private SearchHits scoreAllowed(float[] query, int k, BitSet allowedIds) {
+        TopKHeap topK = TopKHeap.forCurrentThread(k);
+        for (int id = allowedIds.nextSetBit(0); id >= 0; id = allowedIds.nextSetBit(id + 1)) {
+            Integer node = nodeById.get(id);
+            if (node != null) {
+                topK.offer(id, kernel.dot(query, nodeVectors[node]));
+            }
+        }
+        return topK.drainSorted(0);
+    }
+
+    /**
+     * Best-first search on one layer.
+     *
+     * @param liveOnly whether deleted nodes are left out of the results.
+     * @param allowedIds the ids whose nodes may be in the results, or null to allow every id.
+     * @return a min-heap holding the {@code ef} best nodes found.
+     */
+    private NodeHeap searchLayer(float[] query, int start, int ef, int level, boolean liveOnly, BitSet allowedIds) {
+        VisitedSet visited = visitedSets.get();
+        visited.reset(nodeCount);
+        NodeHeap candidates = new NodeHeap(ef, true);
+        NodeHeap results = new NodeHeap(ef + 1, false);
+
+        float startScore = kernel.dot(query, nodeVectors[start]);
+        visited.visit(start);
+        candidates.push(start, startScore);
+        if (isResult(start, liveOnly, allowedIds)) {
+            results.push(start, startScore);
+        }
+
+        while (candidates.size() > 0) {
+            float candidateScore = candidates.topScore();
+            if (results.size() >= ef && candidateScore < results.topScore()) {
+                break;
+            }
+            int candidate = candidates.pop();
+            int[] neighbours = links[candidate][level];
+            for (int i = 1; i <= neighbours[0]; i++) {
+                int neighbour = neighbours[i];
+                if (!visited.visit(neighbour)) {
+                    continue;
+                }
+                float score = kernel.dot(query, nodeVectors[neighbour]);
+                if (results.size() < ef || score > results.topScore()) {
+                    candidates.push(neighbour, score);
+                    if (isResult(neighbour, liveOnly, allowedIds)) {
+                        results.push(neighbour, score);
+                        if (results.size() > ef) {
+                            results.pop();
+                        }
+                    }
+                }
+            }
+        }
+        return results;
+    }
+
+    private boolean isResult(int node, boolean liveOnly, BitSet allowedIds) {
+        if (liveOnly && deleted.get(node)) {
+            return false;
+        }
+        return allowedIds == null || (nodeIds[node] >= 0 && allowedIds.get(nodeIds[node]));
+    }
+
+    /**
+     * Picks up to {@code max} diverse neighbours from the candidates: a candidate is kept only if it is closer to the
+     * base vector than to every neighbour already kept. Remaining slots are filled with the closest pruned candidates.
+     */
+    private int[] selectNeighbours(float[] base, NodeHeap candidates, int max) {
+        int count = candidates.size();
+        int[] ordered = new int[count];
+        float[] orderedScores = new float[count];
+        for (int i = count - 1; i >= 0; i--) {
+            orderedScores[i] = candidates.topScore();
+            ordered[i] = candidates.pop();
+        }
+        return selectNeighbours(ordered, orderedScores, count, max);
+    }
+
+    private int[] selectNeighbours(int[] ordered, float[] orderedScores, int count, int max) {
+        int[] selected = new int[Math.min(max, count)];
+        boolean[] kept = new boolean[count];
+        int size = 0;
+        for (int i = 0; i < count && size < selected.length; i++) {
+            boolean diverse = true;
+            for (int j = 0; j < size; j++) {
+                if (kernel.dot(nodeVectors[ordered[i]], nodeVectors[selected[j]]) > orderedScores[i]) {
+                    diverse = false;
+                    break;
+                }
+            }
+            if (diverse) {
+                selected[size++] = ordered[i];
+                kept[i] = true;
+            }
+        }
+        for (int i = 0; i < count && size < selected.length; i++) {
+            if (!kept[i]) {
+                selected[size++] = ordered[i];
+            }
+        }
+        return selected;
+    }
+
+    /**
+     * Adds a directed link, pruning the neighbour list of {@code from} if it is already full. Deleted neighbours are
+     * dropped first when pruning.
+     */
+    private void connect(int from, int to, int level) {
+        int[] neighbours = links[from][level];
+        int count = neighbours[0];
+        for (int i = 1; i <= count; i++) {
+            if (neighbours[i] == to) {
+                return;
+            }
+        }
+        if (count < neighbours.length - 1) {
+            neighbours[count + 1] = to;
+            neighbours[0] = count + 1;
+            return;
+        }
+
+        int[] ordered = new int[count + 1];
+        float[] orderedScores = new float[count + 1];
+        int live = 0;
+        for (int i = 1; i <= count; i++) {
+            if (!deleted.get(neighbours[i])) {
+                ordered[live] = neighbours[i];
+                orderedScores[live++] = kernel.dot(nodeVectors[from], nodeVectors[neighbours[i]]);
+            }
+        }
+        ordered[live] = to;
+        orderedScores[live++] = kernel.dot(nodeVectors[from], nodeVectors[to]);
+        ordered = Arrays.copyOf(ordered, live);
+        orderedScores = Arrays.copyOf(orderedScores, live);
+        sortByScoreDescending(ordered, orderedScores);
+
+        int[] kept = selectNeighbours(ordered, orderedScores, live, maxConnections(level));
+        System.arraycopy(kept, 0, neighbours, 1, kept.length);
+        neighbours[0] = kept.length;
+    }
+
+    private int maxConnections(int level) {
+        return level == 0 ? maxConnectionsLayer0 : m;
+    }
+
+    private int randomLevel() {
+        return (int) (-Math.log(1 - random.nextDouble()) * levelMultiplier);
+    }
+
+    private static void sortByScoreDescending(int[] nodes, float[] scores) {
+        for (int i = 1; i < nodes.length; i++) {
+            int node = nodes[i];
+            float score = scores[i];
+            int j = i - 1;
+            while (j >= 0 && scores[j] < score) {
+                nodes[j + 1] = nodes[j];
+                scores[j + 1] = scores[j];
+                j--;
+            }
+            nodes[j + 1] = node;
+            scores[j + 1] = score;
+        }
+    }
+
+    /**
+     * An insertion, or a removal if the vector is null, made while the graph was being compacted.
+     *
+     * @param id the id of the project.
+     * @param vector the embedding added, or null if the project was removed.
+     */
+    private record Change(int id, float[] vector) { }
+
+    /**
+     * Binary heap of node indices keyed by similarity, either max-first or min-first.
+     */
+    private static final class NodeHeap {
+        private int[] nodes;
+        private float[] scores;
+        private final boolean maxFirst;
+        private int size = 0;
+
+        NodeHeap(int capacity, boolean maxFirst) {
+            this.nodes = new int[Math.max(capacity, 1)];
+            this.scores = new float[nodes.length];
+            this.maxFirst = maxFirst;
+        }
+
+        void push(int node, float score) {
+            if (size == nodes.length) {
+                nodes = Arrays.copyOf(nodes, size * 2);
+                scores = Arrays.copyOf(scores, size * 2);
+            }
+            int i = size++;
+            while (i > 0) {
+                int parent = (i - 1) >>> 1;
+                if (!before(score, scores[parent])) {
+                    break;
+                }
+                nodes[i] = nodes[parent];
+                scores[i] = scores[parent];
+                i = parent;
+            }
+            nodes[i] = node;
+            scores[i] = score;
+        }
+
+        int pop() {
+            int top = nodes[0];
+            int lastNode = nodes[--size];
+            float lastScore = scores[size];
+            int i = 0;
+            while (true) {
+                int child = 2 * i + 1;
+                if (child >= size) {
+                    break;
+                }
+                if (child + 1 < size && before(scores[child + 1], scores[child])) {
+                    child++;
+                }
+                if (!before(scores[child], lastScore)) {
+                    break;
+                }
+                nodes[i] = nodes[child];
+                scores[i] = scores[child];
+                i = child;
+            }
+            nodes[i] = lastNode;
+            scores[i] = lastScore;
+            return top;
+        }
+
+        /**
+         * Returns the most similar node without removing it. Linear in the heap size; used once per layer.
+         */
+        int best() {
+            int best = nodes[0];
+            float bestScore = scores[0];
+            for (int i = 1; i < size; i++) {
+                if (scores[i] > bestScore) {
+                    bestScore = scores[i];
+                    best = nodes[i];
+                }
+            }
+            return best;
+        }
+
+        float topScore() {
+            return scores[0];
+        }
+
+        int size() {
+            return size;
+        }
+
+        private boolean before(float a, float b) {
+            return maxFirst ? a > b : a < b;
+        }
+    }
+
+    /**
+     * Visited markers that are reset in O(1) by bumping an epoch counter.
+     */
+    private static final class VisitedSet {
+        private int[] marks = new int[0];
+        private int epoch = 0;
+
+        void reset(int capacity) {
+            if (marks.length < capacity) {
+                marks = new int[Math.max(capacity, marks.length * 2)];
+                epoch = 0;
+            }
+            epoch++;
+            if (epoch == Integer.MAX_VALUE) {
+                Arrays.fill(marks, 0);
+                epoch = 1;
+            }
+        }
+
+        /**
+         * Marks the node as visited.
+         *
+         * @return true if the node had not been visited yet.
+         */
+        boolean visit(int node) {
+            if (marks[node] == epoch) {
+                return false;
+            }
+            marks[node] = epoch;
+            return true;
+        }
+    }
+}
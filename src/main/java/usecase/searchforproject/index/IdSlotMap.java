@@ -0,0 +1,139 @@
+package usecase.searchforproject.index;
+
+import java.util.Arrays;
+
+/**
+ * Open-addressing hash map from project id to slot, both primitive ints.
+ * Unlike a {@code HashMap<Integer, Integer>} it allocates no entry or boxed objects, only two parallel arrays.
+ * {@link Integer#MIN_VALUE} cannot be used as an id.
+ */
+public class IdSlotMap {
+    private static final int EMPTY = Integer.MIN_VALUE;
+    private static final int MISSING = -1;
+
+    private int[] keys;
+    private int[] values;
+    private int size = 0;
+
+    /**
+     * Constructs an empty map.
+     */
+    public IdSlotMap() {
+        keys = new int[16];
+        values = new int[16];
+        Arrays.fill(keys, EMPTY);
+    }
+
+    /**
+     * Returns the slot of a project.
+     *
+     * @param id the project id.
+     * @return the slot, or -1 if the project has none.
+     */
+    public int get(int id) {
+        int mask = keys.length - 1;
+        for (int index = mix(id) & mask; ; index = (index + 1) & mask) {
+            if (keys[index] == id) {
+                return values[index];
+            }
+            if (keys[index] == EMPTY) {
+                return MISSING;
+            }
+        }
+    }
+
+    /**
+     * Sets the slot of a project, replacing any previous slot.
+     *
+     * @param id the project id.
+     * @param slot the slot, at least 0.
+     */
+    public void put(int id, int slot) {
+        if (id == EMPTY) {
+            throw new IllegalArgumentException("Unsupported project id " + id);
+        }
+        if ((size + 1) * 4 > keys.length * 3) {
+            resize(keys.length * 2);
+        }
+        int mask = keys.length - 1;
+        int index = mix(id) & mask;
+        while (keys[index] != EMPTY && keys[index] != id) {
+            index = (index + 1) & mask;
+        }
+        if (keys[index] == EMPTY) {
+            keys[index] = id;
+            size++;
+        }
+        values[index] = slot;
+    }
+
+    /**
+     * Removes a project from the map.
+     *
+     * @param id the project id.
+     * @return the slot the project had, or -1 if it had none.
+     */
+    public int remove(int id) {
+        int mask = keys.length - 1;
+        int index = mix(id) & mask;
+        while (keys[index] != id) {
+            if (keys[index] == EMPTY) {
+                return MISSING;
+            }
+            index = (index + 1) & mask;
+        }
+        int slot = values[index];
+        size--;
+        // Shift later entries of the probe sequence back so that lookups never stop at the freed position.
+        int free = index;
+        for (int next = (free + 1) & mask; keys[next] != EMPTY; next = (next + 1) & mask) {
+            int home = mix(keys[next]) & mask;
+            if (((next - home) & mask) >= ((next - free) & mask)) {
+                keys[free] = keys[next];
+                values[free] = values[next];
+                free = next;
+            }
+        }
+        keys[free] = EMPTY;
+        return slot;
+    }
+
+    /**
+     * Returns the number of projects in the map.
+     *
+     * @return the number of projects.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Removes every project from the map.
+     */
+    public void clear() {
+        Arrays.fill(keys, EMPTY);
+        size = 0;
+    }
+
+    private void resize(int capacity) {
+        int[] oldKeys = keys;
+        int[] oldValues = values;
+        keys = new int[capacity];
+        values = new int[capacity];
+        Arrays.fill(keys, EMPTY);
+        size = 0;
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != EMPTY) {
+                put(oldKeys[i], oldValues[i]);
+            }
+        }
+    }
+
+    /**
+     * Spreads sequential ids over the table.
+     */
+    private static int mix(int id) {
+        int h = id * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+}
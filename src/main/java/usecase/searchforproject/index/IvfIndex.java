@@ -0,0 +1,564 @@
+package usecase.searchforproject.index;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashSet;
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Inverted file index for approximate cosine-similarity search over project embeddings.
+ * Spherical k-means splits the embeddings into lists around unit-length centroids; a query scores the centroids and
+ * scans only the {@code nprobe} lists closest to it. Vectors are normalized on insertion, so similarity is a dot
+ * product.
+ * <p>
+ * Until it is trained, the index keeps a single list and every query scans it exactly. {@link #train} clusters a
+ * sample of at most {@link #SAMPLE_PER_LIST} embeddings per list, assigns every embedding to its closest centroid,
+ * and splits both steps into shards on an executor. It copies the embeddings first and clusters them without
+ * holding the lock, so searches and updates continue meanwhile; the updates made during training are replayed onto
+ * the new lists before they replace the old ones.
+ * <p>
+ * Projects added after training go straight into the list of their closest centroid. {@link #imbalance()} measures
+ * how uneven the lists have become, so that callers can decide when to train again.
+ */
+public class IvfIndex {
+    public static final int SAMPLE_PER_LIST = 64;
+
+    private static final int MAX_ITERATIONS = 10;
+
+    private final int configuredListCount;
+    private final Random random;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final VectorKernel kernel = VectorKernels.getDefault();
+
+    private final IdSlotMap listById = new IdSlotMap();
+    private InvertedList[] lists = {new InvertedList()};
+    private float[] centroids = null; // null until trained, with a single list
+    private int dimension = -1;
+    private int size = 0;
+    private int trainedSize = 0;
+    private double trainedImbalance = 1;
+    private HashSet<Integer> changedDuringTraining = null;
+
+    /**
+     * Constructs an empty, untrained IvfIndex.
+     *
+     * @param listCount the number of lists to train, or 0 to use the square root of the number of projects.
+     * @param seed the seed used to sample embeddings and pick the initial centroids.
+     */
+    public IvfIndex(int listCount, long seed) {
+        if (listCount < 0) {
+            throw new IllegalArgumentException("The number of lists must not be negative");
+        }
+        this.configuredListCount = listCount;
+        this.random = new Random(seed);
+    }
+
+    /**
+     * Inserts the embedding of a project into the list of its closest centroid, replacing any embedding previously
+     * stored for it.
+     *
+     * @param id the id of the project.
+     * @param vector the embedding of the project.
+     */
+    public void add(int id, float[] vector) {
+        lock.writeLock().lock();
+        try {
+            if (dimension == -1) {
+                dimension = vector.length;
+            }
+            else if (vector.length != dimension) {
+                throw new IllegalArgumentException("Expected an embedding of dimension " + dimension + " but got "
+                        + vector.length);
+            }
+            removeLocked(id);
+            float[] normalized = VectorKernels.normalize(vector);
+            int list = centroids == null ? 0 : closestCentroid(centroids, lists.length, normalized, 0);
+            lists[list].add(id, normalized, 0, dimension);
+            listById.put(id, list);
+            size++;
+            if (changedDuringTraining != null) {
+                changedDuringTraining.add(id);
+            }
+        }
+        finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Removes the embedding of a project.
+     *
+     * @param id the id of the project.
+     * @return true if the project was in the index, false otherwise.
+     */
+    public boolean remove(int id) {
+        lock.writeLock().lock();
+        try {
+            boolean removed = removeLocked(id);
+            if (removed && changedDuringTraining != null) {
+                changedDuringTraining.add(id);
+            }
+            return removed;
+        }
+        finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Returns the projects most similar to the query among those in the {@code nprobe} closest lists.
+     *
+     * @param query the query embedding.
+     * @param k the maximum number of projects to return.
+     * @param nprobe the number of lists to scan.
+     * @return the matched projects ordered by decreasing similarity.
+     */
+    public SearchHits search(float[] query, int k, int nprobe) {
+        return search(query, k, nprobe, null);
+    }
+
+    /**
+     * Returns the allowed projects most similar to the query among those in the closest lists.
+     * With a set of allowed ids, {@code nprobe} is widened by the inverse of the allowed fraction, so that the scanned
+     * lists hold about as many allowed projects as {@code nprobe} lists would hold projects. If the allowed projects
+     * are fewer than the projects such a scan would cover, they are scored one by one instead.
+     *
+     * @param query the query embedding.
+     * @param k the maximum number of projects to return.
+     * @param nprobe the number of lists to scan without a filter.
+     * @param allowedIds the ids of the projects that may be returned, or null to allow every project.
+     * @return the matched projects ordered by decreasing similarity.
+     */
+    public SearchHits search(float[] query, int k, int nprobe, BitSet allowedIds) {
+        lock.readLock().lock();
+        try {
+            if (size == 0 || k <= 0 || query.length != dimension) {
+                return SearchHits.EMPTY;
+            }
+            float[] normalized = VectorKernels.normalize(query);
+            int probes = Math.max(1, Math.min(nprobe, lists.length));
+            if (allowedIds != null) {
+                long allowed = allowedIds.cardinality();
+                if (allowed * allowed * lists.length < (long) probes * size * size) {
+                    return scoreAllowed(normalized, k, allowedIds);
+                }
+                probes = (int) Math.min(lists.length, (long) probes * size / allowed);
+            }
+
+            int[] probed;
+            if (centroids == null) {
+                probed = new int[]{0};
+            }
+            else {
+                TopKHeap closest = TopKHeap.forCurrentThread(probes);
+                for (int list = 0; list < lists.length; list++) {
+                    closest.offer(list, kernel.dot(normalized, 0, centroids, list * dimension, dimension));
+                }
+                probed = closest.drainSorted(0).ids();
+            }
+            TopKHeap topK = TopKHeap.forCurrentThread(k);
+            for (int list : probed) {
+                lists[list].scan(normalized, kernel, dimension, allowedIds, topK);
+            }
+            return topK.drainSorted(0);
+        }
+        finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Clusters the stored embeddings into lists and reassigns every embedding to its closest centroid.
+     * Runs without blocking searches or updates, except for replacing the lists at the end.
+     *
+     * @param executor the executor that runs the shards of each assignment step.
+     * @param parallelism the number of shards each assignment step is split into.
+     */
+    public void train(Executor executor, int parallelism) {
+        int[] ids;
+        float[] vectors;
+        int count;
+        int dim;
+        lock.writeLock().lock();
+        try {
+            if (changedDuringTraining != null) {
+                return; // another training is running
+            }
+            dim = dimension;
+            count = size;
+            ids = new int[count];
+            vectors = new float[Math.max(count, 0) * Math.max(dim, 0)];
+            int position = 0;
+            for (InvertedList list : lists) {
+                System.arraycopy(list.ids, 0, ids, position, list.size);
+                System.arraycopy(list.vectors, 0, vectors, position * dim, list.size * dim);
+                position += list.size;
+            }
+            changedDuringTraining = new HashSet<>();
+        }
+        finally {
+            lock.writeLock().unlock();
+        }
+
+        try {
+            int listCount = Math.min(count, configuredListCount > 0 ? configuredListCount
+                    : (int) Math.round(Math.sqrt(count)));
+            float[] newCentroids = listCount > 1 ? cluster(vectors, count, dim, listCount, executor, parallelism) : null;
+            int[] assignment = new int[count];
+            if (newCentroids != null) {
+                assign(newCentroids, listCount, dim, vectors, count, assignment, executor, parallelism);
+            }
+            InvertedList[] newLists = new InvertedList[Math.max(listCount, 1)];
+            for (int list = 0; list < newLists.length; list++) {
+                newLists[list] = new InvertedList();
+            }
+            for (int i = 0; i < count; i++) {
+                newLists[assignment[i]].add(ids[i], vectors, i * dim, dim);
+            }
+            install(newCentroids, newLists);
+        }
+        finally {
+            lock.writeLock().lock();
+            changedDuringTraining = null;
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Returns how uneven the list sizes are: the number of lists times the sum of the squared list sizes, divided by
+     * the squared number of projects. This is the expected cost of a probe relative to perfectly even lists, so 1
+     * means every list has the same size.
+     *
+     * @return the imbalance factor, at least 1, or 1 for an empty index.
+     */
+    public double imbalance() {
+        lock.readLock().lock();
+        try {
+            return imbalanceLocked();
+        }
+        finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Returns the imbalance of the lists right after the last training.
+     *
+     * @return the imbalance factor after training, or 1 if the index was never trained.
+     */
+    public double getTrainedImbalance() {
+        lock.readLock().lock();
+        try {
+            return trainedImbalance;
+        }
+        finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Returns the number of lists.
+     *
+     * @return the number of lists, 1 until the index is trained.
+     */
+    public int listCount() {
+        lock.readLock().lock();
+        try {
+            return lists.length;
+        }
+        finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Returns the number of projects that were stored when the index was last trained.
+     *
+     * @return the number of projects at the last training, or 0 if it was never trained.
+     */
+    public int getTrainedSize() {
+        lock.readLock().lock();
+        try {
+            return trainedSize;
+        }
+        finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Returns whether the index contains a project.
+     *
+     * @param id the id of the project.
+     * @return true if the project is in the index.
+     */
+    public boolean contains(int id) {
+        lock.readLock().lock();
+        try {
+            return listById.get(id) != -1;
+        }
+        finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Returns the number of projects in the index.
+     *
+     * @return the number of projects.
+     */
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return size;
+        }
+        finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Returns the dimension of the indexed embeddings, or -1 if the index has never held one.
+     *
+     * @return the embedding dimension.
+     */
+    public int getDimension() {
+        lock.readLock().lock();
+        try {
+            return dimension;
+        }
+        finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Replaces the lists with freshly trained ones, after replaying the updates made while training.
+     */
+    private void install(float[] newCentroids, InvertedList[] newLists) {
+        lock.writeLock().lock();
+        try {
+            IdSlotMap newListById = new IdSlotMap();
+            for (int list = 0; list < newLists.length; list++) {
+                for (int i = 0; i < newLists[list].size; i++) {
+                    newListById.put(newLists[list].ids[i], list);
+                }
+            }
+            int newSize = newListById.size();
+            for (int id : changedDuringTraining) {
+                int oldList = newListById.remove(id);
+                if (oldList != -1) {
+                    newLists[oldList].remove(id, dimension);
+                    newSize--;
+                }
+                int currentList = listById.get(id);
+                if (currentList != -1) {
+                    InvertedList list = lists[currentList];
+                    int position = list.positionById.get(id);
+                    int target = newCentroids == null ? 0
+                            : closestCentroid(newCentroids, newLists.length, list.vectors, position * dimension);
+                    newLists[target].add(id, list.vectors, position * dimension, dimension);
+                    newListById.put(id, target);
+                    newSize++;
+                }
+            }
+            listById.clear();
+            for (int list = 0; list < newLists.length; list++) {
+                for (int i = 0; i < newLists[list].size; i++) {
+                    listById.put(newLists[list].ids[i], list);
+                }
+            }
+            lists = newLists;
+            centroids = newCentroids;
+            size = newSize;
+            trainedSize = newSize;
+            trainedImbalance = imbalanceLocked();
+        }
+        finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Runs spherical k-means on a sample of the vectors and returns the unit-length centroids, one row per list.
+     * A list that ends up empty is reseeded with a random sample vector.
+     */
+    private float[] cluster(float[] vectors, int count, int dim, int listCount, Executor executor, int parallelism) {
+        int[] sample = new int[count];
+        for (int i = 0; i < count; i++) {
+            sample[i] = i;
+        }
+        int sampleSize = (int) Math.min(count, (long) listCount * SAMPLE_PER_LIST);
+        for (int i = 0; i < sampleSize; i++) {
+            int j = i + random.nextInt(count - i);
+            int swap = sample[i];
+            sample[i] = sample[j];
+            sample[j] = swap;
+        }
+        float[] sampleVectors = new float[sampleSize * dim];
+        for (int i = 0; i < sampleSize; i++) {
+            System.arraycopy(vectors, sample[i] * dim, sampleVectors, i * dim, dim);
+        }
+
+        float[] clusterCentroids = Arrays.copyOf(sampleVectors, listCount * dim); // the sample is already shuffled
+        int[] assignment = new int[sampleSize];
+        Arrays.fill(assignment, -1);
+        int[] previous = new int[sampleSize];
+        for (int iteration = 0; iteration < MAX_ITERATIONS; iteration++) {
+            System.arraycopy(assignment, 0, previous, 0, sampleSize);
+            assign(clusterCentroids, listCount, dim, sampleVectors, sampleSize, assignment, executor, parallelism);
+            if (Arrays.equals(assignment, previous)) {
+                break;
+            }
+            float[] sums = new float[listCount * dim];
+            int[] counts = new int[listCount];
+            for (int i = 0; i < sampleSize; i++) {
+                int list = assignment[i];
+                counts[list]++;
+                for (int d = 0; d < dim; d++) {
+                    sums[list * dim + d] += sampleVectors[i * dim + d];
+                }
+            }
+            for (int list = 0; list < listCount; list++) {
+                if (counts[list] == 0) {
+                    int reseed = random.nextInt(sampleSize);
+                    System.arraycopy(sampleVectors, reseed * dim, clusterCentroids, list * dim, dim);
+                    continue;
+                }
+                float[] mean = Arrays.copyOfRange(sums, list * dim, (list + 1) * dim);
+                System.arraycopy(VectorKernels.normalize(mean), 0, clusterCentroids, list * dim, dim);
+            }
+        }
+        return clusterCentroids;
+    }
+
+    /**
+     * Assigns every vector to its closest centroid, in shards run on the executor.
+     */
+    private void assign(float[] clusterCentroids, int listCount, int dim, float[] vectors, int count, int[] assignment,
+                        Executor executor, int parallelism) {
+        int shards = Math.max(1, Math.min(parallelism, count));
+        int shardSize = (count + shards - 1) / shards;
+        ArrayList<CompletableFuture<Void>> futures = new ArrayList<>();
+        for (int from = 0; from < count; from += shardSize) {
+            int start = from;
+            int end = Math.min(from + shardSize, count);
+            Runnable shard = () -> {
+                for (int i = start; i < end; i++) {
+                    assignment[i] = closestCentroid(clusterCentroids, listCount, vectors, i * dim);
+                }
+            };
+            if (shards == 1) {
+                shard.run();
+            }
+            else {
+                futures.add(CompletableFuture.runAsync(shard, executor));
+            }
+        }
+        for (CompletableFuture<Void> future : futures) {
+            future.join();
+        }
+    }
+
+    /**
+     * Returns the list whose centroid is most similar to the vector starting at {@code offset}.
+     */
+    private int closestCentroid(float[] clusterCentroids, int listCount, float[] vectors, int offset) {
+        int dim = clusterCentroids.length / listCount;
+        int best = 0;
+        float bestScore = Float.NEGATIVE_INFINITY;
+        for (int list = 0; list < listCount; list++) {
+            float score = kernel.dot(vectors, offset, clusterCentroids, list * dim, dim);
+            if (score > bestScore) {
+                bestScore = score;
+                best = list;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Scores the allowed projects one by one.
+     */
+    private SearchHits scoreAllowed(float[] query, int k, BitSet allowedIds) {
+        TopKHeap topK = TopKHeap.forCurrentThread(k);
+        for (int id = allowedIds.nextSetBit(0); id >= 0; id = allowedIds.nextSetBit(id + 1)) {
+            int list = listById.get(id);
+            if (list != -1) {
+                int position = lists[list].positionById.get(id);
+                topK.offer(id, kernel.dot(query, 0, lists[list].vectors, position * dimension, dimension));
+            }
+        }
+        return topK.drainSorted(0);
+    }
+
+    private double imbalanceLocked() {
+        if (size == 0) {
+            return 1;
+        }
+        double sumOfSquares = 0;
+        for (InvertedList list : lists) {
+            sumOfSquares += (double) list.size * list.size;
+        }
+        return lists.length * sumOfSquares / ((double) size * size);
+    }
+
+    private boolean removeLocked(int id) {
+        int list = listById.remove(id);
+        if (list == -1) {
+            return false;
+        }
+        lists[list].remove(id, dimension);
+        size--;
+        return true;
+    }
+
+    /**
+     * The ids and normalized embeddings of the projects in one list, stored contiguously.
+     * Removal moves the last project into the freed position, so the list stays dense.
+     */
+    private static final class InvertedList {
+        private final IdSlotMap positionById = new IdSlotMap();
+        private int[] ids = new int[4];
+        private float[] vectors = new float[0];
+        private int size = 0;
+
+        private void add(int id, float[] source, int offset, int dim) {
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, size * 2);
+            }
+            if ((size + 1) * dim > vectors.length) {
+                vectors = Arrays.copyOf(vectors, Math.max(4, ids.length) * dim);
+            }
+            ids[size] = id;
+            System.arraycopy(source, offset, vectors, size * dim, dim);
+            positionById.put(id, size++);
+        }
+
+        private void remove(int id, int dim) {
+            int position = positionById.remove(id);
+            if (position == -1) {
+                return;
+            }
+            size--;
+            if (position != size) {
+                ids[position] = ids[size];
+                System.arraycopy(vectors, size * dim, vectors, position * dim, dim);
+                positionById.put(ids[position], position);
+            }
+        }
+
+        private void scan(float[] query, VectorKernel kernel, int dim, BitSet allowedIds, TopKHeap topK) {
+            for (int i = 0; i < size; i++) {
+                int id = ids[i];
+                if (allowedIds == null || (id >= 0 && allowedIds.get(id))) {
+                    topK.offer(id, kernel.dot(query, 0, vectors, i * dim, dim));
+                }
+            }
+        }
+    }
+}
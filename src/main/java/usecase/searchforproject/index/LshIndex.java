@@ -0,0 +1,324 @@
+package usecase.searchforproject.index;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Random-hyperplane locality-sensitive hashing index for finding near-duplicate project embeddings.
+ * Each of the {@code tableCount} tables hashes an embedding to a signature of {@code bitsPerTable} bits, one per
+ * random hyperplane, set when the embedding lies on the hyperplane's positive side. Two embeddings at angle θ agree
+ * on a bit with probability 1 - θ/π, so near-duplicates share a bucket in at least one table with high probability
+ * while unrelated embeddings rarely do. A query therefore only compares against the few embeddings in its buckets,
+ * and every candidate is verified with the exact cosine similarity, so no false positive is returned.
+ * <p>
+ * With 16 bits and 24 tables, a pair with cosine similarity 0.95 shares a bucket with probability above 0.99, while
+ * a pair with similarity 0.3 does so with probability below 0.01.
+ */
+public class LshIndex {
+    private final int tableCount;
+    private final int bitsPerTable;
+    private final Random random;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final VectorKernel kernel = VectorKernels.getDefault();
+
+    private final HashMap<Integer, float[]> vectorById = new HashMap<>();
+    private final HashMap<Integer, int[]> signaturesById = new HashMap<>();
+    private final ArrayList<HashMap<Integer, Bucket>> tables = new ArrayList<>();
+    private float[] hyperplanes = null; // drawn on the first insertion, once the dimension is known
+    private int dimension = -1;
+
+    /**
+     * Constructs an empty LshIndex.
+     *
+     * @param tableCount the number of hash tables; more tables find more near-duplicates at a higher query cost.
+     * @param bitsPerTable the number of hyperplanes per table, at most 32; more bits make buckets smaller.
+     * @param seed the seed the hyperplanes are drawn from.
+     */
+    public LshIndex(int tableCount, int bitsPerTable, long seed) {
+        if (tableCount < 1) {
+            throw new IllegalArgumentException("An LSH index needs at least one table");
+        }
+        if (bitsPerTable < 1 || bitsPerTable > Integer.SIZE) {
+            throw new IllegalArgumentException("The bits per table must be between 1 and " + Integer.SIZE);
+        }
+        this.tableCount = tableCount;
+        this.bitsPerTable = bitsPerTable;
+        this.random = new Random(seed);
+        for (int table = 0; table < tableCount; table++) {
+            tables.add(new HashMap<>());
+        }
+    }
+
+    /**
+     * Inserts the embedding of a project, replacing any embedding previously stored for it.
+     *
+     * @param id the id of the project.
+     * @param vector the embedding of the project.
+     */
+    public void add(int id, float[] vector) {
+        lock.writeLock().lock();
+        try {
+            if (dimension == -1) {
+                dimension = vector.length;
+                drawHyperplanes();
+            }
+            else if (vector.length != dimension) {
+                throw new IllegalArgumentException("Expected an embedding of dimension " + dimension + " but got "
+                        + vector.length);
+            }
+            removeLocked(id);
+            float[] normalized = VectorKernels.normalize(vector);
+            int[] signatures = signatures(normalized);
+            for (int table = 0; table < tableCount; table++) {
+                tables.get(table).computeIfAbsent(signatures[table], _ -> new Bucket()).add(id);
+            }
+            vectorById.put(id, normalized);
+            signaturesById.put(id, signatures);
+        }
+        finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Removes the embedding of a project.
+     *
+     * @param id the id of the project.
+     * @return true if the project was in the index, false otherwise.
+     */
+    public boolean remove(int id) {
+        lock.writeLock().lock();
+        try {
+            return removeLocked(id);
+        }
+        finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Returns the projects whose embedding has a cosine similarity of at least {@code threshold} with the given one.
+     * Only the projects sharing a bucket with the embedding are compared, so a near-duplicate is missed with a small
+     * probability that shrinks as the similarity grows.
+     *
+     * @param vector the embedding to compare against.
+     * @param threshold the lowest cosine similarity reported.
+     * @return the matching projects ordered by decreasing similarity.
+     */
+    public SearchHits findSimilar(float[] vector, float threshold) {
+        lock.readLock().lock();
+        try {
+            if (vectorById.isEmpty() || vector.length != dimension) {
+                return SearchHits.EMPTY;
+            }
+            float[] normalized = VectorKernels.normalize(vector);
+            return similarLocked(normalized, signatures(normalized), threshold, Integer.MIN_VALUE);
+        }
+        finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Finds every pair of projects whose embeddings have a cosine similarity of at least {@code threshold}.
+     * The projects are split into shards that look up their buckets on the executor; updates wait until the report
+     * is done.
+     *
+     * @param threshold the lowest cosine similarity reported.
+     * @param executor the executor that runs the shards.
+     * @param parallelism the number of shards.
+     * @return the pairs, each with the lower id first, ordered by decreasing similarity.
+     */
+    public List<DuplicatePair> findAllSimilarPairs(float threshold, Executor executor, int parallelism) {
+        lock.readLock().lock();
+        try {
+            int[] ids = vectorById.keySet().stream().mapToInt(Integer::intValue).sorted().toArray();
+            int shards = Math.max(1, Math.min(parallelism, ids.length));
+            int shardSize = Math.max(1, (ids.length + shards - 1) / shards);
+            ArrayList<CompletableFuture<List<DuplicatePair>>> futures = new ArrayList<>();
+            for (int from = 0; from < ids.length; from += shardSize) {
+                int start = from;
+                int end = Math.min(from + shardSize, ids.length);
+                if (shards == 1) {
+                    futures.add(CompletableFuture.completedFuture(pairsLocked(ids, start, end, threshold)));
+                }
+                else {
+                    futures.add(CompletableFuture.supplyAsync(() -> pairsLocked(ids, start, end, threshold), executor));
+                }
+            }
+            ArrayList<DuplicatePair> pairs = new ArrayList<>();
+            for (CompletableFuture<List<DuplicatePair>> future : futures) {
+                pairs.addAll(future.join());
+            }
+            pairs.sort(DuplicatePair.BY_SIMILARITY);
+            return pairs;
+        }
+        finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Returns the number of projects in the index.
+     *
+     * @return the number of projects.
+     */
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return vectorById.size();
+        }
+        finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Returns the dimension of the stored embeddings.
+     *
+     * @return the dimension, or -1 if nothing was ever inserted.
+     */
+    public int getDimension() {
+        lock.readLock().lock();
+        try {
+            return dimension;
+        }
+        finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Returns the pairs formed by the projects {@code ids[from]} to {@code ids[to - 1]} with every project of a
+     * higher id. Only reads the index, so shards run concurrently while the caller holds the read lock.
+     */
+    private List<DuplicatePair> pairsLocked(int[] ids, int from, int to, float threshold) {
+        ArrayList<DuplicatePair> pairs = new ArrayList<>();
+        for (int i = from; i < to; i++) {
+            int id = ids[i];
+            SearchHits hits = similarLocked(vectorById.get(id), signaturesById.get(id), threshold, id);
+            for (int hit = 0; hit < hits.size(); hit++) {
+                pairs.add(new DuplicatePair(id, hits.ids()[hit], hits.scores()[hit]));
+            }
+        }
+        return pairs;
+    }
+
+    /**
+     * Verifies the projects sharing a bucket with the given embedding, keeping those with an id above
+     * {@code minExclusiveId} and a similarity of at least {@code threshold}.
+     */
+    private SearchHits similarLocked(float[] normalized, int[] signatures, float threshold, int minExclusiveId) {
+        HashSet<Integer> seen = new HashSet<>();
+        ArrayList<Integer> matches = new ArrayList<>();
+        HashMap<Integer, Float> scores = new HashMap<>();
+        for (int table = 0; table < tableCount; table++) {
+            Bucket bucket = tables.get(table).get(signatures[table]);
+            if (bucket == null) {
+                continue;
+            }
+            for (int i = 0; i < bucket.size; i++) {
+                int candidate = bucket.ids[i];
+                if (candidate <= minExclusiveId || !seen.add(candidate)) {
+                    continue;
+                }
+                float score = kernel.dot(normalized, vectorById.get(candidate));
+                if (score >= threshold) {
+                    matches.add(candidate);
+                    scores.put(candidate, score);
+                }
+            }
+        }
+        if (matches.isEmpty()) {
+            return SearchHits.EMPTY;
+        }
+        matches.sort((a, b) -> {
+            int bySimilarity = Float.compare(scores.get(b), scores.get(a));
+            return bySimilarity != 0 ? bySimilarity : Integer.compare(a, b);
+        });
+        int[] ids = new int[matches.size()];
+        float[] similarities = new float[matches.size()];
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = matches.get(i);
+            similarities[i] = scores.get(ids[i]);
+        }
+        return new SearchHits(ids, similarities);
+    }
+
+    private boolean removeLocked(int id) {
+        int[] signatures = signaturesById.remove(id);
+        if (signatures == null) {
+            return false;
+        }
+        vectorById.remove(id);
+        for (int table = 0; table < tableCount; table++) {
+            Map<Integer, Bucket> buckets = tables.get(table);
+            Bucket bucket = buckets.get(signatures[table]);
+            bucket.remove(id);
+            if (bucket.size == 0) {
+                buckets.remove(signatures[table]);
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Returns the signature of a normalized embedding in every table.
+     */
+    private int[] signatures(float[] normalized) {
+        int[] signatures = new int[tableCount];
+        int plane = 0;
+        for (int table = 0; table < tableCount; table++) {
+            int signature = 0;
+            for (int bit = 0; bit < bitsPerTable; bit++, plane++) {
+                if (kernel.dot(hyperplanes, plane * dimension, normalized, 0, dimension) >= 0) {
+                    signature |= 1 << bit;
+                }
+            }
+            signatures[table] = signature;
+        }
+        return signatures;
+    }
+
+    /**
+     * Draws the hyperplane normals from a standard normal distribution, which makes their directions uniform.
+     */
+    private void drawHyperplanes() {
+        hyperplanes = new float[tableCount * bitsPerTable * dimension];
+        for (int i = 0; i < hyperplanes.length; i++) {
+            hyperplanes[i] = (float) random.nextGaussian();
+        }
+    }
+
+    /**
+     * The ids of the projects sharing one signature in one table.
+     */
+    private static final class Bucket {
+        private int[] ids = new int[4];
+        private int size = 0;
+
+        private void add(int id) {
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, size * 2);
+            }
+            ids[size++] = id;
+        }
+
+        private void remove(int id) {
+            for (int i = 0; i < size; i++) {
+                if (ids[i] == id) {
+                    ids[i] = ids[--size];
+                    return;
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,232 @@
+package usecase.searchforproject.index;
+
+import java.util.Map;
+
+/**
+ * Holds project embeddings normalized to unit length in an {@link OffHeapEmbeddingArena}.
+ * Comparing a normalized query with a stored project is then a single dot product, with no norms to recompute.
+ * <p>
+ * Removed projects leave tombstones until the arena compacts, so scans go up to {@link #slotCount()} and skip
+ * slots that are not {@link #isLive(int) live}. {@link #scan(float[], int, int, ScoreConsumer)} does this for the
+ * caller.
+ */
+public class NormalizedEmbeddingStore {
+    private final VectorKernel kernel;
+    private OffHeapEmbeddingArena arena = null;
+    private long layoutBase = 0; // layout version when the current arena was set
+    private boolean dimensionMismatchReported = false;
+
+    /**
+     * Constructs an empty store that compares vectors with the default kernel.
+     */
+    public NormalizedEmbeddingStore() {
+        this(VectorKernels.getDefault());
+    }
+
+    /**
+     * Constructs an empty store that compares vectors with the given kernel.
+     *
+     * @param kernel the kernel used for similarity.
+     */
+    public NormalizedEmbeddingStore(VectorKernel kernel) {
+        this.kernel = kernel;
+    }
+
+    /**
+     * Stores the embeddings of many projects at once, e.g. when loading a repository.
+     *
+     * @param embeddings the raw embeddings keyed by project id.
+     */
+    public void putAll(Map<Integer, float[]> embeddings) {
+        for (Map.Entry<Integer, float[]> entry : embeddings.entrySet()) {
+            put(entry.getKey(), entry.getValue());
+        }
+    }
+
+    /**
+     * Stores the normalized embedding of a project, replacing any previous one.
+     * Empty embeddings and embeddings whose dimension differs from the stored ones are not searchable. The first
+     * embedding of a different dimension is reported, since it was likely computed with another model.
+     *
+     * @param id the id of the project.
+     * @param embedding the raw embedding.
+     */
+    public void put(int id, float[] embedding) {
+        if (embedding.length == 0 || (arena != null && embedding.length != arena.getDimension())) {
+            if (embedding.length != 0 && !dimensionMismatchReported) {
+                dimensionMismatchReported = true;
+                System.err.println("Project " + id + " has an embedding of dimension " + embedding.length
+                        + " instead of " + arena.getDimension() + " and cannot be searched until the projects are "
+                        + "embedded again with the same model");
+            }
+            remove(id);
+            return;
+        }
+        if (arena == null) {
+            replaceArena(new OffHeapEmbeddingArena(embedding.length, kernel));
+        }
+        arena.put(id, VectorKernels.normalize(embedding));
+    }
+
+    /**
+     * Removes the embedding of a project.
+     *
+     * @param id the id of the project.
+     */
+    public void remove(int id) {
+        if (arena != null && arena.remove(id) && arena.size() == 0) {
+            replaceArena(null); // accept embeddings from a different model once the store is empty
+        }
+    }
+
+    /**
+     * Copies the normalized embedding of a project.
+     *
+     * @param id the id of the project.
+     * @return a copy of the normalized embedding, or null if the project has no searchable embedding.
+     */
+    public float[] get(int id) {
+        return arena == null ? null : arena.get(id);
+    }
+
+    /**
+     * Returns the cosine similarity between a normalized query and the project stored in a slot.
+     *
+     * @param normalizedQuery the query, normalized with {@link VectorKernels#normalize(float[])}.
+     * @param slot a live slot.
+     * @return the cosine similarity.
+     */
+    public float similarity(float[] normalizedQuery, int slot) {
+        return arena.dot(normalizedQuery, slot);
+    }
+
+    /**
+     * Passes the cosine similarity of every live project in slots {@code from} to {@code to - 1} to the consumer.
+     *
+     * @param normalizedQuery the query, normalized with {@link VectorKernels#normalize(float[])}.
+     * @param from the first slot to scan.
+     * @param to the slot after the last one to scan.
+     * @param consumer receives the id and similarity of every project.
+     */
+    public void scan(float[] normalizedQuery, int from, int to, ScoreConsumer consumer) {
+        if (arena != null) {
+            arena.scan(normalizedQuery, from, to, consumer);
+        }
+    }
+
+    /**
+     * Passes the cosine similarity of every query of a batch with every live project in slots {@code from} to
+     * {@code to - 1} to the consumer. Much faster than one scan per query, since the embeddings are read once per
+     * block of queries.
+     *
+     * @param normalizedQueries the queries, each normalized with {@link VectorKernels#normalize(float[])}.
+     * @param from the first slot to scan.
+     * @param to the slot after the last one to scan.
+     * @param consumer receives the query index, id and similarity of every query and project.
+     */
+    public void scan(float[][] normalizedQueries, int from, int to, BatchScoreConsumer consumer) {
+        if (arena != null) {
+            arena.scan(normalizedQueries, from, to, consumer);
+        }
+    }
+
+    /**
+     * Returns the id of the project stored in a slot.
+     *
+     * @param slot a live slot.
+     * @return the project id.
+     */
+    public int idAt(int slot) {
+        return arena.idAt(slot);
+    }
+
+    /**
+     * Returns the slot holding a project.
+     *
+     * @param id the id of the project.
+     * @return the slot, or -1 if the project has no searchable embedding.
+     */
+    public int slotOf(int id) {
+        return arena == null ? -1 : arena.slotOf(id);
+    }
+
+    /**
+     * Returns whether a slot holds a project, rather than the tombstone of a removed one.
+     *
+     * @param slot a slot below {@link #slotCount()}.
+     * @return true if the slot holds a project.
+     */
+    public boolean isLive(int slot) {
+        return arena.isLive(slot);
+    }
+
+    /**
+     * Returns the number of slots a scan has to cover, including tombstones.
+     *
+     * @return the number of used slots.
+     */
+    public int slotCount() {
+        return arena == null ? 0 : arena.slotCount();
+    }
+
+    /**
+     * Returns a version of the slot layout. It changes whenever projects may have moved to other slots, e.g. when
+     * the arena compacts, but not when projects are only added or overwritten, so a scan that covers the slots in
+     * several steps can tell whether it may have skipped projects.
+     *
+     * @return the layout version.
+     */
+    public long layoutVersion() {
+        return layoutBase + (arena == null ? 0 : arena.getCompactionCount());
+    }
+
+    /**
+     * Returns the number of stored projects.
+     *
+     * @return the number of projects.
+     */
+    public int size() {
+        return arena == null ? 0 : arena.size();
+    }
+
+    /**
+     * Returns the dimension of the stored embeddings, or -1 if nothing was stored yet.
+     *
+     * @return the embedding dimension.
+     */
+    public int getDimension() {
+        return arena == null ? -1 : arena.getDimension();
+    }
+
+    /**
+     * Returns the kernel the store compares vectors with.
+     *
+     * @return the kernel.
+     */
+    VectorKernel kernel() {
+        return kernel;
+    }
+
+    /**
+     * Returns the arena holding the normalized embeddings.
+     *
+     * @return the arena, or null if the store is empty.
+     */
+    OffHeapEmbeddingArena arena() {
+        return arena;
+    }
+
+    /**
+     * Replaces the content of the store with an arena of normalized embeddings, e.g. one read from a snapshot.
+     *
+     * @param restored the arena, or null to empty the store.
+     */
+    void restore(OffHeapEmbeddingArena restored) {
+        replaceArena(restored != null && restored.size() > 0 ? restored : null);
+    }
+
+    private void replaceArena(OffHeapEmbeddingArena replacement) {
+        layoutBase = layoutVersion() + 1 - (replacement == null ? 0 : replacement.getCompactionCount());
+        arena = replacement;
+    }
+}
@@ -0,0 +1,336 @@
+package usecase.searchforproject.index;
+
+import java.lang.foreign.Arena;
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.ValueLayout;
+import java.util.Arrays;
+import java.util.BitSet;
+
+/**
+ * Packs embeddings of one dimension into a single off-heap {@link MemorySegment}, one row per slot.
+ * Rows are found through a primitive {@link IdSlotMap}, so the arena holds no per-project objects for the garbage
+ * collector to trace, and a scan reads one contiguous block of memory.
+ * <p>
+ * Removing a project only marks its slot as a tombstone, so the slots of other projects stay put. Once tombstones
+ * make up half of the used slots, the live rows are compacted to the front, keeping their order.
+ * <p>
+ * The memory belongs to an automatic arena and is freed once the segment is no longer reachable, so a replaced or
+ * discarded arena needs no explicit cleanup. Not thread-safe: writes must not run concurrently with scans.
+ */
+public class OffHeapEmbeddingArena {
+    private static final long ALIGNMENT = 64;
+    private static final int INITIAL_CAPACITY = 16;
+    private static final int MIN_COMPACTION_TOMBSTONES = 64;
+    private static final long BATCH_BLOCK_BYTES = 256 * 1024;
+
+    private final int dimension;
+    private final long rowBytes;
+    private final VectorKernel kernel;
+    private final IdSlotMap slotById = new IdSlotMap();
+    private final BitSet tombstones = new BitSet();
+    private MemorySegment rows;
+    private int[] ids = new int[INITIAL_CAPACITY];
+    private int slotCount = 0;
+    private int tombstoneCount = 0;
+    private long compactionCount = 0;
+
+    /**
+     * Constructs an empty arena for embeddings of the given dimension.
+     *
+     * @param dimension the number of floats per embedding.
+     * @param kernel the kernel used by {@link #dot(float[], int)} and scans.
+     */
+    public OffHeapEmbeddingArena(int dimension, VectorKernel kernel) {
+        this.dimension = dimension;
+        this.rowBytes = (long) dimension * Float.BYTES;
+        this.kernel = kernel;
+        this.rows = Arena.ofAuto().allocate(rowBytes * INITIAL_CAPACITY, ALIGNMENT);
+    }
+
+    /**
+     * Constructs an arena that adopts existing rows, such as those mapped from an {@link EmbeddingSnapshot}.
+     * The rows are used in place, and are only copied once the arena grows.
+     *
+     * @param dimension the number of floats per embedding.
+     * @param kernel the kernel used by {@link #dot(float[], int)} and scans.
+     * @param ids the id of the project in each slot, one per row.
+     * @param rows the rows, exactly {@code ids.length} of them, aligned to {@value #ALIGNMENT} bytes.
+     */
+    OffHeapEmbeddingArena(int dimension, VectorKernel kernel, int[] ids, MemorySegment rows) {
+        this.dimension = dimension;
+        this.rowBytes = (long) dimension * Float.BYTES;
+        this.kernel = kernel;
+        this.rows = rows;
+        this.ids = ids;
+        this.slotCount = ids.length;
+        for (int slot = 0; slot < ids.length; slot++) {
+            slotById.put(ids[slot], slot);
+        }
+    }
+
+    /**
+     * Stores the embedding of a project, overwriting its row if it already has one.
+     *
+     * @param id the project id.
+     * @param embedding the embedding, of the arena's dimension.
+     * @return the slot of the project.
+     */
+    public int put(int id, float[] embedding) {
+        if (embedding.length != dimension) {
+            throw new IllegalArgumentException("Expected dimension " + dimension + " but got " + embedding.length);
+        }
+        int slot = slotById.get(id);
+        if (slot == -1) {
+            if (slotCount == ids.length) {
+                grow(ids.length * 2);
+            }
+            slot = slotCount++;
+            ids[slot] = id;
+            slotById.put(id, slot);
+        }
+        MemorySegment.copy(embedding, 0, rows, ValueLayout.JAVA_FLOAT, slot * rowBytes, dimension);
+        return slot;
+    }
+
+    /**
+     * Removes the embedding of a project by turning its slot into a tombstone.
+     * May compact the arena, which moves the remaining projects to lower slots.
+     *
+     * @param id the project id.
+     * @return true if the project had an embedding.
+     */
+    public boolean remove(int id) {
+        int slot = slotById.remove(id);
+        if (slot == -1) {
+            return false;
+        }
+        tombstones.set(slot);
+        tombstoneCount++;
+        if (tombstoneCount >= MIN_COMPACTION_TOMBSTONES && tombstoneCount * 2 >= slotCount) {
+            compact();
+        }
+        else if (tombstoneCount == slotCount) {
+            clear();
+        }
+        return true;
+    }
+
+    /**
+     * Moves all live rows to the front of the arena, keeping their order, and drops the tombstones.
+     */
+    public void compact() {
+        int target = 0;
+        for (int slot = 0; slot < slotCount; slot++) {
+            if (tombstones.get(slot)) {
+                continue;
+            }
+            if (slot != target) {
+                MemorySegment.copy(rows, slot * rowBytes, rows, target * rowBytes, rowBytes);
+                ids[target] = ids[slot];
+                slotById.put(ids[target], target);
+            }
+            target++;
+        }
+        slotCount = target;
+        tombstones.clear();
+        tombstoneCount = 0;
+        compactionCount++;
+    }
+
+    /**
+     * Removes every embedding, keeping the allocated memory.
+     */
+    public void clear() {
+        slotById.clear();
+        tombstones.clear();
+        slotCount = 0;
+        tombstoneCount = 0;
+        compactionCount++;
+    }
+
+    /**
+     * Returns the number of times projects were moved to other slots, by {@link #compact()} or {@link #clear()}.
+     *
+     * @return the compaction count.
+     */
+    public long getCompactionCount() {
+        return compactionCount;
+    }
+
+    /**
+     * Copies the embedding of a project.
+     *
+     * @param id the project id.
+     * @return a copy of the embedding, or null if the project has none.
+     */
+    public float[] get(int id) {
+        int slot = slotById.get(id);
+        if (slot == -1) {
+            return null;
+        }
+        float[] embedding = new float[dimension];
+        MemorySegment.copy(rows, ValueLayout.JAVA_FLOAT, slot * rowBytes, embedding, 0, dimension);
+        return embedding;
+    }
+
+    /**
+     * Returns the dot product of a query with the row in a slot.
+     *
+     * @param query the query, of the arena's dimension.
+     * @param slot a live slot.
+     * @return the dot product.
+     */
+    public float dot(float[] query, int slot) {
+        return kernel.dot(query, rows, slot * rowBytes, dimension);
+    }
+
+    /**
+     * Computes the dot product of a query with every live row in slots {@code from} to {@code to - 1} and passes
+     * each result to the consumer, in slot order.
+     *
+     * @param query the query, of the arena's dimension.
+     * @param from the first slot to scan.
+     * @param to the slot after the last one to scan.
+     * @param consumer receives the id and dot product of every live row.
+     */
+    public void scan(float[] query, int from, int to, ScoreConsumer consumer) {
+        for (int slot = from; slot < to; slot++) {
+            if (tombstoneCount == 0 || !tombstones.get(slot)) {
+                consumer.accept(ids[slot], kernel.dot(query, rows, slot * rowBytes, dimension));
+            }
+        }
+    }
+
+    /**
+     * Computes the dot product of every query with every live row in slots {@code from} to {@code to - 1} and
+     * passes each result to the consumer, in slot order for each query.
+     * <p>
+     * The product is blocked like a matrix multiplication. A block of queries is compared with a tile of rows, each
+     * about {@value #BATCH_BLOCK_BYTES} bytes, so both stay in the L2 cache while the tile is reused for every query
+     * of the block. Within the tile, each row is loaded into registers once per four queries. The rows are thus
+     * read from main memory once per block of queries instead of once per query.
+     *
+     * @param queries the queries, each of the arena's dimension.
+     * @param from the first slot to scan.
+     * @param to the slot after the last one to scan.
+     * @param consumer receives the query index, id and dot product of every query and live row.
+     */
+    public void scan(float[][] queries, int from, int to, BatchScoreConsumer consumer) {
+        int rowBlock = (int) Math.max(1, BATCH_BLOCK_BYTES / rowBytes);
+        int queryBlock = Math.max(4, rowBlock & ~3);
+        float[] scores = new float[4];
+        for (int firstQuery = 0; firstQuery < queries.length; firstQuery += queryBlock) {
+            int lastQuery = Math.min(firstQuery + queryBlock, queries.length);
+            for (int firstSlot = from; firstSlot < to; firstSlot += rowBlock) {
+                int lastSlot = Math.min(firstSlot + rowBlock, to);
+                int q = firstQuery;
+                for (; q + 4 <= lastQuery; q += 4) {
+                    for (int slot = firstSlot; slot < lastSlot; slot++) {
+                        if (tombstoneCount == 0 || !tombstones.get(slot)) {
+                            kernel.dot4(queries[q], queries[q + 1], queries[q + 2], queries[q + 3], rows,
+                                    slot * rowBytes, dimension, scores);
+                            consumer.accept(q, ids[slot], scores[0]);
+                            consumer.accept(q + 1, ids[slot], scores[1]);
+                            consumer.accept(q + 2, ids[slot], scores[2]);
+                            consumer.accept(q + 3, ids[slot], scores[3]);
+                        }
+                    }
+                }
+                for (; q < lastQuery; q++) {
+                    for (int slot = firstSlot; slot < lastSlot; slot++) {
+                        if (tombstoneCount == 0 || !tombstones.get(slot)) {
+                            consumer.accept(q, ids[slot], kernel.dot(queries[q], rows, slot * rowBytes, dimension));
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns whether a slot holds a live embedding.
+     *
+     * @param slot a slot below {@link #slotCount()}.
+     * @return false if the slot is a tombstone.
+     */
+    public boolean isLive(int slot) {
+        return !tombstones.get(slot);
+    }
+
+    /**
+     * Returns the id of the project in a slot.
+     *
+     * @param slot a live slot.
+     * @return the project id.
+     */
+    public int idAt(int slot) {
+        return ids[slot];
+    }
+
+    /**
+     * Returns the slot of a project.
+     *
+     * @param id the project id.
+     * @return the slot, or -1 if the project has no embedding.
+     */
+    public int slotOf(int id) {
+        return slotById.get(id);
+    }
+
+    /**
+     * Returns the number of slots in use, live or tombstone. Scans cover slots 0 to this value - 1.
+     *
+     * @return the number of used slots.
+     */
+    public int slotCount() {
+        return slotCount;
+    }
+
+    /**
+     * Returns the number of live embeddings.
+     *
+     * @return the number of projects.
+     */
+    public int size() {
+        return slotCount - tombstoneCount;
+    }
+
+    /**
+     * Returns the number of floats per embedding.
+     *
+     * @return the dimension.
+     */
+    public int getDimension() {
+        return dimension;
+    }
+
+    /**
+     * Returns the number of off-heap bytes reserved for rows.
+     *
+     * @return the reserved bytes.
+     */
+    public long reservedBytes() {
+        return rows.byteSize();
+    }
+
+    /**
+     * Returns a view of the rows in slots {@code from} to {@code to - 1}, tombstones included.
+     *
+     * @param from the first slot.
+     * @param to the slot after the last one.
+     * @return the rows, in native byte order.
+     */
+    MemorySegment rows(int from, int to) {
+        return rows.asSlice(from * rowBytes, (to - from) * rowBytes);
+    }
+
+    /**
+     * Moves the rows into a larger segment. The old segment is freed once no scan refers to it any more.
+     */
+    private void grow(int capacity) {
+        MemorySegment grownRows = Arena.ofAuto().allocate(rowBytes * capacity, ALIGNMENT);
+        MemorySegment.copy(rows, 0, grownRows, 0, slotCount * rowBytes);
+        rows = grownRows;
+        ids = Arrays.copyOf(ids, capacity);
+    }
+}
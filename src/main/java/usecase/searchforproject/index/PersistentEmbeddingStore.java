@@ -0,0 +1,287 @@
+package usecase.searchforproject.index;
+
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * A {@link NormalizedEmbeddingStore} that survives restarts without being rebuilt from the repository.
+ * <p>
+ * Its directory holds an {@link EmbeddingSnapshot} of the store and an {@link EmbeddingJournal} of the changes made
+ * since. Opening the store maps the snapshot and replays the journal, so the cost of a launch grows with the number
+ * of changes since the last snapshot rather than with the number of projects. If the snapshot or the journal is
+ * missing, unreadable or from another generation, the store is loaded from the repository instead and a new snapshot
+ * is saved right away.
+ * <p>
+ * Every put and removal is appended to the journal before it is applied. A snapshot is saved by
+ * {@link #saveSnapshot()}, and on opening once the journal has grown past a quarter of the store. If the journal
+ * cannot be written, the snapshot is deleted, so the next launch reloads the repository instead of missing a change.
+ * <p>
+ * Indexes derived from the embeddings can be saved next to the snapshot, tagged with {@link #getGeneration()}. After
+ * a restore, such an index is still valid if it was saved with {@link #getRestoredGeneration()}, except for the
+ * projects in {@link #getReplayedIds()}.
+ * <p>
+ * The snapshot only stays valid while every change to the repository goes through this store, so it must not be used
+ * for a repository that other processes write to, and each repository needs a directory of its own.
+ */
+public class PersistentEmbeddingStore extends NormalizedEmbeddingStore {
+    private static final String JOURNAL_FILE = "embeddings.journal";
+    private static final String SNAPSHOT_PREFIX = "embeddings-";
+    private static final String SNAPSHOT_SUFFIX = ".snapshot";
+    private static final int MIN_COMPACTION_RECORDS = 64;
+
+    private final Path directory;
+    private EmbeddingJournal journal = null; // attached once the store matches the repository
+    private boolean restoredFromSnapshot = false;
+    private long restoredGeneration = 0;
+    private final HashSet<Integer> replayedIds = new HashSet<>();
+    private boolean replaying = false;
+
+    /**
+     * Constructs an empty store that is saved to the given directory.
+     */
+    private PersistentEmbeddingStore(Path directory) {
+        this.directory = directory;
+    }
+
+    /**
+     * Opens the store saved in a directory, or builds it from the repository if no usable snapshot is found.
+     *
+     * @param directory the directory holding the snapshot and the journal.
+     * @param repositoryEmbeddings supplies the raw embeddings of every project, read only if the store has to be
+     *                             rebuilt.
+     * @return the open store.
+     */
+    public static PersistentEmbeddingStore open(Path directory, Supplier<Map<Integer, float[]>> repositoryEmbeddings) {
+        PersistentEmbeddingStore store = new PersistentEmbeddingStore(directory);
+        EmbeddingJournal journal = null;
+        try {
+            journal = new EmbeddingJournal(directory.resolve(JOURNAL_FILE));
+            Path snapshot = store.snapshotFile(journal.getGeneration());
+            if (Files.exists(snapshot) && EmbeddingSnapshot.read(snapshot, store) == journal.getGeneration()) {
+                store.replaying = true;
+                journal.replay(store);
+                store.replaying = false;
+                store.restoredFromSnapshot = true;
+                store.restoredGeneration = journal.getGeneration();
+            }
+            else {
+                store.restore(null);
+                store.putAll(repositoryEmbeddings.get());
+            }
+            store.journal = journal;
+            if (!store.restoredFromSnapshot
+                    || journal.getRecordCount() >= Math.max(MIN_COMPACTION_RECORDS, store.size() / 4)) {
+                store.saveSnapshot();
+            }
+        } catch (IOException | RuntimeException e) {
+            System.err.println("Could not open search index snapshot, loading the repository instead: " + e);
+            closeQuietly(journal);
+            store.journal = null;
+            store.restoredFromSnapshot = false;
+            store.restoredGeneration = 0;
+            store.replaying = false;
+            store.replayedIds.clear();
+            store.restore(null);
+            store.putAll(repositoryEmbeddings.get());
+        }
+        return store;
+    }
+
+    /**
+     * Deletes the store saved in a directory, together with the other files saved next to it, so the next
+     * {@link #open} rebuilds the store from the repository.
+     *
+     * @param directory the directory holding the snapshot and the journal.
+     */
+    public static void delete(Path directory) {
+        if (!Files.isDirectory(directory)) {
+            return;
+        }
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, Files::isRegularFile)) {
+            for (Path file : files) {
+                Files.deleteIfExists(file);
+            }
+        } catch (IOException e) {
+            System.err.println("Could not delete search index snapshot: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Stores the normalized embedding of a project and records the change in the journal.
+     *
+     * @param id the id of the project.
+     * @param embedding the raw embedding.
+     */
+    @Override
+    public synchronized void put(int id, float[] embedding) {
+        if (replaying) {
+            replayedIds.add(id);
+        }
+        if (journal != null) {
+            try {
+                journal.appendPut(id, embedding);
+            } catch (IOException e) {
+                abandonSnapshot(e);
+            }
+        }
+        super.put(id, embedding);
+    }
+
+    /**
+     * Removes the embedding of a project and records the change in the journal.
+     *
+     * @param id the id of the project.
+     */
+    @Override
+    public synchronized void remove(int id) {
+        if (replaying) {
+            replayedIds.add(id);
+        }
+        if (journal != null) {
+            try {
+                journal.appendRemove(id);
+            } catch (IOException e) {
+                abandonSnapshot(e);
+            }
+        }
+        super.remove(id);
+    }
+
+    /**
+     * Saves the whole store as a new snapshot and starts an empty journal, so the next launch has nothing to replay.
+     * The previous snapshot is kept until the new one is in place.
+     */
+    public synchronized void saveSnapshot() {
+        if (journal == null) {
+            return;
+        }
+        long generation = journal.newGeneration();
+        try {
+            EmbeddingSnapshot.write(snapshotFile(generation), this, generation);
+        } catch (IOException e) {
+            System.err.println("Could not save search index snapshot: " + e.getMessage());
+            return; // the current snapshot and journal are still valid
+        }
+        try {
+            journal.reset(generation);
+        } catch (IOException e) {
+            abandonSnapshot(e);
+            return;
+        }
+        deleteSnapshotsExcept(generation);
+    }
+
+    /**
+     * Returns the number of changes recorded since the last snapshot.
+     *
+     * @return the number of journal records, or 0 if the store is not saved.
+     */
+    public synchronized long getJournalRecordCount() {
+        return journal == null ? 0 : journal.getRecordCount();
+    }
+
+    /**
+     * Returns the generation of the current snapshot, which an index saved next to it can be tagged with. The index
+     * must match the content of the snapshot, so it should only be saved while {@link #getJournalRecordCount()} is 0.
+     *
+     * @return the generation, or 0 if the store is not saved.
+     */
+    public synchronized long getGeneration() {
+        return journal == null ? 0 : journal.getGeneration();
+    }
+
+    /**
+     * Returns the generation of the snapshot the store was opened from.
+     *
+     * @return the generation, or 0 if the store was rebuilt from the repository.
+     */
+    public long getRestoredGeneration() {
+        return restoredGeneration;
+    }
+
+    /**
+     * Returns the projects whose embeddings were put or removed by replaying the journal when the store was opened,
+     * i.e. those changed since the snapshot it was restored from.
+     *
+     * @return the ids of the changed projects, empty if the store was rebuilt from the repository.
+     */
+    public synchronized int[] getReplayedIds() {
+        return replayedIds.stream().mapToInt(Integer::intValue).toArray();
+    }
+
+    /**
+     * Returns the directory the store is saved to, where indexes derived from it can be saved too.
+     *
+     * @return the snapshot directory.
+     */
+    public Path getDirectory() {
+        return directory;
+    }
+
+    /**
+     * Returns whether the store was opened from a snapshot rather than rebuilt from the repository.
+     *
+     * @return true if a snapshot was used.
+     */
+    public boolean isRestoredFromSnapshot() {
+        return restoredFromSnapshot;
+    }
+
+    /**
+     * Stops journaling after a failed write and deletes the journal, so the next launch starts a new generation
+     * that matches no snapshot and rebuilds the store.
+     */
+    private void abandonSnapshot(IOException cause) {
+        System.err.println("Could not record search index change, the index will be rebuilt: " + cause.getMessage());
+        closeQuietly(journal);
+        journal = null;
+        try {
+            Files.deleteIfExists(directory.resolve(JOURNAL_FILE));
+        } catch (IOException e) {
+            System.err.println("Could not delete search index journal: " + e.getMessage());
+        }
+        deleteSnapshotsExcept(null);
+    }
+
+    /**
+     * Deletes every snapshot in the directory but the one of the given generation. A snapshot that is still mapped
+     * may not be deletable on every platform; it is then deleted after a later snapshot.
+     */
+    private void deleteSnapshotsExcept(Long generation) {
+        Path keep = generation == null ? null : snapshotFile(generation);
+        try (DirectoryStream<Path> snapshots = Files.newDirectoryStream(directory,
+                SNAPSHOT_PREFIX + "*" + SNAPSHOT_SUFFIX)) {
+            for (Path snapshot : snapshots) {
+                if (!snapshot.equals(keep)) {
+                    try {
+                        Files.deleteIfExists(snapshot);
+                    } catch (IOException e) {
+                        System.err.println("Could not delete old search index snapshot: " + e.getMessage());
+                    }
+                }
+            }
+        } catch (IOException e) {
+            System.err.println("Could not list search index snapshots: " + e.getMessage());
+        }
+    }
+
+    private static void closeQuietly(EmbeddingJournal journal) {
+        if (journal == null) {
+            return;
+        }
+        try {
+            journal.close();
+        } catch (IOException e) {
+            System.err.println("Could not close search index journal: " + e.getMessage());
+        }
+    }
+
+    private Path snapshotFile(long generation) {
+        return directory.resolve(SNAPSHOT_PREFIX + Long.toHexString(generation) + SNAPSHOT_SUFFIX);
+    }
+}
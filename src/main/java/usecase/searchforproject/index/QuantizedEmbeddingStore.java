@@ -0,0 +1,186 @@
+package usecase.searchforproject.index;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Holds project embeddings normalized to unit length and quantized to one signed byte per dimension.
+ * Each row has its own scale and offset, so component {@code i} is approximately {@code offset + scale * code[i]}.
+ * This takes a quarter of the memory of {@link NormalizedEmbeddingStore}. Its similarities are only estimates and
+ * should be rescored against the full-precision embeddings before they are shown.
+ * <p>
+ * Rows are kept dense: removing a project moves the last row into the freed slot, so slots are not stable
+ * across removals.
+ */
+public class QuantizedEmbeddingStore {
+    private static final int INITIAL_CAPACITY = 16;
+    private static final int LEVELS = 255;
+
+    private final VectorKernel kernel;
+    private final HashMap<Integer, Integer> slotById = new HashMap<>();
+    private int[] ids = new int[INITIAL_CAPACITY];
+    private float[] scales = new float[INITIAL_CAPACITY];
+    private float[] offsets = new float[INITIAL_CAPACITY];
+    private byte[] codes = new byte[0];
+    private int size = 0;
+    private int dimension = -1;
+
+    /**
+     * Constructs an empty store that compares vectors with the default kernel.
+     */
+    public QuantizedEmbeddingStore() {
+        this(VectorKernels.getDefault());
+    }
+
+    /**
+     * Constructs an empty store that compares vectors with the given kernel.
+     *
+     * @param kernel the kernel used for similarity.
+     */
+    public QuantizedEmbeddingStore(VectorKernel kernel) {
+        this.kernel = kernel;
+    }
+
+    /**
+     * Stores the embeddings of many projects at once, e.g. when loading a repository.
+     *
+     * @param embeddings the raw embeddings keyed by project id.
+     */
+    public void putAll(Map<Integer, float[]> embeddings) {
+        for (Map.Entry<Integer, float[]> entry : embeddings.entrySet()) {
+            put(entry.getKey(), entry.getValue());
+        }
+    }
+
+    /**
+     * Stores the quantized embedding of a project, replacing any previous one.
+     * Empty embeddings and embeddings whose dimension differs from the stored ones are not searchable.
+     *
+     * @param id the id of the project.
+     * @param embedding the raw embedding.
+     */
+    public void put(int id, float[] embedding) {
+        if (embedding.length == 0 || (dimension != -1 && embedding.length != dimension)) {
+            remove(id);
+            return;
+        }
+        if (dimension == -1) {
+            dimension = embedding.length;
+            codes = new byte[ids.length * dimension];
+        }
+        Integer slot = slotById.get(id);
+        if (slot == null) {
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, size * 2);
+                scales = Arrays.copyOf(scales, size * 2);
+                offsets = Arrays.copyOf(offsets, size * 2);
+                codes = Arrays.copyOf(codes, size * 2 * dimension);
+            }
+            slot = size++;
+            ids[slot] = id;
+            slotById.put(id, slot);
+        }
+        quantize(VectorKernels.normalize(embedding), slot);
+    }
+
+    /**
+     * Removes the embedding of a project.
+     *
+     * @param id the id of the project.
+     */
+    public void remove(int id) {
+        Integer slot = slotById.remove(id);
+        if (slot == null) {
+            return;
+        }
+        int last = --size;
+        if (slot != last) {
+            ids[slot] = ids[last];
+            scales[slot] = scales[last];
+            offsets[slot] = offsets[last];
+            System.arraycopy(codes, last * dimension, codes, slot * dimension, dimension);
+            slotById.put(ids[slot], slot);
+        }
+        if (size == 0) {
+            dimension = -1; // accept embeddings from a different model once the store is empty
+            codes = new byte[0];
+        }
+    }
+
+    /**
+     * Returns the sum of the components of a query, which {@link #similarity(float[], float, int)} needs to apply
+     * the per-row offset. Compute it once per query.
+     *
+     * @param normalizedQuery the query, normalized with {@link VectorKernels#normalize(float[])}.
+     * @return the sum of the components.
+     */
+    public static float componentSum(float[] normalizedQuery) {
+        float sum = 0;
+        for (float value : normalizedQuery) {
+            sum += value;
+        }
+        return sum;
+    }
+
+    /**
+     * Returns the estimated cosine similarity between a normalized query and the project stored in a slot.
+     *
+     * @param normalizedQuery the query, normalized with {@link VectorKernels#normalize(float[])}.
+     * @param querySum the {@link #componentSum(float[])} of the query.
+     * @param slot the slot of the project.
+     * @return the estimated cosine similarity.
+     */
+    public float similarity(float[] normalizedQuery, float querySum, int slot) {
+        return scales[slot] * kernel.dot(normalizedQuery, codes, slot * dimension, dimension)
+                + offsets[slot] * querySum;
+    }
+
+    /**
+     * Returns the id of the project stored in a slot.
+     *
+     * @param slot the slot, between 0 and {@link #size()} - 1.
+     * @return the project id.
+     */
+    public int idAt(int slot) {
+        return ids[slot];
+    }
+
+    /**
+     * Returns the number of stored projects.
+     *
+     * @return the number of projects.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Returns the dimension of the stored embeddings, or -1 if nothing was stored yet.
+     *
+     * @return the embedding dimension.
+     */
+    public int getDimension() {
+        return dimension;
+    }
+
+    /**
+     * Maps the range of a normalized row onto the codes -128 to 127.
+     */
+    private void quantize(float[] normalized, int slot) {
+        float min = Float.POSITIVE_INFINITY;
+        float max = Float.NEGATIVE_INFINITY;
+        for (float value : normalized) {
+            min = Math.min(min, value);
+            max = Math.max(max, value);
+        }
+        float scale = (max - min) / LEVELS;
+        int base = slot * dimension;
+        for (int i = 0; i < dimension; i++) {
+            int level = scale == 0 ? 0 : Math.round((normalized[i] - min) / scale);
+            codes[base + i] = (byte) (Math.min(level, LEVELS) - 128);
+        }
+        scales[slot] = scale;
+        offsets[slot] = min + 128 * scale;
+    }
+}
@@ -0,0 +1,418 @@
+package usecase.searchforproject.index;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Arrays;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Keeps, for every project, the {@code k} projects most similar to it: a k-nearest-neighbour graph over the project
+ * embeddings.
+ * <p>
+ * The lists are stored flat, {@code k} entries per slot, in one array of neighbour ids and one array of similarities
+ * quantized to 16 bits, so the graph takes {@code 6k} bytes per project and no object per project. Looking up a
+ * project is one probe of an {@link IdSlotMap} and a copy of its list. The slots of removed projects are reused.
+ * <p>
+ * The graph does not compute similarities. The caller sets each list, then reports changed similarities through
+ * {@link #offer(int, int, float)} and removed projects through {@link #removeNeighbor(int)}. Both return which lists
+ * may now miss a closer project and must be computed again. Within a list, a higher similarity ranks first and equal
+ * similarities rank the lower id first.
+ * <p>
+ * The graph can be written to a file with {@link #write(Path, long)} and read back with
+ * {@link #read(Path, RelatedProjectsGraph)}, so it does not have to be computed again on every launch. The file
+ * holds the magic "PSRG", the format version, {@code k}, the number of lists, the generation of the embeddings the
+ * lists were computed from, then for each list the project id, the number of entries, their ids and their quantized
+ * similarities.
+ * <p>
+ * Thread-safe: lookups share a read lock and updates take the write lock.
+ */
+public class RelatedProjectsGraph {
+    private static final int MAGIC = 0x50535247; // "PSRG"
+    private static final int VERSION = 1;
+    private static final float SCORE_SCALE = Short.MAX_VALUE;
+    private static final int INITIAL_CAPACITY = 16;
+
+    private final int k;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final IdSlotMap slotById = new IdSlotMap();
+    private int[] projectIds = new int[INITIAL_CAPACITY];
+    private int[] neighbors;
+    private short[] scores;
+    private byte[] counts = new byte[INITIAL_CAPACITY];
+    private int slotCount = 0;
+    private int[] freeSlots = new int[INITIAL_CAPACITY];
+    private int freeCount = 0;
+
+    /**
+     * Constructs an empty graph.
+     *
+     * @param k the number of neighbours kept per project, between 1 and 127.
+     */
+    public RelatedProjectsGraph(int k) {
+        if (k < 1 || k > Byte.MAX_VALUE) {
+            throw new IllegalArgumentException("The number of neighbours must be between 1 and " + Byte.MAX_VALUE);
+        }
+        this.k = k;
+        this.neighbors = new int[INITIAL_CAPACITY * k];
+        this.scores = new short[INITIAL_CAPACITY * k];
+    }
+
+    /**
+     * Replaces the list of a project with the best {@code k} of the given hits.
+     *
+     * @param id the id of the project.
+     * @param hits its most similar projects, best first, without the project itself.
+     */
+    public void setNeighbors(int id, SearchHits hits) {
+        lock.writeLock().lock();
+        try {
+            int slot = slotOf(id);
+            int count = Math.min(k, hits.size());
+            for (int i = 0; i < count; i++) {
+                neighbors[slot * k + i] = hits.ids()[i];
+                scores[slot * k + i] = quantize(hits.scores()[i]);
+            }
+            counts[slot] = (byte) count;
+            sort(slot);
+        }
+        finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Returns the list of a project.
+     *
+     * @param id the id of the project.
+     * @return its most similar projects, best first, with similarities rounded to 1/32767; empty if the project has
+     *         no list.
+     */
+    public SearchHits getNeighbors(int id) {
+        lock.readLock().lock();
+        try {
+            int slot = slotById.get(id);
+            if (slot == -1 || counts[slot] == 0) {
+                return SearchHits.EMPTY;
+            }
+            int count = counts[slot];
+            int[] ids = Arrays.copyOfRange(neighbors, slot * k, slot * k + count);
+            float[] similarities = new float[count];
+            for (int i = 0; i < count; i++) {
+                similarities[i] = scores[slot * k + i] / SCORE_SCALE;
+            }
+            return new SearchHits(ids, similarities);
+        }
+        finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Returns whether a project has a list.
+     *
+     * @param id the id of the project.
+     * @return true if the list of the project was set and not removed.
+     */
+    public boolean contains(int id) {
+        lock.readLock().lock();
+        try {
+            return slotById.get(id) != -1;
+        }
+        finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Reports the current similarity between a project and another one, e.g. after either was edited.
+     * The other project enters the list if it now ranks among the best {@code k}, and moves if it is already in it.
+     *
+     * @param id the id of the project whose list is updated.
+     * @param neighbor the id of the other project.
+     * @param similarity their current similarity.
+     * @return true if the other project was in a full list and fell below every previous entry, so that a project
+     *         outside the list may now rank above it and the list must be computed again.
+     */
+    public boolean offer(int id, int neighbor, float similarity) {
+        lock.writeLock().lock();
+        try {
+            int slot = slotById.get(id);
+            if (slot == -1 || id == neighbor) {
+                return false;
+            }
+            short score = quantize(similarity);
+            int base = slot * k;
+            int count = counts[slot];
+            int position = indexOf(slot, neighbor);
+            if (position != -1) {
+                short worst = scores[base + count - 1];
+                short previous = scores[base + position];
+                scores[base + position] = score;
+                sort(slot);
+                return count == k && score < previous && score < worst;
+            }
+            if (count < k) {
+                neighbors[base + count] = neighbor;
+                scores[base + count] = score;
+                counts[slot]++;
+                sort(slot);
+            }
+            else if (ranksBefore(neighbor, score, neighbors[base + k - 1], scores[base + k - 1])) {
+                neighbors[base + k - 1] = neighbor;
+                scores[base + k - 1] = score;
+                sort(slot);
+            }
+            return false;
+        }
+        finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Removes the list of a project. Other lists may still refer to it until {@link #removeNeighbor(int)}.
+     *
+     * @param id the id of the project.
+     * @return true if the project had a list.
+     */
+    public boolean remove(int id) {
+        lock.writeLock().lock();
+        try {
+            int slot = slotById.remove(id);
+            if (slot == -1) {
+                return false;
+            }
+            counts[slot] = 0;
+            if (freeCount == freeSlots.length) {
+                freeSlots = Arrays.copyOf(freeSlots, freeCount * 2);
+            }
+            freeSlots[freeCount++] = slot;
+            return true;
+        }
+        finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Removes a project from every list it is in.
+     *
+     * @param neighbor the id of the removed project.
+     * @return the ids of the projects whose list was full before, and may now miss a project that was just below it.
+     */
+    public int[] removeNeighbor(int neighbor) {
+        lock.writeLock().lock();
+        try {
+            int[] stale = new int[16];
+            int staleCount = 0;
+            for (int slot = 0; slot < slotCount; slot++) {
+                int position = indexOf(slot, neighbor);
+                if (position == -1) {
+                    continue;
+                }
+                int base = slot * k;
+                int count = counts[slot];
+                System.arraycopy(neighbors, base + position + 1, neighbors, base + position, count - position - 1);
+                System.arraycopy(scores, base + position + 1, scores, base + position, count - position - 1);
+                counts[slot]--;
+                if (count == k) {
+                    if (staleCount == stale.length) {
+                        stale = Arrays.copyOf(stale, staleCount * 2);
+                    }
+                    stale[staleCount++] = projectIds[slot];
+                }
+            }
+            return Arrays.copyOf(stale, staleCount);
+        }
+        finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Removes every list.
+     */
+    public void clear() {
+        lock.writeLock().lock();
+        try {
+            slotById.clear();
+            slotCount = 0;
+            freeCount = 0;
+        }
+        finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Returns the number of projects with a list.
+     *
+     * @return the number of projects.
+     */
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return slotCount - freeCount;
+        }
+        finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Writes every list to a file. The file is written under a temporary name and then moved into place, so a crash
+     * never leaves a truncated graph behind.
+     *
+     * @param file the graph file.
+     * @param generation identifies the embeddings the lists were computed from, returned by
+     *                   {@link #read(Path, RelatedProjectsGraph)}.
+     * @throws IOException if the file cannot be written.
+     */
+    public void write(Path file, long generation) throws IOException {
+        Path parent = file.toAbsolutePath().getParent();
+        Files.createDirectories(parent);
+        Path temporary = Files.createTempFile(parent, "related", ".tmp");
+        lock.readLock().lock();
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temporary)))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeInt(k);
+            out.writeInt(slotCount - freeCount);
+            out.writeLong(generation);
+            for (int slot = 0; slot < slotCount; slot++) {
+                if (slotById.get(projectIds[slot]) != slot) {
+                    continue; // a free slot
+                }
+                out.writeInt(projectIds[slot]);
+                out.writeByte(counts[slot]);
+                for (int i = slot * k; i < slot * k + counts[slot]; i++) {
+                    out.writeInt(neighbors[i]);
+                    out.writeShort(scores[i]);
+                }
+            }
+        } catch (IOException e) {
+            Files.deleteIfExists(temporary);
+            throw e;
+        }
+        finally {
+            lock.readLock().unlock();
+        }
+        Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Reads the lists written by {@link #write(Path, long)} into an empty graph.
+     *
+     * @param file the graph file.
+     * @param graph the empty graph to fill, with the {@code k} the file was written with.
+     * @return the generation the file was written with.
+     * @throws IOException if the file cannot be read, is not a graph file or was written with another {@code k}.
+     */
+    public static long read(Path file, RelatedProjectsGraph graph) throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+                throw new IOException("Not a related projects file: " + file);
+            }
+            if (in.readInt() != graph.k) {
+                throw new IOException("Related projects file was written with another number of neighbours");
+            }
+            int count = in.readInt();
+            long generation = in.readLong();
+            for (int n = 0; n < count; n++) {
+                int id = in.readInt();
+                int size = in.readByte();
+                if (size < 0 || size > graph.k) {
+                    throw new IOException("Corrupt related projects file: " + file);
+                }
+                int[] ids = new int[size];
+                float[] similarities = new float[size];
+                for (int i = 0; i < size; i++) {
+                    ids[i] = in.readInt();
+                    similarities[i] = in.readShort() / SCORE_SCALE;
+                }
+                graph.setNeighbors(id, new SearchHits(ids, similarities));
+            }
+            return generation;
+        }
+    }
+
+    /**
+     * Returns the number of neighbours kept per project.
+     *
+     * @return k.
+     */
+    public int getK() {
+        return k;
+    }
+
+    /**
+     * Returns the slot of a project, assigning it a free or new slot if it has none.
+     */
+    private int slotOf(int id) {
+        int slot = slotById.get(id);
+        if (slot != -1) {
+            return slot;
+        }
+        if (freeCount > 0) {
+            slot = freeSlots[--freeCount];
+        }
+        else {
+            if (slotCount == projectIds.length) {
+                int capacity = slotCount * 2;
+                projectIds = Arrays.copyOf(projectIds, capacity);
+                counts = Arrays.copyOf(counts, capacity);
+                neighbors = Arrays.copyOf(neighbors, capacity * k);
+                scores = Arrays.copyOf(scores, capacity * k);
+            }
+            slot = slotCount++;
+        }
+        projectIds[slot] = id;
+        counts[slot] = 0;
+        slotById.put(id, slot);
+        return slot;
+    }
+
+    private int indexOf(int slot, int neighbor) {
+        int base = slot * k;
+        for (int i = 0; i < counts[slot]; i++) {
+            if (neighbors[base + i] == neighbor) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Sorts the list in a slot, best first. Insertion sort, since lists are short and at most one entry is out of
+     * place after an update.
+     */
+    private void sort(int slot) {
+        int base = slot * k;
+        for (int i = base + 1; i < base + counts[slot]; i++) {
+            int id = neighbors[i];
+            short score = scores[i];
+            int j = i - 1;
+            while (j >= base && ranksBefore(id, score, neighbors[j], scores[j])) {
+                neighbors[j + 1] = neighbors[j];
+                scores[j + 1] = scores[j];
+                j--;
+            }
+            neighbors[j + 1] = id;
+            scores[j + 1] = score;
+        }
+    }
+
+    private static boolean ranksBefore(int id, short score, int otherId, short otherScore) {
+        return score > otherScore || (score == otherScore && id < otherId);
+    }
+
+    private static short quantize(float similarity) {
+        return (short) Math.round(Math.max(-1f, Math.min(1f, similarity)) * SCORE_SCALE);
+    }
+}
@@ -0,0 +1,131 @@
+package usecase.searchforproject.index;
+
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.ValueLayout;
+
+/**
+ * Portable dot-product kernel. Used when the JDK Vector API is not available.
+ * The loop keeps four independent sums so the JIT can overlap the multiplications.
+ */
+public class ScalarVectorKernel implements VectorKernel {
+
+    /**
+     * Returns the dot product of two vectors of equal length.
+     *
+     * @param a the first vector.
+     * @param b the second vector.
+     * @return the dot product.
+     */
+    @Override
+    public float dot(float[] a, float[] b) {
+        return dot(a, 0, b, 0, a.length);
+    }
+
+    /**
+     * Returns the dot product of two slices of equal length.
+     *
+     * @param a the first array.
+     * @param aOffset the start of the slice in the first array.
+     * @param b the second array.
+     * @param bOffset the start of the slice in the second array.
+     * @param length the length of both slices.
+     * @return the dot product.
+     */
+    @Override
+    public float dot(float[] a, int aOffset, float[] b, int bOffset, int length) {
+        float sum0 = 0;
+        float sum1 = 0;
+        float sum2 = 0;
+        float sum3 = 0;
+        int i = 0;
+        for (; i + 3 < length; i += 4) {
+            sum0 += a[aOffset + i] * b[bOffset + i];
+            sum1 += a[aOffset + i + 1] * b[bOffset + i + 1];
+            sum2 += a[aOffset + i + 2] * b[bOffset + i + 2];
+            sum3 += a[aOffset + i + 3] * b[bOffset + i + 3];
+        }
+        for (; i < length; i++) {
+            sum0 += a[aOffset + i] * b[bOffset + i];
+        }
+        return (sum0 + sum1) + (sum2 + sum3);
+    }
+
+    /**
+     * Returns the dot product of a vector with a slice of int8 codes.
+     *
+     * @param a the vector.
+     * @param codes the array of codes.
+     * @param codeOffset the start of the slice of codes.
+     * @param length the length of the vector and of the slice.
+     * @return the dot product.
+     */
+    @Override
+    public float dot(float[] a, byte[] codes, int codeOffset, int length) {
+        float sum0 = 0;
+        float sum1 = 0;
+        float sum2 = 0;
+        float sum3 = 0;
+        int i = 0;
+        for (; i + 3 < length; i += 4) {
+            sum0 += a[i] * codes[codeOffset + i];
+            sum1 += a[i + 1] * codes[codeOffset + i + 1];
+            sum2 += a[i + 2] * codes[codeOffset + i + 2];
+            sum3 += a[i + 3] * codes[codeOffset + i + 3];
+        }
+        for (; i < length; i++) {
+            sum0 += a[i] * codes[codeOffset + i];
+        }
+        return (sum0 + sum1) + (sum2 + sum3);
+    }
+
+    /**
+     * Returns the dot product of a vector with floats stored in native memory.
+     *
+     * @param a the vector.
+     * @param segment the memory holding the floats in native byte order.
+     * @param byteOffset the offset of the first float in the segment, in bytes.
+     * @param length the length of the vector and the number of floats to read.
+     * @return the dot product.
+     */
+    @Override
+    public float dot(float[] a, MemorySegment segment, long byteOffset, int length) {
+        float sum0 = 0;
+        float sum1 = 0;
+        float sum2 = 0;
+        float sum3 = 0;
+        int i = 0;
+        for (; i + 3 < length; i += 4) {
+            long offset = byteOffset + (long) i * Float.BYTES;
+            sum0 += a[i] * segment.get(ValueLayout.JAVA_FLOAT, offset);
+            sum1 += a[i + 1] * segment.get(ValueLayout.JAVA_FLOAT, offset + Float.BYTES);
+            sum2 += a[i + 2] * segment.get(ValueLayout.JAVA_FLOAT, offset + 2 * Float.BYTES);
+            sum3 += a[i + 3] * segment.get(ValueLayout.JAVA_FLOAT, offset + 3 * Float.BYTES);
+        }
+        for (; i < length; i++) {
+            sum0 += a[i] * segment.get(ValueLayout.JAVA_FLOAT, byteOffset + (long) i * Float.BYTES);
+        }
+        return (sum0 + sum1) + (sum2 + sum3);
+    }
+
+    /**
+     * Computes the dot products of four vectors with the same floats stored in native memory.
+     * Computes them one after the other: the row is still in the L1 cache for the last three.
+     *
+     * @param a0 the first vector.
+     * @param a1 the second vector.
+     * @param a2 the third vector.
+     * @param a3 the fourth vector.
+     * @param segment the memory holding the floats in native byte order.
+     * @param byteOffset the offset of the first float in the segment, in bytes.
+     * @param length the length of the vectors and the number of floats to read.
+     * @param result receives the four dot products, in the order of the vectors.
+     */
+    @Override
+    public void dot4(float[] a0, float[] a1, float[] a2, float[] a3, MemorySegment segment, long byteOffset,
+                     int length, float[] result) {
+        result[0] = dot(a0, segment, byteOffset, length);
+        result[1] = dot(a1, segment, byteOffset, length);
+        result[2] = dot(a2, segment, byteOffset, length);
+        result[3] = dot(a3, segment, byteOffset, length);
+    }
+}
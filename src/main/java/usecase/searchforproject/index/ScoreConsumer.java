@@ -0,0 +1,16 @@
+package usecase.searchforproject.index;
+
+/**
+ * Receives the similarity of each project visited by a scan, without boxing.
+ */
+@FunctionalInterface
+public interface ScoreConsumer {
+
+    /**
+     * Accepts the similarity of one project.
+     *
+     * @param id the project id.
+     * @param score the similarity of the project to the query.
+     */
+    void accept(int id, float score);
+}
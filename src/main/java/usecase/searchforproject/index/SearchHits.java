@@ -0,0 +1,24 @@
+package usecase.searchforproject.index;
+
+/**
+ * Immutable result of a vector search, ordered from the most to the least similar project.
+ *
+ * @param ids the ids of the matched projects.
+ * @param scores the cosine similarity of each matched project, aligned with {@code ids}.
+ */
+public record SearchHits(int[] ids, float[] scores) {
+
+    /**
+     * An empty result.
+     */
+    public static final SearchHits EMPTY = new SearchHits(new int[0], new float[0]);
+
+    /**
+     * Returns the number of hits.
+     *
+     * @return the number of hits.
+     */
+    public int size() {
+        return ids.length;
+    }
+}
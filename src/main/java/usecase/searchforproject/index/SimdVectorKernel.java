@@ -0,0 +1,222 @@
+package usecase.searchforproject.index;
+
+import jdk.incubator.vector.ByteVector;
+import jdk.incubator.vector.FloatVector;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorShape;
+import jdk.incubator.vector.VectorSpecies;
+
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.ValueLayout;
+import java.nio.ByteOrder;
+
+/**
+ * Dot-product kernel using the JDK Vector API ({@code jdk.incubator.vector}).
+ * Only loaded through {@link VectorKernels} when the incubator module is present at runtime.
+ */
+public class SimdVectorKernel implements VectorKernel {
+    private static final VectorSpecies<Float> SPECIES = FloatVector.SPECIES_PREFERRED;
+    private static final VectorSpecies<Byte> BYTE_SPECIES = byteSpecies();
+    private static final ScalarVectorKernel SCALAR = new ScalarVectorKernel();
+
+    /**
+     * Returns the dot product of two vectors of equal length.
+     *
+     * @param a the first vector.
+     * @param b the second vector.
+     * @return the dot product.
+     */
+    @Override
+    public float dot(float[] a, float[] b) {
+        return dot(a, 0, b, 0, a.length);
+    }
+
+    /**
+     * Returns the dot product of two slices of equal length.
+     *
+     * @param a the first array.
+     * @param aOffset the start of the slice in the first array.
+     * @param b the second array.
+     * @param bOffset the start of the slice in the second array.
+     * @param length the length of both slices.
+     * @return the dot product.
+     */
+    @Override
+    public float dot(float[] a, int aOffset, float[] b, int bOffset, int length) {
+        int step = SPECIES.length();
+        FloatVector sum0 = FloatVector.zero(SPECIES);
+        FloatVector sum1 = FloatVector.zero(SPECIES);
+        int i = 0;
+        for (; i + 2 * step <= length; i += 2 * step) {
+            sum0 = FloatVector.fromArray(SPECIES, a, aOffset + i)
+                    .fma(FloatVector.fromArray(SPECIES, b, bOffset + i), sum0);
+            sum1 = FloatVector.fromArray(SPECIES, a, aOffset + i + step)
+                    .fma(FloatVector.fromArray(SPECIES, b, bOffset + i + step), sum1);
+        }
+        for (; i + step <= length; i += step) {
+            sum0 = FloatVector.fromArray(SPECIES, a, aOffset + i)
+                    .fma(FloatVector.fromArray(SPECIES, b, bOffset + i), sum0);
+        }
+        float sum = sum0.add(sum1).reduceLanes(VectorOperators.ADD);
+        for (; i < length; i++) {
+            sum += a[aOffset + i] * b[bOffset + i];
+        }
+        return sum;
+    }
+
+    /**
+     * Returns the dot product of a vector with a slice of int8 codes.
+     * The codes are widened to floats one register at a time, so the loop runs at the same width as the float dot
+     * product while reading a quarter of the memory.
+     *
+     * @param a the vector.
+     * @param codes the array of codes.
+     * @param codeOffset the start of the slice of codes.
+     * @param length the length of the vector and of the slice.
+     * @return the dot product.
+     */
+    @Override
+    public float dot(float[] a, byte[] codes, int codeOffset, int length) {
+        if (BYTE_SPECIES == null) {
+            return SCALAR.dot(a, codes, codeOffset, length);
+        }
+        int step = SPECIES.length();
+        FloatVector sum0 = FloatVector.zero(SPECIES);
+        FloatVector sum1 = FloatVector.zero(SPECIES);
+        int i = 0;
+        for (; i + 2 * step <= length; i += 2 * step) {
+            sum0 = FloatVector.fromArray(SPECIES, a, i).fma(widen(codes, codeOffset + i), sum0);
+            sum1 = FloatVector.fromArray(SPECIES, a, i + step).fma(widen(codes, codeOffset + i + step), sum1);
+        }
+        for (; i + step <= length; i += step) {
+            sum0 = FloatVector.fromArray(SPECIES, a, i).fma(widen(codes, codeOffset + i), sum0);
+        }
+        float sum = sum0.add(sum1).reduceLanes(VectorOperators.ADD);
+        for (; i < length; i++) {
+            sum += a[i] * codes[codeOffset + i];
+        }
+        return sum;
+    }
+
+    /**
+     * Returns the dot product of a vector with floats stored in native memory.
+     *
+     * @param a the vector.
+     * @param segment the memory holding the floats in native byte order.
+     * @param byteOffset the offset of the first float in the segment, in bytes.
+     * @param length the length of the vector and the number of floats to read.
+     * @return the dot product.
+     */
+    @Override
+    public float dot(float[] a, MemorySegment segment, long byteOffset, int length) {
+        int step = SPECIES.length();
+        long stepBytes = (long) step * Float.BYTES;
+        ByteOrder order = ByteOrder.nativeOrder();
+        FloatVector sum0 = FloatVector.zero(SPECIES);
+        FloatVector sum1 = FloatVector.zero(SPECIES);
+        int i = 0;
+        long offset = byteOffset;
+        for (; i + 2 * step <= length; i += 2 * step, offset += 2 * stepBytes) {
+            sum0 = FloatVector.fromArray(SPECIES, a, i)
+                    .fma(FloatVector.fromMemorySegment(SPECIES, segment, offset, order), sum0);
+            sum1 = FloatVector.fromArray(SPECIES, a, i + step)
+                    .fma(FloatVector.fromMemorySegment(SPECIES, segment, offset + stepBytes, order), sum1);
+        }
+        for (; i + step <= length; i += step, offset += stepBytes) {
+            sum0 = FloatVector.fromArray(SPECIES, a, i)
+                    .fma(FloatVector.fromMemorySegment(SPECIES, segment, offset, order), sum0);
+        }
+        float sum = sum0.add(sum1).reduceLanes(VectorOperators.ADD);
+        for (; i < length; i++, offset += Float.BYTES) {
+            sum += a[i] * segment.get(ValueLayout.JAVA_FLOAT, offset);
+        }
+        return sum;
+    }
+
+    /**
+     * Computes the dot products of four vectors with the same floats stored in native memory.
+     * Each register of the row is loaded once and multiplied into the accumulators of all four vectors. The
+     * accumulators are split and summed as in {@link #dot(float[], MemorySegment, long, int)}, so each result is
+     * exactly the single dot product.
+     *
+     * @param a0 the first vector.
+     * @param a1 the second vector.
+     * @param a2 the third vector.
+     * @param a3 the fourth vector.
+     * @param segment the memory holding the floats in native byte order.
+     * @param byteOffset the offset of the first float in the segment, in bytes.
+     * @param length the length of the vectors and the number of floats to read.
+     * @param result receives the four dot products, in the order of the vectors.
+     */
+    @Override
+    public void dot4(float[] a0, float[] a1, float[] a2, float[] a3, MemorySegment segment, long byteOffset,
+                     int length, float[] result) {
+        int step = SPECIES.length();
+        long stepBytes = (long) step * Float.BYTES;
+        ByteOrder order = ByteOrder.nativeOrder();
+        FloatVector sum00 = FloatVector.zero(SPECIES);
+        FloatVector sum01 = FloatVector.zero(SPECIES);
+        FloatVector sum10 = FloatVector.zero(SPECIES);
+        FloatVector sum11 = FloatVector.zero(SPECIES);
+        FloatVector sum20 = FloatVector.zero(SPECIES);
+        FloatVector sum21 = FloatVector.zero(SPECIES);
+        FloatVector sum30 = FloatVector.zero(SPECIES);
+        FloatVector sum31 = FloatVector.zero(SPECIES);
+        int i = 0;
+        long offset = byteOffset;
+        for (; i + 2 * step <= length; i += 2 * step, offset += 2 * stepBytes) {
+            FloatVector row0 = FloatVector.fromMemorySegment(SPECIES, segment, offset, order);
+            FloatVector row1 = FloatVector.fromMemorySegment(SPECIES, segment, offset + stepBytes, order);
+            sum00 = FloatVector.fromArray(SPECIES, a0, i).fma(row0, sum00);
+            sum01 = FloatVector.fromArray(SPECIES, a0, i + step).fma(row1, sum01);
+            sum10 = FloatVector.fromArray(SPECIES, a1, i).fma(row0, sum10);
+            sum11 = FloatVector.fromArray(SPECIES, a1, i + step).fma(row1, sum11);
+            sum20 = FloatVector.fromArray(SPECIES, a2, i).fma(row0, sum20);
+            sum21 = FloatVector.fromArray(SPECIES, a2, i + step).fma(row1, sum21);
+            sum30 = FloatVector.fromArray(SPECIES, a3, i).fma(row0, sum30);
+            sum31 = FloatVector.fromArray(SPECIES, a3, i + step).fma(row1, sum31);
+        }
+        for (; i + step <= length; i += step, offset += stepBytes) {
+            FloatVector row = FloatVector.fromMemorySegment(SPECIES, segment, offset, order);
+            sum00 = FloatVector.fromArray(SPECIES, a0, i).fma(row, sum00);
+            sum10 = FloatVector.fromArray(SPECIES, a1, i).fma(row, sum10);
+            sum20 = FloatVector.fromArray(SPECIES, a2, i).fma(row, sum20);
+            sum30 = FloatVector.fromArray(SPECIES, a3, i).fma(row, sum30);
+        }
+        float sum0 = sum00.add(sum01).reduceLanes(VectorOperators.ADD);
+        float sum1 = sum10.add(sum11).reduceLanes(VectorOperators.ADD);
+        float sum2 = sum20.add(sum21).reduceLanes(VectorOperators.ADD);
+        float sum3 = sum30.add(sum31).reduceLanes(VectorOperators.ADD);
+        for (; i < length; i++, offset += Float.BYTES) {
+            float value = segment.get(ValueLayout.JAVA_FLOAT, offset);
+            sum0 += a0[i] * value;
+            sum1 += a1[i] * value;
+            sum2 += a2[i] * value;
+            sum3 += a3[i] * value;
+        }
+        result[0] = sum0;
+        result[1] = sum1;
+        result[2] = sum2;
+        result[3] = sum3;
+    }
+
+    /**
+     * Loads one register worth of codes and converts them to floats.
+     */
+    private static FloatVector widen(byte[] codes, int offset) {
+        return (FloatVector) ByteVector.fromArray(BYTE_SPECIES, codes, offset)
+                .convertShape(VectorOperators.B2F, SPECIES, 0);
+    }
+
+    /**
+     * Returns the byte species with as many lanes as the float species, or null if the platform has no vector
+     * shape that small (e.g. 128-bit registers would need 32-bit byte vectors).
+     */
+    private static VectorSpecies<Byte> byteSpecies() {
+        try {
+            return VectorSpecies.of(byte.class, VectorShape.forBitSize(SPECIES.length() * Byte.SIZE));
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+}
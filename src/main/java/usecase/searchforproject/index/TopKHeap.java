@@ -0,0 +1,168 @@
+package usecase.searchforproject.index;
+
+import java.util.Arrays;
+
+/**
+ * Bounded min-heap of (project id, score) pairs that keeps the {@code capacity} best scores offered to it.
+ * Ids and scores live in parallel primitive arrays, so offering a score never boxes or allocates.
+ * <p>
+ * A higher score ranks first; equal scores rank the lower project id first, so results are deterministic.
+ * Heaps are reused across queries: {@link #forCurrentThread(int)} hands out one heap per thread.
+ */
+public class TopKHeap {
+    private static final ThreadLocal<TopKHeap> THREAD_HEAP = ThreadLocal.withInitial(() -> new TopKHeap(16));
+
+    private int[] ids;
+    private float[] scores;
+    private int capacity;
+    private int size = 0;
+
+    /**
+     * Constructs an empty heap keeping at most {@code capacity} entries.
+     *
+     * @param capacity the number of entries to keep.
+     */
+    public TopKHeap(int capacity) {
+        ids = new int[Math.max(capacity, 1)];
+        scores = new float[ids.length];
+        this.capacity = capacity;
+    }
+
+    /**
+     * Returns the calling thread's heap, emptied and resized to keep at most {@code capacity} entries.
+     * The heap must not be used after the thread starts another query.
+     *
+     * @param capacity the number of entries to keep.
+     * @return the heap of the calling thread.
+     */
+    public static TopKHeap forCurrentThread(int capacity) {
+        TopKHeap heap = THREAD_HEAP.get();
+        heap.reset(capacity);
+        return heap;
+    }
+
+    /**
+     * Empties the heap and changes the number of entries it keeps, growing its buffers if needed.
+     *
+     * @param capacity the number of entries to keep.
+     */
+    public void reset(int capacity) {
+        if (capacity > ids.length) {
+            int length = Math.max(capacity, ids.length * 2);
+            ids = new int[length];
+            scores = new float[length];
+        }
+        this.capacity = capacity;
+        size = 0;
+    }
+
+    /**
+     * Offers a project to the heap. It is kept if the heap is not full or if it ranks above the worst kept entry.
+     *
+     * @param id the project id.
+     * @param score the similarity of the project.
+     */
+    public void offer(int id, float score) {
+        if (size < capacity) {
+            ids[size] = id;
+            scores[size] = score;
+            siftUp(size++);
+        }
+        else if (capacity > 0 && ranksBefore(id, score, ids[0], scores[0])) {
+            ids[0] = id;
+            scores[0] = score;
+            siftDown(0, size);
+        }
+    }
+
+    /**
+     * Returns whether the heap holds {@code capacity} entries, after which only better entries get in.
+     *
+     * @return true if the heap is full.
+     */
+    public boolean isFull() {
+        return size >= capacity;
+    }
+
+    /**
+     * Returns the lowest score kept, which a new entry must beat once the heap is full.
+     *
+     * @return the worst kept score, or negative infinity if the heap is empty.
+     */
+    public float worstScore() {
+        return size == 0 ? Float.NEGATIVE_INFINITY : scores[0];
+    }
+
+    /**
+     * Returns the number of entries kept.
+     *
+     * @return the number of entries.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Sorts the kept entries best first and returns those from {@code offset} on.
+     * The heap is empty afterwards.
+     *
+     * @param offset the number of best entries to skip.
+     * @return the ranked entries after the offset.
+     */
+    public SearchHits drainSorted(int offset) {
+        int count = size;
+        // Heap sort: moving the worst entry to the end each time leaves the best one at index 0.
+        for (int end = count - 1; end > 0; end--) {
+            swap(0, end);
+            siftDown(0, end);
+        }
+        size = 0;
+        if (offset >= count) {
+            return SearchHits.EMPTY;
+        }
+        return new SearchHits(Arrays.copyOfRange(ids, offset, count), Arrays.copyOfRange(scores, offset, count));
+    }
+
+    private static boolean ranksBefore(int id, float score, int otherId, float otherScore) {
+        return score > otherScore || (score == otherScore && id < otherId);
+    }
+
+    private void siftUp(int index) {
+        while (index > 0) {
+            int parent = (index - 1) >>> 1;
+            if (!ranksBefore(ids[parent], scores[parent], ids[index], scores[index])) {
+                return;
+            }
+            swap(index, parent);
+            index = parent;
+        }
+    }
+
+    private void siftDown(int index, int end) {
+        while (true) {
+            int worst = index;
+            int left = 2 * index + 1;
+            int right = left + 1;
+            if (left < end && ranksBefore(ids[worst], scores[worst], ids[left], scores[left])) {
+                worst = left;
+            }
+            if (right < end && ranksBefore(ids[worst], scores[worst], ids[right], scores[right])) {
+                worst = right;
+            }
+            if (worst == index) {
+                return;
+            }
+            swap(index, worst);
+            index = worst;
+        }
+    }
+
+    private void swap(int a, int b) {
+        int id = ids[a];
+        ids[a] = ids[b];
+        ids[b] = id;
+        float score = scores[a];
+        scores[a] = scores[b];
+        scores[b] = score;
+    }
+}
@@ -0,0 +1,74 @@
+package usecase.searchforproject.index;
+
+import java.lang.foreign.MemorySegment;
+
+/**
+ * Dot-product kernel used to compare embeddings.
+ * Embeddings are normalized before they reach the kernel, so a dot product is their cosine similarity.
+ */
+public interface VectorKernel {
+
+    /**
+     * Returns the dot product of two vectors of equal length.
+     *
+     * @param a the first vector.
+     * @param b the second vector.
+     * @return the dot product.
+     */
+    float dot(float[] a, float[] b);
+
+    /**
+     * Returns the dot product of two slices of equal length.
+     * Used to compare a query with one row of a contiguous embedding matrix.
+     *
+     * @param a the first array.
+     * @param aOffset the start of the slice in the first array.
+     * @param b the second array.
+     * @param bOffset the start of the slice in the second array.
+     * @param length the length of both slices.
+     * @return the dot product.
+     */
+    float dot(float[] a, int aOffset, float[] b, int bOffset, int length);
+
+    /**
+     * Returns the dot product of a vector with a slice of int8 codes, each code taken as its integer value.
+     * Used to compare a query with one row of a quantized embedding matrix.
+     *
+     * @param a the vector.
+     * @param codes the array of codes.
+     * @param codeOffset the start of the slice of codes.
+     * @param length the length of the vector and of the slice.
+     * @return the dot product.
+     */
+    float dot(float[] a, byte[] codes, int codeOffset, int length);
+
+    /**
+     * Returns the dot product of a vector with floats stored in native memory.
+     * Used to compare a query with one row of an {@link OffHeapEmbeddingArena}.
+     *
+     * @param a the vector.
+     * @param segment the memory holding the floats in native byte order.
+     * @param byteOffset the offset of the first float in the segment, in bytes.
+     * @param length the length of the vector and the number of floats to read.
+     * @return the dot product.
+     */
+    float dot(float[] a, MemorySegment segment, long byteOffset, int length);
+
+    /**
+     * Computes the dot products of four vectors with the same floats stored in native memory.
+     * Used to compare a block of queries with one row of an {@link OffHeapEmbeddingArena}: the row is read once
+     * for all four queries. Each result equals what {@link #dot(float[], MemorySegment, long, int)} returns for
+     * that vector.
+     *
+     * @param a0 the first vector.
+     * @param a1 the second vector.
+     * @param a2 the third vector.
+     * @param a3 the fourth vector.
+     * @param segment the memory holding the floats in native byte order.
+     * @param byteOffset the offset of the first float in the segment, in bytes.
+     * @param length the length of the vectors and the number of floats to read.
+     * @param result receives the four dot products, in the order of the vectors.
+     */
+    void dot4(float[] a0, float[] a1, float[] a2, float[] a3, MemorySegment segment, long byteOffset, int length,
+              float[] result);
+}
@@ -0,0 +1,69 @@
+package usecase.searchforproject.index;
+
+/**
+ * Chooses the fastest available {@link VectorKernel} and provides vector helpers shared by the indexes.
+ */
+public class VectorKernels {
+    private static final String VECTOR_MODULE = "jdk.incubator.vector";
+    private static final VectorKernel DEFAULT_KERNEL = loadKernel();
+
+    // This class should not be instantiated
+    private VectorKernels() { }
+
+    /**
+     * Returns the SIMD kernel if the JVM was started with {@code --add-modules jdk.incubator.vector},
+     * and the scalar kernel otherwise.
+     *
+     * @return the default kernel.
+     */
+    public static VectorKernel getDefault() {
+        return DEFAULT_KERNEL;
+    }
+
+    /**
+     * Returns whether the default kernel uses the Vector API.
+     *
+     * @return true if SIMD is in use.
+     */
+    public static boolean isSimd() {
+        return !(DEFAULT_KERNEL instanceof ScalarVectorKernel);
+    }
+
+    /**
+     * Returns a unit-length copy of the vector. A zero vector is returned unchanged.
+     *
+     * @param vector the vector to normalize.
+     * @return the normalized copy.
+     */
+    public static float[] normalize(float[] vector) {
+        double norm = 0;
+        for (float value : vector) {
+            norm += value * value;
+        }
+        float[] normalized = new float[vector.length];
+        if (norm == 0) {
+            return normalized;
+        }
+        float scale = (float) (1 / Math.sqrt(norm));
+        for (int i = 0; i < vector.length; i++) {
+            normalized[i] = vector[i] * scale;
+        }
+        return normalized;
+    }
+
+    /**
+     * Loads the SIMD kernel reflectively so that this class links even when the incubator module is absent.
+     */
+    private static VectorKernel loadKernel() {
+        if (ModuleLayer.boot().findModule(VECTOR_MODULE).isPresent()) {
+            try {
+                return (VectorKernel) Class.forName("usecase.searchforproject.index.SimdVectorKernel")
+                        .getDeclaredConstructor()
+                        .newInstance();
+            } catch (ReflectiveOperationException | LinkageError e) {
+                System.err.println("Vector API unavailable, using scalar similarity kernel: " + e.getMessage());
+            }
+        }
+        return new ScalarVectorKernel();
+    }
+}
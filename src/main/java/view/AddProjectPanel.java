@@ -19,6 +19,7 @@ import java.awt.event.ActionListener;
 import java.beans.PropertyChangeEvent;
 import java.beans.PropertyChangeListener;
 import java.util.HashSet;
+import java.util.List;
 
 /**
  * Panel for adding a new project.
@@ -158,7 +159,14 @@ public class AddProjectPanel extends JPanel implements ActionListener, PropertyC
             if (success){
                 String message = "Project " + projectName + " created successfully";
                 playVoiceService.playVoice(message);
-                JOptionPane.showMessageDialog(null, message, "Success", JOptionPane.INFORMATION_MESSAGE);
+                List<String> similarProjectTitles = addProjectPanelViewModel.getSimilarProjectTitles();
+                if (similarProjectTitles.isEmpty()) {
+                    JOptionPane.showMessageDialog(null, message, "Success", JOptionPane.INFORMATION_MESSAGE);
+                }
+                else {
+                    JOptionPane.showMessageDialog(null, message + ", but it is very similar to: "
+                            + String.join(", ", similarProjectTitles), "Similar projects", JOptionPane.WARNING_MESSAGE);
+                }
                 clearPanel();
                 viewManagerModel.addProjectEvent();
             }
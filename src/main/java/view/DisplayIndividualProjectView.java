@@ -2,14 +2,22 @@ package view;
 
 import entities.ProjectInterface;
 import config.HoverVoiceServiceConfig;
+import usecase.relatedprojects.RelatedProject;
+import usecase.relatedprojects.RelatedProjectsController;
 import view.services.hovervoice.IHoverVoiceService;
+import viewmodel.RelatedProjectsViewModel;
 
 import javax.swing.*;
 import java.awt.*;
 import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
+import java.awt.event.MouseAdapter;
+import java.awt.event.MouseEvent;
+import java.awt.event.WindowAdapter;
+import java.awt.event.WindowEvent;
 import java.beans.PropertyChangeEvent;
 import java.beans.PropertyChangeListener;
+import java.util.ArrayList;
 
 /**
  * A view for displaying the details of an individual project.
@@ -21,8 +29,11 @@ public class DisplayIndividualProjectView extends JFrame implements ActionListen
     final JLabel tagsField;
     JTextArea projectDescriptionArea;
     final JLabel projectID;
+    final DefaultListModel<String> relatedProjectsListModel = new DefaultListModel<>();
 
     IHoverVoiceService hoverVoiceService;
+    private int projectId;
+    private ArrayList<RelatedProject> relatedProjects = new ArrayList<>();
 
     /**
      * Constructs a DisplayIndividualProjectView.
@@ -35,6 +46,7 @@ public class DisplayIndividualProjectView extends JFrame implements ActionListen
         setLayout(new BorderLayout());
         setDefaultCloseOperation(JFrame.DISPOSE_ON_CLOSE);
 
+        this.projectId = project.getProjectId();
         JPanel detailsPanel = new JPanel();
         detailsPanel.setLayout(new BoxLayout(detailsPanel, BoxLayout.Y_AXIS));
 
@@ -77,6 +89,46 @@ public class DisplayIndividualProjectView extends JFrame implements ActionListen
         this.setVisible(true);
     }
 
+    /**
+     * Constructs a DisplayIndividualProjectView that also lists the projects most similar to the displayed one.
+     * Double-clicking a similar project opens it in a view of its own.
+     *
+     * @param project the project to display
+     * @param relatedProjectsViewModel the view model of the related projects
+     * @param relatedProjectsController the controller for showing related projects
+     */
+    public DisplayIndividualProjectView(ProjectInterface project, RelatedProjectsViewModel relatedProjectsViewModel,
+                                        RelatedProjectsController relatedProjectsController) {
+        this(project);
+        JPanel relatedPanel = new JPanel(new BorderLayout());
+        relatedPanel.add(new JLabel("Similar projects:"), BorderLayout.NORTH);
+        JList<String> relatedProjectsList = new JList<>(relatedProjectsListModel);
+        relatedProjectsList.setVisibleRowCount(5);
+        relatedProjectsList.addMouseListener(new MouseAdapter() {
+            @Override
+            public void mouseClicked(MouseEvent e) {
+                int index = relatedProjectsList.getSelectedIndex();
+                if (e.getClickCount() == 2 && index >= 0 && index < relatedProjects.size()) {
+                    new DisplayIndividualProjectView(relatedProjects.get(index).project(), relatedProjectsViewModel,
+                            relatedProjectsController);
+                }
+            }
+        });
+        hoverVoiceService.addHoverVoice(relatedProjectsList, "Double-click a similar project to view its details");
+        relatedPanel.add(new JScrollPane(relatedProjectsList), BorderLayout.CENTER);
+        add(relatedPanel, BorderLayout.SOUTH);
+        revalidate();
+
+        relatedProjectsViewModel.addPropertyChangeListener(this);
+        addWindowListener(new WindowAdapter() {
+            @Override
+            public void windowClosed(WindowEvent e) {
+                relatedProjectsViewModel.removePropertyChangeListener(DisplayIndividualProjectView.this);
+            }
+        });
+        relatedProjectsController.showRelatedProjects(projectId);
+    }
+
     @Override
     public void actionPerformed(ActionEvent e) {
         // No implementation needed
@@ -88,5 +140,14 @@ public class DisplayIndividualProjectView extends JFrame implements ActionListen
             ProjectInterface project = (ProjectInterface) evt.getNewValue();
             projectTitleField.setText(project.getProjectTitle());
         }
+        else if (evt.getPropertyName().equals("relatedProjects") && evt.getNewValue().equals(projectId)) {
+            RelatedProjectsViewModel viewModel = (RelatedProjectsViewModel) evt.getSource();
+            relatedProjects = viewModel.getRelatedProjects();
+            relatedProjectsListModel.clear();
+            for (RelatedProject related : relatedProjects) {
+                relatedProjectsListModel.addElement(String.format("%s (%.0f%% similar)",
+                        related.project().getProjectTitle(), related.similarity() * 100));
+            }
+        }
     }
 }
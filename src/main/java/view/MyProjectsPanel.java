@@ -2,6 +2,7 @@ package view;
 
 import config.HoverVoiceServiceConfig;
 import config.PlayVoiceServiceConfig;
+import usecase.findcandidates.FindCandidatesController;
 import usecase.manageprojects.ManageProjectsController;
 import usecase.manageprojects.getprojects.ProjectData;
 import usecase.manageusers.ManageUsersController;
@@ -42,11 +43,13 @@ public class MyProjectsPanel extends JPanel implements ActionListener, PropertyC
     private final GetLoggedInUserController getLoggedInUserController;
     private final ManageProjectsController manageProjectsController;
     private final ManageUsersController manageUsersController;
+    private final FindCandidatesController findCandidatesController;
     private final JTable infoTable = new JTable();
     private final int[] columnWidths = {0, 100, 400, 100, 50};
     private final String[] columnNames = {"id", "Project Title", "Description", "Admin", "Details"};
     private final JScrollPane infoPanel = new JScrollPane(infoTable);
     private final JButton getUsersButton;
+    private final JButton findCandidatesButton;
     private final UsersPanel usersPanel;
 
     private final IHoverVoiceService hoverVoiceService;
@@ -62,6 +65,7 @@ public class MyProjectsPanel extends JPanel implements ActionListener, PropertyC
      * @param getLoggedInUserController the controller for getting the logged-in user
      * @param manageProjectsController the controller for getting projects
      * @param manageUsersController the controller for getting users
+     * @param findCandidatesController the controller for finding candidates for a project
      * @param editProjectPanelViewModel the view model for editing a project
      * @param editProjectPanel the panel for editing a project
      */
@@ -70,6 +74,7 @@ public class MyProjectsPanel extends JPanel implements ActionListener, PropertyC
                            GetLoggedInUserController getLoggedInUserController,
                            ManageProjectsController manageProjectsController,
                            ManageUsersController manageUsersController,
+                           FindCandidatesController findCandidatesController,
                            EditProjectPanelViewModel editProjectPanelViewModel,
                            EditProjectPanel editProjectPanel,
                            UsersPanel usersPanel) {
@@ -80,6 +85,7 @@ public class MyProjectsPanel extends JPanel implements ActionListener, PropertyC
         this.editProjectPanel = editProjectPanel;
         this.manageProjectsController = manageProjectsController;
         this.manageUsersController = manageUsersController;
+        this.findCandidatesController = findCandidatesController;
 
         this.hoverVoiceService = HoverVoiceServiceConfig.getHoverVoiceService();
         this.playVoiceService = PlayVoiceServiceConfig.getPlayVoiceService();
@@ -96,8 +102,13 @@ public class MyProjectsPanel extends JPanel implements ActionListener, PropertyC
         getUsersButton.addActionListener(this);
         this.add(getUsersButton);
 
+        findCandidatesButton = new JButton("Find Candidates");
+        findCandidatesButton.addActionListener(this);
+        this.add(findCandidatesButton);
+
         infoTable.setName("infoTable");
         getUsersButton.setName("getUsersButton");
+        findCandidatesButton.setName("findCandidatesButton");
 
         // Initialize UsersPanel
         this.usersPanel = usersPanel;
@@ -218,6 +229,11 @@ public class MyProjectsPanel extends JPanel implements ActionListener, PropertyC
                                                                                         UserData.class, HashSet::new);
             usersPanel.displayUsers(usersData);
         }
+        if (evt.getPropertyName().equals("candidatesDataUpdate")) {
+            ArrayList<UserData> candidatesData = SafeCastCollectionService.convertToCollection(evt.getNewValue(),
+                                                                                               UserData.class, ArrayList::new);
+            usersPanel.displayUsers(candidatesData);
+        }
     }
 
     @Override
@@ -238,6 +254,19 @@ public class MyProjectsPanel extends JPanel implements ActionListener, PropertyC
             usersFrame.add(usersPanel);
             usersFrame.setVisible(true);
         }
+        if (e.getSource() == findCandidatesButton) {
+            int projectId = myProjectsPanelViewModel.getSelectedProjectId();
+            if (projectId == 0) { // No project ID was selected
+                return;
+            }
+            findCandidatesController.findCandidates(projectId);
+
+            JFrame candidatesFrame = new JFrame("Candidates");
+            candidatesFrame.setDefaultCloseOperation(JFrame.DISPOSE_ON_CLOSE);
+            candidatesFrame.setSize(800, 300);
+            candidatesFrame.add(usersPanel);
+            candidatesFrame.setVisible(true);
+        }
     }
 
     protected void showDialog(JDialog dialog) {
@@ -3,6 +3,9 @@ package view;
 import entities.ProjectInterface;
 import usecase.manageapplications.createapplication.CreateApplicationController;
 import usecase.manageusers.getloggedinuser.GetLoggedInUserController;
+import usecase.recommendprojects.RecommendProjectsController;
+import usecase.relatedprojects.RelatedProjectsController;
+import usecase.searchforproject.ProjectSearchFilter;
 import usecase.searchforproject.SearchProjectController;
 import usecase.searchforuser.SearchUserController;
 import usecase.searchprojectbyid.SearchProjectByIdController;
@@ -13,10 +16,14 @@ import config.HoverVoiceServiceConfig;
 import view.services.hovervoice.IHoverVoiceService;
 import view.services.playvoice.IPlayVoiceService;
 import config.PlayVoiceServiceConfig;
+import config.SearchConfig;
+import viewmodel.RelatedProjectsViewModel;
 import viewmodel.SearchPanelViewModel;
 import viewmodel.ViewManagerModel;
 
 import javax.swing.*;
+import javax.swing.event.DocumentEvent;
+import javax.swing.event.DocumentListener;
 import javax.swing.table.*;
 import java.awt.*;
 import java.awt.event.ActionEvent;
@@ -37,6 +44,8 @@ public class SearchPanel extends JPanel implements ActionListener, PropertyChang
     private SearchUserController searchUserController;
     private SearchProjectController searchProjectController;
     private SearchProjectByIdController searchProjectByIdController;
+    private RelatedProjectsController relatedProjectsController;
+    private RelatedProjectsViewModel relatedProjectsViewModel;
     private final GetLoggedInUserController getLoggedInUserController;
     private final ViewManagerModel viewManagerModel;
     private final CreateApplicationController createApplicationController;
@@ -46,11 +55,17 @@ public class SearchPanel extends JPanel implements ActionListener, PropertyChang
     private final JLabel panelLabel = new JLabel("Search for projects here: ");
     private final JTextField searchBar = new JTextField();
     private final JButton searchButton = new JButton("Search");
+    private final JButton recommendButton = new JButton("For me");
     private final JPanel searchPanel = new JPanel();
     private final JTable infoTable = new JTable();
     private final int[] columnWidths = {200, 400, 100};
     private final String[] columnNames = {"Project Title", "Description", "View Details", "Request joining"};
     private final JScrollPane infoPanel = new JScrollPane(infoTable);
+    private final JPanel pagePanel = new JPanel();
+    private final JButton previousPageButton = new JButton("Previous");
+    private final JButton nextPageButton = new JButton("Next");
+    private final JLabel pageLabel = new JLabel();
+    private String pagedQuery = "";
 
     private final IHoverVoiceService hoverVoiceService;
     private final IPlayVoiceService playVoiceService;
@@ -80,17 +95,70 @@ public class SearchPanel extends JPanel implements ActionListener, PropertyChang
      * @param viewManagerModel the view manager model
      * @param searchPanelModel the search panel model
      * @param searchProjectController the controller for searching projects
+     * @param recommendProjectsController the controller for recommending projects to the logged-in user
+     * @param relatedProjectsController the controller for showing the projects similar to a displayed project
+     * @param relatedProjectsViewModel the view model of the related projects
      * @param getLoggedInUserController the controller for getting the logged-in user
      * @param createApplicationController the controller for creating applications
      */
     public SearchPanel(ViewManagerModel viewManagerModel,
                        SearchPanelViewModel searchPanelModel,
                        SearchProjectController searchProjectController,
+                       RecommendProjectsController recommendProjectsController,
+                       RelatedProjectsController relatedProjectsController,
+                       RelatedProjectsViewModel relatedProjectsViewModel,
                        GetLoggedInUserController getLoggedInUserController,
                        CreateApplicationController createApplicationController) {
         this(viewManagerModel, searchPanelModel, getLoggedInUserController, createApplicationController);
         this.searchProjectController = searchProjectController;
-        searchButton.addActionListener(_ -> searchProjectController.searchProjects(searchBar.getText()));
+        this.relatedProjectsController = relatedProjectsController;
+        this.relatedProjectsViewModel = relatedProjectsViewModel;
+        searchButton.addActionListener(_ -> {
+            pagedQuery = searchBar.getText();
+            searchProjectController.streamProjects(pagedQuery, 0, SearchConfig.getResultCount(),
+                    ProjectSearchFilter.NONE);
+        });
+        searchBar.getDocument().addDocumentListener(new DocumentListener() {
+            @Override
+            public void insertUpdate(DocumentEvent e) {
+                searchAsYouType();
+            }
+
+            @Override
+            public void removeUpdate(DocumentEvent e) {
+                searchAsYouType();
+            }
+
+            @Override
+            public void changedUpdate(DocumentEvent e) {
+                // Attribute changes leave the query as it is
+            }
+        });
+        recommendButton.addActionListener(_ -> {
+            if (searchPanelModel.getLoggedInUser() != null) {
+                recommendProjectsController.recommendProjects(searchPanelModel.getLoggedInUser().getUserId());
+            }
+        });
+        recommendButton.setPreferredSize(new Dimension(100, 40));
+        hoverVoiceService.addHoverVoice(recommendButton, "Press to show projects matching your profile");
+        JPanel buttonPanel = new JPanel(new BorderLayout());
+        buttonPanel.add(searchButton, BorderLayout.WEST);
+        buttonPanel.add(recommendButton, BorderLayout.EAST);
+        searchPanel.add(buttonPanel, BorderLayout.EAST);
+        previousPageButton.addActionListener(_ -> searchProjectController.streamProjects(pagedQuery,
+                searchPanelModel.getPageOffset() - SearchConfig.getResultCount(), SearchConfig.getResultCount(),
+                ProjectSearchFilter.NONE));
+        nextPageButton.addActionListener(_ -> searchProjectController.streamProjects(pagedQuery,
+                searchPanelModel.getPageOffset() + SearchConfig.getResultCount(), SearchConfig.getResultCount(),
+                ProjectSearchFilter.NONE));
+
+        hoverVoiceService.addHoverVoice(previousPageButton, "Press to show the previous page of projects");
+        hoverVoiceService.addHoverVoice(nextPageButton, "Press to show the next page of projects");
+        pagePanel.add(previousPageButton);
+        pagePanel.add(pageLabel);
+        pagePanel.add(nextPageButton);
+        this.add(pagePanel, BorderLayout.SOUTH);
+        updatePageControls(0, 0, false, false);
     }
 
     /**
@@ -167,7 +235,14 @@ public class SearchPanel extends JPanel implements ActionListener, PropertyChang
                 ArrayList<ProjectInterface> projectRankingList = SafeCastCollectionService.convertToCollection(evt.getNewValue(),
                                                                                                                ProjectInterface.class,
                                                                                                                ArrayList::new);
-                displaySearchResult(projectRankingList);
+                // Streaming searches present their pages from the search executor
+                int offset = searchPanelModel.getPageOffset();
+                boolean hasMore = searchPanelModel.hasMorePages();
+                boolean searching = searchPanelModel.isSearching();
+                SwingUtilities.invokeLater(() -> {
+                    displaySearchResult(projectRankingList);
+                    updatePageControls(projectRankingList.size(), offset, hasMore, searching);
+                });
             }
 
         }
@@ -175,7 +250,10 @@ public class SearchPanel extends JPanel implements ActionListener, PropertyChang
             getLoggedInUserController.getLoggedInUser();
             searchBar.setText("");
             searchPanelModel.setProjects(new ArrayList<>());
+            searchPanelModel.setProjectPage(0, false);
+            searchPanelModel.setSearching(false);
             displaySearchResult(new ArrayList<>());
+            updatePageControls(0, 0, false, false);
         }
         if (evt.getPropertyName().equals("application")) {
             boolean success = (boolean) evt.getNewValue();
@@ -191,6 +269,15 @@ public class SearchPanel extends JPanel implements ActionListener, PropertyChang
         }
     }
 
+    /**
+     * Shows the projects matching the query typed so far, refined once the user stops typing.
+     */
+    private void searchAsYouType() {
+        pagedQuery = searchBar.getText();
+        searchProjectController.searchAsYouType(pagedQuery, 0, SearchConfig.getResultCount(),
+                ProjectSearchFilter.NONE);
+    }
+
     /**
      * Cuts a string to a maximum length.
      *
@@ -205,6 +292,21 @@ public class SearchPanel extends JPanel implements ActionListener, PropertyChang
         return str.substring(0, maxLength) + "...";
     }
 
+    /**
+     * Enables the page buttons and labels the current page of project results.
+     *
+     * @param pageSize the number of projects on the current page
+     * @param offset the rank of the first project on the page
+     * @param hasMore whether more results follow the page
+     * @param searching whether the page is a partial ranking from a search that is still running
+     */
+    private void updatePageControls(int pageSize, int offset, boolean hasMore, boolean searching) {
+        previousPageButton.setEnabled(offset > 0);
+        nextPageButton.setEnabled(hasMore);
+        String results = pageSize == 0 ? "" : "Results " + (offset + 1) + " - " + (offset + pageSize);
+        pageLabel.setText(searching ? ("Searching... " + results).trim() : results);
+    }
+
     /**
      * Displays the search results in the table.
      *
@@ -229,7 +331,13 @@ public class SearchPanel extends JPanel implements ActionListener, PropertyChang
 
             int finalI = i;
             detailButtonActions.add(() -> {
-                new DisplayIndividualProjectView(projectRankingList.get(finalI)); // Use this line when want to display project
+                if (relatedProjectsController != null) {
+                    new DisplayIndividualProjectView(projectRankingList.get(finalI), relatedProjectsViewModel,
+                            relatedProjectsController);
+                }
+                else {
+                    new DisplayIndividualProjectView(projectRankingList.get(finalI)); // Use this line when want to display project
+                }
             });
             requestToJoinButtonActions.add(() -> {
                 int projectId = projectRankingList.get(finalI).getProjectId();
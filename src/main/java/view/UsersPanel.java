@@ -4,7 +4,7 @@ import usecase.manageusers.getusers.UserData;
 
 import javax.swing.*;
 import javax.swing.table.DefaultTableModel;
-import java.util.HashSet;
+import java.util.Collection;
 
 public class UsersPanel extends JPanel {
     private JTable usersTable;
@@ -19,7 +19,7 @@ public class UsersPanel extends JPanel {
         add(scrollPane);
     }
 
-    public void displayUsers(HashSet<UserData> users) {
+    public void displayUsers(Collection<UserData> users) {
         tableModel.setRowCount(0); // Clear existing rows
         for (UserData user : users) {
             Object[] row = new Object[]{
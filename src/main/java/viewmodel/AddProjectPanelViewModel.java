@@ -5,6 +5,7 @@ import usecase.manageusers.getloggedinuser.LoggedInDataAccessViewModel;
 import java.beans.PropertyChangeListener;
 import java.beans.PropertyChangeSupport;
 import java.util.HashSet;
+import java.util.List;
 import entities.User;
 
 /**
@@ -15,6 +16,7 @@ public class AddProjectPanelViewModel extends ViewModel implements LoggedInDataA
     private boolean success;
     private String errorMessage;
     private String projectName;
+    private List<String> similarProjectTitles = List.of();
     private User loggedInUser;
 
     /**
@@ -78,6 +80,24 @@ public class AddProjectPanelViewModel extends ViewModel implements LoggedInDataA
         return projectName;
     }
 
+    /**
+     * Sets the titles of the existing projects the created project nearly duplicates.
+     *
+     * @param similarProjectTitles the similar project titles
+     */
+    public void setSimilarProjectTitles(List<String> similarProjectTitles) {
+        this.similarProjectTitles = similarProjectTitles;
+    }
+
+    /**
+     * Returns the titles of the existing projects the created project nearly duplicates.
+     *
+     * @return the similar project titles, or an empty list
+     */
+    public List<String> getSimilarProjectTitles() {
+        return similarProjectTitles;
+    }
+
     /**
      * Returns the logged-in user.
      *
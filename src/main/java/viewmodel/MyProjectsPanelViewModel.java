@@ -7,6 +7,7 @@ import usecase.manageusers.getusers.UserData;
 
 import java.beans.PropertyChangeListener;
 import java.beans.PropertyChangeSupport;
+import java.util.ArrayList;
 import java.util.HashSet;
 
 /**
@@ -16,6 +17,7 @@ public class MyProjectsPanelViewModel extends ViewModel implements LoggedInDataA
     private final PropertyChangeSupport support = new PropertyChangeSupport(this);
     private HashSet<ProjectData> data;
     private HashSet<UserData> usersData;
+    private ArrayList<UserData> candidatesData;
     private String errorMessage;
     private User loggedInUser;
     private int selectedProjectId; // New field to store the selected project ID
@@ -47,6 +49,16 @@ public class MyProjectsPanelViewModel extends ViewModel implements LoggedInDataA
         support.firePropertyChange("usersDataUpdate", null, usersData);
     }
 
+    /**
+     * Sets the candidates for the selected project.
+     *
+     * @param candidatesData the data of the candidates, best match first
+     */
+    public void setCandidatesData(ArrayList<UserData> candidatesData) {
+        this.candidatesData = candidatesData;
+        support.firePropertyChange("candidatesDataUpdate", null, candidatesData);
+    }
+
     /**
      * Sets the error message.
      *
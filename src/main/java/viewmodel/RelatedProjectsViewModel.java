@@ -0,0 +1,80 @@
+package viewmodel;
+
+import usecase.relatedprojects.RelatedProject;
+
+import java.beans.PropertyChangeListener;
+import java.beans.PropertyChangeSupport;
+import java.util.ArrayList;
+
+/**
+ * ViewModel for the related projects shown in the views of individual projects.
+ * Shared by every open view, so each view only reacts to the projects related to its own project.
+ */
+public class RelatedProjectsViewModel extends ViewModel {
+    private final PropertyChangeSupport support = new PropertyChangeSupport(this);
+    private int projectId;
+    private ArrayList<RelatedProject> relatedProjects = new ArrayList<>();
+
+    /**
+     * Constructs a RelatedProjectsViewModel.
+     */
+    public RelatedProjectsViewModel() {
+        super("RelatedProjectsView");
+    }
+
+    /**
+     * Sets the projects related to a project.
+     *
+     * @param projectId the project ID
+     * @param relatedProjects the related projects, most similar first
+     */
+    public void setRelatedProjects(int projectId, ArrayList<RelatedProject> relatedProjects) {
+        this.projectId = projectId;
+        this.relatedProjects = relatedProjects;
+    }
+
+    /**
+     * Returns the ID of the project whose related projects were last set.
+     *
+     * @return the project ID
+     */
+    public int getProjectId() {
+        return projectId;
+    }
+
+    /**
+     * Returns the related projects that were last set.
+     *
+     * @return the related projects, most similar first
+     */
+    public ArrayList<RelatedProject> getRelatedProjects() {
+        return relatedProjects;
+    }
+
+    /**
+     * Fires a property change event with the ID of the project whose related projects were set.
+     */
+    @Override
+    public void firePropertyChanged() {
+        support.firePropertyChange("relatedProjects", null, projectId);
+    }
+
+    /**
+     * Adds a property change listener.
+     *
+     * @param listener the property change listener
+     */
+    @Override
+    public void addPropertyChangeListener(PropertyChangeListener listener) {
+        support.addPropertyChangeListener(listener);
+    }
+
+    /**
+     * Removes a property change listener, e.g. of a view that was closed.
+     *
+     * @param listener the property change listener
+     */
+    public void removePropertyChangeListener(PropertyChangeListener listener) {
+        support.removePropertyChangeListener(listener);
+    }
+}
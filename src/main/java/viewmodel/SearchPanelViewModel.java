@@ -19,6 +19,9 @@ public class SearchPanelViewModel extends ViewModel implements LoggedInDataAcces
     private ArrayList<UserInterface> users;
     private User loggedInUser;
     private String errorApplicationMessage;
+    private int pageOffset = 0;
+    private boolean hasMorePages = false;
+    private boolean searching = false;
 
     /**
      * Constructs a SearchPanelViewModel.
@@ -53,6 +56,53 @@ public class SearchPanelViewModel extends ViewModel implements LoggedInDataAcces
         this.projects = projects;
     }
 
+    /**
+     * Sets the position of the current page of projects within the search results.
+     *
+     * @param offset the rank of the first project on the page
+     * @param hasMore whether more results follow this page
+     */
+    public void setProjectPage(int offset, boolean hasMore) {
+        this.pageOffset = offset;
+        this.hasMorePages = hasMore;
+    }
+
+    /**
+     * Returns the rank of the first project on the current page.
+     *
+     * @return the page offset
+     */
+    public int getPageOffset() {
+        return pageOffset;
+    }
+
+    /**
+     * Returns whether more results follow the current page.
+     *
+     * @return true if there is a next page
+     */
+    public boolean hasMorePages() {
+        return hasMorePages;
+    }
+
+    /**
+     * Sets whether the projects are a partial ranking from a search that is still running.
+     *
+     * @param searching true while the search is running
+     */
+    public void setSearching(boolean searching) {
+        this.searching = searching;
+    }
+
+    /**
+     * Returns whether the projects are a partial ranking from a search that is still running.
+     *
+     * @return true while the search is running
+     */
+    public boolean isSearching() {
+        return searching;
+    }
+
     /**
      * Returns the logged-in user.
      *
@@ -0,0 +1,167 @@
+package api.embeddingapi;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the BatchingEmbeddingAPI class.
+ */
+public class BatchingEmbeddingAPITest {
+    private final ArrayList<List<String>> batches = new ArrayList<>();
+    private final ArrayList<CompletableFuture<List<float[]>>> responses = new ArrayList<>();
+    // With a zero window each batch hands its flush here; running it stands in for the window passing
+    private final ArrayList<Runnable> flushes = new ArrayList<>();
+    // Most tests first leave one text in flight, since a caller that is alone is sent without batching
+
+    /**
+     * A delegate that records each bulk request and leaves it pending until the test completes it.
+     */
+    private final EmbeddingAPIInterface delegate = new EmbeddingAPIInterface() {
+        @Override
+        public float[] getEmbedData(String text) {
+            return embed(text);
+        }
+
+        @Override
+        public CompletableFuture<List<float[]>> getEmbedDataAsync(List<String> texts) {
+            CompletableFuture<List<float[]>> response = new CompletableFuture<>();
+            batches.add(List.copyOf(texts));
+            responses.add(response);
+            return response;
+        }
+    };
+
+    private static float[] embed(String text) {
+        return new float[]{text.length(), 1f};
+    }
+
+    private static List<float[]> embed(List<String> texts) {
+        return texts.stream().map(BatchingEmbeddingAPITest::embed).toList();
+    }
+
+    /**
+     * Tests that a caller with no batch pending or in flight is sent at once, without waiting for the window.
+     */
+    @Test
+    public void testAloneCallerIsSentAtOnce() {
+        BatchingEmbeddingAPI batching = new BatchingEmbeddingAPI(delegate, 10, Duration.ZERO, flushes::add);
+        CompletableFuture<float[]> a = batching.getEmbedDataAsync("a");
+        assertEquals(List.of(List.of("a")), batches);
+        assertTrue(flushes.isEmpty());
+
+        responses.getFirst().complete(embed(batches.getFirst()));
+        assertArrayEquals(new float[]{1f, 1f}, a.join());
+        batching.getEmbedDataAsync("bb");
+        assertEquals(List.of("bb"), batches.getLast());
+        assertTrue(flushes.isEmpty());
+    }
+
+    /**
+     * Tests that a batch is sent as soon as it holds the maximum number of texts.
+     */
+    @Test
+    public void testFullBatchIsSentAtOnce() {
+        BatchingEmbeddingAPI batching = new BatchingEmbeddingAPI(delegate, 3, Duration.ZERO, flushes::add);
+        batching.getEmbedDataAsync("in flight");
+        CompletableFuture<float[]> a = batching.getEmbedDataAsync("a");
+        CompletableFuture<float[]> bb = batching.getEmbedDataAsync("bb");
+        assertEquals(1, batches.size());
+        CompletableFuture<float[]> ccc = batching.getEmbedDataAsync("ccc");
+        assertEquals(List.of("a", "bb", "ccc"), batches.getLast());
+
+        responses.getLast().complete(embed(batches.getLast()));
+        assertArrayEquals(new float[]{1f, 1f}, a.join());
+        assertArrayEquals(new float[]{2f, 1f}, bb.join());
+        assertArrayEquals(new float[]{3f, 1f}, ccc.join());
+
+        // The window of the full batch has passed by now, but it must not be sent again
+        flushes.forEach(Runnable::run);
+        assertEquals(2, batches.size());
+        assertEquals(2, batching.getBatchCount());
+        assertEquals(4, batching.getTextCount());
+    }
+
+    /**
+     * Tests that a batch that never fills is sent when its window has passed, and that the next text starts a new
+     * batch.
+     */
+    @Test
+    public void testPartialBatchIsSentAfterWindow() {
+        BatchingEmbeddingAPI batching = new BatchingEmbeddingAPI(delegate, 10, Duration.ZERO, flushes::add);
+        batching.getEmbedDataAsync("in flight");
+        CompletableFuture<float[]> a = batching.getEmbedDataAsync("a");
+        batching.getEmbedDataAsync("bb");
+        assertEquals(1, flushes.size());
+        assertEquals(1, batches.size());
+
+        flushes.getFirst().run();
+        assertEquals(List.of("a", "bb"), batches.getLast());
+        batching.getEmbedDataAsync("ccc");
+        assertEquals(2, flushes.size());
+        flushes.getLast().run();
+        assertEquals(List.of("ccc"), batches.getLast());
+
+        responses.get(1).complete(embed(batches.get(1)));
+        assertArrayEquals(new float[]{1f, 1f}, a.join());
+    }
+
+    /**
+     * Tests that identical texts in a batch are sent once and each caller gets its own copy of the embedding.
+     */
+    @Test
+    public void testIdenticalTextsAreSentOnce() {
+        BatchingEmbeddingAPI batching = new BatchingEmbeddingAPI(delegate, 10, Duration.ZERO, flushes::add);
+        batching.getEmbedDataAsync("in flight");
+        CompletableFuture<float[]> first = batching.getEmbedDataAsync("java");
+        CompletableFuture<float[]> second = batching.getEmbedDataAsync("java");
+        flushes.forEach(Runnable::run);
+        assertEquals(List.of("java"), batches.getLast());
+
+        responses.getLast().complete(embed(batches.getLast()));
+        first.join()[0] = -1f;
+        assertArrayEquals(new float[]{4f, 1f}, second.join());
+    }
+
+    /**
+     * Tests that a failed bulk request, or one that returns the wrong number of embeddings, fails every caller in
+     * the batch.
+     */
+    @Test
+    public void testFailureReachesEveryCaller() {
+        BatchingEmbeddingAPI batching = new BatchingEmbeddingAPI(delegate, 2, Duration.ZERO, flushes::add);
+        batching.getEmbedDataAsync("in flight");
+        CompletableFuture<float[]> a = batching.getEmbedDataAsync("a");
+        CompletableFuture<float[]> b = batching.getEmbedDataAsync("b");
+        responses.get(1).completeExceptionally(new IOException("timeout"));
+        assertTrue(assertThrows(CompletionException.class, a::join).getCause() instanceof IOException);
+        assertTrue(assertThrows(CompletionException.class, b::join).getCause() instanceof IOException);
+
+        CompletableFuture<float[]> c = batching.getEmbedDataAsync("c");
+        CompletableFuture<float[]> d = batching.getEmbedDataAsync("d");
+        responses.getLast().complete(embed(List.of("c")));
+        assertTrue(assertThrows(CompletionException.class, c::join).getCause() instanceof IllegalStateException);
+        assertTrue(assertThrows(CompletionException.class, d::join).getCause() instanceof IllegalStateException);
+    }
+
+    /**
+     * Tests that the blocking single and bulk requests return the embeddings of their texts.
+     */
+    @Test
+    public void testBlockingRequests() {
+        EmbeddingAPIInterface immediate = text -> embed(text);
+        BatchingEmbeddingAPI batching = new BatchingEmbeddingAPI(immediate, 4, Duration.ZERO, Runnable::run);
+        assertArrayEquals(new float[]{6f, 1f}, batching.getEmbedData("python"));
+        List<float[]> embeddings = batching.getEmbedData(List.of("a", "bb"));
+        assertEquals(2, embeddings.size());
+        assertArrayEquals(new float[]{2f, 1f}, embeddings.getLast());
+        assertEquals(1, batching.getBatchCount());
+    }
+}
@@ -0,0 +1,244 @@
+package api.embeddingapi;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the CachingEmbeddingAPI class.
+ */
+public class CachingEmbeddingAPITest {
+    private int delegateCalls;
+    private EmbeddingAPIInterface delegate;
+    private MutableClock clock;
+
+    /**
+     * Creates a delegate that embeds a text as its length and counts its calls.
+     */
+    @BeforeEach
+    public void setUp() {
+        delegateCalls = 0;
+        delegate = text -> {
+            delegateCalls++;
+            return new float[]{text.length(), 1f};
+        };
+        clock = new MutableClock();
+    }
+
+    /**
+     * Tests that a repeated query is answered from the cache.
+     */
+    @Test
+    public void testRepeatedQueryHitsCache() {
+        CachingEmbeddingAPI cache = new CachingEmbeddingAPI(delegate, 10, Duration.ofHours(1));
+        float[] first = cache.getEmbedData("machine learning");
+        float[] second = cache.getEmbedData("machine learning");
+        assertArrayEquals(first, second);
+        assertEquals(1, delegateCalls);
+        assertEquals(1, cache.getHitCount());
+        assertEquals(1, cache.getMissCount());
+    }
+
+    /**
+     * Tests that an asynchronous request is answered from the cache, and that its response is cached on a miss.
+     */
+    @Test
+    public void testAsyncRequestUsesCache() {
+        CachingEmbeddingAPI cache = new CachingEmbeddingAPI(delegate, 10, Duration.ofHours(1));
+        float[] first = cache.getEmbedDataAsync("machine learning").join();
+        float[] second = cache.getEmbedDataAsync("Machine Learning").join();
+        assertArrayEquals(first, second);
+        assertArrayEquals(first, cache.getEmbedData("machine learning"));
+        assertEquals(1, delegateCalls);
+        assertEquals(2, cache.getHitCount());
+    }
+
+    /**
+     * Tests that a bulk request answers cached texts from the cache and embeds each distinct missing text once.
+     */
+    @Test
+    public void testBulkRequestEmbedsOnlyMisses() {
+        CachingEmbeddingAPI cache = new CachingEmbeddingAPI(delegate, 10, Duration.ofHours(1));
+        cache.getEmbedData("java");
+        List<float[]> embeddings = cache.getEmbedData(List.of("Java", "python", "PYTHON ", "go"));
+        assertEquals(4, embeddings.size());
+        assertArrayEquals(new float[]{4f, 1f}, embeddings.get(0));
+        assertArrayEquals(new float[]{6f, 1f}, embeddings.get(1));
+        assertArrayEquals(embeddings.get(1), embeddings.get(2));
+        assertArrayEquals(new float[]{2f, 1f}, embeddings.get(3));
+        assertEquals(3, delegateCalls);
+        assertEquals(3, cache.size());
+
+        cache.getEmbedData(List.of("go", "python"));
+        assertEquals(3, delegateCalls);
+    }
+
+    /**
+     * Tests that texts differing only in case and whitespace share an entry.
+     */
+    @Test
+    public void testNormalizedTextsShareEntry() {
+        CachingEmbeddingAPI cache = new CachingEmbeddingAPI(delegate, 10, Duration.ofHours(1));
+        cache.getEmbedData("Machine Learning");
+        cache.getEmbedData("  machine \t learning ");
+        assertEquals(1, delegateCalls);
+        assertEquals("machine learning", CachingEmbeddingAPI.normalizeKey(" MACHINE learning\n"));
+    }
+
+    /**
+     * Tests that a caller modifying a returned embedding does not change the cached one.
+     */
+    @Test
+    public void testReturnsCopies() {
+        CachingEmbeddingAPI cache = new CachingEmbeddingAPI(delegate, 10, Duration.ofHours(1));
+        cache.getEmbedData("query")[0] = 42f;
+        assertEquals(5f, cache.getEmbedData("query")[0]);
+    }
+
+    /**
+     * Tests that the least recently used entry is evicted when the cache is full.
+     */
+    @Test
+    public void testEvictsLeastRecentlyUsed() {
+        CachingEmbeddingAPI cache = new CachingEmbeddingAPI(delegate, 2, Duration.ofHours(1));
+        cache.getEmbedData("a");
+        cache.getEmbedData("b");
+        cache.getEmbedData("a");
+        cache.getEmbedData("c");
+        assertEquals(2, cache.size());
+        assertEquals(1, cache.getEvictionCount());
+
+        cache.getEmbedData("a");
+        assertEquals(3, delegateCalls);
+        cache.getEmbedData("b");
+        assertEquals(4, delegateCalls);
+    }
+
+    /**
+     * Tests that entries expire after the time to live.
+     */
+    @Test
+    public void testEntriesExpire() {
+        CachingEmbeddingAPI cache = new CachingEmbeddingAPI(delegate, 10, Duration.ofMinutes(10), null, clock);
+        cache.getEmbedData("query");
+        clock.advance(Duration.ofMinutes(9));
+        cache.getEmbedData("query");
+        assertEquals(1, delegateCalls);
+
+        clock.advance(Duration.ofMinutes(2));
+        cache.getEmbedData("query");
+        assertEquals(2, delegateCalls);
+        assertEquals(1, cache.getEvictionCount());
+    }
+
+    /**
+     * Tests that empty embeddings, returned when the API fails, are not cached.
+     */
+    @Test
+    public void testDoesNotCacheEmptyEmbeddings() {
+        CachingEmbeddingAPI cache = new CachingEmbeddingAPI(text -> {
+            delegateCalls++;
+            return new float[0];
+        }, 10, Duration.ofHours(1));
+        cache.getEmbedData("query");
+        cache.getEmbedData("query");
+        assertEquals(2, delegateCalls);
+        assertEquals(0, cache.size());
+    }
+
+    /**
+     * Tests that a new cache loads the unexpired entries saved by a previous one.
+     *
+     * @throws IOException if the temporary directory cannot be created
+     */
+    @Test
+    public void testPersistsAcrossRestarts() throws IOException {
+        Path file = Files.createTempDirectory("embedding-cache").resolve("cache.bin");
+        CachingEmbeddingAPI cache = new CachingEmbeddingAPI(delegate, 10, Duration.ofMinutes(10), file, clock);
+        cache.getEmbedData("short lived");
+        clock.advance(Duration.ofMinutes(5));
+        cache.getEmbedData("machine learning");
+
+        clock.advance(Duration.ofMinutes(6));
+        CachingEmbeddingAPI restarted = new CachingEmbeddingAPI(delegate, 10, Duration.ofMinutes(10), file, clock);
+        assertEquals(1, restarted.size());
+        assertArrayEquals(new float[]{16f, 1f}, restarted.getEmbedData("Machine Learning"));
+        assertEquals(2, delegateCalls);
+    }
+
+    /**
+     * Tests that a miss appends to the cache file instead of rewriting it, that hits are replayed in order after a
+     * restart, and that keys longer than 64 KB are saved.
+     *
+     * @throws IOException if the temporary directory cannot be created
+     */
+    @Test
+    public void testAppendsToLog() throws IOException {
+        Path file = Files.createTempDirectory("embedding-cache").resolve("cache.bin");
+        CachingEmbeddingAPI cache = new CachingEmbeddingAPI(delegate, 2, Duration.ofMinutes(10), file, clock);
+        String longQuery = "q".repeat(70_000);
+        cache.getEmbedData(longQuery);
+        long size = Files.size(file);
+        cache.getEmbedData("java");
+        assertTrue(Files.size(file) > size);
+        cache.getEmbedData(longQuery);
+
+        CachingEmbeddingAPI restarted = new CachingEmbeddingAPI(delegate, 2, Duration.ofMinutes(10), file, clock);
+        assertEquals(2, restarted.size());
+        restarted.getEmbedData("python"); // evicts "java", the least recently used
+        restarted.getEmbedData(longQuery);
+        assertEquals(3, delegateCalls);
+        restarted.getEmbedData("java");
+        assertEquals(4, delegateCalls);
+    }
+
+    /**
+     * Tests that an unreadable cache file leaves the cache empty.
+     *
+     * @throws IOException if the file cannot be written
+     */
+    @Test
+    public void testIgnoresCorruptFile() throws IOException {
+        Path file = Files.createTempDirectory("embedding-cache").resolve("cache.bin");
+        Files.write(file, new byte[]{0, 0, 0, 1, 0, 0});
+        CachingEmbeddingAPI cache = new CachingEmbeddingAPI(delegate, 10, Duration.ofMinutes(10), file, clock);
+        assertEquals(0, cache.size());
+    }
+
+    /**
+     * A clock that only moves when the test advances it.
+     */
+    private static class MutableClock extends Clock {
+        private Instant now = Instant.parse("2024-01-01T00:00:00Z");
+
+        void advance(Duration duration) {
+            now = now.plus(duration);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+}
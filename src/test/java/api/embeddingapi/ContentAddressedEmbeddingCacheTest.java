@@ -0,0 +1,189 @@
+package api.embeddingapi;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the ContentAddressedEmbeddingCache class.
+ */
+public class ContentAddressedEmbeddingCacheTest {
+    private int delegateCalls;
+    private EmbeddingAPIInterface delegate;
+    private Path file;
+
+    /**
+     * Creates a delegate that embeds a text as its length and counts its calls, and a file for the cache.
+     *
+     * @throws IOException if the temporary directory cannot be created
+     */
+    @BeforeEach
+    public void setUp() throws IOException {
+        delegateCalls = 0;
+        delegate = text -> {
+            delegateCalls++;
+            return new float[]{text.length(), 1f};
+        };
+        file = Files.createTempDirectory("embedding-cache").resolve("projects.bin");
+    }
+
+    /**
+     * Tests that an unchanged text is answered from the cache, while a text differing in any way is embedded, and
+     * that the hit rate counts both.
+     */
+    @Test
+    public void testUnchangedTextHitsCache() {
+        ContentAddressedEmbeddingCache cache = new ContentAddressedEmbeddingCache(delegate, "model", 10, null);
+        float[] first = cache.getEmbedData("A project about Java.");
+        assertArrayEquals(first, cache.getEmbedData("A project about Java."));
+        cache.getEmbedData("A project about java.");
+        assertEquals(2, delegateCalls);
+        assertEquals(1, cache.getHitCount());
+        assertEquals(2, cache.getMissCount());
+        assertEquals(1.0 / 3, cache.getHitRate(), 1e-9);
+    }
+
+    /**
+     * Tests that the same text embedded by another model does not match.
+     */
+    @Test
+    public void testModelIsPartOfKey() {
+        new ContentAddressedEmbeddingCache(delegate, "small", 10, file).getEmbedData("text");
+        ContentAddressedEmbeddingCache large = new ContentAddressedEmbeddingCache(delegate, "large", 10, file);
+        large.getEmbedData("text");
+        assertEquals(2, delegateCalls);
+        assertEquals(0, large.getHitCount());
+    }
+
+    /**
+     * Tests that the least recently used entry is evicted, and that the order of use survives a restart once the
+     * cache is closed.
+     */
+    @Test
+    public void testEvictsLeastRecentlyUsedAcrossRestarts() {
+        ContentAddressedEmbeddingCache cache = new ContentAddressedEmbeddingCache(delegate, "model", 2, file);
+        cache.getEmbedData("a");
+        cache.getEmbedData("b");
+        cache.getEmbedData("a");
+        cache.close();
+
+        ContentAddressedEmbeddingCache restarted = new ContentAddressedEmbeddingCache(delegate, "model", 2, file);
+        assertEquals(2, restarted.size());
+        restarted.getEmbedData("c");
+        assertEquals(1, restarted.getEvictionCount());
+        restarted.getEmbedData("a");
+        assertEquals(3, delegateCalls);
+        restarted.getEmbedData("b");
+        assertEquals(4, delegateCalls);
+    }
+
+    /**
+     * Tests that a hit is not written to the file until the next new embedding is.
+     *
+     * @throws IOException if the cache file cannot be read
+     */
+    @Test
+    public void testBuffersHitsUntilNextMiss() throws IOException {
+        ContentAddressedEmbeddingCache cache = new ContentAddressedEmbeddingCache(delegate, "model", 10, file);
+        cache.getEmbedData("a");
+        long size = Files.size(file);
+        cache.getEmbedData("a");
+        assertEquals(size, Files.size(file));
+
+        cache.getEmbedData("b");
+        assertEquals(size + 33 + 45, Files.size(file));
+    }
+
+    /**
+     * Tests that the log is rewritten once hits have made it long, without losing entries.
+     *
+     * @throws IOException if the cache file cannot be read
+     */
+    @Test
+    public void testCompactsLog() throws IOException {
+        ContentAddressedEmbeddingCache cache = new ContentAddressedEmbeddingCache(delegate, "model", 2, file);
+        cache.getEmbedData("a");
+        cache.getEmbedData("b");
+        long size = Files.size(file);
+        for (int i = 0; i < 10; i++) {
+            cache.getEmbedData("a");
+        }
+        assertTrue(Files.size(file) < size + 10 * 33);
+
+        ContentAddressedEmbeddingCache restarted = new ContentAddressedEmbeddingCache(delegate, "model", 2, file);
+        assertArrayEquals(new float[]{1f, 1f}, restarted.getEmbedData("a"));
+        assertArrayEquals(new float[]{1f, 1f}, restarted.getEmbedData("b"));
+        assertEquals(2, delegateCalls);
+    }
+
+    /**
+     * Tests that a log cut off in the middle of a record keeps the entries before it and stays usable.
+     *
+     * @throws IOException if the cache file cannot be written
+     */
+    @Test
+    public void testRecoversTruncatedLog() throws IOException {
+        ContentAddressedEmbeddingCache cache = new ContentAddressedEmbeddingCache(delegate, "model", 10, file);
+        cache.getEmbedData("a");
+        cache.getEmbedData("b");
+        byte[] log = Files.readAllBytes(file);
+        Files.write(file, Arrays.copyOf(log, log.length - 3));
+
+        ContentAddressedEmbeddingCache restarted = new ContentAddressedEmbeddingCache(delegate, "model", 10, file);
+        assertEquals(1, restarted.size());
+        restarted.getEmbedData("c");
+        ContentAddressedEmbeddingCache again = new ContentAddressedEmbeddingCache(delegate, "model", 10, file);
+        assertEquals(2, again.size());
+    }
+
+    /**
+     * Tests that a record with a corrupt embedding length is treated like a truncated one instead of failing the
+     * constructor.
+     *
+     * @throws IOException if the cache file cannot be written
+     */
+    @Test
+    public void testRecoversCorruptLength() throws IOException {
+        ContentAddressedEmbeddingCache cache = new ContentAddressedEmbeddingCache(delegate, "model", 10, file);
+        cache.getEmbedData("a");
+        long firstRecordEnd = Files.size(file);
+        cache.getEmbedData("b");
+        for (int length : new int[]{-1, Integer.MAX_VALUE}) {
+            byte[] log = Files.readAllBytes(file);
+            ByteBuffer.wrap(log).putInt((int) firstRecordEnd + 1 + 4 * Long.BYTES, length);
+            Files.write(file, log);
+
+            ContentAddressedEmbeddingCache restarted = new ContentAddressedEmbeddingCache(delegate, "model", 10, file);
+            assertEquals(1, restarted.size());
+            restarted.getEmbedData("b");
+        }
+        assertEquals(2, new ContentAddressedEmbeddingCache(delegate, "model", 10, file).size());
+    }
+
+    /**
+     * Tests that a bulk request embeds each distinct missing text once, and that empty embeddings are not cached.
+     */
+    @Test
+    public void testBulkRequestEmbedsOnlyMisses() {
+        ContentAddressedEmbeddingCache cache = new ContentAddressedEmbeddingCache(delegate, "model", 10, null);
+        cache.getEmbedData("java");
+        List<float[]> embeddings = cache.getEmbedData(List.of("java", "python", "python", "go"));
+        assertArrayEquals(new float[]{4f, 1f}, embeddings.get(0));
+        assertArrayEquals(embeddings.get(1), embeddings.get(2));
+        assertArrayEquals(new float[]{2f, 1f}, embeddings.get(3));
+        assertEquals(3, delegateCalls);
+
+        ContentAddressedEmbeddingCache empty = new ContentAddressedEmbeddingCache(_ -> new float[0], "model", 10,
+                null);
+        empty.getEmbedData("query");
+        assertEquals(0, empty.size());
+    }
+}
@@ -0,0 +1,93 @@
+package api.embeddingapi;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the EmbeddingResponseDecoder class.
+ */
+public class EmbeddingResponseDecoderTest {
+
+    private static String base64(float... values) {
+        ByteBuffer bytes = ByteBuffer.allocate(values.length * Float.BYTES).order(ByteOrder.LITTLE_ENDIAN);
+        for (float value : values) {
+            bytes.putFloat(value);
+        }
+        return Base64.getEncoder().encodeToString(bytes.array());
+    }
+
+    private static List<float[]> decode(String response, int count) throws IOException {
+        return EmbeddingResponseDecoder.decode(new ByteArrayInputStream(response.getBytes(StandardCharsets.UTF_8)),
+                count);
+    }
+
+    /**
+     * Tests that base64 embeddings are decoded exactly, for every length of the final base64 group, and placed by
+     * their index.
+     */
+    @Test
+    public void testDecodesBase64Embeddings() throws IOException {
+        float[] one = {0.5f};
+        float[] two = {-1.25f, Float.MIN_VALUE};
+        float[] three = {3.0e-5f, -0f, Float.MAX_VALUE};
+        String response = "{\"object\": \"list\", \"data\": [\n"
+                + "  {\"object\": \"embedding\", \"index\": 2, \"embedding\": \"" + base64(three) + "\"},\n"
+                + "  {\"object\": \"embedding\", \"index\": 0, \"embedding\": \"" + base64(one) + "\"},\n"
+                + "  {\"object\": \"embedding\", \"index\": 1, \"embedding\": \"" + base64(two) + "\"}\n"
+                + "], \"model\": \"text-embedding-3-small\", \"usage\": {\"prompt_tokens\": 8, \"total_tokens\": 8}}";
+        List<float[]> embeddings = decode(response, 3);
+        assertArrayEquals(one, embeddings.get(0));
+        assertArrayEquals(two, embeddings.get(1));
+        assertArrayEquals(three, embeddings.get(2));
+    }
+
+    /**
+     * Tests that arrays of numbers are decoded too, for servers that ignore the encoding format, and that unknown
+     * fields with nested values and escaped strings are skipped.
+     */
+    @Test
+    public void testDecodesFloatArraysAndSkipsUnknownFields() throws IOException {
+        String response = "{\"warning\":\"a \\\"quoted\\\" } ]\",\"extra\":[{\"a\":[1,2]},null,true],"
+                + "\"data\":[{\"embedding\":[0.25,-1.5E-3,2],\"object\":\"embedding\"},"
+                + "{\"embedding\":[1,0,0]}]}";
+        List<float[]> embeddings = decode(response, 2);
+        assertArrayEquals(new float[]{0.25f, -1.5e-3f, 2f}, embeddings.get(0));
+        assertArrayEquals(new float[]{1f, 0f, 0f}, embeddings.get(1));
+    }
+
+    /**
+     * Tests that an escaped slash in a base64 string is decoded like a plain one.
+     */
+    @Test
+    public void testDecodesEscapedSlash() throws IOException {
+        float[] values = {Float.intBitsToFloat(0x3fffffff), 1f};
+        String encoded = base64(values);
+        assertTrue(encoded.contains("/"));
+        String response = "{\"data\":[{\"index\":0,\"embedding\":\"" + encoded.replace("/", "\\/") + "\"}]}";
+        assertArrayEquals(values, decode(response, 1).getFirst());
+    }
+
+    /**
+     * Tests that malformed or incomplete responses are rejected with an IOException.
+     */
+    @Test
+    public void testRejectsMalformedResponses() {
+        String valid = base64(1f, 2f);
+        assertThrows(IOException.class, () -> decode("{\"data\":[{\"embedding\":\"" + valid + "\"}]}", 2));
+        assertThrows(IOException.class, () -> decode("{\"data\":[{\"index\":0}]}", 1));
+        assertThrows(IOException.class, () -> decode("{\"data\":[{\"index\":5,\"embedding\":[1]}]}", 1));
+        assertThrows(IOException.class, () -> decode("{\"data\":[{\"embedding\":\"AAA*\"}]}", 1));
+        assertThrows(IOException.class, () -> decode("{\"data\":[{\"embedding\":\"AAAAAAA=\"}]}", 1));
+        assertThrows(IOException.class, () -> decode("{\"data\":[{\"embedding\":\"" + valid, 1));
+        assertThrows(IOException.class, () -> decode("<html>Bad gateway</html>", 1));
+    }
+}
@@ -0,0 +1,62 @@
+package api.embeddingapi;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the HashedNgramEmbeddingAPI class.
+ */
+public class HashedNgramEmbeddingAPITest {
+    private final HashedNgramEmbeddingAPI embeddingAPI = new HashedNgramEmbeddingAPI(512);
+
+    private static double cosine(float[] a, float[] b) {
+        double dot = 0;
+        for (int i = 0; i < a.length; i++) {
+            dot += a[i] * b[i];
+        }
+        return dot;
+    }
+
+    /**
+     * Tests that embeddings have the configured dimension and unit length, and are the same for every instance.
+     */
+    @Test
+    public void testEmbeddingsAreDeterministicUnitVectors() {
+        float[] embedding = embeddingAPI.getEmbedData("A web app for tracking volunteer hours");
+        assertEquals(512, embedding.length);
+        assertEquals(1.0, cosine(embedding, embedding), 1e-5);
+        assertArrayEquals(embedding, new HashedNgramEmbeddingAPI(512).getEmbedData(
+                "A web app for tracking volunteer hours"));
+        assertEquals("hashed-ngram-512", embeddingAPI.getModel());
+        assertEquals(64, new HashedNgramEmbeddingAPI(64).getEmbedData("text").length);
+    }
+
+    /**
+     * Tests that texts sharing words, or only inflections of them, are closer than unrelated texts, and that case
+     * and punctuation do not matter.
+     */
+    @Test
+    public void testSimilarTextsAreCloser() {
+        float[] query = embeddingAPI.getEmbedData("machine learning pipeline for images");
+        float[] related = embeddingAPI.getEmbedData("An image classification pipeline using machine learning");
+        float[] inflected = embeddingAPI.getEmbedData("machines learned pipelines");
+        float[] unrelated = embeddingAPI.getEmbedData("Bakery budget planning for a small business");
+        assertTrue(cosine(query, related) > cosine(query, unrelated) + 0.2);
+        assertTrue(cosine(query, inflected) > cosine(query, unrelated) + 0.1);
+        assertEquals(1.0, cosine(query, embeddingAPI.getEmbedData("Machine-learning PIPELINE, for images!")), 1e-5);
+    }
+
+    /**
+     * Tests that a text without letters or digits embeds as a zero vector, and that bulk requests match single ones.
+     */
+    @Test
+    public void testEmptyTextAndBulkRequests() {
+        assertEquals(0.0, cosine(embeddingAPI.getEmbedData(" -- "), embeddingAPI.getEmbedData("java")));
+        List<float[]> embeddings = embeddingAPI.getEmbedData(List.of("java", ""));
+        assertArrayEquals(embeddingAPI.getEmbedData("java"), embeddings.getFirst());
+        assertArrayEquals(new float[512], embeddings.getLast());
+    }
+}
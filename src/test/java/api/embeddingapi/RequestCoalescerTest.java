@@ -0,0 +1,79 @@
+package api.embeddingapi;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the RequestCoalescer class.
+ */
+public class RequestCoalescerTest {
+    private final RequestCoalescer<String, String> coalescer = new RequestCoalescer<>();
+    private final ArrayList<CompletableFuture<String>> started = new ArrayList<>();
+
+    private CompletableFuture<String> start(String key) {
+        CompletableFuture<String> flight = new CompletableFuture<>();
+        started.add(flight);
+        return flight;
+    }
+
+    /**
+     * Tests that concurrent requests for a key share one flight, and that a later request starts a new one.
+     */
+    @Test
+    public void testConcurrentRequestsShareFlight() {
+        CompletableFuture<String> first = coalescer.request("java", this::start);
+        CompletableFuture<String> second = coalescer.request("java", this::start);
+        CompletableFuture<String> other = coalescer.request("python", this::start);
+        assertEquals(2, started.size());
+        assertEquals(2, coalescer.size());
+
+        started.getFirst().complete("java embedding");
+        assertEquals("java embedding", first.join());
+        assertEquals("java embedding", second.join());
+        assertFalse(other.isDone());
+        assertEquals(1, coalescer.size());
+
+        coalescer.request("java", this::start);
+        assertEquals(3, started.size());
+    }
+
+    /**
+     * Tests that a failure reaches every caller of the flight and does not stay cached.
+     */
+    @Test
+    public void testFailureReachesEveryCaller() {
+        CompletableFuture<String> first = coalescer.request("java", this::start);
+        CompletableFuture<String> second = coalescer.request("java", this::start);
+        started.getFirst().completeExceptionally(new IOException("timeout"));
+
+        assertTrue(assertThrows(CompletionException.class, first::join).getCause() instanceof IOException);
+        assertTrue(assertThrows(CompletionException.class, second::join).getCause() instanceof IOException);
+        assertEquals(0, coalescer.size());
+
+        CompletableFuture<String> thrown = coalescer.request("java", _ -> {
+            throw new IllegalStateException("no client");
+        });
+        assertTrue(thrown.isCompletedExceptionally());
+        assertEquals(0, coalescer.size());
+    }
+
+    /**
+     * Tests that cancelling one caller's future leaves the flight to the other callers.
+     */
+    @Test
+    public void testCancellingOneCallerKeepsFlight() {
+        CompletableFuture<String> first = coalescer.request("java", this::start);
+        CompletableFuture<String> second = coalescer.request("java", this::start);
+        first.cancel(true);
+
+        started.getFirst().complete("java embedding");
+        assertTrue(first.isCancelled());
+        assertEquals("java embedding", second.join());
+    }
+}
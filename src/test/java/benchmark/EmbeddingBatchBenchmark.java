@@ -0,0 +1,247 @@
+package benchmark;
+
+import api.embeddingapi.BatchingEmbeddingAPI;
+import api.embeddingapi.EmbeddingAPIInterface;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Standalone benchmark for embedding request batching. Not run as part of the unit tests.
+ * <p>
+ * Usage: {@code EmbeddingBatchBenchmark [texts] [callers] [dimension]}.
+ * A local HTTP server stands in for the embeddings endpoint: it answers in the OpenAI response format after a fixed
+ * latency per request plus a small cost per input, and serves a limited number of requests at a time, like a rate
+ * limited API. The texts are embedded one request per text, through a {@link BatchingEmbeddingAPI}, and with one
+ * bulk call. Results are recorded in {@code docs/search-benchmarks.md}.
+ */
+public class EmbeddingBatchBenchmark {
+    private static final int REQUEST_LATENCY_MILLIS = 20;
+    private static final int INPUT_COST_MICROS = 50;
+    private static final int SERVER_CONCURRENCY = 8;
+    private static final int MAX_INPUTS_PER_REQUEST = 256;
+
+    public static void main(String[] args) throws Exception {
+        int textCount = args.length > 0 ? Integer.parseInt(args[0]) : 2000;
+        int callerCount = args.length > 1 ? Integer.parseInt(args[1]) : 32;
+        int dimension = args.length > 2 ? Integer.parseInt(args[2]) : 1536;
+        System.out.printf("embedding batching: %d texts, %d callers, %d dimensions, %d ms + %d us/input per request,"
+                + " %d concurrent requests%n", textCount, callerCount, dimension, REQUEST_LATENCY_MILLIS,
+                INPUT_COST_MICROS, SERVER_CONCURRENCY);
+
+        List<String> texts = new ArrayList<>(textCount);
+        for (int i = 0; i < textCount; i++) {
+            texts.add("project " + i + " about machine learning and data pipelines");
+        }
+        AtomicLong requests = new AtomicLong();
+        HttpServer server = stubServer(dimension, requests);
+        try {
+            StubClient client = new StubClient("http://localhost:" + server.getAddress().getPort() + "/v1/embeddings");
+            embedConcurrently(client, texts.subList(0, Math.min(200, textCount)), callerCount); // warm-up
+
+            requests.set(0);
+            double seconds = embedConcurrently(client, texts, callerCount);
+            report("one request per text", textCount, seconds, requests.get());
+
+            for (int batchSize : new int[]{16, 64}) {
+                BatchingEmbeddingAPI batching = new BatchingEmbeddingAPI(client, batchSize, Duration.ofMillis(10));
+                requests.set(0);
+                seconds = embedConcurrently(batching, texts, callerCount);
+                report("batched (size " + batchSize + ", 10 ms window)", textCount, seconds, requests.get());
+            }
+
+            requests.set(0);
+            long start = System.nanoTime();
+            client.getEmbedData(texts);
+            report("bulk getEmbedData(List)", textCount, (System.nanoTime() - start) / 1e9, requests.get());
+        }
+        finally {
+            server.stop(0);
+        }
+    }
+
+    /**
+     * Embeds the texts from several threads, each taking the next text and waiting for its embedding, and returns
+     * the elapsed seconds.
+     */
+    private static double embedConcurrently(EmbeddingAPIInterface api, List<String> texts, int callerCount)
+            throws InterruptedException {
+        AtomicInteger next = new AtomicInteger();
+        ArrayList<Thread> callers = new ArrayList<>();
+        long start = System.nanoTime();
+        for (int c = 0; c < callerCount; c++) {
+            callers.add(Thread.ofPlatform().start(() -> {
+                for (int i = next.getAndIncrement(); i < texts.size(); i = next.getAndIncrement()) {
+                    if (api.getEmbedData(texts.get(i)).length == 0) {
+                        throw new IllegalStateException("Empty embedding");
+                    }
+                }
+            }));
+        }
+        for (Thread caller : callers) {
+            caller.join();
+        }
+        return (System.nanoTime() - start) / 1e9;
+    }
+
+    private static void report(String label, int textCount, double seconds, long requests) {
+        System.out.printf("%-34s %8.0f texts/s  %5d requests  %6.1f texts/request%n",
+                label, textCount / seconds, requests, (double) textCount / requests);
+    }
+
+    /**
+     * Starts a server that answers embedding requests in the format of the OpenAI API.
+     */
+    private static HttpServer stubServer(int dimension, AtomicLong requests) throws IOException {
+        HttpServer server = HttpServer.create(new InetSocketAddress("localhost", 0), 64);
+        ExecutorService workers = Executors.newFixedThreadPool(SERVER_CONCURRENCY,
+                Thread.ofPlatform().daemon().factory());
+        server.setExecutor(workers);
+        server.createContext("/v1/embeddings", exchange -> answer(exchange, dimension, requests));
+        server.start();
+        return server;
+    }
+
+    private static void answer(HttpExchange exchange, int dimension, AtomicLong requests) throws IOException {
+        String body = new String(exchange.getRequestBody().readAllBytes(), StandardCharsets.UTF_8);
+        int inputs = inputTexts(body).size();
+        requests.incrementAndGet();
+        try {
+            Thread.sleep(Duration.ofMillis(REQUEST_LATENCY_MILLIS).plusNanos(inputs * INPUT_COST_MICROS * 1000L));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        StringBuilder response = new StringBuilder("{\"object\":\"list\",\"data\":[");
+        for (int i = 0; i < inputs; i++) {
+            response.append(i == 0 ? "" : ",").append("{\"object\":\"embedding\",\"index\":").append(i)
+                    .append(",\"embedding\":[");
+            for (int d = 0; d < dimension; d++) {
+                response.append(d == 0 ? "" : ",").append(d == i % dimension ? "1.0" : "0.0");
+            }
+            response.append("]}");
+        }
+        response.append("],\"model\":\"text-embedding-3-small\"}");
+        byte[] bytes = response.toString().getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().add("Content-Type", "application/json");
+        exchange.sendResponseHeaders(200, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    /**
+     * Reads the strings of the "input" array of a request body. The benchmark texts need no escaping.
+     */
+    private static List<String> inputTexts(String body) {
+        ArrayList<String> texts = new ArrayList<>();
+        int at = body.indexOf('[', body.indexOf("\"input\""));
+        while (body.charAt(at) != ']') {
+            int open = body.indexOf('"', at);
+            int close = body.indexOf('"', open + 1);
+            texts.add(body.substring(open + 1, close));
+            at = close + 1;
+            while (body.charAt(at) == ',' || body.charAt(at) == ' ') {
+                at++;
+            }
+        }
+        return texts;
+    }
+
+    /**
+     * An embedding client for the stub server on the JDK HTTP client, which, unlike OpenAPIDataEmbed, needs no
+     * libraries outside the JDK. Like OpenAPIDataEmbed it sends up to 256 texts per request.
+     */
+    private static class StubClient implements EmbeddingAPIInterface {
+        private final HttpClient http = HttpClient.newBuilder().executor(Executors.newCachedThreadPool(
+                Thread.ofPlatform().daemon().factory())).build();
+        private final URI uri;
+
+        private StubClient(String url) {
+            this.uri = URI.create(url);
+        }
+
+        @Override
+        public float[] getEmbedData(String text) {
+            return getEmbedData(List.of(text)).getFirst();
+        }
+
+        @Override
+        public List<float[]> getEmbedData(List<String> texts) {
+            try {
+                return getEmbedDataAsync(texts).join();
+            } catch (CompletionException e) {
+                throw new RuntimeException(e.getCause());
+            }
+        }
+
+        @Override
+        public CompletableFuture<List<float[]>> getEmbedDataAsync(List<String> texts) {
+            ArrayList<CompletableFuture<List<float[]>>> batches = new ArrayList<>();
+            for (int from = 0; from < texts.size(); from += MAX_INPUTS_PER_REQUEST) {
+                batches.add(send(texts.subList(from, Math.min(from + MAX_INPUTS_PER_REQUEST, texts.size()))));
+            }
+            return CompletableFuture.allOf(batches.toArray(new CompletableFuture<?>[0])).thenApply(_ -> {
+                ArrayList<float[]> embeddings = new ArrayList<>(texts.size());
+                for (CompletableFuture<List<float[]>> batch : batches) {
+                    embeddings.addAll(batch.join());
+                }
+                return embeddings;
+            });
+        }
+
+        private CompletableFuture<List<float[]>> send(List<String> texts) {
+            StringBuilder body = new StringBuilder("{\"input\":[");
+            for (int i = 0; i < texts.size(); i++) {
+                body.append(i == 0 ? "\"" : ",\"").append(texts.get(i)).append('"');
+            }
+            body.append("],\"model\":\"text-embedding-3-small\"}");
+            HttpRequest request = HttpRequest.newBuilder(uri)
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofString(body.toString()))
+                    .build();
+            return http.sendAsync(request, HttpResponse.BodyHandlers.ofString())
+                    .thenApply(response -> parseEmbeddings(response.body(), texts.size()));
+        }
+
+        /**
+         * Reads the embeddings of a stub server response, which lists them in the order of the inputs.
+         */
+        private static List<float[]> parseEmbeddings(String body, int count) {
+            ArrayList<float[]> embeddings = new ArrayList<>(count);
+            int at = 0;
+            while ((at = body.indexOf("\"embedding\":[", at)) >= 0) {
+                int open = at + "\"embedding\":[".length();
+                int close = body.indexOf(']', open);
+                String[] values = body.substring(open, close).split(",");
+                float[] embedding = new float[values.length];
+                for (int d = 0; d < values.length; d++) {
+                    embedding[d] = Float.parseFloat(values[d]);
+                }
+                embeddings.add(embedding);
+                at = close;
+            }
+            if (embeddings.size() != count) {
+                throw new IllegalStateException("Received " + embeddings.size() + " embeddings for " + count);
+            }
+            return embeddings;
+        }
+    }
+}
@@ -0,0 +1,104 @@
+package benchmark;
+
+import api.embeddingapi.EmbeddingResponseDecoder;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Standalone benchmark for decoding embedding responses. Not run as part of the unit tests.
+ * <p>
+ * Usage: {@code EmbeddingDecodeBenchmark [embeddings per response] [dimension]}.
+ * Builds responses in the format of the OpenAI embeddings endpoint, once with arrays of decimal numbers and once with
+ * base64 strings, and compares their size and the time {@link EmbeddingResponseDecoder} takes to decode them.
+ * Results are recorded in {@code docs/search-benchmarks.md}.
+ */
+public class EmbeddingDecodeBenchmark {
+    private static final int ROUNDS = 5;
+
+    public static void main(String[] args) throws IOException {
+        int count = args.length > 0 ? Integer.parseInt(args[0]) : 64;
+        int dimension = args.length > 1 ? Integer.parseInt(args[1]) : 1536;
+        System.out.printf("embedding decoding: %d embeddings per response, %d dimensions%n", count, dimension);
+
+        Random random = new Random(5);
+        float[][] embeddings = new float[count][dimension];
+        for (float[] embedding : embeddings) {
+            for (int d = 0; d < dimension; d++) {
+                embedding[d] = (float) (random.nextGaussian() / Math.sqrt(dimension));
+            }
+        }
+        byte[] floats = response(embeddings, false);
+        byte[] base64 = response(embeddings, true);
+        check(floats, embeddings);
+        check(base64, embeddings);
+
+        int repetitions = Math.max(1, 20_000 / count);
+        for (int round = 0; round < ROUNDS; round++) {
+            double floatMicros = decodeMicros(floats, count, repetitions);
+            double base64Micros = decodeMicros(base64, count, repetitions);
+            if (round == ROUNDS - 1) {
+                System.out.printf("float arrays: %7.1f KB/embedding  %7.1f us/embedding%n",
+                        floats.length / 1024.0 / count, floatMicros);
+                System.out.printf("base64:       %7.1f KB/embedding  %7.1f us/embedding%n",
+                        base64.length / 1024.0 / count, base64Micros);
+                System.out.printf("base64 is %.1fx smaller and decodes %.1fx faster%n",
+                        (double) floats.length / base64.length, floatMicros / base64Micros);
+            }
+        }
+    }
+
+    private static double decodeMicros(byte[] response, int count, int repetitions) throws IOException {
+        long start = System.nanoTime();
+        for (int r = 0; r < repetitions; r++) {
+            EmbeddingResponseDecoder.decode(new ByteArrayInputStream(response), count);
+        }
+        return (System.nanoTime() - start) / 1e3 / repetitions / count;
+    }
+
+    private static void check(byte[] response, float[][] embeddings) throws IOException {
+        List<float[]> decoded = EmbeddingResponseDecoder.decode(new ByteArrayInputStream(response), embeddings.length);
+        for (int i = 0; i < embeddings.length; i++) {
+            if (!Arrays.equals(decoded.get(i), embeddings[i])) {
+                throw new IllegalStateException("Embedding " + i + " was not decoded exactly");
+            }
+        }
+    }
+
+    /**
+     * Writes a response of the embeddings endpoint as the API formats it.
+     */
+    private static byte[] response(float[][] embeddings, boolean base64) {
+        StringBuilder response = new StringBuilder("{\n  \"object\": \"list\",\n  \"data\": [\n");
+        for (int i = 0; i < embeddings.length; i++) {
+            response.append("    {\n      \"object\": \"embedding\",\n      \"index\": ").append(i)
+                    .append(",\n      \"embedding\": ");
+            if (base64) {
+                ByteBuffer bytes = ByteBuffer.allocate(embeddings[i].length * Float.BYTES)
+                        .order(ByteOrder.LITTLE_ENDIAN);
+                for (float value : embeddings[i]) {
+                    bytes.putFloat(value);
+                }
+                response.append('"').append(Base64.getEncoder().encodeToString(bytes.array())).append('"');
+            }
+            else {
+                response.append("[\n");
+                for (int d = 0; d < embeddings[i].length; d++) {
+                    response.append(d == 0 ? "        " : ",\n        ").append(embeddings[i][d]);
+                }
+                response.append("\n      ]");
+            }
+            response.append("\n    }").append(i + 1 < embeddings.length ? ",\n" : "\n");
+        }
+        response.append("  ],\n  \"model\": \"text-embedding-3-small\",\n")
+                .append("  \"usage\": {\n    \"prompt_tokens\": 8,\n    \"total_tokens\": 8\n  }\n}\n");
+        return response.toString().getBytes(StandardCharsets.UTF_8);
+    }
+}
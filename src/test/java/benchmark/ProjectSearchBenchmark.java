@@ -0,0 +1,1143 @@
+package benchmark;
+
+import api.embeddingapi.CachingEmbeddingAPI;
+import api.embeddingapi.ContentAddressedEmbeddingCache;
+import api.embeddingapi.EmbeddingAPIInterface;
+import api.embeddingapi.HashedNgramEmbeddingAPI;
+import dataaccess.IProjectRepository;
+import entities.Project;
+import entities.ProjectInterface;
+import usecase.relatedprojects.LocalRelatedProjectsObject;
+import usecase.searchforproject.LocalProjectSearchObject;
+import usecase.searchforproject.ProjectSearchFilter;
+import usecase.searchforproject.QuantizedProjectSearchObject;
+import usecase.searchforproject.index.Bm25Index;
+import usecase.searchforproject.index.HnswIndex;
+import usecase.searchforproject.index.IvfIndex;
+import usecase.searchforproject.index.LshIndex;
+import usecase.searchforproject.index.NormalizedEmbeddingStore;
+import usecase.searchforproject.index.PersistentEmbeddingStore;
+import usecase.searchforproject.index.QuantizedEmbeddingStore;
+import usecase.searchforproject.index.ScalarVectorKernel;
+import usecase.searchforproject.index.SearchHits;
+import usecase.searchforproject.index.TopKHeap;
+import usecase.searchforproject.index.VectorKernel;
+import usecase.searchforproject.index.VectorKernels;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.management.ManagementFactory;
+import java.lang.reflect.Proxy;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Consumer;
+
+/**
+ * Standalone benchmark for the project search indexes. Not run as part of the unit tests.
+ * <p>
+ * Usage: {@code ProjectSearchBenchmark <benchmark> [projects] [dimension]} where benchmark is one of
+ * {@code hnsw}, {@code kernel}, {@code topk}, {@code parallel}, {@code quantized}, {@code arena},
+ * {@code cache}, {@code contentcache}, {@code localembed}, {@code lexical}, {@code reload}, {@code filter}, {@code ivf}, {@code truncated}, {@code batch},
+ * {@code dedup}, {@code snapshot}, {@code related} or {@code stream}.
+ * Embeddings are drawn from a Gaussian mixture so that, like real text embeddings, they form clusters.
+ * Results are recorded in {@code docs/search-benchmarks.md}.
+ */
+public class ProjectSearchBenchmark {
+    private static final int QUERY_COUNT = 200;
+    private static final int K = 10;
+    private static final int CLUSTER_COUNT = 100;
+
+    public static void main(String[] args) {
+        String benchmark = args.length > 0 ? args[0] : "hnsw";
+        int projectCount = args.length > 1 ? Integer.parseInt(args[1]) : 10_000;
+        int dimension = args.length > 2 ? Integer.parseInt(args[2]) : 1536;
+
+        float[][] projects = clusteredVectors(projectCount, dimension, 1);
+        float[][] queries = clusteredVectors(QUERY_COUNT, dimension, 2);
+        System.out.printf("%s: %d projects, %d dimensions, %d queries, k=%d%n",
+                benchmark, projectCount, dimension, QUERY_COUNT, K);
+
+        switch (benchmark) {
+            case "hnsw" -> hnsw(projects, queries);
+            case "kernel" -> kernel(projects, queries);
+            case "topk" -> topK(projects, queries);
+            case "parallel" -> parallel(projects, queries);
+            case "quantized" -> quantized(projects, queries);
+            case "arena" -> arena(projects, queries);
+            case "cache" -> cache(projects, queries);
+            case "contentcache" -> contentCache(projects);
+            case "localembed" -> localEmbed(projects.length, projects[0].length);
+            case "lexical" -> lexical(projects.length);
+            case "reload" -> reload(projects, queries);
+            case "filter" -> filter(projects, queries);
+            case "ivf" -> ivf(projects, queries);
+            case "truncated" -> truncated(projects, queries);
+            case "batch" -> batch(projects, queries);
+            case "dedup" -> dedup(projects);
+            case "related" -> related(projects, queries);
+            case "stream" -> stream(projects, queries);
+            case "snapshot" -> snapshot(projects, queries);
+            case "coldstart" -> coldStart(projects, queries, args[3]);
+            default -> throw new IllegalArgumentException("Unknown benchmark " + benchmark);
+        }
+    }
+
+    /**
+     * Recall@k and latency of HNSW for several efSearch values, against the exact scan.
+     */
+    private static void hnsw(float[][] projects, float[][] queries) {
+        int[][] exact = exactTopK(projects, queries);
+        double exactMicros = timeQueries(queries, query -> exactTopK(projects, query));
+        System.out.printf("exact scan: %.0f us/query%n", exactMicros);
+
+        for (int m : new int[]{16, 32}) {
+            HnswIndex index = new HnswIndex(m, 200, 64, 42);
+            long start = System.nanoTime();
+            for (int i = 0; i < projects.length; i++) {
+                index.add(i, projects[i]);
+            }
+            System.out.printf("M=%d efConstruction=200: build %.1f s%n", m, (System.nanoTime() - start) / 1e9);
+            for (int ef : new int[]{16, 32, 64, 128, 256}) {
+                index.setEfSearch(ef);
+                double recall = recall(exact, queries, query -> index.search(query, K).ids());
+                double micros = timeQueries(queries, query -> index.search(query, K));
+                System.out.printf("  efSearch=%-4d recall@%d=%.3f  %.0f us/query  speedup x%.1f%n",
+                        ef, K, recall, micros, exactMicros / micros);
+            }
+        }
+    }
+
+    /**
+     * Time to score every project against a query: the original per-pair cosine against pre-normalized
+     * embeddings with the scalar kernel and with the default (SIMD when available) kernel.
+     */
+    private static void kernel(float[][] projects, float[][] queries) {
+        System.out.println("default kernel uses SIMD: " + VectorKernels.isSimd());
+        float[] scores = new float[projects.length];
+        double legacy = timeQueries(queries, query -> {
+            for (int i = 0; i < projects.length; i++) {
+                scores[i] = legacyCosine(query, projects[i]);
+            }
+            return scores;
+        });
+        System.out.printf("per-pair cosine with Math.pow: %.0f us/query%n", legacy);
+
+        VectorKernel[] kernels = {new ScalarVectorKernel(), VectorKernels.getDefault()};
+        for (VectorKernel kernel : kernels) {
+            NormalizedEmbeddingStore store = new NormalizedEmbeddingStore(kernel);
+            for (int i = 0; i < projects.length; i++) {
+                store.put(i, projects[i]);
+            }
+            double micros = timeQueries(queries, query -> {
+                float[] normalized = VectorKernels.normalize(query);
+                for (int slot = 0; slot < store.size(); slot++) {
+                    scores[slot] = store.similarity(normalized, slot);
+                }
+                return scores;
+            });
+            System.out.printf("pre-normalized, %s: %.0f us/query  speedup x%.1f%n",
+                    kernel.getClass().getSimpleName(), micros, legacy / micros);
+        }
+    }
+
+    /**
+     * Time to rank the scores of every project and take the first page: the original boxed map sorted by value
+     * against the bounded primitive heap.
+     */
+    private static void topK(float[][] projects, float[][] queries) {
+        NormalizedEmbeddingStore store = new NormalizedEmbeddingStore();
+        for (int i = 0; i < projects.length; i++) {
+            store.put(i, projects[i]);
+        }
+        float[][] scores = new float[queries.length][store.size()];
+        for (int q = 0; q < queries.length; q++) {
+            float[] normalized = VectorKernels.normalize(queries[q]);
+            for (int slot = 0; slot < store.size(); slot++) {
+                scores[q][slot] = store.similarity(normalized, slot);
+            }
+        }
+        int[] next = {0};
+        Query legacy = _ -> {
+            float[] queryScores = scores[next[0]++ % scores.length];
+            Map<Integer, Float> map = new LinkedHashMap<>();
+            for (int slot = 0; slot < queryScores.length; slot++) {
+                map.put(store.idAt(slot), queryScores[slot]);
+            }
+            List<Map.Entry<Integer, Float>> list = new ArrayList<>(map.entrySet());
+            list.sort(Map.Entry.comparingByValue());
+            Collections.reverse(list);
+            Map<Integer, Float> sorted = new LinkedHashMap<>();
+            for (Map.Entry<Integer, Float> entry : list) {
+                sorted.put(entry.getKey(), entry.getValue());
+            }
+            int[] page = new int[K];
+            for (int i = 0; i < K; i++) {
+                int id = sorted.keySet().iterator().next();
+                page[i] = id;
+                sorted.remove(id);
+            }
+            return page;
+        };
+        Query heap = _ -> {
+            float[] queryScores = scores[next[0]++ % scores.length];
+            TopKHeap topK = TopKHeap.forCurrentThread(K);
+            for (int slot = 0; slot < queryScores.length; slot++) {
+                topK.offer(store.idAt(slot), queryScores[slot]);
+            }
+            return topK.drainSorted(0);
+        };
+        double legacyMicros = timeQueries(queries, legacy);
+        double heapMicros = timeQueries(queries, heap);
+        System.out.printf("boxed map + sortByValue: %.0f us/query%n", legacyMicros);
+        System.out.printf("TopKHeap: %.0f us/query  speedup x%.1f%n", heapMicros, legacyMicros / heapMicros);
+    }
+
+    /**
+     * Latency of the exact search scanned serially and split into shards on the common fork/join pool.
+     */
+    private static void parallel(float[][] projects, float[][] queries) {
+        IProjectRepository repository = repository(projects);
+        EmbeddingAPIInterface embeddingAPI = queryAPI(queries);
+
+        int processors = Runtime.getRuntime().availableProcessors();
+        System.out.println("available processors: " + processors);
+        double serialMicros = 0;
+        for (int parallelism : new int[]{1, 2, 4, 8}) {
+            LocalProjectSearchObject search = new LocalProjectSearchObject(repository, embeddingAPI,
+                    new NormalizedEmbeddingStore(), ForkJoinPool.commonPool(), parallelism, 0);
+            int[] next = {0};
+            double micros = timeQueries(queries, _ -> search.searchProjects(Integer.toString(next[0]++ % queries.length), K, 0));
+            if (parallelism == 1) {
+                serialMicros = micros;
+            }
+            System.out.printf("parallelism=%d: %.0f us/query  speedup x%.2f%n", parallelism, micros, serialMicros / micros);
+        }
+    }
+
+    /**
+     * Memory, recall@k and latency of the int8 quantized search with rescoring, against the exact search.
+     */
+    private static void quantized(float[][] projects, float[][] queries) {
+        IProjectRepository repository = repository(projects);
+        EmbeddingAPIInterface embeddingAPI = queryAPI(queries);
+        LocalProjectSearchObject exact = new LocalProjectSearchObject(repository, embeddingAPI,
+                new NormalizedEmbeddingStore(), ForkJoinPool.commonPool(), 1, Integer.MAX_VALUE);
+        int dimension = projects[0].length;
+        System.out.printf("float store: %.1f MB, int8 store: %.1f MB%n", projects.length * dimension * 4 / 1e6,
+                projects.length * (dimension + 8) / 1e6);
+
+        int[][] truth = new int[queries.length][];
+        for (int q = 0; q < queries.length; q++) {
+            truth[q] = projectIds(exact.searchProjects(Integer.toString(q), K, 0));
+        }
+        int[] next = {0};
+        double exactMicros = timeQueries(queries, _ -> exact.searchProjects(Integer.toString(next[0]++ % queries.length), K, 0));
+        System.out.printf("exact: %.0f us/query%n", exactMicros);
+
+        for (double minRecall : new double[]{0.90, 0.95, 0.99}) {
+            long start = System.nanoTime();
+            QuantizedProjectSearchObject search = new QuantizedProjectSearchObject(repository, embeddingAPI,
+                    new QuantizedEmbeddingStore(), minRecall, K);
+            search.searchProjects("0", K, 0); // quantizes and calibrates
+            double buildSeconds = (System.nanoTime() - start) / 1e9;
+            int found = 0;
+            for (int q = 0; q < queries.length; q++) {
+                HashSet<Integer> expected = new HashSet<>();
+                for (int id : truth[q]) {
+                    expected.add(id);
+                }
+                for (int id : projectIds(search.searchProjects(Integer.toString(q), K, 0))) {
+                    if (expected.contains(id)) {
+                        found++;
+                    }
+                }
+            }
+            double micros = timeQueries(queries, _ -> search.searchProjects(Integer.toString(next[0]++ % queries.length), K, 0));
+            System.out.printf("minRecall=%.2f: build+calibrate %.1f s, candidates x%.1f, recall@%d=%.3f, %.0f us/query%n",
+                    minRecall, buildSeconds, search.getCandidateFactor(), K, found / (double) (queries.length * K), micros);
+        }
+    }
+
+    /**
+     * Heap footprint and scan latency of normalized embeddings held as a {@code HashMap<Integer, float[]>} and in
+     * the off-heap arena behind NormalizedEmbeddingStore.
+     */
+    private static void arena(float[][] projects, float[][] queries) {
+        VectorKernel kernel = VectorKernels.getDefault();
+        long baseline = usedHeap();
+        HashMap<Integer, float[]> map = new HashMap<>();
+        for (int i = 0; i < projects.length; i++) {
+            map.put(i, VectorKernels.normalize(projects[i]));
+        }
+        long mapHeap = usedHeap() - baseline;
+        float[] sink = new float[1];
+        double mapMicros = timeQueries(queries, query -> {
+            float[] normalized = VectorKernels.normalize(query);
+            for (Map.Entry<Integer, float[]> entry : map.entrySet()) {
+                sink[0] += kernel.dot(normalized, entry.getValue()) + entry.getKey();
+            }
+            return sink;
+        });
+        System.out.printf("HashMap<Integer, float[]>: %.1f MB heap, %.0f us/query%n", mapHeap / 1e6, mapMicros);
+        map.clear();
+
+        baseline = usedHeap();
+        NormalizedEmbeddingStore store = new NormalizedEmbeddingStore(kernel);
+        for (int i = 0; i < projects.length; i++) {
+            store.put(i, projects[i]);
+        }
+        long storeHeap = usedHeap() - baseline;
+        double storeMicros = timeQueries(queries, query -> {
+            store.scan(VectorKernels.normalize(query), 0, store.slotCount(), (id, score) -> sink[0] += score + id);
+            return sink;
+        });
+        System.out.printf("off-heap arena: %.1f MB heap, %.0f us/query%n", storeHeap / 1e6, storeMicros);
+        long start = System.nanoTime();
+        for (int i = 0; i < projects.length; i += 2) {
+            store.remove(i);
+        }
+        System.out.printf("remove every second project (tombstones + compaction): %.1f ms%n", (System.nanoTime() - start) / 1e6);
+    }
+
+    /**
+     * Latency of a full exact search when the query embedding comes from a simulated 200 ms embedding API, for the
+     * first and for a repeated search through CachingEmbeddingAPI.
+     */
+    private static void cache(float[][] projects, float[][] queries) {
+        EmbeddingAPIInterface queryAPI = queryAPI(queries);
+        EmbeddingAPIInterface slowAPI = text -> {
+            try {
+                Thread.sleep(200);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return queryAPI.getEmbedData(text);
+        };
+        CachingEmbeddingAPI cachingAPI = new CachingEmbeddingAPI(slowAPI, 1000, Duration.ofDays(7));
+        LocalProjectSearchObject search = new LocalProjectSearchObject(repository(projects), cachingAPI);
+        search.searchProjects("0", K, 0); // warms up the scan outside of the measurement
+
+        int distinct = 20;
+        double[] passMicros = new double[2];
+        double[] embedMicros = new double[2];
+        for (int pass = 0; pass < 2; pass++) {
+            long start = System.nanoTime();
+            for (int i = 1; i <= distinct; i++) {
+                search.searchProjects(Integer.toString(i), K, 0);
+            }
+            passMicros[pass] = (System.nanoTime() - start) / 1e3 / distinct;
+            start = System.nanoTime();
+            for (int i = 1; i <= distinct; i++) {
+                cachingAPI.getEmbedData(Integer.toString(i));
+            }
+            embedMicros[pass] = (System.nanoTime() - start) / 1e3 / distinct;
+        }
+        System.out.printf("first search: %.1f ms/query%n", passMicros[0] / 1e3);
+        System.out.printf("repeated search: %.1f ms/query, cached query embedding alone: %.1f us%n",
+                passMicros[1] / 1e3, embedMicros[1]);
+        System.out.printf("hits=%d misses=%d evictions=%d%n",
+                cachingAPI.getHitCount(), cachingAPI.getMissCount(), cachingAPI.getEvictionCount());
+    }
+
+    /**
+     * Cost of the content-addressed project embedding cache: a hit, a miss stored to the log, and reloading the log,
+     * plus the share of embedding requests it saves when most project saves leave the description unchanged.
+     */
+    private static void contentCache(float[][] projects) {
+        int[] calls = new int[1];
+        EmbeddingAPIInterface api = text -> {
+            calls[0]++;
+            return projects[Integer.parseInt(text.substring(text.lastIndexOf(' ') + 1))].clone();
+        };
+        Path file;
+        try {
+            file = Files.createTempDirectory("content-cache").resolve("project_embeddings.bin");
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        int count = projects.length;
+        ContentAddressedEmbeddingCache cache = new ContentAddressedEmbeddingCache(api, "model", count, file);
+        long start = System.nanoTime();
+        for (int i = 0; i < count; i++) {
+            cache.getEmbedData("description of project " + i);
+        }
+        double missMicros = (System.nanoTime() - start) / 1e3 / count;
+        start = System.nanoTime();
+        for (int i = 0; i < count; i++) {
+            cache.getEmbedData("description of project " + i);
+        }
+        double hitMicros = (System.nanoTime() - start) / 1e3 / count;
+        long fileBytes;
+        try {
+            fileBytes = Files.size(file);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        start = System.nanoTime();
+        ContentAddressedEmbeddingCache restarted = new ContentAddressedEmbeddingCache(api, "model", count, file);
+        double loadMillis = (System.nanoTime() - start) / 1e6;
+        System.out.printf("miss (stored to log): %.1f us, hit: %.1f us, log: %.1f MB, reload of %d entries: %.0f ms%n",
+                missMicros, hitMicros, fileBytes / 1e6, restarted.size(), loadMillis);
+
+        // Saves of existing projects, of which 80% leave the description unchanged
+        Random random = new Random(9);
+        calls[0] = 0;
+        int saves = 2000;
+        for (int s = 0; s < saves; s++) {
+            int project = random.nextInt(count);
+            String description = "description of project " + project;
+            restarted.getEmbedData(random.nextDouble() < 0.8 ? description : "edited " + description);
+        }
+        System.out.printf("%d saves: %d embedding requests, hit rate %.2f%n", saves, calls[0],
+                restarted.getHitRate());
+    }
+
+    /**
+     * Speed of the in-process hashed n-gram embeddings, and how often a query of three words taken from a project
+     * description finds that project in the top k of an exact search over the embeddings.
+     */
+    private static void localEmbed(int projectCount, int dimension) {
+        Random random = new Random(4);
+        double[] cumulative = new double[20_000];
+        double total = 0;
+        for (int i = 0; i < cumulative.length; i++) {
+            total += 1.0 / (i + 1);
+            cumulative[i] = total;
+        }
+        String[] descriptions = new String[projectCount];
+        for (int i = 0; i < projectCount; i++) {
+            descriptions[i] = zipfText(random, cumulative, 60);
+        }
+        HashedNgramEmbeddingAPI embeddingAPI = new HashedNgramEmbeddingAPI(dimension);
+        float[][] embeddings = new float[projectCount][];
+        for (int i = 0; i < Math.min(1000, projectCount); i++) {
+            embeddingAPI.getEmbedData(descriptions[i]); // warm-up
+        }
+        long start = System.nanoTime();
+        for (int i = 0; i < projectCount; i++) {
+            embeddings[i] = embeddingAPI.getEmbedData(descriptions[i]);
+        }
+        System.out.printf("description of %d chars: %.1f us/embedding%n",
+                Arrays.stream(descriptions).mapToInt(String::length).sum() / projectCount,
+                (System.nanoTime() - start) / 1e3 / projectCount);
+
+        String[] queryTexts = new String[QUERY_COUNT];
+        int[] sources = new int[QUERY_COUNT];
+        for (int q = 0; q < QUERY_COUNT; q++) {
+            sources[q] = random.nextInt(projectCount);
+            String[] words = descriptions[sources[q]].split(" ");
+            queryTexts[q] = words[random.nextInt(words.length)] + " " + words[random.nextInt(words.length)] + " "
+                    + words[random.nextInt(words.length)];
+        }
+        double queryMicros = timeTexts(queryTexts, query -> embeddingAPI.getEmbedData(query));
+        int found = 0;
+        for (int q = 0; q < QUERY_COUNT; q++) {
+            for (int id : exactTopK(embeddings, embeddingAPI.getEmbedData(queryTexts[q])).ids()) {
+                found += id == sources[q] ? 1 : 0;
+            }
+        }
+        Bm25Index index = new Bm25Index();
+        for (int i = 0; i < projectCount; i++) {
+            index.put(i, "", descriptions[i], List.of());
+        }
+        int foundByBm25 = 0;
+        for (int q = 0; q < QUERY_COUNT; q++) {
+            for (int id : index.search(queryTexts[q], K).ids()) {
+                foundByBm25 += id == sources[q] ? 1 : 0;
+            }
+        }
+        System.out.printf("query of 3 words: %.1f us/embedding, source project in top %d: %.2f (BM25: %.2f)%n",
+                queryMicros, K, (double) found / QUERY_COUNT, (double) foundByBm25 / QUERY_COUNT);
+    }
+
+    /**
+     * Latency of the former substring scan of LocalProjectRepository.getProjectsByKeyword and of a BM25 top-k
+     * search, on synthetic project texts whose words follow a Zipf distribution.
+     */
+    private static void lexical(int projectCount) {
+        Random random = new Random(3);
+        int vocabulary = 20_000;
+        double[] cumulative = new double[vocabulary];
+        double total = 0;
+        for (int i = 0; i < vocabulary; i++) {
+            total += 1.0 / (i + 1);
+            cumulative[i] = total;
+        }
+        String[][] texts = new String[projectCount][];
+        for (int i = 0; i < projectCount; i++) {
+            texts[i] = new String[]{zipfText(random, cumulative, 4), zipfText(random, cumulative, 60),
+                    zipfText(random, cumulative, 1), zipfText(random, cumulative, 1)};
+        }
+        String[] queryTexts = new String[QUERY_COUNT];
+        for (int i = 0; i < QUERY_COUNT; i++) {
+            queryTexts[i] = zipfText(random, cumulative, 2);
+        }
+
+        long start = System.nanoTime();
+        Bm25Index index = new Bm25Index();
+        for (int i = 0; i < projectCount; i++) {
+            index.put(i, texts[i][0], texts[i][1], List.of(texts[i][2], texts[i][3]));
+        }
+        System.out.printf("BM25 build: %.0f ms%n", (System.nanoTime() - start) / 1e6);
+
+        int[] sink = new int[1];
+        double scanMicros = timeTexts(queryTexts, query -> {
+            for (String[] text : texts) {
+                if (text[0].contains(query) || text[1].contains(query) || text[2].contains(query)
+                        || text[3].contains(query)) {
+                    sink[0]++;
+                }
+            }
+        });
+        double bm25Micros = timeTexts(queryTexts, query -> sink[0] += index.search(query, K).size());
+        System.out.printf("substring scan: %.0f us/query, BM25 top-%d: %.0f us/query%n", scanMicros, K, bm25Micros);
+
+        // Search as you type: every prefix of every query, as typed one character at a time
+        ArrayList<String> keystrokes = new ArrayList<>();
+        for (String query : queryTexts) {
+            for (int end = 1; end <= query.length(); end++) {
+                keystrokes.add(query.substring(0, end));
+            }
+        }
+        for (String typed : keystrokes.subList(0, keystrokes.size() / 4)) {
+            sink[0] += index.searchPrefix(typed, K, null).size(); // warm-up
+        }
+        long[] keystrokeNanos = new long[keystrokes.size()];
+        for (int i = 0; i < keystrokes.size(); i++) {
+            long keystrokeStart = System.nanoTime();
+            sink[0] += index.searchPrefix(keystrokes.get(i), K, null).size();
+            keystrokeNanos[i] = System.nanoTime() - keystrokeStart;
+        }
+        Arrays.sort(keystrokeNanos);
+        System.out.printf("BM25 prefix top-%d: %.0f us/keystroke, p99 %.0f us, slowest %.0f us%n", K,
+                Arrays.stream(keystrokeNanos).average().orElse(0) / 1e3,
+                keystrokeNanos[keystrokeNanos.length * 99 / 100] / 1e3, keystrokeNanos[keystrokeNanos.length - 1] / 1e3);
+
+        start = System.nanoTime();
+        for (int i = 0; i < 1000; i++) {
+            int id = random.nextInt(projectCount);
+            index.put(id, texts[id][1], texts[id][0], List.of(texts[id][2]));
+        }
+        System.out.printf("incremental update: %.1f us/project%n", (System.nanoTime() - start) / 1e3 / 1000);
+    }
+
+    /**
+     * Cost of rebuilding every embedding from a row-per-value table, as each search used to do through
+     * getAllEmbeddings(), against the latency of a search on the index that is loaded once.
+     */
+    private static void reload(float[][] projects, float[][] queries) {
+        int dimension = projects[0].length;
+        int[] rowIds = new int[projects.length * dimension];
+        float[] rowValues = new float[rowIds.length];
+        for (int i = 0; i < projects.length; i++) {
+            for (int d = 0; d < dimension; d++) {
+                rowIds[i * dimension + d] = i;
+                rowValues[i * dimension + d] = projects[i][d];
+            }
+        }
+        int[] sink = new int[1];
+        double boxedMicros = timeQueries(queries, _ -> {
+            // the former ProjectEmbeddingsManager.getAllEmbeddings(), without the JDBC overhead
+            HashMap<Integer, float[]> embeddings = new HashMap<>();
+            ArrayList<Float> current = new ArrayList<>();
+            for (int row = 0; row < rowIds.length; row++) {
+                current.add(rowValues[row]);
+                if (row + 1 == rowIds.length || rowIds[row + 1] != rowIds[row]) {
+                    float[] embedding = new float[current.size()];
+                    for (int d = 0; d < embedding.length; d++) {
+                        embedding[d] = current.get(d);
+                    }
+                    embeddings.put(rowIds[row], embedding);
+                    current.clear();
+                }
+            }
+            sink[0] += embeddings.size();
+            return sink;
+        });
+
+        EmbeddingAPIInterface queryAPI = queryAPI(queries);
+        String[] queryTexts = new String[queries.length];
+        for (int i = 0; i < queries.length; i++) {
+            queryTexts[i] = Integer.toString(i);
+        }
+        long start = System.nanoTime();
+        LocalProjectSearchObject search = new LocalProjectSearchObject(repository(projects), queryAPI);
+        double loadMillis = (System.nanoTime() - start) / 1e6;
+        double searchMicros = timeTexts(queryTexts, query -> sink[0] += search.searchProjects(query, K, 0).size());
+        System.out.printf("reload per query (boxed rows only): %.0f us, one-time load: %.0f ms, search: %.0f us/query%n",
+                boxedMicros, loadMillis, searchMicros);
+    }
+
+    /**
+     * Training time, recall@k and latency of the IVF index for several nprobe values, against the exact scan.
+     */
+    private static void ivf(float[][] projects, float[][] queries) {
+        int[][] exact = exactTopK(projects, queries);
+        IvfIndex index = new IvfIndex(0, 42);
+        long start = System.nanoTime();
+        for (int i = 0; i < projects.length; i++) {
+            index.add(i, projects[i]);
+        }
+        index.train(ForkJoinPool.commonPool(), Runtime.getRuntime().availableProcessors());
+        System.out.printf("%d lists: build %.1f s, imbalance %.2f%n", index.listCount(),
+                (System.nanoTime() - start) / 1e9, index.imbalance());
+        for (int nprobe : new int[]{1, 2, 4, 8, 16, 32}) {
+            double recall = recall(exact, queries, query -> index.search(query, K, nprobe).ids());
+            double micros = timeQueries(queries, query -> index.search(query, K, nprobe));
+            System.out.printf("  nprobe=%-3d recall@%d=%.3f  %.0f us/query%n", nprobe, K, recall, micros);
+        }
+    }
+
+    /**
+     * Recall@k and latency of the two-stage search over 256-dimension prefixes, against the full exact scan. Run on
+     * the mixture as drawn, where every dimension carries the same information, and on a copy whose dimension d is
+     * scaled by 1 / sqrt(1 + d / 64), which gives the leading dimensions most of the variance as in embeddings
+     * trained for truncation.
+     */
+    private static void truncated(float[][] projects, float[][] queries) {
+        int prefix = Math.min(256, projects[0].length);
+        String[] queryTexts = new String[queries.length];
+        for (int i = 0; i < queries.length; i++) {
+            queryTexts[i] = Integer.toString(i);
+        }
+        for (boolean decaying : new boolean[]{false, true}) {
+            float[][] p = decaying ? decaying(projects) : projects;
+            float[][] q = decaying ? decaying(queries) : queries;
+            int[][] exact = exactTopK(p, q);
+            EmbeddingAPIInterface api = queryAPI(q);
+            LocalProjectSearchObject full = new LocalProjectSearchObject(repository(p), api);
+            System.out.println(decaying ? "decaying variance:" : "uniform variance:");
+            double fullMicros = timeTexts(queryTexts, query -> full.searchProjects(query, K, 0));
+            System.out.printf("  full %d dims  %.0f us/query%n", p[0].length, fullMicros);
+            for (int rerank : new int[]{50, 100, 300, 1000}) {
+                LocalProjectSearchObject twoStage = new LocalProjectSearchObject(repository(p), api, prefix, rerank);
+                int[][] found = new int[q.length][];
+                for (int i = 0; i < q.length; i++) {
+                    found[i] = projectIds(twoStage.searchProjects(queryTexts[i], K, 0));
+                }
+                int[] next = {0};
+                double recall = recall(exact, q, _ -> found[next[0]++]);
+                double micros = timeTexts(queryTexts, query -> twoStage.searchProjects(query, K, 0));
+                System.out.printf("  prefix %d, rerank %-5d recall@%d=%.3f  %.0f us/query%n",
+                        prefix, rerank, K, recall, micros);
+            }
+        }
+    }
+
+    /**
+     * Throughput of one batch search for all queries against one search per query, with the exact local search.
+     */
+    private static void batch(float[][] projects, float[][] queries) {
+        LocalProjectSearchObject search = new LocalProjectSearchObject(repository(projects), queryAPI(queries));
+        List<String> queryTexts = new ArrayList<>();
+        for (int i = 0; i < queries.length; i++) {
+            queryTexts.add(Integer.toString(i));
+        }
+        long[] sink = new long[1];
+        for (int round = 0; round < 3; round++) { // warm-up
+            search.searchProjects(queryTexts, K);
+            queryTexts.forEach(query -> sink[0] += search.searchProjects(query, K, 0).size());
+        }
+        long start = System.nanoTime();
+        for (String query : queryTexts) {
+            sink[0] += search.searchProjects(query, K, 0).size();
+        }
+        double singleMicros = (System.nanoTime() - start) / 1e3 / queries.length;
+        start = System.nanoTime();
+        sink[0] += search.searchProjects(queryTexts, K).size();
+        double batchMicros = (System.nanoTime() - start) / 1e3 / queries.length;
+        System.out.printf("one search per query %.0f us/query, one batch %.0f us/query (%.1fx)%n",
+                singleMicros, batchMicros, singleMicros / batchMicros);
+    }
+
+    /**
+     * Time from launch to the first answered query, each launch in a fresh JVM so that class loading and compilation
+     * are counted as they are in the application. The embeddings are loaded from {@code embeds.csv} text as
+     * {@code LocalEmbedRepository} parses it, or restored from a snapshot, without and with a journal of changes to
+     * replay. The CSV text is generated in memory, so the repository load is a lower bound.
+     */
+    private static void snapshot(float[][] projects, float[][] queries) {
+        Path directory;
+        try {
+            directory = Files.createTempDirectory("search-index");
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        IProjectRepository repository = repository(projects);
+        long start = System.nanoTime();
+        PersistentEmbeddingStore store = PersistentEmbeddingStore.open(directory, repository::getAllEmbeddings);
+        double firstLaunchMillis = (System.nanoTime() - start) / 1e6;
+        long snapshotBytes = 0;
+        try (var files = Files.list(directory)) {
+            for (Path file : files.toList()) {
+                snapshotBytes += Files.size(file);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        System.out.printf("first launch, saving the snapshot: %.0f ms, %.1f MB on disk%n", firstLaunchMillis,
+                snapshotBytes / 1e6);
+
+        String count = Integer.toString(projects.length);
+        String dimension = Integer.toString(projects[0].length);
+        System.out.println("launch from csv: " + launch("coldstart", count, dimension, "csv"));
+        System.out.println("launch from snapshot: " + launch("coldstart", count, dimension, directory.toString()));
+        int changes = Math.min(projects.length / 100, 63); // below the compaction threshold, so all are replayed
+        for (int i = 0; i < changes; i++) {
+            store.put(i, projects[projects.length - 1 - i]);
+        }
+        System.out.println("launch from snapshot + " + changes + " changes: "
+                + launch("coldstart", count, dimension, directory.toString()));
+
+        LocalProjectSearchObject fromSnapshot = new LocalProjectSearchObject(repository, queryAPI(queries),
+                PersistentEmbeddingStore.open(directory, repository::getAllEmbeddings));
+        LocalProjectSearchObject fromRepository = new LocalProjectSearchObject(repository, queryAPI(queries));
+        String[] queryTexts = new String[queries.length];
+        for (int i = 0; i < queries.length; i++) {
+            queryTexts[i] = Integer.toString(i);
+        }
+        int[] sink = new int[1];
+        double repositoryMicros = timeTexts(queryTexts, query -> sink[0] += fromRepository.searchProjects(query, K, 0)
+                .size());
+        double snapshotMicros = timeTexts(queryTexts, query -> sink[0] += fromSnapshot.searchProjects(query, K, 0)
+                .size());
+        System.out.printf("search: heap-allocated rows %.0f us/query, mapped rows %.0f us/query%n", repositoryMicros,
+                snapshotMicros);
+    }
+
+    /**
+     * One launch of {@link #snapshot(float[][], float[][])}: loads the embeddings from CSV text, or from the snapshot
+     * in the given directory, answers one query and prints the elapsed time.
+     */
+    private static void coldStart(float[][] projects, float[][] queries, String source) {
+        String[] csvEmbeddings = new String[projects.length];
+        for (int i = 0; i < projects.length; i++) {
+            csvEmbeddings[i] = Arrays.toString(projects[i]);
+        }
+        long start = System.nanoTime();
+        LocalProjectSearchObject search;
+        if (source.equals("csv")) {
+            float[][] parsed = new float[projects.length][];
+            for (int i = 0; i < parsed.length; i++) {
+                Float[] boxed = Arrays.stream(csvEmbeddings[i].replace("[", "").replace("]", "").split(","))
+                        .map(Float::valueOf).toArray(Float[]::new);
+                parsed[i] = new float[boxed.length];
+                for (int d = 0; d < boxed.length; d++) {
+                    parsed[i][d] = boxed[d];
+                }
+            }
+            search = new LocalProjectSearchObject(repository(parsed), queryAPI(queries));
+        }
+        else {
+            IProjectRepository repository = repository(projects);
+            PersistentEmbeddingStore store = PersistentEmbeddingStore.open(Path.of(source), () -> {
+                throw new IllegalStateException("The snapshot was not used");
+            });
+            search = new LocalProjectSearchObject(repository, queryAPI(queries), store);
+        }
+        double loadMillis = (System.nanoTime() - start) / 1e6;
+        int results = search.searchProjects("0", K, 0).size();
+        System.out.printf("%.0f ms to the first query, %.0f ms of them loading (%d results)%n",
+                (System.nanoTime() - start) / 1e6, loadMillis, results);
+    }
+
+    /**
+     * Runs this benchmark in a fresh JVM with the same options and returns the last line it printed.
+     */
+    private static String launch(String... args) {
+        ArrayList<String> command = new ArrayList<>();
+        command.add(ProcessHandle.current().info().command().orElse("java"));
+        command.addAll(ManagementFactory.getRuntimeMXBean().getInputArguments());
+        command.add("-cp");
+        command.add(System.getProperty("java.class.path"));
+        command.add(ProjectSearchBenchmark.class.getName());
+        command.addAll(List.of(args));
+        try {
+            Process process = new ProcessBuilder(command).redirectErrorStream(true).start();
+            List<String> lines = new String(process.getInputStream().readAllBytes()).lines().toList();
+            process.waitFor();
+            return lines.getLast();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Latency and recall of the LSH near-duplicate check against an exact scan, and time of the report over all
+     * projects. Every hundredth project gets a near-duplicate: a copy with noise of a fifth of the within-cluster
+     * spread, about 0.98 cosine similarity, while projects of the same cluster are about 0.5 similar. The checks
+     * are fresh copies of random projects with the same noise.
+     */
+    private static void dedup(float[][] projects) {
+        Random random = new Random(9);
+        float threshold = 0.95f;
+        float[][] all = Arrays.copyOf(projects, projects.length + projects.length / 100);
+        for (int i = projects.length; i < all.length; i++) {
+            all[i] = perturbed(projects[(i - projects.length) * 100], random);
+        }
+        int[] originals = new int[QUERY_COUNT];
+        float[][] checks = new float[QUERY_COUNT][];
+        for (int q = 0; q < QUERY_COUNT; q++) {
+            originals[q] = random.nextInt(projects.length);
+            checks[q] = perturbed(projects[originals[q]], random);
+        }
+
+        VectorKernel kernel = VectorKernels.getDefault();
+        float[][] normalized = new float[all.length][];
+        for (int i = 0; i < all.length; i++) {
+            normalized[i] = VectorKernels.normalize(all[i]);
+        }
+        double scanMicros = timeQueries(checks, check -> {
+            float[] query = VectorKernels.normalize(check);
+            int found = 0;
+            for (float[] vector : normalized) {
+                if (kernel.dot(query, vector) >= threshold) {
+                    found++;
+                }
+            }
+            return found;
+        });
+        System.out.printf("exact scan: %.0f us/check%n", scanMicros);
+
+        for (int bits : new int[]{12, 16, 20}) {
+            LshIndex index = new LshIndex(24, bits, 42);
+            long start = System.nanoTime();
+            for (int i = 0; i < all.length; i++) {
+                index.add(i, all[i]);
+            }
+            double buildSeconds = (System.nanoTime() - start) / 1e9;
+            int found = 0;
+            for (int q = 0; q < QUERY_COUNT; q++) {
+                for (int id : index.findSimilar(checks[q], threshold).ids()) {
+                    if (id == originals[q]) {
+                        found++;
+                    }
+                }
+            }
+            double micros = timeQueries(checks, check -> index.findSimilar(check, threshold));
+            start = System.nanoTime();
+            int pairs = index.findAllSimilarPairs(threshold, ForkJoinPool.commonPool(),
+                    Runtime.getRuntime().availableProcessors()).size();
+            double reportSeconds = (System.nanoTime() - start) / 1e9;
+            System.out.printf("24 tables x %d bits: build %.1f s, recall %.3f, %.0f us/check, report %.2f s "
+                    + "(%d pairs)%n", bits, buildSeconds, found / (double) QUERY_COUNT, micros, reportSeconds, pairs);
+        }
+    }
+
+    /**
+     * Builds the related projects of every project, then compares looking them up with searching for them on demand,
+     * and times keeping them up to date when a project is edited.
+     */
+    private static void related(float[][] projects, float[][] queries) {
+        IProjectRepository repository = repository(projects);
+        LocalProjectSearchObject search = new LocalProjectSearchObject(repository, queryAPI(queries));
+        long start = System.nanoTime();
+        LocalRelatedProjectsObject related = new LocalRelatedProjectsObject(repository, search, Runnable::run, 5);
+        double buildSeconds = (System.nanoTime() - start) / 1e9;
+
+        int[] next = {0};
+        double searchMicros = timeQueries(queries,
+                _ -> search.findSimilarProjects(new int[]{next[0]++ % projects.length}, 5));
+        double lookupMicros = timeQueries(queries, _ -> related.getRelatedProjects(next[0]++ % projects.length));
+
+        Random random = new Random(11);
+        int edits = 50;
+        start = System.nanoTime();
+        for (int i = 0; i < edits; i++) {
+            int id = random.nextInt(projects.length);
+            Project project = new Project(id, "", id % 100, "", new HashSet<>());
+            float[] embedding = perturbed(projects[id], random);
+            search.projectSaved(project, embedding);
+            related.projectSaved(project, embedding);
+        }
+        double editMillis = (System.nanoTime() - start) / 1e6 / edits;
+        System.out.printf("build %.1f s; search on demand %.0f us, lookup %.1f us; update after an edit %.1f ms%n",
+                buildSeconds, searchMicros, lookupMicros, editMillis);
+    }
+
+    /**
+     * Times a streaming search from its start to its first page and to its final page, against a plain search.
+     */
+    private static void stream(float[][] projects, float[][] queries) {
+        LocalProjectSearchObject search = new LocalProjectSearchObject(repository(projects), queryAPI(queries));
+        for (int round = 0; round < 3; round++) { // warm-up
+            for (int q = 0; q < queries.length; q++) {
+                search.streamProjects(Integer.toString(q), K, 0, ProjectSearchFilter.NONE, () -> false, (_, _) -> { });
+            }
+        }
+        long[] firstPage = new long[1];
+        long start = System.nanoTime();
+        for (int q = 0; q < queries.length; q++) {
+            long queryStart = System.nanoTime();
+            boolean[] first = {true};
+            search.streamProjects(Integer.toString(q), K, 0, ProjectSearchFilter.NONE, () -> false, (_, _) -> {
+                if (first[0]) {
+                    firstPage[0] += System.nanoTime() - queryStart;
+                    first[0] = false;
+                }
+            });
+        }
+        double streamMicros = (System.nanoTime() - start) / 1e3 / queries.length;
+        double plainMicros = timeQueries(queries, query -> search.searchProjects(query, K, 0,
+                ProjectSearchFilter.NONE));
+        System.out.printf("plain search %.0f us; streaming first page %.0f us, final page %.0f us%n",
+                plainMicros, firstPage[0] / 1e3 / queries.length, streamMicros);
+    }
+
+    private static float[] perturbed(float[] vector, Random random) {
+        float[] copy = new float[vector.length];
+        for (int d = 0; d < vector.length; d++) {
+            copy[d] = vector[d] + 0.2f * (float) random.nextGaussian();
+        }
+        return copy;
+    }
+
+    private static float[][] decaying(float[][] vectors) {
+        float[][] result = new float[vectors.length][];
+        for (int i = 0; i < vectors.length; i++) {
+            result[i] = vectors[i].clone();
+            for (int d = 0; d < result[i].length; d++) {
+                result[i][d] /= (float) Math.sqrt(1 + d / 64.0);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Latency of filtered exact and HNSW searches by the fraction of projects the filter accepts, against ranking
+     * every project and filtering afterwards. Project i has budget i % 100, so a maximum budget of p - 1 accepts
+     * p percent of the projects.
+     */
+    private static void filter(float[][] projects, float[][] queries) {
+        IProjectRepository repository = repository(projects);
+        LocalProjectSearchObject exact = new LocalProjectSearchObject(repository, queryAPI(queries));
+        HnswIndex index = new HnswIndex(16, 200, 64, 42);
+        for (int i = 0; i < projects.length; i++) {
+            index.add(i, projects[i]);
+        }
+        String[] queryTexts = new String[queries.length];
+        for (int i = 0; i < queries.length; i++) {
+            queryTexts[i] = Integer.toString(i);
+        }
+        long[] sink = new long[1];
+        for (int percent : new int[]{100, 50, 10, 1}) {
+            double maxBudget = percent - 1;
+            ProjectSearchFilter filter = ProjectSearchFilter.NONE.withMaxBudget(maxBudget);
+            BitSet allowed = new BitSet();
+            for (int i = 0; i < projects.length; i++) {
+                allowed.set(i, i % 100 < percent);
+            }
+            double postMicros = timeTexts(queryTexts, query -> sink[0] += exact
+                    .searchProjects(query, Integer.MAX_VALUE, 0).stream()
+                    .filter(project -> project.getProjectBudget() <= maxBudget).limit(K).count());
+            double exactMicros = timeTexts(queryTexts,
+                    query -> sink[0] += exact.searchProjects(query, K, 0, filter).size());
+
+            int[][] truth = new int[queries.length][];
+            for (int q = 0; q < queries.length; q++) {
+                TopKHeap topK = TopKHeap.forCurrentThread(K);
+                for (int i = allowed.nextSetBit(0); i >= 0; i = allowed.nextSetBit(i + 1)) {
+                    topK.offer(i, cosine(queries[q], projects[i]));
+                }
+                truth[q] = topK.drainSorted(0).ids();
+            }
+            double recall = recall(truth, queries, query -> index.search(query, K, allowed).ids());
+            double hnswMicros = timeQueries(queries, query -> index.search(query, K, allowed));
+            System.out.printf("%3d%% accepted: rank then filter %.0f us, filtered exact %.0f us, "
+                    + "filtered HNSW %.0f us (recall@%d=%.3f)%n", percent, postMicros, exactMicros, hnswMicros, K, recall);
+        }
+    }
+
+    private static String zipfText(Random random, double[] cumulative, int words) {
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < words; i++) {
+            int word = Arrays.binarySearch(cumulative, random.nextDouble() * cumulative[cumulative.length - 1]);
+            text.append(i == 0 ? "" : " ").append("word").append(word < 0 ? -word - 1 : word);
+        }
+        return text.toString();
+    }
+
+    private static double timeTexts(String[] queries, Consumer<String> query) {
+        for (int i = 0; i < Math.min(50, queries.length); i++) {
+            query.accept(queries[i]); // warm-up
+        }
+        long start = System.nanoTime();
+        for (String q : queries) {
+            query.accept(q);
+        }
+        return (System.nanoTime() - start) / 1e3 / queries.length;
+    }
+
+    private static long usedHeap() {
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        Runtime runtime = Runtime.getRuntime();
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    // ---------------------------------------------------------------------------------------------------------------
+
+    /**
+     * Returns a repository holding the given embeddings, with project i having id i and budget i % 100.
+     */
+    private static IProjectRepository repository(float[][] projects) {
+        HashMap<Integer, float[]> embeddings = new HashMap<>();
+        for (int i = 0; i < projects.length; i++) {
+            embeddings.put(i, projects[i]);
+        }
+        return (IProjectRepository) Proxy.newProxyInstance(
+                IProjectRepository.class.getClassLoader(), new Class<?>[]{IProjectRepository.class},
+                (_, method, args) -> switch (method.getName()) {
+                    case "getAllEmbeddings" -> embeddings;
+                    case "getEmbedding" -> embeddings.get((Integer) args[0]);
+                    case "getProjectById" ->
+                            new Project((Integer) args[0], "", (Integer) args[0] % 100, "", new HashSet<>());
+                    case "getAllProjects" -> {
+                        HashMap<Integer, Project> all = new HashMap<>();
+                        for (int i = 0; i < projects.length; i++) {
+                            all.put(i, new Project(i, "", i % 100, "", new HashSet<>()));
+                        }
+                        yield all;
+                    }
+                    default -> null;
+                });
+    }
+
+    /**
+     * Returns an embedding API that embeds the query "i" as the i-th query vector.
+     */
+    private static EmbeddingAPIInterface queryAPI(float[][] queries) {
+        return text -> queries[Integer.parseInt(text)];
+    }
+
+    private static int[] projectIds(List<ProjectInterface> projects) {
+        int[] ids = new int[projects.size()];
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = projects.get(i).getProjectId();
+        }
+        return ids;
+    }
+
+
+    /**
+     * The similarity computed by LocalProjectSearchObject before the kernels were introduced.
+     */
+    private static float legacyCosine(float[] vectorA, float[] vectorB) {
+        double dotProduct = 0.0;
+        double normA = 0.0;
+        double normB = 0.0;
+        for (int i = 0; i < vectorA.length; i++) {
+            dotProduct += vectorA[i] * vectorB[i];
+            normA += Math.pow(vectorA[i], 2);
+            normB += Math.pow(vectorB[i], 2);
+        }
+        return (float) (dotProduct / (Math.sqrt(normA) * Math.sqrt(normB)));
+    }
+
+    private interface Query {
+        Object run(float[] query);
+    }
+
+    private interface Ranker {
+        int[] run(float[] query);
+    }
+
+    private static double timeQueries(float[][] queries, Query query) {
+        for (int i = 0; i < Math.min(50, queries.length); i++) {
+            query.run(queries[i]); // warm-up
+        }
+        long start = System.nanoTime();
+        for (float[] q : queries) {
+            query.run(q);
+        }
+        return (System.nanoTime() - start) / 1e3 / queries.length;
+    }
+
+    private static double recall(int[][] exact, float[][] queries, Ranker ranker) {
+        int found = 0;
+        for (int q = 0; q < queries.length; q++) {
+            HashSet<Integer> truth = new HashSet<>();
+            for (int id : exact[q]) {
+                truth.add(id);
+            }
+            for (int id : ranker.run(queries[q])) {
+                if (truth.contains(id)) {
+                    found++;
+                }
+            }
+        }
+        return found / (double) (queries.length * K);
+    }
+
+    private static int[][] exactTopK(float[][] projects, float[][] queries) {
+        int[][] result = new int[queries.length][];
+        for (int q = 0; q < queries.length; q++) {
+            result[q] = exactTopK(projects, queries[q]).ids();
+        }
+        return result;
+    }
+
+    private static SearchHits exactTopK(float[][] projects, float[] query) {
+        Integer[] order = new Integer[projects.length];
+        float[] scores = new float[projects.length];
+        for (int i = 0; i < projects.length; i++) {
+            order[i] = i;
+            scores[i] = cosine(query, projects[i]);
+        }
+        Arrays.sort(order, (a, b) -> Float.compare(scores[b], scores[a]));
+        int[] ids = new int[K];
+        float[] top = new float[K];
+        for (int i = 0; i < K; i++) {
+            ids[i] = order[i];
+            top[i] = scores[order[i]];
+        }
+        return new SearchHits(ids, top);
+    }
+
+    private static float cosine(float[] a, float[] b) {
+        double dot = 0;
+        double normA = 0;
+        double normB = 0;
+        for (int i = 0; i < a.length; i++) {
+            dot += a[i] * b[i];
+            normA += a[i] * a[i];
+            normB += b[i] * b[i];
+        }
+        return (float) (dot / (Math.sqrt(normA) * Math.sqrt(normB)));
+    }
+
+    private static float[][] clusteredVectors(int count, int dimension, long seed) {
+        Random centroidRandom = new Random(0); // same clusters for projects and queries
+        float[][] centroids = new float[CLUSTER_COUNT][dimension];
+        for (float[] centroid : centroids) {
+            for (int d = 0; d < dimension; d++) {
+                centroid[d] = (float) centroidRandom.nextGaussian();
+            }
+        }
+        Random random = new Random(seed);
+        float[][] vectors = new float[count][dimension];
+        for (float[] vector : vectors) {
+            float[] centroid = centroids[random.nextInt(CLUSTER_COUNT)];
+            for (int d = 0; d < dimension; d++) {
+                vector[d] = centroid[d] + (float) random.nextGaussian();
+            }
+        }
+        return vectors;
+    }
+}
@@ -195,6 +195,12 @@ class ProjectRepositoryTest {
         assertEquals(0.3f, embeddings[2], 0);
     }
 
+    @Test
+    void getEmbedding() {
+        assertArrayEquals(new float[]{0.1f, 0.2f, 0.3f}, projectRepository.getEmbedding(testProjectId));
+        assertNull(projectRepository.getEmbedding(testProjectId + 1000));
+    }
+
     @Test
     void getOwnerId() {
         int ownerId = projectRepository.getOwnerId(testProjectId);
@@ -3,12 +3,15 @@ package dataaccess.local;
 import api.embeddingapi.EmbeddingAPIInterface;
 import api.embeddingapi.OpenAPIDataEmbed;
 import dataaccess.IProjectRepository;
+import dataaccess.ProjectChangeListener;
+import entities.Project;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
 import java.io.File;
 import java.io.IOException;
 import java.nio.file.Files;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashSet;
 import java.util.List;
@@ -122,4 +125,131 @@ public class LocalProjectDAOTest {
         assertEquals(0, projectRepository.getProjectsByKeyword("Cool Project").size());
     }
 
-}
\ No newline at end of file
+    /**
+     * Tests that all projects are returned with their tags.
+     */
+    @Test
+    public void testGetAllProjects() {
+        assertEquals(1, projectRepository.getAllProjects().size());
+        assertEquals(new HashSet<>(Arrays.asList("Java", "Programming")), projectRepository.getAllProjects().get(1).getProjectTags());
+    }
+
+    /**
+     * Tests that change listeners are notified of creations, updates and deletions.
+     */
+    @Test
+    public void testChangeListeners() {
+        ArrayList<String> events = new ArrayList<>();
+        projectRepository.addProjectChangeListener(new ProjectChangeListener() {
+            @Override
+            public void projectSaved(Project project, float[] embedding) {
+                events.add("saved " + project.getProjectId() + " " + project.getProjectTitle() + " " + embedding.length);
+            }
+
+            @Override
+            public void projectDeleted(int projectId) {
+                events.add("deleted " + projectId);
+            }
+        });
+        projectRepository.createProject("Second", 10.0, "Another project.", new HashSet<>(), new float[]{1f, 2f}, 10);
+        projectRepository.addTags(2, new HashSet<>(List.of("Tag")));
+        projectRepository.deleteProject(2);
+        projectRepository.deleteProject(2);
+        assertEquals(List.of("saved 2 Second 2", "saved 2 Second 2", "deleted 2"), events);
+    }
+
+    /**
+     * Tests that only the projects with a stale embedding are embedded again, in bulk requests of the given size,
+     * and that the listeners receive their new embeddings.
+     */
+    @Test
+    public void testReembedProjects() throws IOException {
+        String location = SAVE_LOCATION + "reembed/";
+        Files.deleteIfExists(new File(location + "projects.csv").toPath());
+        Files.deleteIfExists(new File(location + "embeds.csv").toPath());
+        ArrayList<Integer> bulkSizes = new ArrayList<>();
+        EmbeddingAPIInterface api = new EmbeddingAPIInterface() {
+            @Override
+            public float[] getEmbedData(String text) {
+                return new float[]{text.length()};
+            }
+
+            @Override
+            public List<float[]> getEmbedData(List<String> texts) {
+                bulkSizes.add(texts.size());
+                return texts.stream().map(this::getEmbedData).toList();
+            }
+        };
+        LocalProjectRepository repository = new LocalProjectRepository(location,
+                new LocalEmbedRepository(location, api));
+        repository.createProject("A", 1.0, "a", new HashSet<>(), null, 10);
+        repository.createProject("B", 1.0, "bb", new HashSet<>(), new float[]{7f}, 10);
+        repository.createProject("C", 1.0, "ccc", new HashSet<>(), new float[0], 10);
+        ArrayList<String> events = new ArrayList<>();
+        repository.addProjectChangeListener(new ProjectChangeListener() {
+            @Override
+            public void projectSaved(Project project, float[] embedding) {
+                events.add(project.getProjectId() + " " + Arrays.toString(embedding));
+            }
+
+            @Override
+            public void projectDeleted(int projectId) {
+                events.add("deleted " + projectId);
+            }
+        });
+
+        assertEquals(2, repository.reembedProjects(embedding -> embedding == null || embedding.length == 0, 1));
+        assertEquals(List.of(1, 1), bulkSizes);
+        assertEquals(List.of("1 [1.0]", "3 [3.0]"), events);
+        assertArrayEquals(new float[]{7f}, repository.getEmbedding(2));
+        assertEquals(0, repository.reembedProjects(embedding -> embedding == null || embedding.length == 0, 1));
+    }
+
+    /**
+     * Tests that projects the embedding API returns no embedding for keep their previous one and are not notified,
+     * that the later batches are not sent, and that the embeddings file can still be read afterwards.
+     */
+    @Test
+    public void testReembedProjectsWithoutEmbeddings() throws IOException {
+        String location = SAVE_LOCATION + "reembed-empty/";
+        Files.deleteIfExists(new File(location + "projects.csv").toPath());
+        Files.deleteIfExists(new File(location + "embeds.csv").toPath());
+        EmbeddingAPIInterface api = new EmbeddingAPIInterface() {
+            @Override
+            public float[] getEmbedData(String text) {
+                return text.equals("bb") ? new float[0] : new float[]{text.length()};
+            }
+
+            @Override
+            public List<float[]> getEmbedData(List<String> texts) {
+                return texts.stream().map(this::getEmbedData).toList();
+            }
+        };
+        LocalProjectRepository repository = new LocalProjectRepository(location,
+                new LocalEmbedRepository(location, api));
+        repository.createProject("A", 1.0, "a", new HashSet<>(), new float[]{5f}, 10);
+        repository.createProject("B", 1.0, "bb", new HashSet<>(), new float[]{7f}, 10);
+        repository.createProject("C", 1.0, "ccc", new HashSet<>(), new float[0], 10);
+        ArrayList<Integer> saved = new ArrayList<>();
+        repository.addProjectChangeListener(new ProjectChangeListener() {
+            @Override
+            public void projectSaved(Project project, float[] embedding) {
+                saved.add(project.getProjectId());
+            }
+
+            @Override
+            public void projectDeleted(int projectId) {
+            }
+        });
+
+        assertThrows(IllegalStateException.class, () -> repository.reembedProjects(embedding -> true, 2));
+        assertEquals(List.of(1), saved);
+        assertArrayEquals(new float[]{7f}, repository.getEmbedding(2));
+        assertEquals(0, repository.getEmbedding(3).length);
+
+        LocalEmbedRepository reloaded = new LocalEmbedRepository(location, api);
+        assertArrayEquals(new float[]{1f}, reloaded.getEmbedData(1));
+        assertArrayEquals(new float[]{7f}, reloaded.getEmbedData(2));
+        assertNull(reloaded.getEmbedData(3));
+    }
+}
@@ -1,6 +1,7 @@
 package dataaccess.local;
 
 import dataaccess.IUserRepository;
+import dataaccess.UserChangeListener;
 import entities.User;
 import entities.UserInterface;
 import org.junit.jupiter.api.BeforeAll;
@@ -11,6 +12,7 @@ import usecase.PasswordHasher;
 import java.io.File;
 import java.io.IOException;
 import java.nio.file.Files;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashSet;
 import java.util.List;
@@ -135,4 +137,31 @@ public class LocalUserDAOTest {
         assertEquals(user.getLastName(), "Doe");
     }
 
+    /**
+     * Tests that change listeners are notified of creations, updates and deletions.
+     *
+     * @throws IOException if an I/O error occurs
+     */
+    @Test
+    public void testChangeListeners() throws IOException {
+        Files.deleteIfExists(new File(SAVE_LOCATION + "listeners/users.csv").toPath());
+        IUserRepository repository = new LocalUserRepository(SAVE_LOCATION + "listeners/");
+        ArrayList<String> events = new ArrayList<>();
+        repository.addUserChangeListener(new UserChangeListener() {
+            @Override
+            public void userSaved(User user) {
+                events.add("saved " + user.getUserId() + " " + user.getFirstName() + " " + user.getTags().size());
+            }
+
+            @Override
+            public void userDeleted(int userId) {
+                events.add("deleted " + userId);
+            }
+        });
+        repository.createUser("a@test.com", "Ann", "Lee", new HashSet<>(List.of("Java")), 10.0, "hash");
+        repository.updateUser(1, "Anna", "Lee", 10.0, new HashSet<>(List.of("Java", "Go")));
+        repository.addTags(1, new HashSet<>(List.of("Rust")));
+        repository.deleteUser(1);
+        assertEquals(List.of("saved 1 Ann 1", "saved 1 Anna 2", "saved 1 Anna 3", "deleted 1"), events);
+    }
 }
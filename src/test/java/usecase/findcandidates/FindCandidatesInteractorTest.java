@@ -0,0 +1,32 @@
+package usecase.findcandidates;
+
+import entities.User;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for the FindCandidatesInteractor class.
+ */
+public class FindCandidatesInteractorTest {
+
+    /**
+     * Tests that the candidates for the project are passed to the presenter.
+     */
+    @Test
+    void findCandidatesPresentsCandidates() {
+        UserCandidateInterface mockFinder = mock(UserCandidateInterface.class);
+        FindCandidatesOutputBoundary mockPresenter = mock(FindCandidatesOutputBoundary.class);
+        ArrayList<User> candidates = new ArrayList<>();
+        candidates.add(new User(2, "First", "Last", "user@test.com", new HashSet<>(), 0));
+        when(mockFinder.findCandidates(5)).thenReturn(candidates);
+
+        FindCandidatesInteractor interactor = new FindCandidatesInteractor(mockPresenter, mockFinder);
+        interactor.findCandidates(5);
+
+        verify(mockPresenter).presentCandidates(candidates);
+    }
+}
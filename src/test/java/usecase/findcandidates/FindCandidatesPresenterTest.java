@@ -0,0 +1,44 @@
+package usecase.findcandidates;
+
+import entities.User;
+import org.junit.jupiter.api.Test;
+import usecase.manageusers.getusers.UserData;
+import viewmodel.MyProjectsPanelViewModel;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the FindCandidatesPresenter class.
+ */
+public class FindCandidatesPresenterTest {
+
+    /**
+     * Tests that the candidates are passed to the view model in ranked order.
+     */
+    @Test
+    void presentCandidatesUpdatesViewModel() {
+        MyProjectsPanelViewModel viewModel = new MyProjectsPanelViewModel();
+        ArrayList<Object> fired = new ArrayList<>();
+        viewModel.addPropertyChangeListener(evt -> {
+            if (evt.getPropertyName().equals("candidatesDataUpdate")) {
+                fired.add(evt.getNewValue());
+            }
+        });
+        ArrayList<User> candidates = new ArrayList<>();
+        candidates.add(new User(3, "Ada", "Lovelace", "ada@test.com", new HashSet<>(Set.of("math")), 100));
+        candidates.add(new User(2, "Alan", "Turing", "alan@test.com", new HashSet<>(), 200));
+
+        new FindCandidatesPresenter(viewModel).presentCandidates(candidates);
+
+        assertEquals(1, fired.size());
+        List<UserData> data = (List<UserData>) fired.get(0);
+        assertEquals(List.of(3, 2), data.stream().map(UserData::userId).toList());
+        assertEquals("ada@test.com", data.get(0).userEmail());
+        assertFalse(data.get(0).isOwner());
+    }
+}
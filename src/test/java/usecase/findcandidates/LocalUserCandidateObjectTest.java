@@ -0,0 +1,111 @@
+package usecase.findcandidates;
+
+import dataaccess.IProjectRepository;
+import dataaccess.IUserEmbeddingRepository;
+import dataaccess.IUserProjectsRepository;
+import dataaccess.IUserRepository;
+import entities.Project;
+import entities.User;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit tests for the LocalUserCandidateObject class.
+ */
+public class LocalUserCandidateObjectTest {
+    private IUserRepository userRepository;
+    private IProjectRepository projectRepository;
+    private HashMap<Integer, float[]> embeddings;
+    private LocalUserCandidateObject candidateFinder;
+
+    /**
+     * Sets up project 1 with a budget of 1000, owned by user 1, and five other users with embeddings.
+     */
+    @BeforeEach
+    public void setUp() {
+        userRepository = mock(IUserRepository.class);
+        projectRepository = mock(IProjectRepository.class);
+        IUserProjectsRepository userProjectsRepository = mock(IUserProjectsRepository.class);
+        IUserEmbeddingRepository userEmbeddingRepository = mock(IUserEmbeddingRepository.class);
+
+        when(projectRepository.getProjectById(1)).thenReturn(new Project(1, "Project", 1000.0, "", new HashSet<>()));
+        when(projectRepository.getEmbedding(1)).thenReturn(new float[]{2f, 0f});
+        when(userProjectsRepository.getUserIdsForProject(1)).thenReturn(new HashSet<>(Set.of(1)));
+
+        embeddings = new HashMap<>();
+        embeddings.put(1, new float[]{1f, 0f});
+        embeddings.put(2, new float[]{0.8f, 0.6f});
+        embeddings.put(3, new float[]{0.6f, 0.8f});
+        embeddings.put(4, new float[]{0f, 1f});
+        embeddings.put(5, new float[]{0.99f, 0.14f});
+        embeddings.put(6, new float[]{-1f, 0f});
+        for (int id = 1; id <= 6; id++) {
+            when(userRepository.getUserById(id)).thenReturn(user(id, 500));
+        }
+        when(userRepository.getUserById(5)).thenReturn(user(5, 2000));
+        when(userEmbeddingRepository.getAllEmbeddings()).thenReturn(embeddings);
+
+        candidateFinder = new LocalUserCandidateObject(userRepository, userProjectsRepository, projectRepository,
+                userEmbeddingRepository, 3);
+    }
+
+    /**
+     * Tests that the users are ranked by similarity, leaving out members and users the budget cannot pay.
+     */
+    @Test
+    public void testRanksNonMembersWithinBudget() {
+        assertEquals(List.of(2, 3, 4), ids(candidateFinder.findCandidates(1)));
+    }
+
+    /**
+     * Tests that no more than the configured number of candidates is returned, and fewer if fewer qualify.
+     */
+    @Test
+    public void testReturnsAtMostCandidateCount() {
+        for (int id = 7; id < 50; id++) {
+            embeddings.put(id, new float[]{0.5f, 0.5f});
+            when(userRepository.getUserById(id)).thenReturn(user(id, 0));
+        }
+        assertEquals(3, candidateFinder.findCandidates(1).size());
+
+        embeddings.keySet().retainAll(Set.of(1, 2, 5));
+        assertEquals(List.of(2), ids(candidateFinder.findCandidates(1)));
+    }
+
+    /**
+     * Tests that users deleted since their embedding was saved are skipped.
+     */
+    @Test
+    public void testSkipsDeletedUsers() {
+        when(userRepository.getUserById(2)).thenReturn(null);
+        assertEquals(List.of(3, 4, 6), ids(candidateFinder.findCandidates(1)));
+    }
+
+    /**
+     * Tests that a project without an embedding, or an unknown project, has no candidates.
+     */
+    @Test
+    public void testNoCandidatesWithoutProjectEmbedding() {
+        when(projectRepository.getProjectById(2)).thenReturn(new Project(2, "Other", 1000.0, "", new HashSet<>()));
+        assertTrue(candidateFinder.findCandidates(2).isEmpty());
+        assertTrue(candidateFinder.findCandidates(3).isEmpty());
+    }
+
+    private static User user(int id, double desiredCompensation) {
+        return new User(id, "First", "Last", "user" + id + "@test.com", new HashSet<>(), desiredCompensation);
+    }
+
+    private static List<Integer> ids(ArrayList<User> users) {
+        return users.stream().map(User::getUserId).toList();
+    }
+}
@@ -4,11 +4,15 @@ import api.embeddingapi.EmbeddingAPIInterface;
 import dataaccess.IProjectRepository;
 import dataaccess.IUserProjectsRepository;
 import entities.Project;
+import entities.ProjectInterface;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import usecase.searchforproject.DuplicateProjectInterface;
 
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashSet;
+import java.util.List;
 
 import static org.mockito.Mockito.*;
 
@@ -77,4 +81,51 @@ public class CreateProjectInteractorTest {
                 outputData.getDescription().equals("Description") &&
                 outputData.getTags().equals(new HashSet<>(Arrays.asList("tag1", "tag2")))));
     }
-}
\ No newline at end of file
+
+    /**
+     * Tests that a near-duplicate project is created when duplicates only cause a warning, and that the similar
+     * projects are reported with it.
+     */
+    @Test
+    void createProjectWarnsAboutNearDuplicates() {
+        float[] embeddings = new float[]{0.1f, 0.2f, 0.3f};
+        Project project = new Project(2, "Title", 1000.0, "Description", new HashSet<>());
+        DuplicateProjectInterface mockDuplicateCheck = duplicateCheck(embeddings);
+        interactor = new CreateProjectInteractor(mockProjectRepository, mockUserProjectsRepository,
+                                                 mockProjectPresenter, mockEmbeddingAPI, mockDuplicateCheck, false);
+
+        when(mockEmbeddingAPI.getEmbedData("Description")).thenReturn(embeddings);
+        when(mockProjectRepository.createProject("Title", 1000.0, "Description", new HashSet<>(), embeddings, 1)).thenReturn(project);
+
+        interactor.createProject(new CreateProjectInputData("Title", 1000.0, "Description", new HashSet<>(), 1));
+
+        verify(mockProjectPresenter).prepareSuccessView(argThat(outputData -> outputData.getProjectId() == 2 &&
+                outputData.getSimilarProjectTitles().equals(List.of("Existing"))));
+    }
+
+    /**
+     * Tests that a near-duplicate project is not created when duplicates are rejected.
+     */
+    @Test
+    void createProjectRejectsNearDuplicates() {
+        float[] embeddings = new float[]{0.1f, 0.2f, 0.3f};
+        DuplicateProjectInterface mockDuplicateCheck = duplicateCheck(embeddings);
+        interactor = new CreateProjectInteractor(mockProjectRepository, mockUserProjectsRepository,
+                                                 mockProjectPresenter, mockEmbeddingAPI, mockDuplicateCheck, true);
+
+        when(mockEmbeddingAPI.getEmbedData("Description")).thenReturn(embeddings);
+
+        interactor.createProject(new CreateProjectInputData("Title", 1000.0, "Description", new HashSet<>(), 1));
+
+        verify(mockProjectPresenter).prepareFailView("A very similar project already exists: Existing");
+        verify(mockProjectRepository, never()).createProject("Title", 1000.0, "Description", new HashSet<>(), embeddings, 1);
+    }
+
+    private static DuplicateProjectInterface duplicateCheck(float[] embeddings) {
+        DuplicateProjectInterface mockDuplicateCheck = mock(DuplicateProjectInterface.class);
+        ArrayList<ProjectInterface> duplicates = new ArrayList<>();
+        duplicates.add(new Project(1, "Existing", 500.0, "Description", new HashSet<>()));
+        when(mockDuplicateCheck.findNearDuplicates(embeddings)).thenReturn(duplicates);
+        return mockDuplicateCheck;
+    }
+}
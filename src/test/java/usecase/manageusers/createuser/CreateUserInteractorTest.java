@@ -1,11 +1,15 @@
 package usecase.manageusers.createuser;
 
+import api.embeddingapi.EmbeddingAPIInterface;
+import dataaccess.IUserEmbeddingRepository;
 import dataaccess.IUserRepository;
+import dataaccess.local.LocalUserEmbedRepository;
 import dataaccess.local.LocalUserRepository;
 import entities.User;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import usecase.PasswordHasher;
+import usecase.manageusers.UserProfileEmbedder;
 
 import java.io.File;
 import java.io.IOException;
@@ -14,6 +18,8 @@ import java.util.Arrays;
 import java.util.HashSet;
 
 import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
 
 /**
  * Unit tests for the CreateUserInteractor class.
@@ -25,6 +31,7 @@ public class CreateUserInteractorTest {
      */
     private final static String SAVE_LOCATION = "local_data/test/create_user_interactor/";
     private final static File saveFile = new File(SAVE_LOCATION + "users.csv");
+    private final static File embedSaveFile = new File(SAVE_LOCATION + "user_embeds.csv");
 
     /**
      * A mock implementation of CreateUserOutputBoundary for testing.
@@ -95,6 +102,25 @@ public class CreateUserInteractorTest {
         assertTrue(createdUser.getTags().containsAll(Arrays.asList("developer", "java")));
     }
 
+    /**
+     * Tests that the profile of a created user is embedded from their sorted, normalized tags.
+     */
+    @Test
+    public void createUserEmbedsProfile() throws IOException {
+        Files.deleteIfExists(embedSaveFile.toPath());
+        IUserEmbeddingRepository embeddingRepository = new LocalUserEmbedRepository(SAVE_LOCATION);
+        EmbeddingAPIInterface embeddingAPI = mock(EmbeddingAPIInterface.class);
+        when(embeddingAPI.getEmbedData("developer, java")).thenReturn(new float[]{3f, 4f});
+        CreateUserInteractor interactor = new CreateUserInteractor(userRepository, userPresenter, passwordHasher,
+                new UserProfileEmbedder(embeddingAPI, embeddingRepository));
+
+        interactor.createUser(new CreateUserInputData("John", "Doe", "john.doe@test.com", 50000.0,
+                new HashSet<>(Arrays.asList("Java ", "developer")), "password123"));
+
+        int userId = userRepository.getUserByEmail("john.doe@test.com").getUserId();
+        assertArrayEquals(new float[]{0.6f, 0.8f}, embeddingRepository.getEmbedding(userId), 1e-6f);
+    }
+
     /**
      * Tests the creation of a user with an existing email.
      */
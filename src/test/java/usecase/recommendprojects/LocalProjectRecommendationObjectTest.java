@@ -0,0 +1,140 @@
+package usecase.recommendprojects;
+
+import api.embeddingapi.EmbeddingAPIInterface;
+import dataaccess.IProjectRepository;
+import dataaccess.IUserProjectsRepository;
+import dataaccess.IUserRepository;
+import entities.Project;
+import entities.ProjectInterface;
+import entities.User;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import usecase.searchforproject.LocalProjectSearchObject;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit tests for the LocalProjectRecommendationObject class.
+ */
+public class LocalProjectRecommendationObjectTest {
+    private IUserRepository userRepository;
+    private IProjectRepository projectRepository;
+    private IUserProjectsRepository userProjectsRepository;
+    private EmbeddingAPIInterface embeddingAPI;
+    private LocalProjectRecommendationObject recommendations;
+
+    /**
+     * Sets up four projects and a user interested in Java who is already in project 1.
+     */
+    @BeforeEach
+    public void setUp() {
+        userRepository = mock(IUserRepository.class);
+        projectRepository = mock(IProjectRepository.class);
+        userProjectsRepository = mock(IUserProjectsRepository.class);
+        embeddingAPI = mock(EmbeddingAPIInterface.class);
+
+        HashMap<Integer, float[]> embeddings = new HashMap<>();
+        embeddings.put(1, new float[]{1f, 0f});
+        embeddings.put(2, new float[]{0.9f, 0.1f});
+        embeddings.put(3, new float[]{0.1f, 1f});
+        embeddings.put(4, new float[]{-1f, 0f});
+        for (int id = 1; id <= 4; id++) {
+            when(projectRepository.getProjectById(id)).thenReturn(new Project(id, "Project " + id, 0.0, "", new HashSet<>()));
+        }
+        when(projectRepository.getAllEmbeddings()).thenReturn(embeddings);
+        when(userRepository.getUserById(7)).thenReturn(user(Set.of("Java")));
+        when(userProjectsRepository.getProjectIdsForUser(7)).thenReturn(new HashSet<>(Set.of(1)));
+        when(embeddingAPI.getEmbedData("java")).thenReturn(new float[]{1f, 0f});
+        when(embeddingAPI.getEmbedData("design")).thenReturn(new float[]{0f, 1f});
+
+        LocalProjectSearchObject projectSearch = new LocalProjectSearchObject(projectRepository, embeddingAPI);
+        recommendations = new LocalProjectRecommendationObject(userRepository, userProjectsRepository,
+                projectRepository, embeddingAPI, projectSearch, Runnable::run, 2);
+    }
+
+    /**
+     * Tests that the best matching projects are recommended, leaving out the project the user is in.
+     */
+    @Test
+    public void testRecommendsBestMatchesTheUserIsNotIn() {
+        assertEquals(List.of(2, 3), ids(recommendations.recommendProjects(7)));
+    }
+
+    /**
+     * Tests that a user without tags or an unknown user gets no recommendations and no embedding request.
+     */
+    @Test
+    public void testNoRecommendationsWithoutProfile() {
+        when(userRepository.getUserById(8)).thenReturn(new User(8, "No", "Tags", "", new HashSet<>(), 0));
+        assertTrue(recommendations.recommendProjects(8).isEmpty());
+        assertTrue(recommendations.recommendProjects(9).isEmpty());
+    }
+
+    /**
+     * Tests that recommendations and profile embeddings are cached, that a profile edit computes the new
+     * recommendations right away, and that a project change keeps the cached embedding.
+     */
+    @Test
+    public void testCachesAndPrecomputesAfterProfileEdit() {
+        recommendations.recommendProjects(7);
+        recommendations.recommendProjects(7);
+        verify(embeddingAPI, times(1)).getEmbedData("java");
+
+        User edited = user(Set.of(" Design "));
+        recommendations.userSaved(edited);
+        verify(embeddingAPI, times(1)).getEmbedData("design");
+        when(userRepository.getUserById(7)).thenReturn(edited);
+        assertEquals(List.of(3), ids(recommendations.recommendProjects(7)));
+
+        recommendations.projectDeleted(4);
+        assertEquals(List.of(3), ids(recommendations.recommendProjects(7)));
+        verify(embeddingAPI, times(1)).getEmbedData("design");
+    }
+
+    /**
+     * Tests that after a project change the cached recommendations are still served, without a deleted project,
+     * until the executor has recomputed them.
+     */
+    @Test
+    public void testServesStaleRecommendationsWhileRecomputing() {
+        ArrayList<Runnable> tasks = new ArrayList<>();
+        LocalProjectSearchObject projectSearch = new LocalProjectSearchObject(projectRepository, embeddingAPI);
+        recommendations = new LocalProjectRecommendationObject(userRepository, userProjectsRepository,
+                projectRepository, embeddingAPI, projectSearch, tasks::add, 2);
+        assertEquals(List.of(2, 3), ids(recommendations.recommendProjects(7)));
+
+        Project added = new Project(5, "Project 5", 0.0, "", new HashSet<>());
+        when(projectRepository.getProjectById(5)).thenReturn(added);
+        projectSearch.projectSaved(added, new float[]{1f, 0f});
+        recommendations.projectSaved(added, new float[]{1f, 0f});
+        projectSearch.projectDeleted(2);
+        recommendations.projectDeleted(2);
+        assertEquals(1, tasks.size());
+        assertEquals(List.of(3), ids(recommendations.recommendProjects(7)));
+
+        tasks.getFirst().run();
+        assertEquals(List.of(5, 3), ids(recommendations.recommendProjects(7)));
+    }
+
+    private static User user(Set<String> tags) {
+        return new User(7, "Ada", "Lovelace", "ada@example.com", new HashSet<>(tags), 0);
+    }
+
+    private static List<Integer> ids(ArrayList<ProjectInterface> projects) {
+        ArrayList<Integer> ids = new ArrayList<>();
+        for (ProjectInterface project : projects) {
+            ids.add(project.getProjectId());
+        }
+        return ids;
+    }
+}
@@ -0,0 +1,24 @@
+package usecase.recommendprojects;
+
+import org.junit.jupiter.api.Test;
+
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for the RecommendProjectsController class.
+ */
+public class RecommendProjectsControllerTest {
+
+    /**
+     * Tests that recommendProjects calls the interactor with the user's ID.
+     */
+    @Test
+    void recommendProjectsCallsInteractor() {
+        RecommendProjectsInputBoundary mockInteractor = mock(RecommendProjectsInputBoundary.class);
+        RecommendProjectsController controller = new RecommendProjectsController(mockInteractor);
+
+        controller.recommendProjects(4);
+
+        verify(mockInteractor).recommendProjects(4);
+    }
+}
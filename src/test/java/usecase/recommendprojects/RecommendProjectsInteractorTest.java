@@ -0,0 +1,33 @@
+package usecase.recommendprojects;
+
+import entities.Project;
+import entities.ProjectInterface;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for the RecommendProjectsInteractor class.
+ */
+public class RecommendProjectsInteractorTest {
+
+    /**
+     * Tests that the recommendations for the user are passed to the presenter.
+     */
+    @Test
+    void recommendProjectsPresentsRecommendations() {
+        ProjectRecommendationInterface mockRecommendations = mock(ProjectRecommendationInterface.class);
+        RecommendProjectsOutputBoundary mockPresenter = mock(RecommendProjectsOutputBoundary.class);
+        ArrayList<ProjectInterface> projects = new ArrayList<>();
+        projects.add(new Project(3, "Project", 0.0, "", new HashSet<>()));
+        when(mockRecommendations.recommendProjects(5)).thenReturn(projects);
+
+        RecommendProjectsInteractor interactor = new RecommendProjectsInteractor(mockPresenter, mockRecommendations);
+        interactor.recommendProjects(5);
+
+        verify(mockPresenter).presentRecommendations(projects);
+    }
+}
@@ -0,0 +1,37 @@
+package usecase.recommendprojects;
+
+import entities.Project;
+import entities.ProjectInterface;
+import org.junit.jupiter.api.Test;
+import viewmodel.SearchPanelViewModel;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the RecommendProjectsPresenter class.
+ */
+public class RecommendProjectsPresenterTest {
+
+    /**
+     * Tests that the recommendations are shown as a single page of the search panel.
+     */
+    @Test
+    void presentRecommendationsUpdatesViewModel() {
+        SearchPanelViewModel viewModel = new SearchPanelViewModel();
+        viewModel.setProjectPage(20, true);
+        ArrayList<ProjectInterface> projects = new ArrayList<>();
+        projects.add(new Project(3, "Project", 0.0, "", new HashSet<>()));
+        ArrayList<Object> fired = new ArrayList<>();
+        viewModel.addPropertyChangeListener(evt -> fired.add(evt.getNewValue()));
+
+        new RecommendProjectsPresenter(viewModel).presentRecommendations(projects);
+
+        assertEquals(projects, viewModel.getProject());
+        assertEquals(0, viewModel.getPageOffset());
+        assertFalse(viewModel.hasMorePages());
+        assertEquals(1, fired.size());
+    }
+}
@@ -0,0 +1,179 @@
+package usecase.relatedprojects;
+
+import api.embeddingapi.EmbeddingAPIInterface;
+import dataaccess.IProjectRepository;
+import entities.Project;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import usecase.searchforproject.LocalProjectSearchObject;
+import usecase.searchforproject.index.PersistentEmbeddingStore;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit tests for the LocalRelatedProjectsObject class.
+ */
+public class LocalRelatedProjectsObjectTest {
+    private IProjectRepository projectRepository;
+    private HashMap<Integer, float[]> embeddings;
+    private LocalProjectSearchObject projectSearch;
+    private ArrayList<Runnable> pendingUpdates;
+    private LocalRelatedProjectsObject relatedProjects;
+
+    /**
+     * Sets up five projects and keeps two related projects for each, with updates held until they are run.
+     */
+    @BeforeEach
+    public void setUp() {
+        projectRepository = mock(IProjectRepository.class);
+        embeddings = new HashMap<>();
+        embeddings.put(1, new float[]{1f, 0f});
+        embeddings.put(2, new float[]{0.9f, 0.1f});
+        embeddings.put(3, new float[]{0.8f, 0.3f});
+        embeddings.put(4, new float[]{-1f, 0f});
+        embeddings.put(5, new float[]{0.1f, 1f});
+        for (int id = 1; id <= 6; id++) {
+            when(projectRepository.getProjectById(id)).thenReturn(project(id));
+        }
+        when(projectRepository.getAllEmbeddings()).thenReturn(embeddings);
+
+        projectSearch = new LocalProjectSearchObject(projectRepository, mock(EmbeddingAPIInterface.class));
+        pendingUpdates = new ArrayList<>();
+        relatedProjects = new LocalRelatedProjectsObject(projectRepository, projectSearch, pendingUpdates::add, 2);
+    }
+
+    /**
+     * Tests that the related projects are built in the background and are the most similar other projects.
+     */
+    @Test
+    public void testBuildsRelatedProjectsInBackground() {
+        assertTrue(relatedProjects.getRelatedProjects(1).isEmpty());
+        runUpdates();
+
+        assertEquals(5, relatedProjects.size());
+        ArrayList<RelatedProject> related = relatedProjects.getRelatedProjects(1);
+        assertEquals(List.of(2, 3), ids(related));
+        assertEquals(0.9939f, related.getFirst().similarity(), 1e-3f);
+        assertEquals(List.of(5, 3), ids(relatedProjects.getRelatedProjects(4)));
+    }
+
+    /**
+     * Tests that a new project gets related projects and enters the lists it ranks in.
+     */
+    @Test
+    public void testNewProjectEntersRelatedProjects() {
+        runUpdates();
+        save(6, new float[]{1f, 0.01f});
+
+        assertEquals(List.of(1, 2), ids(relatedProjects.getRelatedProjects(6)));
+        assertEquals(List.of(6, 2), ids(relatedProjects.getRelatedProjects(1)));
+    }
+
+    /**
+     * Tests that an edited project that drops out of a full list lets the next best project in.
+     */
+    @Test
+    public void testEditedProjectIsReplaced() {
+        runUpdates();
+        save(2, new float[]{0f, -1f});
+
+        assertEquals(List.of(3, 5), ids(relatedProjects.getRelatedProjects(1)));
+        assertEquals(List.of(1, 4), ids(relatedProjects.getRelatedProjects(2)));
+    }
+
+    /**
+     * Tests that a deleted project disappears from every list and its place is filled.
+     */
+    @Test
+    public void testDeletedProjectIsReplaced() {
+        runUpdates();
+        projectSearch.projectDeleted(3);
+        relatedProjects.projectDeleted(3);
+        runUpdates();
+
+        assertTrue(relatedProjects.getRelatedProjects(3).isEmpty());
+        assertEquals(List.of(2, 5), ids(relatedProjects.getRelatedProjects(1)));
+        assertEquals(4, relatedProjects.size());
+    }
+
+    /**
+     * Tests that changes made while the graph is being built apply in order, and that the result matches a graph
+     * built after them.
+     */
+    @Test
+    public void testChangesDuringBuildMatchFreshBuild() {
+        save(6, new float[]{-1f, 0.2f});
+        projectSearch.projectDeleted(1);
+        relatedProjects.projectDeleted(1);
+        save(5, new float[]{0.9f, 0.2f});
+        runUpdates();
+
+        LocalRelatedProjectsObject rebuilt = new LocalRelatedProjectsObject(projectRepository, projectSearch,
+                Runnable::run, 2);
+        for (int id = 1; id <= 6; id++) {
+            assertEquals(ids(rebuilt.getRelatedProjects(id)), ids(relatedProjects.getRelatedProjects(id)));
+        }
+        assertTrue(relatedProjects.getRelatedProjects(1).isEmpty());
+    }
+
+    /**
+     * Tests that a saved graph is read back with the snapshot it was saved with, and that only the projects changed
+     * since are updated.
+     */
+    @Test
+    public void testRestoresSavedGraphAndUpdatesChangedProjects() throws IOException {
+        Path directory = Files.createTempDirectory("search-index");
+        PersistentEmbeddingStore store = PersistentEmbeddingStore.open(directory, () -> embeddings);
+        LocalProjectSearchObject search = new LocalProjectSearchObject(projectRepository,
+                mock(EmbeddingAPIInterface.class), store);
+        new LocalRelatedProjectsObject(projectRepository, search, Runnable::run, 2, store).saveSnapshot();
+        search.projectSaved(project(6), new float[]{1f, 0.01f});
+
+        PersistentEmbeddingStore restored = PersistentEmbeddingStore.open(directory, () -> {
+            throw new AssertionError("The repository should not be read");
+        });
+        LocalProjectSearchObject restoredSearch = new LocalProjectSearchObject(projectRepository,
+                mock(EmbeddingAPIInterface.class), restored);
+        pendingUpdates.clear();
+        LocalRelatedProjectsObject restoredProjects = new LocalRelatedProjectsObject(projectRepository,
+                restoredSearch, pendingUpdates::add, 2, restored);
+        assertEquals(List.of(2, 3), ids(restoredProjects.getRelatedProjects(1)));
+        assertEquals(List.of(5, 3), ids(restoredProjects.getRelatedProjects(4)));
+        assertEquals(1, pendingUpdates.size());
+
+        runUpdates();
+        assertEquals(List.of(1, 2), ids(restoredProjects.getRelatedProjects(6)));
+        assertEquals(List.of(6, 2), ids(restoredProjects.getRelatedProjects(1)));
+        assertEquals(6, restoredProjects.size());
+    }
+
+    private void save(int id, float[] embedding) {
+        projectSearch.projectSaved(project(id), embedding);
+        relatedProjects.projectSaved(project(id), embedding);
+        runUpdates();
+    }
+
+    private void runUpdates() {
+        while (!pendingUpdates.isEmpty()) {
+            pendingUpdates.removeFirst().run();
+        }
+    }
+
+    private static Project project(int id) {
+        return new Project(id, "Project " + id, 0.0, "", new HashSet<>());
+    }
+
+    private static List<Integer> ids(List<RelatedProject> related) {
+        return related.stream().map(r -> r.project().getProjectId()).toList();
+    }
+}
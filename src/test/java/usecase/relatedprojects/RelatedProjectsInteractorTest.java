@@ -0,0 +1,32 @@
+package usecase.relatedprojects;
+
+import entities.Project;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for the RelatedProjectsInteractor class.
+ */
+public class RelatedProjectsInteractorTest {
+
+    /**
+     * Tests that the related projects of the project are passed to the presenter.
+     */
+    @Test
+    void showRelatedProjectsPresentsRelatedProjects() {
+        RelatedProjectsInterface mockRelatedProjects = mock(RelatedProjectsInterface.class);
+        RelatedProjectsOutputBoundary mockPresenter = mock(RelatedProjectsOutputBoundary.class);
+        ArrayList<RelatedProject> related = new ArrayList<>();
+        related.add(new RelatedProject(new Project(3, "Project", 0.0, "", new HashSet<>()), 0.8f));
+        when(mockRelatedProjects.getRelatedProjects(5)).thenReturn(related);
+
+        RelatedProjectsInteractor interactor = new RelatedProjectsInteractor(mockPresenter, mockRelatedProjects);
+        interactor.showRelatedProjects(5);
+
+        verify(mockPresenter).presentRelatedProjects(5, related);
+    }
+}
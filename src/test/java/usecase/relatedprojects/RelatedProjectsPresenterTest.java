@@ -0,0 +1,35 @@
+package usecase.relatedprojects;
+
+import entities.Project;
+import org.junit.jupiter.api.Test;
+import viewmodel.RelatedProjectsViewModel;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the RelatedProjectsPresenter class.
+ */
+public class RelatedProjectsPresenterTest {
+
+    /**
+     * Tests that the related projects are set in the view model and announced with the id of their project.
+     */
+    @Test
+    void presentRelatedProjectsUpdatesViewModel() {
+        RelatedProjectsViewModel viewModel = new RelatedProjectsViewModel();
+        ArrayList<RelatedProject> related = new ArrayList<>();
+        related.add(new RelatedProject(new Project(3, "Project", 0.0, "", new HashSet<>()), 0.8f));
+        ArrayList<Object> fired = new ArrayList<>();
+        viewModel.addPropertyChangeListener(evt -> fired.add(evt.getNewValue()));
+
+        new RelatedProjectsPresenter(viewModel).presentRelatedProjects(5, related);
+
+        assertEquals(5, viewModel.getProjectId());
+        assertEquals(related, viewModel.getRelatedProjects());
+        assertEquals(1, fired.size());
+        assertEquals(5, fired.getFirst());
+    }
+}
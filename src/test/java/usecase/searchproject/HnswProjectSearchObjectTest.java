@@ -0,0 +1,80 @@
+package usecase.searchproject;
+
+import api.embeddingapi.EmbeddingAPIInterface;
+import dataaccess.IProjectRepository;
+import entities.Project;
+import entities.ProjectInterface;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import usecase.searchforproject.HnswProjectSearchObject;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit tests for the HnswProjectSearchObject class.
+ */
+public class HnswProjectSearchObjectTest {
+    private IProjectRepository projectRepository;
+    private EmbeddingAPIInterface embeddingAPI;
+    private HashMap<Integer, float[]> embeddings;
+    private HnswProjectSearchObject searchObject;
+
+    /**
+     * Sets up three projects whose embeddings point in different directions.
+     */
+    @BeforeEach
+    public void setUp() {
+        projectRepository = mock(IProjectRepository.class);
+        embeddingAPI = mock(EmbeddingAPIInterface.class);
+        embeddings = new HashMap<>();
+        embeddings.put(1, new float[]{1f, 0f, 0f});
+        embeddings.put(2, new float[]{0f, 1f, 0f});
+        embeddings.put(3, new float[]{0.9f, 0.1f, 0f});
+        for (int id = 1; id <= 4; id++) {
+            when(projectRepository.getProjectById(id)).thenReturn(new Project(id, "Project " + id, 0.0, "", new HashSet<>()));
+        }
+        when(projectRepository.getAllEmbeddings()).thenReturn(embeddings);
+        when(embeddingAPI.getEmbedData("java")).thenReturn(new float[]{1f, 0f, 0f});
+        searchObject = new HnswProjectSearchObject(projectRepository, embeddingAPI, 4, 20, 10, 2);
+    }
+
+    /**
+     * Tests that the most similar projects are returned first and the result count is respected.
+     */
+    @Test
+    public void testSearchReturnsMostSimilarProjects() {
+        ArrayList<ProjectInterface> result = searchObject.searchProjects("java");
+        assertEquals(2, result.size());
+        assertEquals(1, result.get(0).getProjectId());
+        assertEquals(3, result.get(1).getProjectId());
+    }
+
+    /**
+     * Tests that projects the repository reports as added or removed are picked up by the next search.
+     */
+    @Test
+    public void testSearchFollowsRepositoryChanges() {
+        searchObject.searchProjects("java");
+        searchObject.projectDeleted(1);
+        searchObject.projectSaved(new Project(4, "Project 4", 0.0, "", new HashSet<>()), new float[]{1f, 0.05f, 0f});
+
+        ArrayList<ProjectInterface> result = searchObject.searchProjects("java");
+        assertEquals(4, result.get(0).getProjectId());
+        assertEquals(3, result.get(1).getProjectId());
+    }
+
+    /**
+     * Tests that an empty query embedding (e.g. no API key) returns no projects.
+     */
+    @Test
+    public void testEmptyQueryEmbedding() {
+        when(embeddingAPI.getEmbedData("nothing")).thenReturn(new float[0]);
+        assertTrue(searchObject.searchProjects("nothing").isEmpty());
+    }
+}
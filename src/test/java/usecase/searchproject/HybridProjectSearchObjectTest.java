@@ -0,0 +1,113 @@
+package usecase.searchproject;
+
+import dataaccess.IProjectRepository;
+import entities.Project;
+import entities.ProjectInterface;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import usecase.searchforproject.HybridProjectSearchObject;
+import usecase.searchforproject.LexicalProjectSearchObject;
+import usecase.searchforproject.ProjectSearchFilter;
+import usecase.searchforproject.ProjectSearchInterface;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit tests for the HybridProjectSearchObject and LexicalProjectSearchObject classes.
+ */
+public class HybridProjectSearchObjectTest {
+    private final HashMap<Integer, Project> projects = new HashMap<>();
+    private LexicalProjectSearchObject lexicalSearch;
+    private ProjectSearchInterface semanticSearch;
+
+    /**
+     * Sets up four projects, of which 1 and 2 mention the query keywords.
+     */
+    @BeforeEach
+    public void setUp() {
+        IProjectRepository projectRepository = mock(IProjectRepository.class);
+        addProject(1, "Machine learning pipeline", "Train models.");
+        addProject(2, "Website", "A website with some machine learning.");
+        addProject(3, "Neural network", "Deep models for images.");
+        addProject(4, "Bakery", "Bread and cakes.");
+        for (Project project : projects.values()) {
+            when(projectRepository.getProjectById(project.getProjectId())).thenReturn(project);
+        }
+        when(projectRepository.getAllProjects()).thenReturn(projects);
+        lexicalSearch = new LexicalProjectSearchObject(projectRepository, 10);
+        semanticSearch = mock(ProjectSearchInterface.class);
+    }
+
+    /**
+     * Tests that the keyword search ranks by BM25 and follows changes in the repository.
+     */
+    @Test
+    public void testLexicalSearchFollowsChanges() {
+        assertEquals(List.of(1, 2), ids(lexicalSearch.searchProjects("machine learning")));
+
+        lexicalSearch.projectSaved(new Project(1, "Data pipeline", 0.0, "Train models.", new HashSet<>()), new float[0]);
+        lexicalSearch.projectDeleted(2);
+        assertTrue(lexicalSearch.searchProjects("machine learning").isEmpty());
+        assertEquals(List.of(1), ids(lexicalSearch.searchProjects("pipeline")));
+    }
+
+    /**
+     * Tests that keyword suggestions match the last word as a prefix, and that cached rankings follow changes.
+     */
+    @Test
+    public void testLexicalSuggestionsMatchPrefixAndFollowChanges() {
+        assertEquals(List.of(1, 2), ids(lexicalSearch.suggestProjects("machine lea", 10, 0, ProjectSearchFilter.NONE)));
+        assertEquals(List.of(2), ids(lexicalSearch.suggestProjects("machine lea", 10, 1, ProjectSearchFilter.NONE)));
+        assertEquals(List.of(4), ids(lexicalSearch.suggestProjects("bre", 10, 0, ProjectSearchFilter.NONE)));
+        assertTrue(lexicalSearch.suggestProjects("bre ", 10, 0, ProjectSearchFilter.NONE).isEmpty());
+
+        lexicalSearch.projectDeleted(4);
+        assertTrue(lexicalSearch.suggestProjects("bre", 10, 0, ProjectSearchFilter.NONE).isEmpty());
+    }
+
+    /**
+     * Tests that projects found by both searches rank above projects found by only one.
+     */
+    @Test
+    public void testFusesRankings() {
+        when(semanticSearch.searchProjects("machine learning", 100, 0, ProjectSearchFilter.NONE))
+                .thenReturn(rankedProjects(3, 2));
+        HybridProjectSearchObject hybridSearch = new HybridProjectSearchObject(lexicalSearch, semanticSearch, 100, 10);
+        assertEquals(List.of(2, 1, 3), ids(hybridSearch.searchProjects("machine learning")));
+        assertEquals(List.of(1, 3), ids(hybridSearch.searchProjects("machine learning", 2, 1)));
+    }
+
+    /**
+     * Tests that the keyword ranking is returned when the embedding search fails.
+     */
+    @Test
+    public void testFallsBackToKeywordsWhenEmbeddingsFail() {
+        when(semanticSearch.searchProjects("machine learning", 100, 0, ProjectSearchFilter.NONE))
+                .thenThrow(new RuntimeException("API unreachable"));
+        HybridProjectSearchObject hybridSearch = new HybridProjectSearchObject(lexicalSearch, semanticSearch, 100, 10);
+        assertEquals(List.of(1, 2), ids(hybridSearch.searchProjects("machine learning")));
+    }
+
+    private void addProject(int id, String title, String description) {
+        projects.put(id, new Project(id, title, 0.0, description, new HashSet<>()));
+    }
+
+    private ArrayList<ProjectInterface> rankedProjects(int... ids) {
+        ArrayList<ProjectInterface> ranking = new ArrayList<>();
+        for (int id : ids) {
+            ranking.add(projects.get(id));
+        }
+        return ranking;
+    }
+
+    private static List<Integer> ids(List<ProjectInterface> projects) {
+        return projects.stream().map(ProjectInterface::getProjectId).toList();
+    }
+}
@@ -0,0 +1,92 @@
+package usecase.searchproject;
+
+import api.embeddingapi.EmbeddingAPIInterface;
+import dataaccess.IProjectRepository;
+import entities.Project;
+import entities.ProjectInterface;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import usecase.searchforproject.IvfProjectSearchObject;
+import usecase.searchforproject.index.IvfIndex;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit tests for the IvfProjectSearchObject class.
+ */
+public class IvfProjectSearchObjectTest {
+    private final Random random = new Random(3);
+    private EmbeddingAPIInterface embeddingAPI;
+    private IvfProjectSearchObject searchObject;
+
+    /**
+     * Sets up 200 projects with random embeddings, trained with a direct executor.
+     */
+    @BeforeEach
+    public void setUp() {
+        IProjectRepository projectRepository = mock(IProjectRepository.class);
+        embeddingAPI = mock(EmbeddingAPIInterface.class);
+        HashMap<Integer, float[]> embeddings = new HashMap<>();
+        for (int id = 0; id < 600; id++) {
+            if (id < 200) {
+                embeddings.put(id, randomEmbedding());
+            }
+            when(projectRepository.getProjectById(id))
+                    .thenReturn(new Project(id, "Project " + id, 0.0, "", new HashSet<>()));
+        }
+        when(projectRepository.getAllEmbeddings()).thenReturn(embeddings);
+        when(embeddingAPI.getEmbedData("query")).thenReturn(embeddings.get(17));
+        searchObject = new IvfProjectSearchObject(projectRepository, embeddingAPI, new IvfIndex(0, 1), 4, 1.5,
+                Runnable::run, 2, 5);
+    }
+
+    /**
+     * Tests that the closest project is found, that new projects are searchable at once and that deleted ones are
+     * not returned.
+     */
+    @Test
+    public void testSearchFollowsRepositoryChanges() {
+        assertEquals(14, searchObject.getIndex().listCount());
+        assertEquals(17, (int) ids(searchObject.searchProjects("query")).getFirst());
+
+        float[] embedding = randomEmbedding();
+        when(embeddingAPI.getEmbedData("new")).thenReturn(embedding);
+        searchObject.projectSaved(new Project(200, "Project 200", 0.0, "", new HashSet<>()), embedding);
+        assertEquals(200, (int) ids(searchObject.searchProjects("new")).getFirst());
+
+        searchObject.projectDeleted(17);
+        assertFalse(ids(searchObject.searchProjects("query")).contains(17));
+    }
+
+    /**
+     * Tests that the index is trained again once the number of projects doubles.
+     */
+    @Test
+    public void testRetrainsWhenProjectsDouble() {
+        assertEquals(200, searchObject.getIndex().getTrainedSize());
+        for (int id = 200; id < 600; id++) {
+            searchObject.projectSaved(new Project(id, "Project " + id, 0.0, "", new HashSet<>()), randomEmbedding());
+        }
+        assertEquals(401, searchObject.getIndex().getTrainedSize());
+        assertEquals(20, searchObject.getIndex().listCount());
+    }
+
+    private float[] randomEmbedding() {
+        float[] embedding = new float[16];
+        for (int d = 0; d < embedding.length; d++) {
+            embedding[d] = (float) random.nextGaussian();
+        }
+        return embedding;
+    }
+
+    private static List<Integer> ids(List<ProjectInterface> projects) {
+        return projects.stream().map(ProjectInterface::getProjectId).toList();
+    }
+}
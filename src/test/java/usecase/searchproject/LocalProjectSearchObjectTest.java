@@ -0,0 +1,369 @@
+package usecase.searchproject;
+
+import api.embeddingapi.EmbeddingAPIInterface;
+import dataaccess.IProjectRepository;
+import config.SearchConfig;
+import entities.Project;
+import entities.ProjectInterface;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import usecase.searchforproject.LocalProjectSearchObject;
+import usecase.searchforproject.ProjectSearchFilter;
+import usecase.searchforproject.index.NormalizedEmbeddingStore;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit tests for the LocalProjectSearchObject class.
+ */
+public class LocalProjectSearchObjectTest {
+    private IProjectRepository projectRepository;
+    private LocalProjectSearchObject searchObject;
+
+    /**
+     * Sets up ten projects whose similarity to the query decreases with their id.
+     */
+    @BeforeEach
+    public void setUp() {
+        projectRepository = mock(IProjectRepository.class);
+        EmbeddingAPIInterface embeddingAPI = mock(EmbeddingAPIInterface.class);
+        HashMap<Integer, float[]> embeddings = new HashMap<>();
+        for (int id = 1; id <= 10; id++) {
+            double angle = (id - 1) * Math.PI / 9; // from the query direction to the opposite one
+            embeddings.put(id, new float[]{(float) Math.cos(angle), (float) Math.sin(angle)});
+            when(projectRepository.getProjectById(id)).thenReturn(new Project(id, "Project " + id, 0.0, "", new HashSet<>()));
+        }
+        when(projectRepository.getAllEmbeddings()).thenReturn(embeddings);
+        when(embeddingAPI.getEmbedData("query")).thenReturn(new float[]{1f, 0f});
+        searchObject = new LocalProjectSearchObject(projectRepository, embeddingAPI);
+    }
+
+    /**
+     * Tests that all projects above the midpoint similarity are returned, most similar first.
+     */
+    @Test
+    public void testSearchReturnsProjectsAboveThreshold() {
+        assertEquals(List.of(1, 2, 3, 4, 5), ids(searchObject.searchProjects("query")));
+    }
+
+    /**
+     * Tests that pages continue where the previous page stopped and end at the threshold.
+     */
+    @Test
+    public void testPaging() {
+        assertEquals(List.of(1, 2), ids(searchObject.searchProjects("query", 2, 0)));
+        assertEquals(List.of(3, 4), ids(searchObject.searchProjects("query", 2, 2)));
+        assertEquals(List.of(5), ids(searchObject.searchProjects("query", 2, 4)));
+        assertTrue(searchObject.searchProjects("query", 2, 6).isEmpty());
+    }
+
+    /**
+     * Tests that a project the repository no longer has, e.g. one deleted by another client, is left out of the
+     * results instead of being returned as null.
+     */
+    @Test
+    public void testSkipsProjectsMissingFromRepository() {
+        when(projectRepository.getProjectById(2)).thenReturn(null);
+        assertEquals(List.of(1, 3, 4, 5), ids(searchObject.searchProjects("query")));
+    }
+
+    /**
+     * Tests that the embeddings are read from the repository once and then follow its change notifications.
+     */
+    @Test
+    public void testLoadsOnceAndFollowsChanges() {
+        searchObject.searchProjects("query");
+        searchObject.projectDeleted(1);
+        when(projectRepository.getProjectById(11)).thenReturn(new Project(11, "Project 11", 0.0, "", new HashSet<>()));
+        searchObject.projectSaved(new Project(11, "Project 11", 0.0, "", new HashSet<>()), new float[]{0f, -1f});
+        searchObject.projectSaved(new Project(2, "Project 2", 0.0, "", new HashSet<>()), new float[0]);
+        assertEquals(List.of(3, 4, 5, 11), ids(searchObject.searchProjects("query")));
+        verify(projectRepository, times(1)).getAllEmbeddings();
+    }
+
+    /**
+     * Tests that a filtered search ranks only the accepted projects and takes its threshold over them.
+     */
+    @Test
+    public void testFilteredSearch() {
+        HashMap<Integer, Project> projects = new HashMap<>();
+        for (int id = 1; id <= 10; id++) {
+            HashSet<String> tags = new HashSet<>(id % 2 == 0 ? Set.of("Java") : Set.of("python"));
+            projects.put(id, new Project(id, "Project " + id, id * 100.0, "", tags));
+        }
+        when(projectRepository.getAllProjects()).thenReturn(projects);
+
+        ProjectSearchFilter filter = ProjectSearchFilter.NONE.withMinBudget(400).withRequiredTags(Set.of("java"));
+        assertEquals(List.of(4, 6), ids(searchObject.searchProjects("query", 10, 0, filter)));
+        assertEquals(List.of(6), ids(searchObject.searchProjects("query", 10, 1, filter)));
+        assertTrue(searchObject.searchProjects("query", 10, 0, filter.withMaxBudget(300)).isEmpty());
+    }
+
+    /**
+     * Tests that the two-stage search scans the truncated embeddings and ranks its candidates by the full ones.
+     */
+    @Test
+    public void testTwoStageSearchReranksWithFullEmbeddings() {
+        IProjectRepository repository = mock(IProjectRepository.class);
+        EmbeddingAPIInterface embeddingAPI = mock(EmbeddingAPIInterface.class);
+        HashMap<Integer, float[]> embeddings = new HashMap<>();
+        embeddings.put(1, new float[]{1f, 0f, -1f, 0f}); // same prefix as the query, opposite rest
+        embeddings.put(2, new float[]{1f, 0f, 1f, 0f}); // same as the query
+        embeddings.put(3, new float[]{0f, 1f, 0f, 1f});
+        embeddings.put(4, new float[]{0f, 1f, 2f, 0f});
+        for (int id = 1; id <= 5; id++) {
+            when(repository.getProjectById(id)).thenReturn(new Project(id, "Project " + id, 0.0, "", new HashSet<>()));
+        }
+        when(repository.getAllEmbeddings()).thenReturn(embeddings);
+        when(embeddingAPI.getEmbedData("query")).thenReturn(new float[]{1f, 0f, 1f, 0f});
+        LocalProjectSearchObject twoStage = new LocalProjectSearchObject(repository, embeddingAPI,
+                new NormalizedEmbeddingStore(), ForkJoinPool.commonPool(), 1, Integer.MAX_VALUE, 2, 2);
+
+        assertEquals(List.of(2), ids(twoStage.searchProjects("query", 1, 0)));
+        assertEquals(List.of(2, 4), ids(twoStage.searchProjects("query")));
+
+        twoStage.projectSaved(new Project(5, "Project 5", 0.0, "", new HashSet<>()), new float[]{2f, 0f, 2f, 0.1f});
+        twoStage.projectDeleted(2);
+        assertEquals(List.of(5), ids(twoStage.searchProjects("query", 1, 0)));
+    }
+
+    /**
+     * Tests that a store that already holds the embeddings, as one restored from a snapshot, is not reloaded from
+     * the repository, and that the two-stage search derives its prefixes from it.
+     */
+    @Test
+    public void testPreloadedStoreIsNotReloaded() {
+        IProjectRepository repository = mock(IProjectRepository.class);
+        EmbeddingAPIInterface embeddingAPI = mock(EmbeddingAPIInterface.class);
+        NormalizedEmbeddingStore preloaded = new NormalizedEmbeddingStore();
+        preloaded.put(1, new float[]{1f, 0f, -1f, 0f});
+        preloaded.put(2, new float[]{1f, 0f, 1f, 0f});
+        preloaded.put(3, new float[]{0f, 1f, 0f, 1f});
+        for (int id = 1; id <= 3; id++) {
+            when(repository.getProjectById(id)).thenReturn(new Project(id, "Project " + id, 0.0, "", new HashSet<>()));
+        }
+        when(embeddingAPI.getEmbedData("query")).thenReturn(new float[]{1f, 0f, 1f, 0f});
+        LocalProjectSearchObject twoStage = new LocalProjectSearchObject(repository, embeddingAPI, preloaded,
+                ForkJoinPool.commonPool(), 1, Integer.MAX_VALUE, 2, 2);
+
+        verify(repository, never()).getAllEmbeddings();
+        assertEquals(List.of(2), ids(twoStage.searchProjects("query", 1, 0)));
+        assertEquals(List.of(2), ids(twoStage.searchProjects("query")));
+    }
+
+    /**
+     * Tests that the parallel sharded scan returns exactly the same pages as the serial scan, including ties.
+     */
+    @Test
+    public void testParallelScanMatchesSerialScan() {
+        IProjectRepository projectRepository = mock(IProjectRepository.class);
+        EmbeddingAPIInterface embeddingAPI = mock(EmbeddingAPIInterface.class);
+        HashMap<Integer, float[]> embeddings = new HashMap<>();
+        Random random = new Random(5);
+        for (int id = 0; id < 1000; id++) {
+            float[] embedding = new float[8];
+            for (int d = 0; d < embedding.length; d++) {
+                embedding[d] = (float) random.nextGaussian();
+            }
+            // every seventh project duplicates the previous one, so the ranking contains ties
+            embeddings.put(id, id % 7 == 0 && id > 0 ? embeddings.get(id - 1).clone() : embedding);
+            when(projectRepository.getProjectById(id)).thenReturn(new Project(id, "Project " + id, 0.0, "", new HashSet<>()));
+        }
+        when(projectRepository.getAllEmbeddings()).thenReturn(embeddings);
+        when(embeddingAPI.getEmbedData("query")).thenReturn(embeddings.get(6));
+
+        ForkJoinPool pool = new ForkJoinPool(3);
+        try {
+            LocalProjectSearchObject serial = new LocalProjectSearchObject(projectRepository, embeddingAPI,
+                    new NormalizedEmbeddingStore(), pool, 1, 0);
+            LocalProjectSearchObject parallel = new LocalProjectSearchObject(projectRepository, embeddingAPI,
+                    new NormalizedEmbeddingStore(), pool, 7, 0);
+            for (int offset : new int[]{0, 25, 490}) {
+                assertEquals(ids(serial.searchProjects("query", 25, offset)),
+                        ids(parallel.searchProjects("query", 25, offset)));
+            }
+            assertEquals(ids(serial.searchProjects("query")), ids(parallel.searchProjects("query")));
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    /**
+     * Tests that a batch search returns for every query the same projects as a single search, in serial and in
+     * parallel, and nothing for a query of the wrong dimension.
+     */
+    @Test
+    public void testBatchSearchMatchesSingleSearches() {
+        IProjectRepository projectRepository = mock(IProjectRepository.class);
+        EmbeddingAPIInterface embeddingAPI = mock(EmbeddingAPIInterface.class);
+        HashMap<Integer, float[]> embeddings = new HashMap<>();
+        Random random = new Random(6);
+        for (int id = 0; id < 500; id++) {
+            float[] embedding = new float[8];
+            for (int d = 0; d < embedding.length; d++) {
+                embedding[d] = (float) random.nextGaussian();
+            }
+            embeddings.put(id, embedding);
+            when(projectRepository.getProjectById(id)).thenReturn(new Project(id, "Project " + id, 0.0, "", new HashSet<>()));
+        }
+        when(projectRepository.getAllEmbeddings()).thenReturn(embeddings);
+        ArrayList<String> queries = new ArrayList<>();
+        for (int q = 0; q < 6; q++) {
+            queries.add("query " + q);
+            when(embeddingAPI.getEmbedData("query " + q)).thenReturn(embeddings.get(q * 50));
+        }
+        queries.add("wrong dimension");
+        when(embeddingAPI.getEmbedData("wrong dimension")).thenReturn(new float[]{1f, 0f});
+        ArrayList<float[]> queryEmbeddings = new ArrayList<>();
+        for (String query : queries) {
+            queryEmbeddings.add(embeddingAPI.getEmbedData(query));
+        }
+        when(embeddingAPI.getEmbedData(queries)).thenReturn(queryEmbeddings);
+
+        ForkJoinPool pool = new ForkJoinPool(3);
+        try {
+            for (int parallelism : new int[]{1, 7}) {
+                LocalProjectSearchObject searchObject = new LocalProjectSearchObject(projectRepository, embeddingAPI,
+                        new NormalizedEmbeddingStore(), pool, parallelism, 0);
+                List<ArrayList<ProjectInterface>> results = searchObject.searchProjects(queries, 20);
+                assertEquals(queries.size(), results.size());
+                for (int q = 0; q < queries.size(); q++) {
+                    assertEquals(ids(searchObject.searchProjects(queries.get(q), 20, 0)), ids(results.get(q)));
+                }
+                assertTrue(results.get(6).isEmpty());
+                assertEquals(100, (int) ids(results.get(2)).get(0));
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    /**
+     * Tests that a streaming search passes a page each time the ranking so far changes, marks only the last one
+     * complete, ends with the page a search returns, and does not hold the store lock while passing a page. With
+     * enough projects for a parallel scan, only the complete page is passed.
+     */
+    @Test
+    public void testStreamingSearchPassesPagesAsChunksAreScanned() {
+        int chunkSize = SearchConfig.getStreamingChunkSize();
+        SearchConfig.setStreamingChunkSize(4);
+        ForkJoinPool pool = new ForkJoinPool(2);
+        try {
+            LocalProjectSearchObject parallel = new LocalProjectSearchObject(projectRepository,
+                    mockQueryAPI(), new NormalizedEmbeddingStore(), pool, 2, 0);
+            for (LocalProjectSearchObject search : List.of(searchObject, parallel)) {
+                ArrayList<List<Integer>> pages = new ArrayList<>();
+                ArrayList<Boolean> completes = new ArrayList<>();
+                search.streamProjects("query", 3, 2, ProjectSearchFilter.NONE, () -> false, (projects, complete) -> {
+                    assertFalse(Thread.holdsLock(search));
+                    pages.add(ids(projects));
+                    completes.add(complete);
+                });
+                if (search == parallel) {
+                    assertEquals(List.of(List.of(3, 4, 5)), pages);
+                    assertEquals(List.of(true), completes);
+                }
+                else {
+                    assertEquals(List.of(List.of(3), List.of(3, 4, 5), List.of(3, 4, 5)), pages);
+                    assertEquals(List.of(false, false, true), completes);
+                }
+                assertEquals(ids(search.searchProjects("query", 3, 2)), pages.getLast());
+            }
+        } finally {
+            pool.shutdown();
+            SearchConfig.setStreamingChunkSize(chunkSize);
+        }
+    }
+
+    /**
+     * Tests that a streaming search still ends with the page of a whole search when removals compact the store
+     * while it runs, moving projects that were not scanned yet to slots that were.
+     */
+    @Test
+    public void testStreamingSearchSurvivesCompaction() {
+        int chunkSize = SearchConfig.getStreamingChunkSize();
+        SearchConfig.setStreamingChunkSize(50);
+        try {
+            IProjectRepository repository = mock(IProjectRepository.class);
+            HashMap<Integer, float[]> embeddings = new HashMap<>();
+            for (int id = 1; id <= 200; id++) {
+                // the first hundred point away from the query, the rest turn away from it as their id grows
+                double angle = id <= 100 ? Math.PI : (id - 101) * Math.PI / 198;
+                embeddings.put(id, new float[]{(float) Math.cos(angle), (float) Math.sin(angle)});
+                when(repository.getProjectById(id)).thenReturn(new Project(id, "Project " + id, 0.0, "", new HashSet<>()));
+            }
+            when(repository.getAllEmbeddings()).thenReturn(embeddings);
+            LocalProjectSearchObject search = new LocalProjectSearchObject(repository, mockQueryAPI());
+
+            ArrayList<List<Integer>> pages = new ArrayList<>();
+            ArrayList<Boolean> completes = new ArrayList<>();
+            search.streamProjects("query", 5, 0, ProjectSearchFilter.NONE, () -> false, (projects, complete) -> {
+                if (pages.isEmpty()) {
+                    for (int id = 1; id <= 100; id++) {
+                        search.projectDeleted(id);
+                    }
+                }
+                pages.add(ids(projects));
+                completes.add(complete);
+            });
+            assertTrue(completes.getLast());
+            assertEquals(List.of(101, 102, 103, 104, 105), pages.getLast());
+            assertEquals(ids(search.searchProjects("query", 5, 0)), pages.getLast());
+        } finally {
+            SearchConfig.setStreamingChunkSize(chunkSize);
+        }
+    }
+
+    /**
+     * Tests that a cancelled streaming search stops passing pages.
+     */
+    @Test
+    public void testCancelledStreamingSearchStops() {
+        int chunkSize = SearchConfig.getStreamingChunkSize();
+        SearchConfig.setStreamingChunkSize(4);
+        try {
+            AtomicBoolean cancelled = new AtomicBoolean(false);
+            ArrayList<List<Integer>> pages = new ArrayList<>();
+            searchObject.streamProjects("query", 3, 2, ProjectSearchFilter.NONE, cancelled::get, (projects, _) -> {
+                pages.add(ids(projects));
+                cancelled.set(true);
+            });
+            assertEquals(List.of(List.of(3)), pages);
+
+            pages.clear();
+            searchObject.streamProjects("query", 3, 0, ProjectSearchFilter.NONE, () -> true,
+                    (projects, _) -> pages.add(ids(projects)));
+            assertTrue(pages.isEmpty());
+        } finally {
+            SearchConfig.setStreamingChunkSize(chunkSize);
+        }
+    }
+
+    private static EmbeddingAPIInterface mockQueryAPI() {
+        EmbeddingAPIInterface embeddingAPI = mock(EmbeddingAPIInterface.class);
+        when(embeddingAPI.getEmbedData("query")).thenReturn(new float[]{1f, 0f});
+        return embeddingAPI;
+    }
+
+    private static ArrayList<Integer> ids(ArrayList<ProjectInterface> projects) {
+        ArrayList<Integer> ids = new ArrayList<>();
+        for (ProjectInterface project : projects) {
+            ids.add(project.getProjectId());
+        }
+        return ids;
+    }
+}
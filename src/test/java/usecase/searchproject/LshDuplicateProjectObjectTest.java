@@ -0,0 +1,76 @@
+package usecase.searchproject;
+
+import dataaccess.IProjectRepository;
+import entities.Project;
+import entities.ProjectInterface;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import usecase.searchforproject.DuplicateProjects;
+import usecase.searchforproject.LshDuplicateProjectObject;
+import usecase.searchforproject.index.LshIndex;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit tests for the LshDuplicateProjectObject class.
+ */
+public class LshDuplicateProjectObjectTest {
+    private IProjectRepository projectRepository;
+    private LshDuplicateProjectObject duplicates;
+
+    /**
+     * Sets up three projects, the first two of which are near-duplicates.
+     */
+    @BeforeEach
+    public void setUp() {
+        projectRepository = mock(IProjectRepository.class);
+        HashMap<Integer, float[]> embeddings = new HashMap<>();
+        embeddings.put(1, new float[]{1f, 0f, 0f});
+        embeddings.put(2, new float[]{0.99f, 0.05f, 0f});
+        embeddings.put(3, new float[]{0f, 1f, 0f});
+        for (int id = 1; id <= 4; id++) {
+            when(projectRepository.getProjectById(id)).thenReturn(new Project(id, "Project " + id, 0.0, "", new HashSet<>()));
+        }
+        when(projectRepository.getAllEmbeddings()).thenReturn(embeddings);
+        duplicates = new LshDuplicateProjectObject(projectRepository, new LshIndex(24, 8, 1), 0.95, Runnable::run, 1);
+    }
+
+    /**
+     * Tests that a new embedding close to existing projects is matched with them, most similar first.
+     */
+    @Test
+    public void testFindsNearDuplicates() {
+        assertEquals(List.of(1, 2), ids(duplicates.findNearDuplicates(new float[]{1f, 0.01f, 0f})));
+        assertTrue(duplicates.findNearDuplicates(new float[]{0f, 0f, 1f}).isEmpty());
+        assertTrue(duplicates.findNearDuplicates(new float[0]).isEmpty());
+    }
+
+    /**
+     * Tests that the report lists every near-duplicate pair and follows project changes.
+     */
+    @Test
+    public void testReportFollowsChanges() {
+        List<DuplicateProjects> report = duplicates.findAllNearDuplicates();
+        assertEquals(1, report.size());
+        assertEquals(1, report.get(0).first().getProjectId());
+        assertEquals(2, report.get(0).second().getProjectId());
+
+        duplicates.projectSaved(new Project(4, "Project 4", 0.0, "", new HashSet<>()), new float[]{0f, 1f, 0.01f});
+        duplicates.projectDeleted(2);
+        report = duplicates.findAllNearDuplicates();
+        assertEquals(1, report.size());
+        assertEquals(3, report.get(0).first().getProjectId());
+        assertEquals(4, report.get(0).second().getProjectId());
+    }
+
+    private static List<Integer> ids(ArrayList<ProjectInterface> projects) {
+        return projects.stream().map(ProjectInterface::getProjectId).toList();
+    }
+}
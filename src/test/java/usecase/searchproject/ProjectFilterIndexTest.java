@@ -0,0 +1,101 @@
+package usecase.searchproject;
+
+import dataaccess.IProjectRepository;
+import entities.Project;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import usecase.searchforproject.ProjectFilterIndex;
+import usecase.searchforproject.ProjectSearchFilter;
+
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit tests for the ProjectFilterIndex and ProjectSearchFilter classes.
+ */
+public class ProjectFilterIndexTest {
+    private final HashMap<Integer, Project> projects = new HashMap<>();
+    private ProjectFilterIndex filterIndex;
+
+    /**
+     * Sets up four projects of two owners with different budgets and tags.
+     */
+    @BeforeEach
+    public void setUp() {
+        IProjectRepository projectRepository = mock(IProjectRepository.class);
+        addProject(1, 100, Set.of("Java", "web"));
+        addProject(2, 600, Set.of("java"));
+        addProject(3, 900, Set.of("python"));
+        addProject(4, 1200, Set.of("java", "ml"));
+        when(projectRepository.getAllProjects()).thenReturn(projects);
+        when(projectRepository.getOwnerId(1)).thenReturn(7);
+        when(projectRepository.getOwnerId(2)).thenReturn(7);
+        when(projectRepository.getOwnerId(3)).thenReturn(8);
+        when(projectRepository.getOwnerId(4)).thenReturn(8);
+        filterIndex = new ProjectFilterIndex(projectRepository);
+    }
+
+    /**
+     * Tests budget ranges and required and excluded tags, which are compared without regard to case.
+     */
+    @Test
+    public void testBudgetAndTags() {
+        assertNull(filterIndex.matching(ProjectSearchFilter.NONE));
+        ProjectSearchFilter java = ProjectSearchFilter.NONE.withMinBudget(500).withRequiredTags(Set.of(" JAVA"));
+        assertEquals(List.of(2, 4), ids(filterIndex.matching(java)));
+        assertEquals(List.of(2), ids(filterIndex.matching(java.withExcludedTags(Set.of("ml")))));
+        assertEquals(List.of(1, 2), ids(filterIndex.matching(ProjectSearchFilter.NONE.withMaxBudget(600))));
+        assertEquals(List.of(), ids(filterIndex.matching(java.withRequiredTags(Set.of("rust")))));
+    }
+
+    /**
+     * Tests that projects are filtered by owner.
+     */
+    @Test
+    public void testOwner() {
+        assertEquals(List.of(3, 4), ids(filterIndex.matching(ProjectSearchFilter.NONE.withOwner(8))));
+        assertEquals(List.of(), ids(filterIndex.matching(ProjectSearchFilter.NONE.withOwner(9))));
+    }
+
+    /**
+     * Tests that the index follows updates and deletions once it was loaded.
+     */
+    @Test
+    public void testFollowsChanges() {
+        ProjectSearchFilter java = ProjectSearchFilter.NONE.withMinBudget(500).withRequiredTags(Set.of("java"));
+        filterIndex.matching(java);
+        filterIndex.projectSaved(new Project(1, "Project 1", 700.0, "", new HashSet<>(Set.of("java"))), new float[0]);
+        filterIndex.projectDeleted(2);
+        assertEquals(List.of(1, 4), ids(filterIndex.matching(java)));
+        assertEquals(List.of(), ids(filterIndex.matching(ProjectSearchFilter.NONE.withRequiredTags(Set.of("web")))));
+    }
+
+    /**
+     * Tests that a filter checks a single project like the index does.
+     */
+    @Test
+    public void testMatches() {
+        ProjectSearchFilter filter = ProjectSearchFilter.NONE.withMinBudget(500).withRequiredTags(Set.of("java"))
+                .withOwner(8);
+        assertTrue(filter.matches(projects.get(4), 8));
+        assertFalse(filter.matches(projects.get(4), 7));
+        assertFalse(filter.matches(projects.get(1), 8));
+        assertTrue(ProjectSearchFilter.NONE.isEmpty());
+        assertFalse(filter.isEmpty());
+    }
+
+    private void addProject(int id, double budget, Set<String> tags) {
+        projects.put(id, new Project(id, "Project " + id, budget, "", new HashSet<>(tags)));
+    }
+
+    private static List<Integer> ids(BitSet ids) {
+        return ids.stream().boxed().toList();
+    }
+}
@@ -0,0 +1,144 @@
+package usecase.searchproject;
+
+import api.embeddingapi.EmbeddingAPIInterface;
+import dataaccess.IProjectRepository;
+import entities.Project;
+import entities.ProjectInterface;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import usecase.searchforproject.LocalProjectSearchObject;
+import usecase.searchforproject.QuantizedProjectSearchObject;
+import usecase.searchforproject.index.NormalizedEmbeddingStore;
+import usecase.searchforproject.index.QuantizedEmbeddingStore;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit tests for the QuantizedProjectSearchObject class.
+ */
+public class QuantizedProjectSearchObjectTest {
+    private static final int PROJECT_COUNT = 2000;
+    private static final int DIMENSION = 64;
+
+    private IProjectRepository projectRepository;
+    private EmbeddingAPIInterface embeddingAPI;
+
+    /**
+     * Sets up clustered project embeddings and fifty queries near them.
+     */
+    @BeforeEach
+    public void setUp() {
+        projectRepository = mock(IProjectRepository.class);
+        embeddingAPI = mock(EmbeddingAPIInterface.class);
+        Random random = new Random(13);
+        float[][] centroids = new float[20][DIMENSION];
+        for (float[] centroid : centroids) {
+            for (int d = 0; d < DIMENSION; d++) {
+                centroid[d] = (float) random.nextGaussian();
+            }
+        }
+        HashMap<Integer, float[]> embeddings = new HashMap<>();
+        for (int id = 0; id < PROJECT_COUNT; id++) {
+            float[] embedding = noisy(random, centroids[random.nextInt(centroids.length)]);
+            embeddings.put(id, embedding);
+            when(projectRepository.getEmbedding(id)).thenReturn(embedding);
+            when(projectRepository.getProjectById(id)).thenReturn(new Project(id, "Project " + id, 0.0, "", new HashSet<>()));
+        }
+        when(projectRepository.getAllEmbeddings()).thenReturn(embeddings);
+        for (int q = 0; q < 50; q++) {
+            when(embeddingAPI.getEmbedData("query " + q)).thenReturn(noisy(random, centroids[q % centroids.length]));
+        }
+    }
+
+    /**
+     * Tests that recall@10 against the exact search meets the configured bound.
+     */
+    @Test
+    public void testRecallMeetsBound() {
+        LocalProjectSearchObject exact = new LocalProjectSearchObject(projectRepository, embeddingAPI,
+                new NormalizedEmbeddingStore(), ForkJoinPool.commonPool(), 1, Integer.MAX_VALUE);
+        QuantizedProjectSearchObject quantized = new QuantizedProjectSearchObject(projectRepository, embeddingAPI,
+                new QuantizedEmbeddingStore(), 0.95, 10);
+        int found = 0;
+        int total = 0;
+        for (int q = 0; q < 50; q++) {
+            HashSet<Integer> truth = ids(exact.searchProjects("query " + q, 10, 0));
+            for (int id : ids(quantized.searchProjects("query " + q, 10, 0))) {
+                if (truth.contains(id)) {
+                    found++;
+                }
+            }
+            total += truth.size();
+        }
+        assertTrue(found >= 0.95 * total, "recall@10 was " + found / (double) total);
+        assertTrue(quantized.getCandidateFactor() >= 1);
+    }
+
+    /**
+     * Tests that results are ordered by exact similarity and pages do not overlap.
+     */
+    @Test
+    public void testPagesAreRankedByExactSimilarity() {
+        QuantizedProjectSearchObject quantized = new QuantizedProjectSearchObject(projectRepository, embeddingAPI,
+                new QuantizedEmbeddingStore(), 0.95, 10);
+        ArrayList<ProjectInterface> first = quantized.searchProjects("query 0", 5, 0);
+        ArrayList<ProjectInterface> second = quantized.searchProjects("query 0", 5, 5);
+        assertEquals(5, first.size());
+        assertEquals(5, second.size());
+        HashSet<Integer> both = ids(first);
+        both.addAll(ids(second));
+        assertEquals(10, both.size());
+        assertEquals(ids(quantized.searchProjects("query 0", 10, 0)), both);
+    }
+
+    /**
+     * Tests that a recalibration after the number of projects changed runs on the executor, reading only the
+     * embeddings of its sample, while searches keep the previous candidate factor.
+     */
+    @Test
+    public void testRecalibratesInBackground() {
+        ArrayList<Runnable> tasks = new ArrayList<>();
+        QuantizedProjectSearchObject quantized = new QuantizedProjectSearchObject(projectRepository, embeddingAPI,
+                new QuantizedEmbeddingStore(), 0.99, 10, tasks::add);
+        float factor = quantized.getCandidateFactor();
+        for (int id = 0; id < PROJECT_COUNT / 2; id++) {
+            quantized.projectDeleted(id);
+        }
+        assertEquals(10, quantized.searchProjects("query 0", 10, 0).size());
+        quantized.searchProjects("query 1", 10, 0);
+        assertEquals(1, tasks.size());
+        assertEquals(factor, quantized.getCandidateFactor());
+
+        tasks.getFirst().run();
+        assertTrue(quantized.getCandidateFactor() >= 1);
+        verify(projectRepository, times(1)).getAllEmbeddings();
+        assertEquals(List.of(), tasks.subList(1, tasks.size()));
+    }
+
+    private static float[] noisy(Random random, float[] centroid) {
+        float[] vector = new float[DIMENSION];
+        for (int d = 0; d < DIMENSION; d++) {
+            vector[d] = centroid[d] + (float) random.nextGaussian();
+        }
+        return vector;
+    }
+
+    private static HashSet<Integer> ids(ArrayList<ProjectInterface> projects) {
+        HashSet<Integer> ids = new HashSet<>();
+        for (ProjectInterface project : projects) {
+            ids.add(project.getProjectId());
+        }
+        return ids;
+    }
+}
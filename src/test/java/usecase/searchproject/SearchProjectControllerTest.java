@@ -2,6 +2,7 @@ package usecase.searchproject;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import usecase.searchforproject.ProjectSearchFilter;
 import usecase.searchforproject.SearchProjectController;
 import usecase.searchforproject.SearchProjectInputBoundary;
 
@@ -26,4 +27,26 @@ public class SearchProjectControllerTest {
 
         verify(interactor, times(1)).searchProjects(keywords);
     }
+
+    @Test
+    public void testCallInteractorWithPage() {
+        controller.searchProjects("Java", 20, 20);
+
+        verify(interactor, times(1)).searchProjects("Java", 20, 20);
+    }
+
+    @Test
+    public void testCallInteractorWithFilter() {
+        ProjectSearchFilter filter = ProjectSearchFilter.NONE.withMinBudget(500);
+        controller.searchProjects("Java", 0, 20, filter);
+
+        verify(interactor, times(1)).searchProjects("Java", 0, 20, filter);
+    }
+
+    @Test
+    public void testCallInteractorWhileTyping() {
+        controller.searchAsYouType("Jav", 0, 20, ProjectSearchFilter.NONE);
+
+        verify(interactor, times(1)).searchAsYouType("Jav", 0, 20, ProjectSearchFilter.NONE);
+    }
 }
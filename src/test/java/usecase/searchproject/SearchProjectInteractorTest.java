@@ -8,16 +8,23 @@ import entities.Project;
 import entities.ProjectInterface;
 import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.Test;
+import usecase.searchforproject.ProjectSearchFilter;
+import usecase.searchforproject.ProjectSearchInterface;
 import usecase.searchforproject.SearchProjectOutputBoundary;
+import usecase.searchforproject.SearchResultsListener;
 import usecase.searchforproject.SearchProjectsInteractor;
 import usecase.searchforproject.SearchProjectsPresenter;
 import viewmodel.SearchPanelViewModel;
 
 import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.List;
+import java.util.function.BooleanSupplier;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.mock;
@@ -83,6 +90,131 @@ public class SearchProjectInteractorTest {
         }
     }
 
+    /**
+     * Tests that a streaming search presents its partial pages and its final page, trimmed to the page size, and
+     * that a search started meanwhile replaces it.
+     */
+    @Test
+    public void testStreamingSearchIsReplacedByNewerSearch() {
+        ArrayList<String> presented = new ArrayList<>();
+        SearchProjectOutputBoundary recorder = recorder(presented);
+        ArrayList<Boolean> cancelledAtEnd = new ArrayList<>();
+        SearchProjectsInteractor[] interactor = new SearchProjectsInteractor[1];
+        ProjectSearchInterface search = new ProjectSearchInterface() {
+            @Override
+            public ArrayList<ProjectInterface> searchProjects(String query) {
+                return projects(1);
+            }
+
+            @Override
+            public ArrayList<ProjectInterface> searchProjects(String query, int k, int offset) {
+                return projects(1);
+            }
+
+            @Override
+            public ArrayList<ProjectInterface> searchProjects(String query, int k, int offset,
+                                                              ProjectSearchFilter filter) {
+                return projects(1);
+            }
+
+            @Override
+            public void streamProjects(String query, int k, int offset, ProjectSearchFilter filter,
+                                       BooleanSupplier cancelled, SearchResultsListener listener) {
+                listener.resultsUpdated(projects(1), false);
+                listener.resultsUpdated(projects(3), false);
+                if (query.equals("replaced")) {
+                    interactor[0].searchProjects("newer", 0, 2);
+                }
+                listener.resultsUpdated(projects(3), true);
+                cancelledAtEnd.add(cancelled.getAsBoolean());
+            }
+        };
+        interactor[0] = new SearchProjectsInteractor(recorder, search, Runnable::run);
+
+        interactor[0].streamProjects("query", 0, 2, ProjectSearchFilter.NONE);
+        assertEquals(List.of("partial 1 false", "partial 2 true", "page 2 true"), presented);
+
+        presented.clear();
+        interactor[0].streamProjects("replaced", 0, 2, ProjectSearchFilter.NONE);
+        assertEquals(List.of("partial 1 false", "partial 2 true", "page 1 false"), presented);
+        assertEquals(List.of(false, true), cancelledAtEnd);
+    }
+
+    /**
+     * Tests that each keystroke presents the suggestions for the typed query at once, and that only the last query
+     * of a burst of keystrokes is refined by a streaming search.
+     */
+    @Test
+    public void testSearchAsYouTypeRefinesOnlyLastQuery() {
+        ArrayList<String> presented = new ArrayList<>();
+        ArrayList<String> streamed = new ArrayList<>();
+        ArrayDeque<Runnable> queued = new ArrayDeque<>();
+        ProjectSearchInterface search = new ProjectSearchInterface() {
+            @Override
+            public ArrayList<ProjectInterface> searchProjects(String query) {
+                return projects(2);
+            }
+
+            @Override
+            public ArrayList<ProjectInterface> searchProjects(String query, int k, int offset) {
+                return projects(2);
+            }
+
+            @Override
+            public ArrayList<ProjectInterface> searchProjects(String query, int k, int offset,
+                                                              ProjectSearchFilter filter) {
+                streamed.add(query);
+                return projects(2);
+            }
+        };
+        SearchProjectsInteractor interactor = new SearchProjectsInteractor(recorder(presented), search,
+                (query, k, offset, filter) -> projects(query.length()), queued::add, Duration.ZERO);
+
+        interactor.searchAsYouType("j", 0, 5, ProjectSearchFilter.NONE);
+        interactor.searchAsYouType("ja", 0, 5, ProjectSearchFilter.NONE);
+        interactor.searchAsYouType("jav", 0, 5, ProjectSearchFilter.NONE);
+        assertEquals(List.of("partial 1 false", "partial 2 false", "partial 3 false"), presented);
+        assertTrue(streamed.isEmpty());
+
+        queued.forEach(Runnable::run);
+        assertEquals(List.of("jav"), streamed);
+        assertEquals("page 2 false", presented.getLast());
+
+        presented.clear();
+        queued.clear();
+        interactor.searchAsYouType(" ", 0, 5, ProjectSearchFilter.NONE);
+        assertEquals(List.of("page 0 false"), presented);
+        assertTrue(queued.isEmpty());
+    }
+
+    private static SearchProjectOutputBoundary recorder(List<String> presented) {
+        return new SearchProjectOutputBoundary() {
+            @Override
+            public void presentProjects(ArrayList<ProjectInterface> projects) {
+                presented.add("all " + projects.size());
+            }
+
+            @Override
+            public void presentProjectPage(ArrayList<ProjectInterface> projects, int offset, boolean hasMore) {
+                presented.add("page " + projects.size() + " " + hasMore);
+            }
+
+            @Override
+            public void presentPartialProjectPage(ArrayList<ProjectInterface> projects, int offset,
+                                                  boolean hasMore) {
+                presented.add("partial " + projects.size() + " " + hasMore);
+            }
+        };
+    }
+
+    private static ArrayList<ProjectInterface> projects(int count) {
+        ArrayList<ProjectInterface> projects = new ArrayList<>();
+        for (int id = 1; id <= count; id++) {
+            projects.add(new Project(id, "Project " + id, 0.0, "", new HashSet<>()));
+        }
+        return projects;
+    }
+
     private static float[] randomEmbedding() {
         int size = 6;
         float[] embedding = new float[size];
@@ -0,0 +1,150 @@
+package usecase.searchproject.index;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import usecase.searchforproject.index.Bm25Index;
+import usecase.searchforproject.index.SearchHits;
+
+import java.util.BitSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the Bm25Index class.
+ */
+public class Bm25IndexTest {
+    private Bm25Index index;
+
+    /**
+     * Indexes three projects about different topics.
+     */
+    @BeforeEach
+    public void setUp() {
+        index = new Bm25Index();
+        index.put(1, "Machine learning pipeline", "Train models on project data.", Set.of("python"));
+        index.put(2, "Website redesign", "Modernize the website, possibly with some machine learning.", Set.of("web"));
+        index.put(3, "Mobile app", "A mobile app for tracking budgets.", Set.of("android", "kotlin"));
+    }
+
+    /**
+     * Tests that a match in the title outranks the same match in the description.
+     */
+    @Test
+    public void testTitleMatchRanksFirst() {
+        SearchHits hits = index.search("machine learning", 10);
+        assertArrayEquals(new int[]{1, 2}, hits.ids());
+        assertTrue(hits.scores()[0] > hits.scores()[1]);
+    }
+
+    /**
+     * Tests that tags, case and plurals are matched, and projects without a matching term are not returned.
+     */
+    @Test
+    public void testMatchesTagsCaseAndPlurals() {
+        assertArrayEquals(new int[]{3}, index.search("Kotlin", 10).ids());
+        assertArrayEquals(new int[]{3}, index.search("budget", 10).ids());
+        assertEquals(0, index.search("blockchain", 10).size());
+        assertEquals(0, index.search("the and of", 10).size());
+    }
+
+    /**
+     * Tests that a rare query term weighs more than a common one.
+     */
+    @Test
+    public void testRareTermsWeighMore() {
+        index.put(4, "Data dashboard", "Charts for project data.", Set.of());
+        index.put(5, "Data warehouse", "Store project data.", Set.of("python"));
+        assertEquals(5, index.search("data python", 10).ids()[0]);
+    }
+
+    /**
+     * Tests that projects are replaced and removed incrementally.
+     */
+    @Test
+    public void testIncrementalUpdates() {
+        index.put(2, "Website redesign", "Modernize the website.", Set.of("web"));
+        assertArrayEquals(new int[]{1}, index.search("machine learning", 10).ids());
+
+        index.remove(1);
+        assertEquals(0, index.search("machine learning", 10).size());
+        assertEquals(2, index.size());
+        assertFalse(index.contains(1));
+
+        index.put(6, "", "", Set.of());
+        assertFalse(index.contains(6));
+    }
+
+    /**
+     * Tests that only the best k projects are returned.
+     */
+    @Test
+    public void testLimitsResults() {
+        assertArrayEquals(new int[]{1}, index.search("machine learning", 1).ids());
+    }
+
+    /**
+     * Tests that only allowed projects are ranked.
+     */
+    @Test
+    public void testAllowedIds() {
+        BitSet allowed = new BitSet();
+        allowed.set(2);
+        allowed.set(3);
+        assertArrayEquals(new int[]{2}, index.search("machine learning", 10, allowed).ids());
+        assertEquals(0, index.search("machine learning", 10, new BitSet()).size());
+    }
+
+    /**
+     * Tests that the last word of a query being typed is matched as a prefix, unless the query ends with a separator.
+     */
+    @Test
+    public void testPrefixMatchesUnfinishedLastWord() {
+        assertArrayEquals(new int[]{1, 2}, index.searchPrefix("Mach", 10, null).ids());
+        assertEquals(1, index.searchPrefix("machine learning pipe", 10, null).ids()[0]);
+        assertArrayEquals(new int[]{3}, index.searchPrefix("budgets", 10, null).ids());
+        assertEquals(0, index.searchPrefix("mach ", 10, null).size());
+        assertEquals(0, index.searchPrefix("", 10, null).size());
+        assertArrayEquals(index.search("machine learning", 10).ids(),
+                index.searchPrefix("machine learning ", 10, null).ids());
+    }
+
+    /**
+     * Tests that a project scores for the best term a prefix stands for, not for every one of them.
+     */
+    @Test
+    public void testPrefixScoresBestExpansion() {
+        float app = index.search("app", 10).scores()[0];
+        float android = index.search("android", 10).scores()[0];
+        SearchHits hits = index.searchPrefix("a", 10, null);
+        assertArrayEquals(new int[]{3}, hits.ids());
+        assertEquals(Math.max(app, android), hits.scores()[0], 1e-6);
+    }
+
+    /**
+     * Tests that prefixes follow updates and only match allowed projects.
+     */
+    @Test
+    public void testPrefixFollowsUpdates() {
+        BitSet allowed = new BitSet();
+        allowed.set(2);
+        assertArrayEquals(new int[]{2}, index.searchPrefix("mach", 10, allowed).ids());
+
+        index.remove(3);
+        assertEquals(0, index.searchPrefix("andr", 10, null).size());
+        index.put(3, "Android app", "", Set.of());
+        assertArrayEquals(new int[]{3}, index.searchPrefix("andr", 10, null).ids());
+        index.clear();
+        assertEquals(0, index.searchPrefix("mach", 10, null).size());
+    }
+
+    /**
+     * Tests tokenization.
+     */
+    @Test
+    public void testTokenize() {
+        assertEquals(List.of("machine", "learning", "project", "class"),
+                Bm25Index.tokenize("Machine-Learning for the PROJECTS, class"));
+    }
+}
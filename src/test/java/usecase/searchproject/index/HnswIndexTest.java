@@ -0,0 +1,215 @@
+package usecase.searchproject.index;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import usecase.searchforproject.index.HnswIndex;
+import usecase.searchforproject.index.SearchHits;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashSet;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the HnswIndex class.
+ */
+public class HnswIndexTest {
+    private static final int DIMENSION = 32;
+    private static final int PROJECT_COUNT = 2000;
+
+    private HnswIndex index;
+    private float[][] vectors;
+
+    /**
+     * Builds an index over random clustered vectors.
+     */
+    @BeforeEach
+    public void setUp() {
+        Random random = new Random(7);
+        float[][] centroids = new float[20][DIMENSION];
+        for (float[] centroid : centroids) {
+            for (int d = 0; d < DIMENSION; d++) {
+                centroid[d] = (float) random.nextGaussian();
+            }
+        }
+        vectors = new float[PROJECT_COUNT][DIMENSION];
+        index = new HnswIndex(16, 100, 64, 1);
+        for (int i = 0; i < PROJECT_COUNT; i++) {
+            float[] centroid = centroids[random.nextInt(centroids.length)];
+            for (int d = 0; d < DIMENSION; d++) {
+                vectors[i][d] = centroid[d] + 0.5f * (float) random.nextGaussian();
+            }
+            index.add(i, vectors[i]);
+        }
+    }
+
+    /**
+     * Tests that approximate search finds nearly all of the exact top 10.
+     */
+    @Test
+    public void testRecallAgainstExactSearch() {
+        Random random = new Random(11);
+        int found = 0;
+        int queries = 50;
+        for (int q = 0; q < queries; q++) {
+            float[] query = vectors[random.nextInt(PROJECT_COUNT)].clone();
+            for (int d = 0; d < DIMENSION; d++) {
+                query[d] += 0.1f * (float) random.nextGaussian();
+            }
+            HashSet<Integer> exact = exactTop(query, 10);
+            for (int id : index.search(query, 10).ids()) {
+                if (exact.contains(id)) {
+                    found++;
+                }
+            }
+        }
+        double recall = found / (queries * 10.0);
+        assertTrue(recall >= 0.95, "recall@10 was " + recall);
+    }
+
+    /**
+     * Tests that results are ordered by decreasing similarity and the query itself ranks first.
+     */
+    @Test
+    public void testResultsAreOrdered() {
+        SearchHits hits = index.search(vectors[5], 10);
+        assertEquals(10, hits.size());
+        assertEquals(5, hits.ids()[0]);
+        assertEquals(1f, hits.scores()[0], 1e-4f);
+        for (int i = 1; i < hits.size(); i++) {
+            assertTrue(hits.scores()[i - 1] >= hits.scores()[i]);
+        }
+    }
+
+    /**
+     * Tests that removed projects are never returned.
+     */
+    @Test
+    public void testRemovedProjectIsNotReturned() {
+        assertTrue(index.remove(5));
+        assertFalse(index.remove(5));
+        assertFalse(index.contains(5));
+        assertEquals(PROJECT_COUNT - 1, index.size());
+        for (int id : index.search(vectors[5], 10).ids()) {
+            assertNotEquals(5, id);
+        }
+    }
+
+    /**
+     * Tests that re-adding a project replaces its embedding.
+     */
+    @Test
+    public void testUpdateReplacesEmbedding() {
+        index.add(5, vectors[6]);
+        assertEquals(PROJECT_COUNT, index.size());
+        SearchHits hits = index.search(vectors[6], 2);
+        HashSet<Integer> ids = new HashSet<>();
+        for (int id : hits.ids()) {
+            ids.add(id);
+        }
+        assertEquals(new HashSet<>(Arrays.asList(5, 6)), ids);
+    }
+
+    /**
+     * Tests that filtered searches only return allowed projects and find nearly all of the exact filtered top 10,
+     * both when the graph is walked and when the few allowed projects are scored directly.
+     */
+    @Test
+    public void testFilteredSearch() {
+        BitSet even = new BitSet();
+        BitSet sparse = new BitSet();
+        for (int i = 0; i < PROJECT_COUNT; i++) {
+            even.set(i, i % 2 == 0);
+            sparse.set(i, i % 50 == 0);
+        }
+        Random random = new Random(13);
+        for (BitSet allowed : new BitSet[]{even, sparse}) {
+            int found = 0;
+            int queries = 20;
+            for (int q = 0; q < queries; q++) {
+                float[] query = vectors[random.nextInt(PROJECT_COUNT)];
+                HashSet<Integer> exact = exactTop(query, 10, allowed);
+                for (int id : index.search(query, 10, 10, allowed).ids()) {
+                    assertTrue(allowed.get(id));
+                    if (exact.contains(id)) {
+                        found++;
+                    }
+                }
+            }
+            double recall = found / (queries * 10.0);
+            assertTrue(recall >= 0.9, "filtered recall@10 was " + recall);
+        }
+        assertEquals(0, index.search(vectors[0], 10, new BitSet()).size());
+    }
+
+    /**
+     * Tests that an empty index and mismatched queries return no results.
+     */
+    @Test
+    public void testEmptyAndMismatchedQueries() {
+        HnswIndex empty = new HnswIndex(8, 50, 20, 1);
+        assertEquals(0, empty.search(new float[DIMENSION], 5).size());
+        assertEquals(0, index.search(new float[DIMENSION + 1], 5).size());
+        assertThrows(IllegalArgumentException.class, () -> index.add(PROJECT_COUNT, new float[DIMENSION + 1]));
+    }
+
+    /**
+     * Tests that once more than a fifth of the nodes are deleted by updates, compaction drops them and keeps recall.
+     */
+    @Test
+    public void testCompactionDropsDeletedNodes() {
+        Random random = new Random(3);
+        for (int i = 0; i < PROJECT_COUNT / 4; i++) {
+            index.add(i, vectors[i]);
+            index.remove(PROJECT_COUNT - 1 - i);
+            index.add(PROJECT_COUNT - 1 - i, vectors[PROJECT_COUNT - 1 - i]);
+        }
+        assertTrue(index.needsCompaction());
+        index.compact();
+        assertFalse(index.needsCompaction());
+        assertEquals(PROJECT_COUNT, index.getNodeCount());
+        assertEquals(PROJECT_COUNT, index.size());
+
+        int found = 0;
+        for (int q = 0; q < 50; q++) {
+            float[] query = vectors[random.nextInt(PROJECT_COUNT)];
+            HashSet<Integer> exact = exactTop(query, 10);
+            for (int id : index.search(query, 10).ids()) {
+                if (exact.contains(id)) {
+                    found++;
+                }
+            }
+        }
+        assertTrue(found >= 0.95 * 500, "recall@10 was " + found / 500.0);
+    }
+
+    private HashSet<Integer> exactTop(float[] query, int k) {
+        BitSet all = new BitSet();
+        all.set(0, PROJECT_COUNT);
+        return exactTop(query, k, all);
+    }
+
+    private HashSet<Integer> exactTop(float[] query, int k, BitSet allowed) {
+        Integer[] order = allowed.stream().boxed().toArray(Integer[]::new);
+        float[] scores = new float[PROJECT_COUNT];
+        for (int i : order) {
+            scores[i] = cosine(query, vectors[i]);
+        }
+        Arrays.sort(order, (a, b) -> Float.compare(scores[b], scores[a]));
+        return new HashSet<>(Arrays.asList(order).subList(0, Math.min(k, order.length)));
+    }
+
+    private static float cosine(float[] a, float[] b) {
+        double dot = 0;
+        double normA = 0;
+        double normB = 0;
+        for (int i = 0; i < a.length; i++) {
+            dot += a[i] * b[i];
+            normA += a[i] * a[i];
+            normB += b[i] * b[i];
+        }
+        return (float) (dot / (Math.sqrt(normA) * Math.sqrt(normB)));
+    }
+}
@@ -0,0 +1,53 @@
+package usecase.searchproject.index;
+
+import org.junit.jupiter.api.Test;
+import usecase.searchforproject.index.IdSlotMap;
+
+import java.util.HashMap;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the IdSlotMap class.
+ */
+public class IdSlotMapTest {
+
+    /**
+     * Tests random puts and removes against a HashMap, which exercises resizing and backward-shift deletion.
+     */
+    @Test
+    public void testMatchesHashMap() {
+        Random random = new Random(21);
+        IdSlotMap map = new IdSlotMap();
+        HashMap<Integer, Integer> expected = new HashMap<>();
+        for (int i = 0; i < 20000; i++) {
+            int id = random.nextInt(2000) - 500;
+            if (random.nextInt(3) == 0) {
+                assertEquals((int) expected.getOrDefault(id, -1), map.remove(id));
+                expected.remove(id);
+            }
+            else {
+                map.put(id, i);
+                expected.put(id, i);
+            }
+        }
+        assertEquals(expected.size(), map.size());
+        for (int id = -500; id < 1500; id++) {
+            assertEquals((int) expected.getOrDefault(id, -1), map.get(id));
+        }
+    }
+
+    /**
+     * Tests that clear empties the map and the reserved id is rejected.
+     */
+    @Test
+    public void testClearAndReservedId() {
+        IdSlotMap map = new IdSlotMap();
+        map.put(1, 10);
+        map.clear();
+        assertEquals(0, map.size());
+        assertEquals(-1, map.get(1));
+        assertThrows(IllegalArgumentException.class, () -> map.put(Integer.MIN_VALUE, 0));
+    }
+}
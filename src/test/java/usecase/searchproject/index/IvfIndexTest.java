@@ -0,0 +1,164 @@
+package usecase.searchproject.index;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import usecase.searchforproject.index.IvfIndex;
+import usecase.searchforproject.index.SearchHits;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Random;
+import java.util.concurrent.Executor;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the IvfIndex class.
+ */
+public class IvfIndexTest {
+    private static final int DIMENSION = 32;
+    private static final int PROJECT_COUNT = 2000;
+    private static final Executor DIRECT = Runnable::run;
+
+    private IvfIndex index;
+    private float[][] vectors;
+
+    /**
+     * Trains an index over random clustered vectors.
+     */
+    @BeforeEach
+    public void setUp() {
+        Random random = new Random(7);
+        float[][] centroids = new float[20][DIMENSION];
+        for (float[] centroid : centroids) {
+            for (int d = 0; d < DIMENSION; d++) {
+                centroid[d] = (float) random.nextGaussian();
+            }
+        }
+        vectors = new float[PROJECT_COUNT][DIMENSION];
+        index = new IvfIndex(0, 1);
+        for (int i = 0; i < PROJECT_COUNT; i++) {
+            float[] centroid = centroids[random.nextInt(centroids.length)];
+            for (int d = 0; d < DIMENSION; d++) {
+                vectors[i][d] = centroid[d] + 0.5f * (float) random.nextGaussian();
+            }
+            index.add(i, vectors[i]);
+        }
+        index.train(DIRECT, 3);
+    }
+
+    /**
+     * Tests that scanning a few lists finds nearly all of the exact top 10, and scanning every list finds all of it.
+     */
+    @Test
+    public void testRecallAgainstExactSearch() {
+        assertEquals(45, index.listCount());
+        Random random = new Random(11);
+        int found = 0;
+        int foundAllLists = 0;
+        int queries = 50;
+        for (int q = 0; q < queries; q++) {
+            float[] query = vectors[random.nextInt(PROJECT_COUNT)].clone();
+            for (int d = 0; d < DIMENSION; d++) {
+                query[d] += 0.1f * (float) random.nextGaussian();
+            }
+            HashSet<Integer> exact = exactTop(query, 10);
+            for (int id : index.search(query, 10, 8).ids()) {
+                found += exact.contains(id) ? 1 : 0;
+            }
+            for (int id : index.search(query, 10, index.listCount()).ids()) {
+                foundAllLists += exact.contains(id) ? 1 : 0;
+            }
+        }
+        double recall = found / (queries * 10.0);
+        assertTrue(recall >= 0.9, "recall@10 was " + recall);
+        assertEquals(queries * 10, foundAllLists);
+    }
+
+    /**
+     * Tests that a project added after training is assigned to a list right away, and removed projects are not
+     * returned.
+     */
+    @Test
+    public void testAddAndRemoveAfterTraining() {
+        index.add(PROJECT_COUNT, vectors[5]);
+        SearchHits hits = index.search(vectors[5], 2, 1);
+        assertEquals(new HashSet<>(Arrays.asList(5, PROJECT_COUNT)),
+                new HashSet<>(Arrays.asList(hits.ids()[0], hits.ids()[1])));
+
+        assertTrue(index.remove(5));
+        assertFalse(index.remove(5));
+        assertFalse(index.contains(5));
+        assertEquals(PROJECT_COUNT, index.size());
+        for (int id : index.search(vectors[5], 10, 8).ids()) {
+            assertNotEquals(5, id);
+        }
+    }
+
+    /**
+     * Tests that updates made while the index trains are kept in the new lists.
+     */
+    @Test
+    public void testUpdatesDuringTrainingAreKept() {
+        boolean[] updated = {false};
+        Executor interleaving = task -> {
+            if (!updated[0]) {
+                updated[0] = true;
+                index.remove(7);
+                index.add(PROJECT_COUNT, vectors[9]);
+            }
+            task.run();
+        };
+        index.train(interleaving, 3);
+        assertTrue(updated[0]);
+        assertFalse(index.contains(7));
+        assertTrue(index.contains(PROJECT_COUNT));
+        assertEquals(PROJECT_COUNT, index.size());
+        assertEquals(PROJECT_COUNT, index.getTrainedSize());
+        assertTrue(Arrays.stream(index.search(vectors[9], 2, 1).ids()).anyMatch(id -> id == PROJECT_COUNT));
+    }
+
+    /**
+     * Tests that the imbalance grows when projects pile into one list, and that an untrained index scans exactly.
+     */
+    @Test
+    public void testImbalanceAndUntrainedIndex() {
+        double trained = index.getTrainedImbalance();
+        assertTrue(trained >= 1);
+        for (int i = 0; i < PROJECT_COUNT; i++) {
+            index.add(PROJECT_COUNT + i, vectors[0]);
+        }
+        assertTrue(index.imbalance() > 2 * trained);
+
+        IvfIndex untrained = new IvfIndex(0, 1);
+        for (int i = 0; i < 100; i++) {
+            untrained.add(i, vectors[i]);
+        }
+        assertEquals(1, untrained.listCount());
+        assertEquals(3, untrained.search(vectors[3], 1, 1).ids()[0]);
+        assertEquals(0, untrained.search(new float[DIMENSION + 1], 1, 1).size());
+    }
+
+    private HashSet<Integer> exactTop(float[] query, int k) {
+        Integer[] order = new Integer[PROJECT_COUNT];
+        float[] scores = new float[PROJECT_COUNT];
+        for (int i = 0; i < PROJECT_COUNT; i++) {
+            order[i] = i;
+            scores[i] = cosine(query, vectors[i]);
+        }
+        Arrays.sort(order, (a, b) -> Float.compare(scores[b], scores[a]));
+        return new HashSet<>(Arrays.asList(order).subList(0, k));
+    }
+
+    private static float cosine(float[] a, float[] b) {
+        double dot = 0;
+        double normA = 0;
+        double normB = 0;
+        for (int i = 0; i < a.length; i++) {
+            dot += a[i] * b[i];
+            normA += a[i] * a[i];
+            normB += b[i] * b[i];
+        }
+        return (float) (dot / (Math.sqrt(normA) * Math.sqrt(normB)));
+    }
+}
@@ -0,0 +1,131 @@
+package usecase.searchproject.index;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import usecase.searchforproject.index.DuplicatePair;
+import usecase.searchforproject.index.LshIndex;
+import usecase.searchforproject.index.SearchHits;
+import usecase.searchforproject.index.VectorKernels;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ExecutorService;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the LshIndex class.
+ */
+public class LshIndexTest {
+    private static final int DIMENSION = 64;
+    private static final int PROJECT_COUNT = 1000;
+    private static final int DUPLICATE_COUNT = 50;
+    private static final float THRESHOLD = 0.95f;
+
+    private LshIndex index;
+    private float[][] vectors;
+
+    /**
+     * Indexes random vectors, the first of which each have a slightly perturbed copy.
+     */
+    @BeforeEach
+    public void setUp() {
+        Random random = new Random(3);
+        vectors = new float[PROJECT_COUNT + DUPLICATE_COUNT][];
+        index = new LshIndex(24, 16, 1);
+        for (int i = 0; i < PROJECT_COUNT; i++) {
+            vectors[i] = randomVector(random, null, 1);
+            index.add(i, vectors[i]);
+        }
+        for (int i = 0; i < DUPLICATE_COUNT; i++) {
+            vectors[PROJECT_COUNT + i] = randomVector(random, vectors[i], 0.1f);
+            index.add(PROJECT_COUNT + i, vectors[PROJECT_COUNT + i]);
+        }
+    }
+
+    /**
+     * Tests that the perturbed copies are found as near-duplicates of their originals.
+     */
+    @Test
+    public void testFindsNearDuplicates() {
+        for (int i = 0; i < DUPLICATE_COUNT; i++) {
+            SearchHits hits = index.findSimilar(vectors[i], THRESHOLD);
+            assertEquals(2, hits.size());
+            assertEquals(i, hits.ids()[0]);
+            assertEquals(1f, hits.scores()[0], 1e-5f);
+            assertEquals(PROJECT_COUNT + i, hits.ids()[1]);
+            assertTrue(hits.scores()[1] >= THRESHOLD);
+        }
+    }
+
+    /**
+     * Tests that unrelated vectors and vectors of another dimension have no near-duplicates.
+     */
+    @Test
+    public void testNoNearDuplicatesOfUnrelatedVectors() {
+        Random random = new Random(5);
+        for (int q = 0; q < 20; q++) {
+            assertEquals(0, index.findSimilar(randomVector(random, null, 1), THRESHOLD).size());
+        }
+        assertEquals(0, index.findSimilar(new float[]{1f, 0f}, THRESHOLD).size());
+    }
+
+    /**
+     * Tests that removed and replaced embeddings are no longer matched.
+     */
+    @Test
+    public void testRemoveAndReplace() {
+        assertTrue(index.remove(PROJECT_COUNT));
+        assertFalse(index.remove(PROJECT_COUNT));
+        assertEquals(1, index.findSimilar(vectors[0], THRESHOLD).size());
+
+        index.add(1, vectors[0]);
+        SearchHits hits = index.findSimilar(vectors[0], THRESHOLD);
+        assertEquals(2, hits.size());
+        assertEquals(0, hits.ids()[0]);
+        assertEquals(1, hits.ids()[1]);
+        assertEquals(PROJECT_COUNT + DUPLICATE_COUNT - 1, index.size());
+    }
+
+    /**
+     * Tests that the report finds the same pairs as comparing every pair exactly, in one shard or several.
+     */
+    @Test
+    public void testAllPairsMatchExactComparison() {
+        List<String> expected = new ArrayList<>();
+        for (int i = 0; i < vectors.length; i++) {
+            float[] a = VectorKernels.normalize(vectors[i]);
+            for (int j = i + 1; j < vectors.length; j++) {
+                if (VectorKernels.getDefault().dot(a, VectorKernels.normalize(vectors[j])) >= THRESHOLD) {
+                    expected.add(i + "-" + j);
+                }
+            }
+        }
+        assertEquals(DUPLICATE_COUNT, expected.size());
+
+        List<DuplicatePair> sequential = index.findAllSimilarPairs(THRESHOLD, Runnable::run, 1);
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<DuplicatePair> parallel = index.findAllSimilarPairs(THRESHOLD, executor, 4);
+            assertEquals(sequential, parallel);
+        }
+        finally {
+            executor.shutdown();
+        }
+        assertEquals(expected.stream().sorted().toList(),
+                sequential.stream().map(pair -> pair.firstId() + "-" + pair.secondId()).sorted().toList());
+        for (int i = 1; i < sequential.size(); i++) {
+            assertTrue(sequential.get(i - 1).similarity() >= sequential.get(i).similarity());
+        }
+    }
+
+    private static float[] randomVector(Random random, float[] base, float scale) {
+        float[] vector = new float[DIMENSION];
+        for (int d = 0; d < DIMENSION; d++) {
+            vector[d] = (base == null ? 0 : base[d]) + scale * (float) random.nextGaussian();
+        }
+        return vector;
+    }
+}
@@ -0,0 +1,100 @@
+package usecase.searchproject.index;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import usecase.searchforproject.index.NormalizedEmbeddingStore;
+import usecase.searchforproject.index.VectorKernels;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the NormalizedEmbeddingStore class.
+ */
+public class NormalizedEmbeddingStoreTest {
+    private NormalizedEmbeddingStore store;
+
+    /**
+     * Creates an empty store.
+     */
+    @BeforeEach
+    public void setUp() {
+        store = new NormalizedEmbeddingStore();
+    }
+
+    /**
+     * Tests that similarity is the cosine similarity of the raw embeddings.
+     */
+    @Test
+    public void testSimilarityIsCosine() {
+        store.put(1, new float[]{2f, 0f});
+        store.put(2, new float[]{1f, 1f});
+        float[] query = VectorKernels.normalize(new float[]{5f, 0f});
+        assertEquals(1f, store.similarity(query, slotOf(1)), 1e-6f);
+        assertEquals((float) Math.sqrt(0.5), store.similarity(query, slotOf(2)), 1e-6f);
+    }
+
+    /**
+     * Tests that removing a project keeps the remaining projects searchable in their slots.
+     */
+    @Test
+    public void testRemoveKeepsOtherSlots() {
+        store.put(1, new float[]{1f, 0f});
+        store.put(2, new float[]{0f, 1f});
+        store.put(3, new float[]{1f, 1f});
+        int slotOfThree = slotOf(3);
+        store.remove(1);
+        assertEquals(slotOfThree, slotOf(3));
+        store.remove(42);
+        assertEquals(2, store.size());
+        float[] query = VectorKernels.normalize(new float[]{0f, 1f});
+        assertEquals(1f, store.similarity(query, slotOf(2)), 1e-6f);
+        assertEquals((float) Math.sqrt(0.5), store.similarity(query, slotOf(3)), 1e-6f);
+    }
+
+    /**
+     * Tests that loaded embeddings can be replaced and removed one project at a time.
+     */
+    @Test
+    public void testPutAllThenUpdate() {
+        HashMap<Integer, float[]> embeddings = new HashMap<>();
+        embeddings.put(1, new float[]{1f, 0f});
+        embeddings.put(2, new float[]{0f, 1f});
+        store.putAll(embeddings);
+        assertEquals(2, store.size());
+
+        store.remove(1);
+        store.put(2, new float[]{1f, 0f});
+        store.put(3, new float[]{0f, 1f});
+
+        HashSet<Integer> ids = new HashSet<>();
+        store.scan(new float[]{1f, 0f}, 0, store.slotCount(), (id, _) -> ids.add(id));
+        assertEquals(new HashSet<>(List.of(2, 3)), ids);
+        assertEquals(1f, store.similarity(new float[]{1f, 0f}, slotOf(2)), 1e-6f);
+    }
+
+    /**
+     * Tests that empty and mismatched embeddings are not stored.
+     */
+    @Test
+    public void testRejectsUnusableEmbeddings() {
+        store.put(1, new float[0]);
+        assertEquals(0, store.size());
+        store.put(1, new float[]{1f, 0f});
+        store.put(2, new float[]{1f, 0f, 0f});
+        assertEquals(1, store.size());
+        assertEquals(2, store.getDimension());
+    }
+
+    private int slotOf(int id) {
+        for (int slot = 0; slot < store.slotCount(); slot++) {
+            if (store.isLive(slot) && store.idAt(slot) == id) {
+                return slot;
+            }
+        }
+        return fail("project " + id + " is not stored");
+    }
+}
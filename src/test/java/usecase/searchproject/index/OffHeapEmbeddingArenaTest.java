@@ -0,0 +1,122 @@
+package usecase.searchproject.index;
+
+import org.junit.jupiter.api.Test;
+import usecase.searchforproject.index.OffHeapEmbeddingArena;
+import usecase.searchforproject.index.ScalarVectorKernel;
+import usecase.searchforproject.index.VectorKernels;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the OffHeapEmbeddingArena class.
+ */
+public class OffHeapEmbeddingArenaTest {
+
+    /**
+     * Tests that stored embeddings can be read back and overwritten, including after the arena grows.
+     */
+    @Test
+    public void testPutGetAndGrow() {
+        OffHeapEmbeddingArena arena = new OffHeapEmbeddingArena(3, VectorKernels.getDefault());
+        for (int id = 0; id < 100; id++) {
+            arena.put(id, new float[]{id, id + 1, id + 2});
+        }
+        arena.put(7, new float[]{-1f, -2f, -3f});
+        assertEquals(100, arena.size());
+        assertArrayEquals(new float[]{50f, 51f, 52f}, arena.get(50));
+        assertArrayEquals(new float[]{-1f, -2f, -3f}, arena.get(7));
+        assertNull(arena.get(100));
+        assertThrows(IllegalArgumentException.class, () -> arena.put(1, new float[2]));
+    }
+
+    /**
+     * Tests that scans skip tombstones and compute the dot product of every live row.
+     */
+    @Test
+    public void testScanSkipsTombstones() {
+        OffHeapEmbeddingArena arena = new OffHeapEmbeddingArena(2, new ScalarVectorKernel());
+        arena.put(1, new float[]{1f, 0f});
+        arena.put(2, new float[]{0f, 1f});
+        arena.put(3, new float[]{2f, 2f});
+        int slotOfThree = arena.slotOf(3);
+        assertTrue(arena.remove(2));
+        assertFalse(arena.remove(2));
+        assertEquals(slotOfThree, arena.slotOf(3));
+        assertEquals(3, arena.slotCount());
+        assertFalse(arena.isLive(1));
+
+        List<String> visited = new ArrayList<>();
+        arena.scan(new float[]{1f, 1f}, 0, arena.slotCount(), (id, score) -> visited.add(id + "=" + score));
+        assertEquals(List.of("1=1.0", "3=4.0"), visited);
+    }
+
+    /**
+     * Tests that enough removals compact the live rows to the front in their original order.
+     */
+    @Test
+    public void testCompaction() {
+        OffHeapEmbeddingArena arena = new OffHeapEmbeddingArena(4, VectorKernels.getDefault());
+        for (int id = 0; id < 200; id++) {
+            arena.put(id, new float[]{id, 0f, 0f, 1f});
+        }
+        for (int id = 0; id < 200; id += 2) {
+            arena.remove(id);
+        }
+        assertEquals(100, arena.size());
+        assertEquals(100, arena.slotCount());
+        for (int slot = 0; slot < arena.slotCount(); slot++) {
+            assertTrue(arena.isLive(slot));
+            assertEquals(2 * slot + 1, arena.idAt(slot));
+            assertEquals(2 * slot + 1, arena.dot(new float[]{1f, 0f, 0f, 0f}, slot), 1e-6f);
+        }
+
+        for (int id = 1; id < 200; id += 2) {
+            arena.remove(id);
+        }
+        assertEquals(0, arena.size());
+        assertEquals(0, arena.slotCount());
+    }
+
+    /**
+     * Tests that a batch scan visits the same rows with the same scores as one scan per query, across several
+     * blocks of rows and queries and with tombstones.
+     */
+    @Test
+    public void testBatchScanMatchesSingleScans() {
+        Random random = new Random(7);
+        OffHeapEmbeddingArena arena = new OffHeapEmbeddingArena(1536, VectorKernels.getDefault());
+        for (int id = 0; id < 300; id++) {
+            arena.put(id, randomVector(random, 1536));
+        }
+        for (int id = 0; id < 300; id += 11) {
+            arena.remove(id);
+        }
+        float[][] queries = new float[47][];
+        for (int q = 0; q < queries.length; q++) {
+            queries[q] = randomVector(random, 1536);
+        }
+
+        List<List<String>> batch = new ArrayList<>();
+        for (int q = 0; q < queries.length; q++) {
+            batch.add(new ArrayList<>());
+        }
+        arena.scan(queries, 5, arena.slotCount(), (query, id, score) -> batch.get(query).add(id + "=" + score));
+        for (int q = 0; q < queries.length; q++) {
+            List<String> single = new ArrayList<>();
+            arena.scan(queries[q], 5, arena.slotCount(), (id, score) -> single.add(id + "=" + score));
+            assertEquals(single, batch.get(q));
+        }
+    }
+
+    private static float[] randomVector(Random random, int length) {
+        float[] vector = new float[length];
+        for (int i = 0; i < length; i++) {
+            vector[i] = (float) random.nextGaussian();
+        }
+        return vector;
+    }
+}
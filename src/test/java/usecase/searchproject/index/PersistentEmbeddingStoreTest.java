@@ -0,0 +1,151 @@
+package usecase.searchproject.index;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import usecase.searchforproject.index.PersistentEmbeddingStore;
+import usecase.searchforproject.index.VectorKernels;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the PersistentEmbeddingStore class, and through it the snapshot and journal formats.
+ */
+public class PersistentEmbeddingStoreTest {
+    private static final Supplier<Map<Integer, float[]>> NO_REPOSITORY = () -> {
+        throw new AssertionError("The repository should not be read");
+    };
+
+    private Path directory;
+    private HashMap<Integer, float[]> repository;
+
+    /**
+     * Creates an empty snapshot directory and a repository of three projects.
+     */
+    @BeforeEach
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("search-index");
+        repository = new HashMap<>();
+        repository.put(1, new float[]{3f, 4f, 0f});
+        repository.put(2, new float[]{0f, 2f, 0f});
+        repository.put(3, new float[]{1f, 1f, 1f});
+    }
+
+    /**
+     * Tests that the first launch loads the repository, and the next one restores the same store from the snapshot
+     * without reading the repository.
+     */
+    @Test
+    public void testRestoresSnapshotWithoutReadingRepository() {
+        PersistentEmbeddingStore first = PersistentEmbeddingStore.open(directory, () -> repository);
+        assertFalse(first.isRestoredFromSnapshot());
+
+        PersistentEmbeddingStore restored = PersistentEmbeddingStore.open(directory, NO_REPOSITORY);
+        assertTrue(restored.isRestoredFromSnapshot());
+        assertEquals(3, restored.size());
+        assertEquals(3, restored.getDimension());
+        for (Map.Entry<Integer, float[]> entry : repository.entrySet()) {
+            assertArrayEquals(VectorKernels.normalize(entry.getValue()), restored.get(entry.getKey()), 1e-6f);
+        }
+    }
+
+    /**
+     * Tests that only the changes made after the last snapshot are replayed, and that they include removals.
+     */
+    @Test
+    public void testReplaysChangesSinceSnapshot() {
+        PersistentEmbeddingStore store = PersistentEmbeddingStore.open(directory, () -> repository);
+        store.put(4, new float[]{0f, 0f, 5f});
+        store.remove(2);
+        store.saveSnapshot();
+        store.put(1, new float[]{0f, 1f, 0f});
+        store.remove(3);
+        store.put(5, new float[]{2f, 0f, 0f});
+
+        PersistentEmbeddingStore restored = PersistentEmbeddingStore.open(directory, NO_REPOSITORY);
+        assertEquals(3, restored.getJournalRecordCount());
+        assertEquals(3, restored.size());
+        assertArrayEquals(new float[]{0f, 1f, 0f}, restored.get(1), 1e-6f);
+        assertNull(restored.get(2));
+        assertNull(restored.get(3));
+        assertArrayEquals(new float[]{0f, 0f, 1f}, restored.get(4), 1e-6f);
+        assertArrayEquals(new float[]{1f, 0f, 0f}, restored.get(5), 1e-6f);
+    }
+
+    /**
+     * Tests that a restored store grows and updates in place like any other, and that its changes persist too.
+     */
+    @Test
+    public void testRestoredStoreAcceptsChanges() {
+        PersistentEmbeddingStore.open(directory, () -> repository);
+        PersistentEmbeddingStore restored = PersistentEmbeddingStore.open(directory, NO_REPOSITORY);
+        restored.put(2, new float[]{1f, 0f, 0f});
+        for (int id = 10; id < 100; id++) {
+            restored.put(id, new float[]{id, 1f, 0f});
+        }
+
+        PersistentEmbeddingStore reopened = PersistentEmbeddingStore.open(directory, NO_REPOSITORY);
+        assertEquals(93, reopened.size());
+        assertArrayEquals(new float[]{1f, 0f, 0f}, reopened.get(2), 1e-6f);
+        assertArrayEquals(VectorKernels.normalize(new float[]{99f, 1f, 0f}), reopened.get(99), 1e-6f);
+    }
+
+    /**
+     * Tests that a record cut short by a crash is dropped, and that the journal keeps working after it.
+     */
+    @Test
+    public void testDiscardsTruncatedRecord() throws IOException {
+        PersistentEmbeddingStore store = PersistentEmbeddingStore.open(directory, () -> repository);
+        store.put(4, new float[]{0f, 0f, 5f});
+        Files.write(directory.resolve("embeddings.journal"), new byte[]{1, 5, 0, 0, 0, 3, 0},
+                StandardOpenOption.APPEND);
+
+        PersistentEmbeddingStore restored = PersistentEmbeddingStore.open(directory, NO_REPOSITORY);
+        assertEquals(1, restored.getJournalRecordCount());
+        assertEquals(4, restored.size());
+        restored.remove(1);
+
+        PersistentEmbeddingStore reopened = PersistentEmbeddingStore.open(directory, NO_REPOSITORY);
+        assertEquals(3, reopened.size());
+        assertNull(reopened.get(1));
+        assertNull(reopened.get(5));
+    }
+
+    /**
+     * Tests that a snapshot without its journal is not trusted and the store is rebuilt from the repository.
+     */
+    @Test
+    public void testRebuildsWithoutJournal() throws IOException {
+        PersistentEmbeddingStore store = PersistentEmbeddingStore.open(directory, () -> repository);
+        store.put(4, new float[]{0f, 0f, 5f});
+        Files.delete(directory.resolve("embeddings.journal"));
+
+        PersistentEmbeddingStore rebuilt = PersistentEmbeddingStore.open(directory, () -> repository);
+        assertFalse(rebuilt.isRestoredFromSnapshot());
+        assertEquals(3, rebuilt.size());
+        assertNull(rebuilt.get(4));
+        assertTrue(PersistentEmbeddingStore.open(directory, NO_REPOSITORY).isRestoredFromSnapshot());
+    }
+
+    /**
+     * Tests that a deleted store is rebuilt from the repository, e.g. after the embedding model changed.
+     */
+    @Test
+    public void testRebuildsAfterDelete() {
+        PersistentEmbeddingStore store = PersistentEmbeddingStore.open(directory, () -> repository);
+        store.put(4, new float[]{0f, 0f, 5f});
+        PersistentEmbeddingStore.delete(directory);
+
+        PersistentEmbeddingStore rebuilt = PersistentEmbeddingStore.open(directory, () -> repository);
+        assertFalse(rebuilt.isRestoredFromSnapshot());
+        assertEquals(3, rebuilt.size());
+        assertNull(rebuilt.get(4));
+    }
+}
@@ -0,0 +1,84 @@
+package usecase.searchproject.index;
+
+import org.junit.jupiter.api.Test;
+import usecase.searchforproject.index.QuantizedEmbeddingStore;
+import usecase.searchforproject.index.VectorKernels;
+
+import java.util.HashMap;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the QuantizedEmbeddingStore class.
+ */
+public class QuantizedEmbeddingStoreTest {
+
+    /**
+     * Tests that estimated similarities stay close to the exact cosine similarity of 1536-d embeddings.
+     */
+    @Test
+    public void testEstimateIsCloseToCosine() {
+        Random random = new Random(9);
+        QuantizedEmbeddingStore store = new QuantizedEmbeddingStore();
+        float[][] embeddings = new float[50][];
+        for (int id = 0; id < embeddings.length; id++) {
+            embeddings[id] = randomVector(random, 1536);
+            store.put(id, embeddings[id]);
+        }
+        float[] query = VectorKernels.normalize(randomVector(random, 1536));
+        float querySum = QuantizedEmbeddingStore.componentSum(query);
+        for (int slot = 0; slot < store.size(); slot++) {
+            float[] normalized = VectorKernels.normalize(embeddings[store.idAt(slot)]);
+            float exact = VectorKernels.getDefault().dot(query, normalized);
+            assertEquals(exact, store.similarity(query, querySum, slot), 0.01f);
+        }
+    }
+
+    /**
+     * Tests that constant embeddings, whose range is zero, are stored exactly.
+     */
+    @Test
+    public void testConstantEmbedding() {
+        QuantizedEmbeddingStore store = new QuantizedEmbeddingStore();
+        store.put(1, new float[]{2f, 2f, 2f, 2f});
+        float[] query = VectorKernels.normalize(new float[]{1f, 1f, 1f, 1f});
+        assertEquals(1f, store.similarity(query, QuantizedEmbeddingStore.componentSum(query), 0), 1e-5f);
+    }
+
+    /**
+     * Tests that removing a project keeps the remaining rows dense, including removal through an empty embedding.
+     */
+    @Test
+    public void testPutAllAndRemove() {
+        QuantizedEmbeddingStore store = new QuantizedEmbeddingStore();
+        HashMap<Integer, float[]> embeddings = new HashMap<>();
+        embeddings.put(1, new float[]{1f, 0f});
+        embeddings.put(2, new float[]{0f, 1f});
+        embeddings.put(3, new float[]{1f, 1f});
+        store.putAll(embeddings);
+        assertEquals(3, store.size());
+
+        store.remove(1);
+        store.put(3, new float[]{1f, 1f});
+        store.put(4, new float[0]);
+        assertEquals(2, store.size());
+        float[] query = {0f, 1f};
+        for (int slot = 0; slot < store.size(); slot++) {
+            float expected = store.idAt(slot) == 2 ? 1f : (float) Math.sqrt(0.5);
+            assertEquals(expected, store.similarity(query, 1f, slot), 0.01f);
+        }
+
+        store.put(2, new float[0]);
+        store.remove(3);
+        assertEquals(-1, store.getDimension());
+    }
+
+    private static float[] randomVector(Random random, int length) {
+        float[] vector = new float[length];
+        for (int i = 0; i < length; i++) {
+            vector[i] = (float) random.nextGaussian();
+        }
+        return vector;
+    }
+}
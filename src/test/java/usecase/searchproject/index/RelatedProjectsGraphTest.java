@@ -0,0 +1,72 @@
+package usecase.searchproject.index;
+
+import org.junit.jupiter.api.Test;
+import usecase.searchforproject.index.RelatedProjectsGraph;
+import usecase.searchforproject.index.SearchHits;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the RelatedProjectsGraph class.
+ */
+public class RelatedProjectsGraphTest {
+
+    /**
+     * Tests that a list keeps the best k hits, best first, with similarities rounded to 16 bits.
+     */
+    @Test
+    public void testKeepsBestNeighborsQuantized() {
+        RelatedProjectsGraph graph = new RelatedProjectsGraph(2);
+        graph.setNeighbors(1, new SearchHits(new int[]{4, 2, 3}, new float[]{0.5f, 0.9f, 0.1f}));
+
+        SearchHits neighbors = graph.getNeighbors(1);
+        assertArrayEquals(new int[]{2, 4}, neighbors.ids());
+        assertArrayEquals(new float[]{0.9f, 0.5f}, neighbors.scores(), 1f / Short.MAX_VALUE);
+        assertEquals(SearchHits.EMPTY, graph.getNeighbors(7));
+        assertEquals(1, graph.size());
+    }
+
+    /**
+     * Tests that an offer enters a list if it ranks high enough, moves an entry that is already in it, and only
+     * asks for a recompute when a full list may now miss a better project.
+     */
+    @Test
+    public void testOfferUpdatesListAndReportsStaleLists() {
+        RelatedProjectsGraph graph = new RelatedProjectsGraph(2);
+        graph.setNeighbors(1, new SearchHits(new int[]{2, 3}, new float[]{0.9f, 0.5f}));
+
+        assertFalse(graph.offer(1, 4, 0.7f));
+        assertArrayEquals(new int[]{2, 4}, graph.getNeighbors(1).ids());
+        assertFalse(graph.offer(1, 3, 0.1f));
+        assertArrayEquals(new int[]{2, 4}, graph.getNeighbors(1).ids());
+        assertFalse(graph.offer(1, 4, 0.95f));
+        assertArrayEquals(new int[]{4, 2}, graph.getNeighbors(1).ids());
+        assertTrue(graph.offer(1, 4, 0.2f));
+        assertFalse(graph.offer(1, 1, 1f));
+        assertFalse(graph.offer(9, 1, 1f));
+    }
+
+    /**
+     * Tests that removing a project drops its list and reports the full lists it leaves, and that slots are reused.
+     */
+    @Test
+    public void testRemoveReportsListsThatLostANeighbor() {
+        RelatedProjectsGraph graph = new RelatedProjectsGraph(2);
+        graph.setNeighbors(1, new SearchHits(new int[]{2, 3}, new float[]{0.9f, 0.5f}));
+        graph.setNeighbors(2, new SearchHits(new int[]{1, 3}, new float[]{0.9f, 0.4f}));
+        graph.setNeighbors(3, new SearchHits(new int[]{2}, new float[]{0.4f}));
+
+        assertTrue(graph.remove(2));
+        assertFalse(graph.contains(2));
+        assertArrayEquals(new int[]{1}, graph.removeNeighbor(2));
+        assertArrayEquals(new int[]{3}, graph.getNeighbors(1).ids());
+        assertEquals(0, graph.getNeighbors(3).size());
+
+        for (int id = 10; id < 50; id++) {
+            graph.setNeighbors(id, new SearchHits(new int[]{1}, new float[]{id / 100f}));
+        }
+        assertEquals(42, graph.size());
+        assertArrayEquals(new int[]{3}, graph.getNeighbors(1).ids());
+        assertEquals(0.49f, graph.getNeighbors(49).scores()[0], 1f / Short.MAX_VALUE);
+    }
+}
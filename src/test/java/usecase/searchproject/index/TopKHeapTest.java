@@ -0,0 +1,90 @@
+package usecase.searchproject.index;
+
+import org.junit.jupiter.api.Test;
+import usecase.searchforproject.index.SearchHits;
+import usecase.searchforproject.index.TopKHeap;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the TopKHeap class.
+ */
+public class TopKHeapTest {
+
+    /**
+     * Tests that the heap keeps the k best scores of a random stream, best first.
+     */
+    @Test
+    public void testKeepsBestScoresInOrder() {
+        Random random = new Random(3);
+        float[] scores = new float[1000];
+        TopKHeap heap = new TopKHeap(10);
+        for (int id = 0; id < scores.length; id++) {
+            scores[id] = random.nextFloat() * 2 - 1;
+            heap.offer(id, scores[id]);
+        }
+        Integer[] order = new Integer[scores.length];
+        for (int i = 0; i < order.length; i++) {
+            order[i] = i;
+        }
+        Arrays.sort(order, Comparator.comparingDouble(id -> -scores[id]));
+
+        SearchHits hits = heap.drainSorted(0);
+        assertEquals(10, hits.size());
+        for (int i = 0; i < 10; i++) {
+            assertEquals((int) order[i], hits.ids()[i]);
+            assertEquals(scores[order[i]], hits.scores()[i]);
+        }
+        assertEquals(0, heap.size());
+    }
+
+    /**
+     * Tests that equal scores are ranked by ascending project id.
+     */
+    @Test
+    public void testTiesRankLowerIdFirst() {
+        TopKHeap heap = new TopKHeap(3);
+        for (int id : new int[]{9, 4, 7, 1, 5}) {
+            heap.offer(id, 0.5f);
+        }
+        assertArrayEquals(new int[]{1, 4, 5}, heap.drainSorted(0).ids());
+    }
+
+    /**
+     * Tests that the offset skips the best entries and an offset past the end gives no hits.
+     */
+    @Test
+    public void testOffset() {
+        TopKHeap heap = new TopKHeap(4);
+        for (int id = 0; id < 6; id++) {
+            heap.offer(id, id);
+        }
+        assertArrayEquals(new int[]{3, 2}, heap.drainSorted(2).ids());
+
+        heap.reset(4);
+        heap.offer(1, 1f);
+        assertEquals(0, heap.drainSorted(1).size());
+    }
+
+    /**
+     * Tests that the per-thread heap is reused and reset between queries.
+     */
+    @Test
+    public void testThreadHeapIsReused() {
+        TopKHeap first = TopKHeap.forCurrentThread(2);
+        first.offer(1, 1f);
+        first.offer(2, 2f);
+        assertTrue(first.isFull());
+        assertEquals(1f, first.worstScore());
+
+        TopKHeap second = TopKHeap.forCurrentThread(100);
+        assertSame(first, second);
+        assertEquals(0, second.size());
+        assertFalse(second.isFull());
+        assertEquals(Float.NEGATIVE_INFINITY, second.worstScore());
+    }
+}
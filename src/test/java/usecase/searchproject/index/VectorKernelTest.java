@@ -0,0 +1,139 @@
+package usecase.searchproject.index;
+
+import org.junit.jupiter.api.Test;
+import usecase.searchforproject.index.ScalarVectorKernel;
+import usecase.searchforproject.index.SimdVectorKernel;
+import usecase.searchforproject.index.VectorKernel;
+import usecase.searchforproject.index.VectorKernels;
+
+import java.lang.foreign.Arena;
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.ValueLayout;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the VectorKernel implementations and VectorKernels helpers.
+ */
+public class VectorKernelTest {
+
+    /**
+     * Tests that the scalar and SIMD kernels agree with a double-precision reference, including lengths that are
+     * not a multiple of the SIMD width and non-zero offsets.
+     */
+    @Test
+    public void testKernelsMatchReference() {
+        Random random = new Random(3);
+        VectorKernel[] kernels = {new ScalarVectorKernel(), new SimdVectorKernel()};
+        for (int length : new int[]{0, 1, 3, 7, 16, 33, 1536}) {
+            float[] a = randomVector(random, length + 5);
+            float[] b = randomVector(random, length + 9);
+            double expected = 0;
+            for (int i = 0; i < length; i++) {
+                expected += (double) a[2 + i] * b[4 + i];
+            }
+            for (VectorKernel kernel : kernels) {
+                assertEquals(expected, kernel.dot(a, 2, b, 4, length), 1e-3, kernel.getClass().getSimpleName());
+            }
+        }
+    }
+
+    /**
+     * Tests that the int8 dot product of both kernels agrees with a reference, including the full code range.
+     */
+    @Test
+    public void testQuantizedDotMatchesReference() {
+        Random random = new Random(4);
+        VectorKernel[] kernels = {new ScalarVectorKernel(), new SimdVectorKernel()};
+        for (int length : new int[]{0, 1, 5, 16, 31, 64, 1536}) {
+            float[] a = randomVector(random, length);
+            byte[] codes = new byte[length + 3];
+            random.nextBytes(codes);
+            double expected = 0;
+            for (int i = 0; i < length; i++) {
+                expected += (double) a[i] * codes[3 + i];
+            }
+            for (VectorKernel kernel : kernels) {
+                assertEquals(expected, kernel.dot(a, codes, 3, length), 1e-1, kernel.getClass().getSimpleName());
+            }
+        }
+    }
+
+    /**
+     * Tests that reading the second operand from native memory gives the same result as from an array.
+     */
+    @Test
+    public void testMemorySegmentDotMatchesArrayDot() {
+        Random random = new Random(5);
+        VectorKernel[] kernels = {new ScalarVectorKernel(), new SimdVectorKernel()};
+        for (int length : new int[]{0, 1, 7, 16, 33, 1536}) {
+            float[] a = randomVector(random, length);
+            float[] b = randomVector(random, length + 2);
+            MemorySegment segment = Arena.ofAuto().allocate((long) b.length * Float.BYTES, 64);
+            MemorySegment.copy(b, 0, segment, ValueLayout.JAVA_FLOAT, 0, b.length);
+            for (VectorKernel kernel : kernels) {
+                assertEquals(kernel.dot(a, 0, b, 2, length), kernel.dot(a, segment, 2L * Float.BYTES, length), 1e-3,
+                        kernel.getClass().getSimpleName());
+            }
+        }
+    }
+
+    /**
+     * Tests that the whole-array overload uses the full length.
+     */
+    @Test
+    public void testWholeArrayDot() {
+        float[] a = {1f, 2f, 3f};
+        float[] b = {4f, 5f, 6f};
+        assertEquals(32f, new ScalarVectorKernel().dot(a, b), 1e-6f);
+        assertEquals(32f, VectorKernels.getDefault().dot(a, b), 1e-6f);
+    }
+
+    /**
+     * Tests that the four dot products of a block are exactly the single dot products, so batch and single searches
+     * rank ties alike.
+     */
+    @Test
+    public void testDot4MatchesSingleDots() {
+        Random random = new Random(6);
+        VectorKernel[] kernels = {new ScalarVectorKernel(), new SimdVectorKernel()};
+        for (int length : new int[]{0, 1, 7, 16, 33, 1536}) {
+            float[][] a = new float[4][];
+            for (int q = 0; q < a.length; q++) {
+                a[q] = randomVector(random, length);
+            }
+            float[] b = randomVector(random, length + 2);
+            MemorySegment segment = Arena.ofAuto().allocate((long) b.length * Float.BYTES, 64);
+            MemorySegment.copy(b, 0, segment, ValueLayout.JAVA_FLOAT, 0, b.length);
+            for (VectorKernel kernel : kernels) {
+                float[] result = new float[4];
+                kernel.dot4(a[0], a[1], a[2], a[3], segment, 2L * Float.BYTES, length, result);
+                for (int q = 0; q < a.length; q++) {
+                    assertEquals(kernel.dot(a[q], segment, 2L * Float.BYTES, length), result[q], 0f,
+                            kernel.getClass().getSimpleName());
+                }
+            }
+        }
+    }
+
+    /**
+     * Tests that normalize returns a unit-length copy and leaves zero vectors alone.
+     */
+    @Test
+    public void testNormalize() {
+        float[] vector = {3f, 4f};
+        float[] normalized = VectorKernels.normalize(vector);
+        assertArrayEquals(new float[]{0.6f, 0.8f}, normalized, 1e-6f);
+        assertArrayEquals(new float[]{3f, 4f}, vector, 0f);
+        assertArrayEquals(new float[]{0f, 0f}, VectorKernels.normalize(new float[]{0f, 0f}), 0f);
+    }
+
+    private static float[] randomVector(Random random, int length) {
+        float[] vector = new float[length];
+        for (int i = 0; i < length; i++) {
+            vector[i] = (float) random.nextGaussian();
+        }
+        return vector;
+    }
+}